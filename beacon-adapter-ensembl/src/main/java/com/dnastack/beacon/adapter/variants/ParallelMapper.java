@@ -0,0 +1,158 @@
+package com.dnastack.beacon.adapter.variants;
+
+import com.dnastack.beacon.adapter.variants.VariantsBeaconAdapter.FunctionThrowingAlleleRequestException;
+import com.dnastack.beacon.adapter.variants.VariantsBeaconAdapter.PredicateThrowingAlleleRequestException;
+import com.dnastack.beacon.exceptions.BeaconAlleleRequestException;
+import com.dnastack.beacon.utils.Reason;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Works the same way as the sequential {@code map} of {@link VariantsBeaconAdapter}, but applies the mapper to the
+ * items concurrently on a bounded thread pool. The results are returned in the order of the input list.
+ * <p>
+ * The first {@link BeaconAlleleRequestException} thrown by any of the tasks cancels the remaining ones and is rethrown
+ * to the caller as is. Cancelled tasks are interrupted.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class ParallelMapper {
+
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    public ParallelMapper(int parallelism, String threadNamePrefix) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive, got " + parallelism);
+        }
+
+        this.parallelism = parallelism;
+        this.executor = Executors.newFixedThreadPool(parallelism,
+                new ThreadFactoryBuilder().setDaemon(true)
+                        .setNameFormat(threadNamePrefix + "-%d")
+                        .build());
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public <T, R> List<R> map(List<T> list, FunctionThrowingAlleleRequestException<? super T, ? extends R> mapper) throws BeaconAlleleRequestException {
+        if (parallelism == 1 || list.size() <= 1) {
+            return mapSequentially(list, mapper);
+        }
+
+        CompletionService<R> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<R>> futures = new ArrayList<>(list.size());
+
+        try {
+            for (T item : list) {
+                futures.add(completionService.submit(() -> mapper.apply(item)));
+            }
+
+            // Wait in completion order, so that the first failure is noticed as soon as it happens.
+            for (int i = 0; i < futures.size(); i++) {
+                completionService.take().get();
+            }
+
+            List<R> result = new ArrayList<>(list.size());
+            for (Future<R> future : futures) {
+                result.add(future.get());
+            }
+            return result;
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Tests the items concurrently and returns as soon as any of them matches, cancelling the remaining tests. If a test
+     * fails before a match has been found, the failure is rethrown.
+     */
+    public <T> boolean anyMatch(List<T> list, PredicateThrowingAlleleRequestException<? super T> predicate) throws BeaconAlleleRequestException {
+        if (parallelism == 1 || list.size() <= 1) {
+            for (T item : list) {
+                if (predicate.test(item)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Boolean>> futures = new ArrayList<>(list.size());
+
+        try {
+            for (T item : list) {
+                futures.add(completionService.submit(() -> predicate.test(item)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                if (completionService.take().get()) {
+                    cancelAll(futures);
+                    return true;
+                }
+            }
+            return false;
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw rethrow(e);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T, R> List<R> mapSequentially(List<T> list, FunctionThrowingAlleleRequestException<? super T, ? extends R> mapper) throws BeaconAlleleRequestException {
+        List<R> result = new ArrayList<>(list.size());
+
+        for (T item : list) {
+            result.add(mapper.apply(item));
+        }
+
+        return result;
+    }
+
+    private void cancelAll(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private BeaconAlleleRequestException rethrow(Throwable cause) {
+        if (cause instanceof BeaconAlleleRequestException) {
+            return (BeaconAlleleRequestException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+
+        BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(
+                "Couldn't complete parallel request.",
+                Reason.CONN_ERR,
+                null);
+        alleleRequestException.initCause(cause);
+        return alleleRequestException;
+    }
+}
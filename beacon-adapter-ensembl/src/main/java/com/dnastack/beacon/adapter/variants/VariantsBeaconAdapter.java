@@ -1,15 +1,32 @@
 package com.dnastack.beacon.adapter.variants;
 
 import com.dnastack.beacon.adapter.api.BeaconAdapter;
+import com.dnastack.beacon.adapter.variants.assembly.AssemblyNormalizer;
+import com.dnastack.beacon.adapter.variants.assembly.CanonicalAssembly;
+import com.dnastack.beacon.adapter.variants.batch.AlleleRequestWindow;
+import com.dnastack.beacon.adapter.variants.catalog.CatalogVariantSet;
+import com.dnastack.beacon.adapter.variants.catalog.DatasetCatalog;
+import com.dnastack.beacon.adapter.variants.catalog.DatasetCatalogHolder;
+import com.dnastack.beacon.adapter.variants.catalog.Ga4ghCatalogLoader;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.CallSetReferences;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.CallSetResolver;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.CompletableFutures;
 import com.dnastack.beacon.adapter.variants.client.ga4gh.Ga4ghClient;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.VariantRegion;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.cache.GuavaMetadataCache;
 import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.Ga4ghClientException;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.UncheckedGa4ghClientException;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.retro.HttpPoolStats;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.retro.HttpTransportConfig;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.retro.HttpTransports;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.retro.RequestTraceStats;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.retro.RequestTracer;
+import com.dnastack.beacon.adapter.variants.stats.DatasetStatistics;
 import com.dnastack.beacon.exceptions.BeaconAlleleRequestException;
 import com.dnastack.beacon.exceptions.BeaconException;
 import com.dnastack.beacon.utils.AdapterConfig;
 import com.dnastack.beacon.utils.ConfigValue;
 import com.dnastack.beacon.utils.Reason;
-import com.google.common.collect.ImmutableSet;
-import com.google.protobuf.ListValue;
 import ga4gh.Metadata;
 import ga4gh.References;
 import ga4gh.Variants;
@@ -18,9 +35,13 @@ import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.ga4gh.beacon.*;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.Dependent;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Andrey Mochalov (mochalovandrey@gmail.com)
@@ -28,13 +49,66 @@ import java.util.stream.Collectors;
 @Dependent
 public class VariantsBeaconAdapter implements BeaconAdapter {
 
-    private static final Set<Set<String>> ASSEMBLY_ALIASES = ImmutableSet.of(ImmutableSet.of("grch38", "hg38", "hg20"),
-            ImmutableSet.of("grch37", "hg37", "hg19"),
-            ImmutableSet.of("ncbi36", "hg18"),
-            ImmutableSet.of("ncbi35", "hg17"),
-            ImmutableSet.of("ncbi34", "hg16"));
+    /**
+     * Number of datasets queried concurrently by a single allele request, unless configured by "datasetParallelism".
+     */
+    private static final int DEFAULT_DATASET_PARALLELISM = 8;
+
+    /**
+     * Maximum number of call set requests in flight, unless configured by "callSetConcurrency".
+     */
+    private static final int DEFAULT_CALL_SET_CONCURRENCY = 16;
+
+    /**
+     * Minimal number of distinct call sets of one variant set that are fetched by a bulk search instead of one by one,
+     * unless configured by "callSetBulkThreshold".
+     */
+    private static final int DEFAULT_CALL_SET_BULK_THRESHOLD = 16;
+
+    /**
+     * Maximum number of cached reference sets and call sets each, unless configured by "metadataCacheSize".
+     */
+    private static final long DEFAULT_METADATA_CACHE_SIZE = 10_000;
+
+    /**
+     * Time to live of cached reference sets and call sets, unless configured by "metadataCacheTtlSeconds".
+     */
+    private static final long DEFAULT_METADATA_CACHE_TTL_SECONDS = 3600;
+
+    /**
+     * Interval between background refreshes of the dataset catalog, unless configured by "catalogRefreshSeconds".
+     */
+    private static final long DEFAULT_CATALOG_REFRESH_SECONDS = 300;
+
+    /**
+     * Maximum distance in bases between the start positions of batched allele requests answered by one range search,
+     * unless configured by "batchWindowLength".
+     */
+    private static final long DEFAULT_BATCH_WINDOW_LENGTH = 10_000;
+
+    /**
+     * Error code of the response to an incomplete request of a batch.
+     */
+    private static final int INVALID_REQUEST_ERROR_CODE = 400;
+
+    /**
+     * Error code of the responses to the requests of a batch window whose search failed.
+     */
+    private static final int WINDOW_SEARCH_ERROR_CODE = 502;
+
+    /**
+     * Length in bases of the windows a region query is split into and searched concurrently, unless configured by
+     * "regionWindowLength".
+     */
+    private static final long DEFAULT_REGION_WINDOW_LENGTH = 100_000;
 
     private Ga4ghClient ga4ghClient;
+    private ParallelMapper datasetMapper;
+    private CallSetResolver callSetResolver;
+    private DatasetCatalogHolder catalogHolder;
+    private AssemblyNormalizer assemblyNormalizer;
+    private long batchWindowLength = DEFAULT_BATCH_WINDOW_LENGTH;
+    private long regionWindowLength = DEFAULT_REGION_WINDOW_LENGTH;
 
     /**
      * Copy of the the Java 8 function, but can throw {@link BeaconAlleleRequestException}.
@@ -54,95 +128,118 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
         boolean test(T t) throws BeaconAlleleRequestException;
     }
 
-    private static boolean containsCaseInsensitive(Collection<String> container, String element) {
-        return container.stream().anyMatch(s -> s.equalsIgnoreCase(element));
-    }
-
     private BeaconDatasetAlleleResponse getDatasetResponse(String referenceName, long start, String referenceBases, String alternateBases, String assemblyId, String datasetId) throws BeaconAlleleRequestException {
-        List<Variants.VariantSet> variantSets = getVariantSetsToSearch(datasetId, assemblyId);
-
-        List<Variants.Variant> variants = map(variantSets,
-                variantSet -> loadVariants(variantSet.getId(), referenceName, start))
-                .stream()
-                .flatMap(Collection::stream)
-                .filter(variant -> basesMatchVariant(variant,
-                        referenceBases,
-                        alternateBases))
-                .collect(Collectors.toList());
+        DatasetStatistics statistics = new DatasetStatistics(alternateBases);
+        for (String variantSetId : getVariantSetIdsToSearch(datasetId, assemblyId)) {
+            addMatchingVariants(statistics, variantSetId, referenceName, start, referenceBases);
+        }
 
-        Double frequency = calculateFrequency(alternateBases, variants);
-        Long sampleCount = countSamples(variants);
-        Long callsCount = variants.stream().mapToLong(Variants.Variant::getCallsCount).sum();
-        long variantCount = variants.size();
-        boolean exists = CollectionUtils.isNotEmpty(variants);
-
-        return BeaconDatasetAlleleResponse.newBuilder()
-                .setDatasetId(datasetId)
-                .setFrequency(frequency)
-                .setCallCount(callsCount)
-                .setVariantCount(variantCount)
-                .setSampleCount(sampleCount)
-                .setExists(exists)
-                .build();
+        return statistics.toResponse(datasetId, resolveCallSets(statistics.getCallSetReferences()));
     }
 
-    private Long countSamples(List<Variants.Variant> variants) throws BeaconAlleleRequestException {
-        List<String> callSetIds = variants.stream()
-                .flatMap(variant -> variant.getCallsList().stream())
-                .map(Variants.Call::getCallSetId)
-                .collect(Collectors.toList());
+    private CompletableFuture<BeaconDatasetAlleleResponse> getDatasetResponseAsync(String referenceName, long start, String referenceBases, String alternateBases, String assemblyId, String datasetId) {
+        CompletableFuture<List<List<Variants.Variant>>> variantsPerVariantSet = CompletableFutures.thenCompose(
+                getVariantSetIdsToSearchAsync(datasetId, assemblyId),
+                variantSetIds -> CompletableFutures.allAsList(variantSetIds.stream()
+                        .map(variantSetId -> loadVariantsAsync(variantSetId, referenceName, start))
+                        .collect(Collectors.toList())));
+
+        return CompletableFutures.thenCompose(variantsPerVariantSet, variantsOfVariantSets -> {
+            DatasetStatistics statistics = new DatasetStatistics(alternateBases);
+            for (List<Variants.Variant> variants : variantsOfVariantSets) {
+                for (Variants.Variant variant : variants) {
+                    if (basesMatchVariant(variant, referenceBases, alternateBases)) {
+                        statistics.add(variant);
+                    }
+                }
+            }
 
-        List<Variants.CallSet> callSets = new ArrayList<>();
+            return CompletableFutures.thenApply(resolveCallSetsAsync(statistics.getCallSetReferences()),
+                    callSets -> statistics.toResponse(datasetId, callSets));
+        });
+    }
 
-        for (String callSetId : callSetIds) {
-            callSets.add(loadCallSet(callSetId));
+    /**
+     * Exists-only counterpart of {@link #getDatasetResponse}: stops at the first matching variant, without counting
+     * anything or resolving call sets.
+     */
+    private boolean datasetContainsVariant(String referenceName, long start, String referenceBases, String alternateBases, String assemblyId, String datasetId) throws BeaconAlleleRequestException {
+        for (String variantSetId : getVariantSetIdsToSearch(datasetId, assemblyId)) {
+            try (Stream<Variants.Variant> variants = ga4ghClient.streamVariants(variantSetId, referenceName, start)) {
+                if (variants.anyMatch(variant -> basesMatchVariant(variant, referenceBases, alternateBases))) {
+                    return true;
+                }
+            } catch (UncheckedGa4ghClientException e) {
+                BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(String.format(
+                        "Couldn't load variants of variant set with id %s.",
+                        variantSetId), Reason.CONN_ERR, null);
+                alleleRequestException.initCause(e.getCause());
+                throw alleleRequestException;
+            }
         }
-
-        return callSets.stream().map(Variants.CallSet::getBiosampleId).distinct().count();
+        return false;
     }
 
-    private Double calculateFrequency(String alternateBases, List<Variants.Variant> variants) {
-        Long matchingGenotypesCount = variants.stream()
-                .mapToLong(variant -> calculateMatchingGenotypesCount(variant,
-                        alternateBases))
-                .sum();
+    /**
+     * Same as {@link #datasetContainsVariant}, but asynchronous. The variant sets are searched concurrently and the
+     * searches still in flight are cancelled once a matching variant is found.
+     */
+    private CompletableFuture<Boolean> datasetContainsVariantAsync(String referenceName, long start, String referenceBases, String alternateBases, String assemblyId, String datasetId) {
+        return CompletableFutures.thenCompose(getVariantSetIdsToSearchAsync(datasetId, assemblyId),
+                variantSetIds -> CompletableFutures.anyMatch(variantSetIds.stream()
+                        .map(variantSetId -> CompletableFutures.thenApply(loadVariantsAsync(variantSetId,
+                                referenceName,
+                                start), variants -> variants.stream()
+                                .anyMatch(variant -> basesMatchVariant(variant, referenceBases, alternateBases))))
+                        .collect(Collectors.toList())));
+    }
 
-        Long totalGenotypesCount = variants.stream()
-                .flatMap(variant -> variant.getCallsList().stream())
-                .map(Variants.Call::getGenotype)
-                .mapToLong(ListValue::getValuesCount)
-                .sum();
+    /**
+     * Takes the variant sets from the dataset catalog if it knows the dataset, otherwise asks the Ga4gh server.
+     */
+    private List<String> getVariantSetIdsToSearch(String datasetId, String assemblyId) throws BeaconAlleleRequestException {
+        DatasetCatalog catalog = getCatalog();
+        if (catalog != null && catalog.containsDataset(datasetId)) {
+            CanonicalAssembly requestedAssembly = assemblyNormalizer.normalize(assemblyId);
+
+            return catalog.getVariantSets(datasetId)
+                    .stream()
+                    .filter(variantSet -> requestedAssembly != null
+                            && requestedAssembly.equals(variantSet.getCanonicalAssembly()))
+                    .map(CatalogVariantSet::getId)
+                    .collect(Collectors.toList());
+        }
 
-        return (totalGenotypesCount == 0) ? null : ((double) matchingGenotypesCount / totalGenotypesCount);
+        List<Variants.VariantSet> variantSets = loadVariantSets(datasetId);
+        filter(variantSets, variantSet -> referencesetMatchesVariantset(variantSet, assemblyId));
+        return variantSets.stream().map(Variants.VariantSet::getId).collect(Collectors.toList());
     }
 
-    private long calculateMatchingGenotypesCount(Variants.Variant variant, String alternateBases) {
-        int requestedGenotype = variant.getAlternateBasesList().indexOf(alternateBases) + 1;
+    private CompletableFuture<List<String>> getVariantSetIdsToSearchAsync(String datasetId, String assemblyId) {
+        DatasetCatalog catalog = getCatalog();
+        if (catalog != null && catalog.containsDataset(datasetId)) {
+            try {
+                return CompletableFuture.completedFuture(getVariantSetIdsToSearch(datasetId, assemblyId));
+            } catch (BeaconAlleleRequestException e) {
+                return CompletableFutures.failedFuture(e);
+            }
+        }
 
-        return variant.getCallsList()
-                .stream()
-                .map(Variants.Call::getGenotype)
-                .flatMap(listValue -> listValue.getValuesList().stream())
-                .filter(genotype -> genotype.getNumberValue() == (double) requestedGenotype)
-                .count();
-    }
+        CompletableFuture<List<String>> matchingVariantSetIds = CompletableFutures.thenCompose(loadVariantSetsAsync(datasetId),
+                variantSets -> CompletableFutures.allAsList(variantSets.stream()
+                        .map(variantSet -> CompletableFutures.thenApply(loadReferenceSetAsync(variantSet.getReferenceSetId()),
+                                referenceSet -> assemblyNormalizer.sameAssembly(assemblyId, referenceSet.getAssemblyId())
+                                        ? variantSet.getId()
+                                        : null))
+                        .collect(Collectors.toList())));
 
-    private List<Variants.VariantSet> getVariantSetsToSearch(String datasetId, String assemblyId) throws BeaconAlleleRequestException {
-        List<Variants.VariantSet> variantSets = loadVariantSets(datasetId);
-        filter(variantSets, variantSet -> referencesetMatchesVariantset(variantSet, assemblyId));
-        return variantSets;
+        return CompletableFutures.thenApply(matchingVariantSetIds,
+                variantSetIds -> variantSetIds.stream().filter(Objects::nonNull).collect(Collectors.toList()));
     }
 
     private boolean referencesetMatchesVariantset(Variants.VariantSet variantSet, String assemblyId) throws BeaconAlleleRequestException {
         References.ReferenceSet referenceSet = loadReferenceSet(variantSet.getReferenceSetId());
-
-        Optional<Set<String>> assemblySynonyms = ASSEMBLY_ALIASES.stream()
-                .filter(bag -> containsCaseInsensitive(bag,
-                        assemblyId))
-                .findAny();
-
-        return assemblySynonyms.isPresent() ? containsCaseInsensitive(assemblySynonyms.get(),
-                referenceSet.getAssemblyId()) : false;
+        return assemblyNormalizer.sameAssembly(assemblyId, referenceSet.getAssemblyId());
     }
 
     private boolean basesMatchVariant(Variants.Variant variant, String referenceBases, String alternateBases) {
@@ -151,7 +248,31 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
     }
 
     private List<String> getDatasetIdsToSearch(List<String> requestedDatasetIds) throws BeaconAlleleRequestException {
-        return CollectionUtils.isNotEmpty(requestedDatasetIds) ? requestedDatasetIds : loadAllDatasetIds();
+        if (CollectionUtils.isNotEmpty(requestedDatasetIds)) {
+            return requestedDatasetIds;
+        }
+
+        DatasetCatalog catalog = getCatalog();
+        return catalog != null ? catalog.getDatasetIds() : loadAllDatasetIds();
+    }
+
+    private CompletableFuture<List<String>> getDatasetIdsToSearchAsync(List<String> requestedDatasetIds) {
+        if (CollectionUtils.isNotEmpty(requestedDatasetIds)) {
+            return CompletableFuture.completedFuture(requestedDatasetIds);
+        }
+
+        DatasetCatalog catalog = getCatalog();
+        if (catalog != null) {
+            return CompletableFuture.completedFuture(catalog.getDatasetIds());
+        }
+
+        return CompletableFutures.thenApply(toAlleleRequestFailure(ga4ghClient.searchDatasetsAsync(),
+                "Couldn't load all datasets."),
+                datasets -> datasets.stream().map(Metadata.Dataset::getId).collect(Collectors.toList()));
+    }
+
+    private DatasetCatalog getCatalog() {
+        return catalogHolder != null ? catalogHolder.get() : null;
     }
 
     private List<String> loadAllDatasetIds() throws BeaconAlleleRequestException {
@@ -171,15 +292,20 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
         }
     }
 
-    private List<Variants.Variant> loadVariants(String variantSetId, String referenceName, long start) throws BeaconAlleleRequestException {
-        try {
-            return ga4ghClient.searchVariants(variantSetId, referenceName, start);
-        } catch (Ga4ghClientException e) {
-            BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(
-                    "Couldn't load reference set with id %s.",
-                    Reason.CONN_ERR,
-                    null);
-            alleleRequestException.initCause(e);
+    /**
+     * Streams the variants page by page and adds the ones matching the requested bases to the statistics, so that no
+     * variants of a wide region are held in memory beyond the current page.
+     */
+    private void addMatchingVariants(DatasetStatistics statistics, String variantSetId, String referenceName, long start, String referenceBases) throws BeaconAlleleRequestException {
+        String alternateBases = statistics.getAlternateBases();
+        try (Stream<Variants.Variant> variants = ga4ghClient.streamVariants(variantSetId, referenceName, start)) {
+            variants.filter(variant -> basesMatchVariant(variant, referenceBases, alternateBases))
+                    .forEach(statistics::add);
+        } catch (UncheckedGa4ghClientException e) {
+            BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(String.format(
+                    "Couldn't load variants of variant set with id %s.",
+                    variantSetId), Reason.CONN_ERR, null);
+            alleleRequestException.initCause(e.getCause());
             throw alleleRequestException;
         }
     }
@@ -209,12 +335,12 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
         }
     }
 
-    private Variants.CallSet loadCallSet(String callSetId) throws BeaconAlleleRequestException {
+    private Map<String, Variants.CallSet> resolveCallSets(CallSetReferences references) throws BeaconAlleleRequestException {
         try {
-            return ga4ghClient.loadCallSet(callSetId);
+            return callSetResolver.resolve(references);
         } catch (Ga4ghClientException e) {
             BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(
-                    "Couldn't load call set with id %s.",
+                    "Couldn't load call sets.",
                     Reason.CONN_ERR,
                     null);
             alleleRequestException.initCause(e);
@@ -222,6 +348,53 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
         }
     }
 
+    private CompletableFuture<List<Variants.Variant>> loadVariantsAsync(String variantSetId, String referenceName, long start) {
+        return toAlleleRequestFailure(ga4ghClient.searchVariantsAsync(variantSetId, referenceName, start),
+                String.format("Couldn't load variants of variant set with id %s.", variantSetId));
+    }
+
+    private CompletableFuture<List<Variants.VariantSet>> loadVariantSetsAsync(String datasetId) {
+        return toAlleleRequestFailure(ga4ghClient.searchVariantSetsAsync(datasetId),
+                String.format("Couldn't load all variant sets for dataset id %s.", datasetId));
+    }
+
+    private CompletableFuture<References.ReferenceSet> loadReferenceSetAsync(String referenceSetId) {
+        return toAlleleRequestFailure(ga4ghClient.loadReferenceSetAsync(referenceSetId),
+                String.format("Couldn't load reference set with id %s.", referenceSetId));
+    }
+
+    private CompletableFuture<Map<String, Variants.CallSet>> resolveCallSetsAsync(CallSetReferences references) {
+        return toAlleleRequestFailure(callSetResolver.resolveAsync(references), "Couldn't load call sets.");
+    }
+
+    /**
+     * Makes the future fail with {@link BeaconAlleleRequestException} instead of {@link Ga4ghClientException}, the same
+     * way the blocking methods translate the client errors. Cancelling the returned future cancels the given one.
+     */
+    private <T> CompletableFuture<T> toAlleleRequestFailure(CompletableFuture<T> future, String message) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+
+            Throwable cause = CompletableFutures.unwrap(error);
+            if (cause instanceof BeaconAlleleRequestException) {
+                result.completeExceptionally(cause);
+            } else {
+                BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(message,
+                        Reason.CONN_ERR,
+                        null);
+                alleleRequestException.initCause(cause);
+                result.completeExceptionally(alleleRequestException);
+            }
+        });
+
+        return CompletableFutures.propagateCancellation(result, future);
+    }
+
     /**
      * Works the same way as the Java 8 filter API map method, but can throw {@link BeaconAlleleRequestException}.
      */
@@ -243,32 +416,170 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
         }
     }
 
-    /**
-     * Works the same way as the Java 8 stream API map method, but can throw {@link BeaconAlleleRequestException}.
-     */
-    private <T, R> List<R> map(List<T> list, FunctionThrowingAlleleRequestException<? super T, ? extends R> mapper) throws BeaconAlleleRequestException {
-        List<R> result = new ArrayList<>();
-
-        for (T item : list) {
-            R mapped = mapper.apply(item);
-            result.add(mapped);
-        }
-
-        return result;
-    }
-
     @Override
     public void initAdapter(AdapterConfig adapterConfig) {
         String url = null;
+        int datasetParallelism = DEFAULT_DATASET_PARALLELISM;
+        int callSetConcurrency = DEFAULT_CALL_SET_CONCURRENCY;
+        int callSetBulkThreshold = DEFAULT_CALL_SET_BULK_THRESHOLD;
+        long metadataCacheSize = DEFAULT_METADATA_CACHE_SIZE;
+        long metadataCacheTtlSeconds = DEFAULT_METADATA_CACHE_TTL_SECONDS;
+        long catalogRefreshSeconds = DEFAULT_CATALOG_REFRESH_SECONDS;
+        long batchWindowLength = DEFAULT_BATCH_WINDOW_LENGTH;
+        long regionWindowLength = DEFAULT_REGION_WINDOW_LENGTH;
+        String assemblyAliases = null;
+        boolean acceptProtobuf = false;
+        HttpTransportConfig.HttpTransportConfigBuilder transportConfig = HttpTransportConfig.builder();
+        double traceBodySampleRate = 0;
+        boolean traceBodies = false;
         List<ConfigValue> configValues = adapterConfig.getConfigValues();
 
         for (ConfigValue configValue : configValues) {
             if (configValue.getName().equalsIgnoreCase("url")) {
                 url = configValue.getValue();
+            } else if (configValue.getName().equalsIgnoreCase("datasetParallelism")) {
+                datasetParallelism = Integer.parseInt(configValue.getValue());
+            } else if (configValue.getName().equalsIgnoreCase("callSetConcurrency")) {
+                callSetConcurrency = Integer.parseInt(configValue.getValue());
+            } else if (configValue.getName().equalsIgnoreCase("callSetBulkThreshold")) {
+                callSetBulkThreshold = Integer.parseInt(configValue.getValue());
+            } else if (configValue.getName().equalsIgnoreCase("metadataCacheSize")) {
+                metadataCacheSize = Long.parseLong(configValue.getValue());
+            } else if (configValue.getName().equalsIgnoreCase("metadataCacheTtlSeconds")) {
+                metadataCacheTtlSeconds = Long.parseLong(configValue.getValue());
+            } else if (configValue.getName().equalsIgnoreCase("catalogRefreshSeconds")) {
+                catalogRefreshSeconds = Long.parseLong(configValue.getValue());
+            } else if (configValue.getName().equalsIgnoreCase("batchWindowLength")) {
+                batchWindowLength = Long.parseLong(configValue.getValue());
+            } else if (configValue.getName().equalsIgnoreCase("regionWindowLength")) {
+                regionWindowLength = Long.parseLong(configValue.getValue());
+            } else if (configValue.getName().equalsIgnoreCase("assemblyAliases")) {
+                assemblyAliases = configValue.getValue();
+            } else if (configValue.getName().equalsIgnoreCase("acceptProtobuf")) {
+                acceptProtobuf = Boolean.parseBoolean(configValue.getValue());
+            } else if (configValue.getName().equalsIgnoreCase("httpMaxIdleConnections")) {
+                transportConfig.maxIdleConnections(Integer.parseInt(configValue.getValue()));
+            } else if (configValue.getName().equalsIgnoreCase("httpKeepAliveSeconds")) {
+                transportConfig.keepAliveSeconds(Long.parseLong(configValue.getValue()));
+            } else if (configValue.getName().equalsIgnoreCase("httpMaxRequestsPerHost")) {
+                transportConfig.maxRequestsPerHost(Integer.parseInt(configValue.getValue()));
+            } else if (configValue.getName().equalsIgnoreCase("http2")) {
+                transportConfig.http2(Boolean.parseBoolean(configValue.getValue()));
+            } else if (configValue.getName().equalsIgnoreCase("httpConnectTimeoutSeconds")) {
+                transportConfig.connectTimeoutSeconds(Long.parseLong(configValue.getValue()));
+            } else if (configValue.getName().equalsIgnoreCase("httpReadTimeoutSeconds")) {
+                transportConfig.readTimeoutSeconds(Long.parseLong(configValue.getValue()));
+            } else if (configValue.getName().equalsIgnoreCase("traceBodySampleRate")) {
+                traceBodySampleRate = Double.parseDouble(configValue.getValue());
+            } else if (configValue.getName().equalsIgnoreCase("traceBodies")) {
+                traceBodies = Boolean.parseBoolean(configValue.getValue());
             }
         }
 
-        ga4ghClient = new Ga4ghClient(url);
+        if (batchWindowLength < 1) {
+            throw new IllegalArgumentException("Batch window length must be positive, got " + batchWindowLength);
+        }
+        if (regionWindowLength < 1) {
+            throw new IllegalArgumentException("Region window length must be positive, got " + regionWindowLength);
+        }
+
+        destroy();
+        assemblyNormalizer = AssemblyNormalizer.create(assemblyAliases);
+        this.batchWindowLength = batchWindowLength;
+        this.regionWindowLength = regionWindowLength;
+        ga4ghClient = new Ga4ghClient(url,
+                acceptProtobuf,
+                transportConfig.build(),
+                new RequestTracer(traceBodySampleRate, traceBodies),
+                new GuavaMetadataCache<>(metadataCacheSize, metadataCacheTtlSeconds, TimeUnit.SECONDS),
+                new GuavaMetadataCache<>(metadataCacheSize, metadataCacheTtlSeconds, TimeUnit.SECONDS));
+        datasetMapper = new ParallelMapper(datasetParallelism, "beacon-ensembl-dataset");
+        callSetResolver = new CallSetResolver(ga4ghClient, callSetConcurrency, callSetBulkThreshold);
+
+        if (catalogRefreshSeconds > 0) {
+            catalogHolder = new DatasetCatalogHolder(new Ga4ghCatalogLoader(ga4ghClient, assemblyNormalizer));
+            catalogHolder.start(catalogRefreshSeconds);
+        }
+    }
+
+    /**
+     * Releases the worker threads; the adapter counts as uninitialized until it is initialized again.
+     */
+    @PreDestroy
+    public void destroy() {
+        ga4ghClient = null;
+        if (datasetMapper != null) {
+            datasetMapper.shutdown();
+            datasetMapper = null;
+        }
+        if (callSetResolver != null) {
+            callSetResolver.shutdown();
+            callSetResolver = null;
+        }
+        if (catalogHolder != null) {
+            catalogHolder.shutdown();
+            catalogHolder = null;
+        }
+    }
+
+    /**
+     * @return canonical name of the given assembly according to the configured aliases, e.g. "GRCh37" for "hg19", or
+     * the given assembly id if it's unknown
+     */
+    public String canonicalAssemblyId(String assemblyId) {
+        checkAdapterInit();
+        CanonicalAssembly assembly = assemblyNormalizer.normalize(assemblyId);
+        return assembly != null ? assembly.getName() : assemblyId;
+    }
+
+    /**
+     * @return version of the dataset catalog the adapter currently answers from, or 0 if there is none
+     */
+    public long getCatalogVersion() {
+        DatasetCatalog catalog = getCatalog();
+        return catalog != null ? catalog.getVersion() : 0;
+    }
+
+    /**
+     * Reloads the dataset catalog right away instead of waiting for the next background refresh.
+     *
+     * @return true if the catalog has been reloaded
+     */
+    public boolean refreshCatalog() {
+        checkAdapterInit();
+        return catalogHolder != null && catalogHolder.refresh();
+    }
+
+    /**
+     * Drops the cached reference sets and call sets, e.g. after they've been changed on the server.
+     */
+    public void invalidateMetadata() {
+        checkAdapterInit();
+        ga4ghClient.invalidateMetadata();
+    }
+
+    /**
+     * @return call set resolver of the adapter, e.g. to read how many round trips it saved
+     */
+    public CallSetResolver getCallSetResolver() {
+        checkAdapterInit();
+        return callSetResolver;
+    }
+
+    /**
+     * @return utilization of the HTTP connection pools, keyed by upstream host. The pools are shared by all adapters of
+     * the application.
+     */
+    public Map<String, HttpPoolStats> getHttpPoolStats() {
+        return HttpTransports.getStats();
+    }
+
+    /**
+     * @return stats of the requests the adapter has sent to the Ga4gh server, keyed by endpoint
+     */
+    public Map<String, RequestTraceStats> getRequestTraceStats() {
+        checkAdapterInit();
+        return ga4ghClient.getRequestTraceStats();
     }
 
     @Override
@@ -277,7 +588,11 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
         try {
             List<String> datasetIdsToSearch = getDatasetIdsToSearch(request.getDatasetIds());
 
-            List<BeaconDatasetAlleleResponse> datasetResponses = map(datasetIdsToSearch,
+            if (!BooleanUtils.isTrue(request.getIncludeDatasetResponses())) {
+                return getExistsOnlyResponse(request, datasetIdsToSearch);
+            }
+
+            List<BeaconDatasetAlleleResponse> datasetResponses = datasetMapper.map(datasetIdsToSearch,
                     datasetId -> getDatasetResponse(request.getReferenceName(),
                             request.getStart(),
                             request.getReferenceBases(),
@@ -285,27 +600,301 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
                             request.getAssemblyId(),
                             datasetId));
 
-            List<BeaconDatasetAlleleResponse> returnedDatasetResponses = BooleanUtils.isTrue(request.getIncludeDatasetResponses())
-                    ? datasetResponses
-                    : null;
+            return createAlleleResponse(request, datasetResponses, getBeacon().getId());
+
+        } catch (BeaconAlleleRequestException e) {
+            e.setRequest(request);
+            throw e;
+        }
+    }
 
-            BeaconError anyError = datasetResponses.stream()
-                    .map(BeaconDatasetAlleleResponse::getError)
-                    .filter(Objects::nonNull)
-                    .findAny()
-                    .orElse(null);
+    /**
+     * Answers a request that doesn't ask for the dataset responses. The datasets are searched concurrently and the
+     * search stops at the first matching variant, cancelling the requests still in flight.
+     */
+    private BeaconAlleleResponse getExistsOnlyResponse(BeaconAlleleRequest request, List<String> datasetIdsToSearch) throws BeaconException {
+        boolean exists = datasetMapper.anyMatch(datasetIdsToSearch,
+                datasetId -> datasetContainsVariant(request.getReferenceName(),
+                        request.getStart(),
+                        request.getReferenceBases(),
+                        request.getAlternateBases(),
+                        request.getAssemblyId(),
+                        datasetId));
+
+        return BeaconAlleleResponse.newBuilder()
+                .setAlleleRequest(request)
+                .setDatasetAlleleResponses(null)
+                .setBeaconId(getBeacon().getId())
+                .setError(null)
+                .setExists(exists)
+                .build();
+    }
 
-            Boolean exists = anyError != null
-                    ? null
-                    : datasetResponses.stream().anyMatch(BeaconDatasetAlleleResponse::getExists);
+    /**
+     * Asynchronous counterpart of {@link #getBeaconAlleleResponse(BeaconAlleleRequest)}. The requests to the Ga4gh
+     * server are sent without blocking the calling thread, so that a few threads can serve many concurrent queries. A
+     * request that doesn't ask for the dataset responses stops at the first matching variant, like the blocking method.
+     *
+     * @return future of the response that fails with {@link BeaconAlleleRequestException} or {@link
+     * IllegalStateException} on the same errors the blocking method throws them. Cancelling the future cancels the
+     * requests in flight.
+     * @throws IllegalStateException if the adapter hasn't been initialized, like the blocking method
+     */
+    public CompletableFuture<BeaconAlleleResponse> getBeaconAlleleResponseAsync(BeaconAlleleRequest request) {
+        checkAdapterInit();
 
-            return BeaconAlleleResponse.newBuilder()
+        CompletableFuture<List<String>> datasetIdsToSearch = getDatasetIdsToSearchAsync(request.getDatasetIds());
+        CompletableFuture<Beacon> beacon = getBeaconAsync();
+
+        CompletableFuture<?> answer;
+        CompletableFuture<BeaconAlleleResponse> alleleResponse;
+        if (!BooleanUtils.isTrue(request.getIncludeDatasetResponses())) {
+            CompletableFuture<Boolean> exists = CompletableFutures.thenCompose(datasetIdsToSearch,
+                    datasetIds -> CompletableFutures.anyMatch(datasetIds.stream()
+                            .map(datasetId -> datasetContainsVariantAsync(request.getReferenceName(),
+                                    request.getStart(),
+                                    request.getReferenceBases(),
+                                    request.getAlternateBases(),
+                                    request.getAssemblyId(),
+                                    datasetId))
+                            .collect(Collectors.toList())));
+
+            answer = exists;
+            alleleResponse = exists.thenCombine(beacon, (datasetExists, loadedBeacon) -> BeaconAlleleResponse.newBuilder()
                     .setAlleleRequest(request)
-                    .setDatasetAlleleResponses(returnedDatasetResponses)
-                    .setBeaconId(getBeacon().getId())
-                    .setError(anyError)
-                    .setExists(exists)
-                    .build();
+                    .setDatasetAlleleResponses(null)
+                    .setBeaconId(loadedBeacon.getId())
+                    .setError(null)
+                    .setExists(datasetExists)
+                    .build());
+        } else {
+            CompletableFuture<List<BeaconDatasetAlleleResponse>> datasetResponses = CompletableFutures.thenCompose(
+                    datasetIdsToSearch,
+                    datasetIds -> CompletableFutures.allAsList(datasetIds.stream()
+                            .map(datasetId -> getDatasetResponseAsync(request.getReferenceName(),
+                                    request.getStart(),
+                                    request.getReferenceBases(),
+                                    request.getAlternateBases(),
+                                    request.getAssemblyId(),
+                                    datasetId))
+                            .collect(Collectors.toList())));
+
+            answer = datasetResponses;
+            alleleResponse = datasetResponses.thenCombine(beacon,
+                    (responses, loadedBeacon) -> createAlleleResponse(request, responses, loadedBeacon.getId()));
+        }
+
+        CompletableFuture<BeaconAlleleResponse> response = new CompletableFuture<>();
+        alleleResponse.whenComplete((completedResponse, error) -> {
+            if (error == null) {
+                response.complete(completedResponse);
+                return;
+            }
+
+            Throwable cause = CompletableFutures.unwrap(error);
+            if (cause instanceof BeaconAlleleRequestException) {
+                ((BeaconAlleleRequestException) cause).setRequest(request);
+            }
+            response.completeExceptionally(cause);
+        });
+        return CompletableFutures.propagateCancellation(response, answer, beacon);
+    }
+
+    /**
+     * Same as {@link #getBeacon()}, but asynchronous: fails with {@link IllegalStateException} if the beacon couldn't
+     * be loaded.
+     */
+    private CompletableFuture<Beacon> getBeaconAsync() {
+        CompletableFuture<Beacon> source = ga4ghClient.getBeaconAsync();
+        CompletableFuture<Beacon> beacon = new CompletableFuture<>();
+
+        source.whenComplete((loadedBeacon, error) -> {
+            if (error == null) {
+                beacon.complete(loadedBeacon);
+            } else {
+                IllegalStateException illegalStateException = new IllegalStateException("Beacon has not been initialized");
+                illegalStateException.initCause(CompletableFutures.unwrap(error));
+                beacon.completeExceptionally(illegalStateException);
+            }
+        });
+
+        return CompletableFutures.propagateCancellation(beacon, source);
+    }
+
+    /**
+     * Answers a batch of allele requests, returning one response per request in the order of the requests.
+     * <p>
+     * Requests for the same reference, assembly and datasets are grouped into windows of nearby positions (see
+     * "batchWindowLength"). Every window is answered by one range search per variant set, whose variants are fanned out
+     * locally to the requests they match, and the call sets of all requests of a window are resolved at once. The
+     * windows of different datasets are searched concurrently.
+     * <p>
+     * A request that is incomplete, e.g. misses the start, gets a response with a 400 error. If the search of a window
+     * fails, the requests of that window get a response with a 502 error, and the other windows are answered as usual.
+     */
+    public List<BeaconAlleleResponse> getBeaconAlleleResponses(List<BeaconAlleleRequest> requests) throws BeaconException {
+        checkAdapterInit();
+        List<AlleleRequestWindow> windows = AlleleRequestWindow.group(requests,
+                batchWindowLength,
+                this::canonicalAssemblyId);
+
+        BeaconError[] requestErrors = new BeaconError[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            String invalidReason = AlleleRequestWindow.validate(requests.get(i));
+            if (invalidReason != null) {
+                requestErrors[i] = createError(INVALID_REQUEST_ERROR_CODE, invalidReason);
+            }
+        }
+
+        List<WindowSearch> searches = new ArrayList<>();
+        for (AlleleRequestWindow window : windows) {
+            try {
+                for (String datasetId : getDatasetIdsToSearch(window.getDatasetIds())) {
+                    searches.add(new WindowSearch(window, datasetId));
+                }
+            } catch (BeaconAlleleRequestException e) {
+                setWindowError(requestErrors, window, e);
+            }
+        }
+
+        List<List<BeaconDatasetAlleleResponse>> windowResponses = datasetMapper.map(searches, search -> {
+            try {
+                return getWindowDatasetResponses(search.window, search.datasetId, requests);
+            } catch (BeaconAlleleRequestException e) {
+                search.failure = e;
+                return null;
+            }
+        });
+
+        List<List<BeaconDatasetAlleleResponse>> datasetResponses = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            datasetResponses.add(new ArrayList<>());
+        }
+        for (int i = 0; i < searches.size(); i++) {
+            WindowSearch search = searches.get(i);
+            if (search.failure != null) {
+                setWindowError(requestErrors, search.window, search.failure);
+                continue;
+            }
+
+            List<Integer> requestIndexes = search.window.getRequestIndexes();
+            List<BeaconDatasetAlleleResponse> responses = windowResponses.get(i);
+            for (int j = 0; j < requestIndexes.size(); j++) {
+                datasetResponses.get(requestIndexes.get(j)).add(responses.get(j));
+            }
+        }
+
+        String beaconId = getBeacon().getId();
+        List<BeaconAlleleResponse> responses = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            responses.add(requestErrors[i] != null
+                    ? createErrorResponse(requests.get(i), requestErrors[i], beaconId)
+                    : createAlleleResponse(requests.get(i), datasetResponses.get(i), beaconId));
+        }
+        return responses;
+    }
+
+    private static void setWindowError(BeaconError[] requestErrors, AlleleRequestWindow window, BeaconAlleleRequestException e) {
+        BeaconError error = createError(WINDOW_SEARCH_ERROR_CODE, e.getMessage());
+        for (int requestIndex : window.getRequestIndexes()) {
+            if (requestErrors[requestIndex] == null) {
+                requestErrors[requestIndex] = error;
+            }
+        }
+    }
+
+    private static BeaconError createError(int errorCode, String message) {
+        return BeaconError.newBuilder().setErrorCode(errorCode).setMessage(message).build();
+    }
+
+    private BeaconAlleleResponse createErrorResponse(BeaconAlleleRequest request, BeaconError error, String beaconId) {
+        return BeaconAlleleResponse.newBuilder()
+                .setAlleleRequest(request)
+                .setDatasetAlleleResponses(null)
+                .setBeaconId(beaconId)
+                .setError(error)
+                .setExists(null)
+                .build();
+    }
+
+    /**
+     * @return responses of the dataset to the requests of the window, in the order of the window
+     */
+    private List<BeaconDatasetAlleleResponse> getWindowDatasetResponses(AlleleRequestWindow window, String datasetId, List<BeaconAlleleRequest> requests) throws BeaconAlleleRequestException {
+        List<BeaconAlleleRequest> windowRequests = window.getRequestIndexes()
+                .stream()
+                .map(requests::get)
+                .collect(Collectors.toList());
+        List<DatasetStatistics> statistics = windowRequests.stream()
+                .map(request -> new DatasetStatistics(request.getAlternateBases()))
+                .collect(Collectors.toList());
+
+        for (String variantSetId : getVariantSetIdsToSearch(datasetId, window.getAssemblyId())) {
+            try (Stream<Variants.Variant> variants = ga4ghClient.streamVariants(variantSetId,
+                    window.getReferenceName(),
+                    window.getStart(),
+                    window.getEnd())) {
+                variants.forEach(variant -> {
+                    for (int i : window.getOverlappedRequests(variant.getStart(), variant.getEnd())) {
+                        BeaconAlleleRequest request = windowRequests.get(i);
+                        if (basesMatchVariant(variant, request.getReferenceBases(), request.getAlternateBases())) {
+                            statistics.get(i).add(variant);
+                        }
+                    }
+                });
+            } catch (UncheckedGa4ghClientException e) {
+                BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(String.format(
+                        "Couldn't load variants of variant set with id %s.",
+                        variantSetId), Reason.CONN_ERR, null);
+                alleleRequestException.initCause(e.getCause());
+                throw alleleRequestException;
+            }
+        }
+
+        // Exists-only requests don't report samples, there's no need to resolve their call sets.
+        CallSetReferences references = new CallSetReferences();
+        for (int i = 0; i < windowRequests.size(); i++) {
+            if (BooleanUtils.isTrue(windowRequests.get(i).getIncludeDatasetResponses())) {
+                references.addAll(statistics.get(i).getCallSetReferences());
+            }
+        }
+        Map<String, Variants.CallSet> callSets = references.getReferenceCount() > 0
+                ? resolveCallSets(references)
+                : Collections.emptyMap();
+
+        return statistics.stream()
+                .map(datasetStatistics -> datasetStatistics.toResponse(datasetId, callSets))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Answers a range or bracket query over a region of the reference, e.g. to scan a gene. The region is split into
+     * windows of "regionWindowLength" bases that are searched concurrently. Unlike in an allele request, the bases are
+     * optional: null reference or alternate bases match any.
+     *
+     * @return response whose allele request carries the start of the searched region
+     */
+    public BeaconAlleleResponse getBeaconRegionResponse(String referenceName, VariantRegion region, String referenceBases,
+                                                        String alternateBases, String assemblyId, List<String> datasetIds,
+                                                        Boolean includeDatasetResponses) throws BeaconException {
+        checkAdapterInit();
+        BeaconAlleleRequest request = createRequest(referenceName,
+                region.getStart(),
+                referenceBases,
+                alternateBases,
+                assemblyId,
+                datasetIds,
+                includeDatasetResponses);
+        try {
+            List<BeaconDatasetAlleleResponse> datasetResponses = datasetMapper.map(getDatasetIdsToSearch(datasetIds),
+                    datasetId -> getRegionDatasetResponse(referenceName,
+                            region,
+                            referenceBases,
+                            alternateBases,
+                            assemblyId,
+                            datasetId));
+
+            return createAlleleResponse(request, datasetResponses, getBeacon().getId());
 
         } catch (BeaconAlleleRequestException e) {
             e.setRequest(request);
@@ -313,6 +902,75 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
         }
     }
 
+    private BeaconDatasetAlleleResponse getRegionDatasetResponse(String referenceName, VariantRegion region, String referenceBases, String alternateBases, String assemblyId, String datasetId) throws BeaconAlleleRequestException {
+        DatasetStatistics statistics = new DatasetStatistics(alternateBases);
+        for (String variantSetId : getVariantSetIdsToSearch(datasetId, assemblyId)) {
+            List<Variants.Variant> variants;
+            try {
+                variants = ga4ghClient.searchVariants(variantSetId, referenceName, region, regionWindowLength);
+            } catch (Ga4ghClientException e) {
+                BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(String.format(
+                        "Couldn't load variants of variant set with id %s in region %s.",
+                        variantSetId,
+                        region), Reason.CONN_ERR, null);
+                alleleRequestException.initCause(e);
+                throw alleleRequestException;
+            }
+
+            for (Variants.Variant variant : variants) {
+                if ((referenceBases == null || referenceBases.equals(variant.getReferenceBases()))
+                        && (alternateBases == null || variant.getAlternateBasesList().contains(alternateBases))) {
+                    statistics.add(variant);
+                }
+            }
+        }
+
+        return statistics.toResponse(datasetId, resolveCallSets(statistics.getCallSetReferences()));
+    }
+
+    /**
+     * Search of one dataset for the requests of one window.
+     */
+    private static class WindowSearch {
+
+        private final AlleleRequestWindow window;
+        private final String datasetId;
+
+        /**
+         * Set by the worker thread that ran the search if it failed, read after all searches have completed.
+         */
+        private volatile BeaconAlleleRequestException failure;
+
+        WindowSearch(AlleleRequestWindow window, String datasetId) {
+            this.window = window;
+            this.datasetId = datasetId;
+        }
+    }
+
+    private BeaconAlleleResponse createAlleleResponse(BeaconAlleleRequest request, List<BeaconDatasetAlleleResponse> datasetResponses, String beaconId) {
+        List<BeaconDatasetAlleleResponse> returnedDatasetResponses = BooleanUtils.isTrue(request.getIncludeDatasetResponses())
+                ? datasetResponses
+                : null;
+
+        BeaconError anyError = datasetResponses.stream()
+                .map(BeaconDatasetAlleleResponse::getError)
+                .filter(Objects::nonNull)
+                .findAny()
+                .orElse(null);
+
+        Boolean exists = anyError != null
+                ? null
+                : datasetResponses.stream().anyMatch(BeaconDatasetAlleleResponse::getExists);
+
+        return BeaconAlleleResponse.newBuilder()
+                .setAlleleRequest(request)
+                .setDatasetAlleleResponses(returnedDatasetResponses)
+                .setBeaconId(beaconId)
+                .setError(anyError)
+                .setExists(exists)
+                .build();
+    }
+
     @Override
     public BeaconAlleleResponse getBeaconAlleleResponse(String referenceName, Long start, String referenceBases,
                                                         String alternateBases, String assemblyId, List<String> datasetIds,
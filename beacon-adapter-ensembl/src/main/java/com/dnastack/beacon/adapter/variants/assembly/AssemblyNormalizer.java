@@ -0,0 +1,121 @@
+package com.dnastack.beacon.adapter.variants.assembly;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps any known name of a genome assembly to its {@link CanonicalAssembly}, case-insensitively, with a single lookup.
+ * <p>
+ * Besides the built-in aliases, additional ones can be configured as a string of the form
+ * {@code GRCh38=GRCh38.p12,GRCh38.p13;GRCh37=b37}: assemblies separated by semicolons, each one given by its canonical
+ * name followed by a comma-separated list of its aliases. Aliases of a built-in assembly extend it.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class AssemblyNormalizer {
+
+    private static final Map<String, Set<String>> DEFAULT_ALIASES = ImmutableMap.<String, Set<String>>builder()
+            .put("GRCh38", ImmutableSet.of("hg38", "hg20"))
+            .put("GRCh37", ImmutableSet.of("hg37", "hg19"))
+            .put("NCBI36", ImmutableSet.of("hg18"))
+            .put("NCBI35", ImmutableSet.of("hg17"))
+            .put("NCBI34", ImmutableSet.of("hg16"))
+            .build();
+
+    private final Map<String, CanonicalAssembly> assembliesByAlias;
+
+    private AssemblyNormalizer(Map<String, Set<String>> aliasesByName) {
+        Map<String, CanonicalAssembly> assemblies = new HashMap<>();
+
+        aliasesByName.forEach((name, aliases) -> {
+            CanonicalAssembly assembly = new CanonicalAssembly(name, aliases);
+
+            for (String alias : assembly.getAliases()) {
+                CanonicalAssembly previous = assemblies.put(alias, assembly);
+                if (previous != null && !previous.equals(assembly)) {
+                    throw new IllegalArgumentException(String.format("Assembly alias %s is used by both %s and %s.",
+                            alias,
+                            previous,
+                            assembly));
+                }
+            }
+        });
+
+        this.assembliesByAlias = Collections.unmodifiableMap(assemblies);
+    }
+
+    /**
+     * @return normalizer that knows the built-in aliases only
+     */
+    public static AssemblyNormalizer withDefaults() {
+        return create(null);
+    }
+
+    /**
+     * @param aliasesConfig additional aliases in the format described in the class documentation, may be blank
+     * @return normalizer that knows the built-in and the configured aliases
+     */
+    public static AssemblyNormalizer create(String aliasesConfig) {
+        Map<String, Set<String>> aliasesByName = new LinkedHashMap<>();
+        DEFAULT_ALIASES.forEach((name, aliases) -> aliasesByName.put(CanonicalAssembly.fold(name),
+                new LinkedHashSet<>(aliases)));
+        Map<String, String> namesByFoldedName = new HashMap<>();
+        DEFAULT_ALIASES.keySet().forEach(name -> namesByFoldedName.put(CanonicalAssembly.fold(name), name));
+
+        if (StringUtils.isNotBlank(aliasesConfig)) {
+            for (String entry : aliasesConfig.split(";")) {
+                if (StringUtils.isBlank(entry)) {
+                    continue;
+                }
+
+                String[] nameAndAliases = entry.split("=", 2);
+                String name = nameAndAliases[0].trim();
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException(String.format("Missing assembly name in aliases entry %s.",
+                            entry));
+                }
+
+                String foldedName = CanonicalAssembly.fold(name);
+                namesByFoldedName.putIfAbsent(foldedName, name);
+                Set<String> aliases = aliasesByName.computeIfAbsent(foldedName, key -> new LinkedHashSet<>());
+
+                if (nameAndAliases.length > 1) {
+                    for (String alias : nameAndAliases[1].split(",")) {
+                        if (StringUtils.isNotBlank(alias)) {
+                            aliases.add(alias.trim());
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<String, Set<String>> aliasesByCanonicalName = new LinkedHashMap<>();
+        aliasesByName.forEach((foldedName, aliases) -> aliasesByCanonicalName.put(namesByFoldedName.get(foldedName),
+                aliases));
+
+        return new AssemblyNormalizer(aliasesByCanonicalName);
+    }
+
+    /**
+     * @return canonical assembly for the given assembly name, or null if the name is unknown
+     */
+    public CanonicalAssembly normalize(String assemblyId) {
+        return assemblyId == null ? null : assembliesByAlias.get(CanonicalAssembly.fold(assemblyId));
+    }
+
+    /**
+     * @return true if both names are known and denote the same assembly
+     */
+    public boolean sameAssembly(String assemblyId, String otherAssemblyId) {
+        CanonicalAssembly assembly = normalize(assemblyId);
+        return assembly != null && assembly.equals(normalize(otherAssemblyId));
+    }
+}
@@ -0,0 +1,66 @@
+package com.dnastack.beacon.adapter.variants.assembly;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Genome assembly together with all the names it's known by, e.g. GRCh37 a.k.a. hg19.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class CanonicalAssembly {
+
+    private final String name;
+    private final Set<String> aliases;
+
+    /**
+     * @param name    canonical name of the assembly
+     * @param aliases other names of the assembly, case-insensitive
+     */
+    public CanonicalAssembly(String name, Set<String> aliases) {
+        Set<String> foldedAliases = new LinkedHashSet<>();
+        foldedAliases.add(fold(name));
+        aliases.forEach(alias -> foldedAliases.add(fold(alias)));
+
+        this.name = name;
+        this.aliases = Collections.unmodifiableSet(foldedAliases);
+    }
+
+    static String fold(String assemblyId) {
+        return assemblyId.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return all names of the assembly in lower case, including the canonical one
+     */
+    public Set<String> getAliases() {
+        return aliases;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CanonicalAssembly)) {
+            return false;
+        }
+        return fold(name).equals(fold(((CanonicalAssembly) o).name));
+    }
+
+    @Override
+    public int hashCode() {
+        return fold(name).hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
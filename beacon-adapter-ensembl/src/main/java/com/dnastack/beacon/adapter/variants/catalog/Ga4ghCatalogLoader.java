@@ -0,0 +1,50 @@
+package com.dnastack.beacon.adapter.variants.catalog;
+
+import com.dnastack.beacon.adapter.variants.assembly.AssemblyNormalizer;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.Ga4ghClient;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.Ga4ghClientException;
+import ga4gh.Metadata;
+import ga4gh.Variants;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Walks all datasets of the Ga4gh server, their variant sets and the reference sets of those. The variant sets are
+ * tagged with the canonical assembly of their reference set.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class Ga4ghCatalogLoader implements CatalogLoader {
+
+    private final Ga4ghClient ga4ghClient;
+    private final AssemblyNormalizer assemblyNormalizer;
+
+    public Ga4ghCatalogLoader(Ga4ghClient ga4ghClient, AssemblyNormalizer assemblyNormalizer) {
+        this.ga4ghClient = ga4ghClient;
+        this.assemblyNormalizer = assemblyNormalizer;
+    }
+
+    @Override
+    public Map<String, List<CatalogVariantSet>> load() throws Ga4ghClientException {
+        Map<String, List<CatalogVariantSet>> variantSetsByDataset = new LinkedHashMap<>();
+
+        for (Metadata.Dataset dataset : ga4ghClient.searchDatasets()) {
+            List<CatalogVariantSet> variantSets = new ArrayList<>();
+
+            for (Variants.VariantSet variantSet : ga4ghClient.searchVariantSets(dataset.getId())) {
+                String assemblyId = ga4ghClient.loadReferenceSet(variantSet.getReferenceSetId()).getAssemblyId();
+                variantSets.add(new CatalogVariantSet(variantSet.getId(),
+                        variantSet.getReferenceSetId(),
+                        assemblyId,
+                        assemblyNormalizer.normalize(assemblyId)));
+            }
+
+            variantSetsByDataset.put(dataset.getId(), variantSets);
+        }
+
+        return variantSetsByDataset;
+    }
+}
@@ -0,0 +1,63 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh;
+
+import ga4gh.Variants;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Call set ids referenced by the calls of some variants, grouped by the variant set of the variants. Can be filled
+ * incrementally, e.g. page by page, without keeping the variants themselves.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class CallSetReferences {
+
+    private final Map<String, Set<String>> callSetIdsByVariantSet = new LinkedHashMap<>();
+    private long referenceCount;
+
+    public static CallSetReferences of(Collection<Variants.Variant> variants) {
+        CallSetReferences references = new CallSetReferences();
+
+        for (Variants.Variant variant : variants) {
+            for (Variants.Call call : variant.getCallsList()) {
+                references.add(variant.getVariantSetId(), call.getCallSetId());
+            }
+        }
+
+        return references;
+    }
+
+    public void add(String variantSetId, String callSetId) {
+        callSetIdsByVariantSet.computeIfAbsent(variantSetId, id -> new LinkedHashSet<>()).add(callSetId);
+        referenceCount++;
+    }
+
+    /**
+     * Adds all references of the other instance, e.g. to resolve the call sets of several requests at once.
+     */
+    public void addAll(CallSetReferences other) {
+        other.callSetIdsByVariantSet.forEach((variantSetId, callSetIds) -> callSetIdsByVariantSet.computeIfAbsent(
+                variantSetId,
+                id -> new LinkedHashSet<>()).addAll(callSetIds));
+        referenceCount += other.referenceCount;
+    }
+
+    /**
+     * @return distinct call set ids per variant set, in the order they were added
+     */
+    public Map<String, Set<String>> getCallSetIdsByVariantSet() {
+        return Collections.unmodifiableMap(callSetIdsByVariantSet);
+    }
+
+    /**
+     * @return number of added references, including the repeated ones
+     */
+    public long getReferenceCount() {
+        return referenceCount;
+    }
+}
@@ -1,38 +1,115 @@
 package com.dnastack.beacon.adapter.variants.client.ga4gh;
 
+import com.dnastack.beacon.adapter.variants.client.ga4gh.cache.GuavaMetadataCache;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.cache.MetadataCache;
 import com.dnastack.beacon.adapter.variants.client.ga4gh.retro.Ga4ghRetroService;
 import com.dnastack.beacon.adapter.variants.client.ga4gh.retro.Ga4ghRetroServiceFactory;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.retro.HttpTransportConfig;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.retro.RequestTraceStats;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.retro.RequestTracer;
 import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.Ga4ghClientException;
-import com.google.protobuf.GeneratedMessage;
-import com.google.protobuf.Message;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.UncheckedGa4ghClientException;
 import ga4gh.*;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.reflect.MethodUtils;
 import org.ga4gh.beacon.Beacon;
 import org.ga4gh.beacon.BeaconOuterClass;
 import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Andrey Mochalov (mochalovandrey@gmail.com)
  */
 public class Ga4ghClient {
 
+    private static final long DEFAULT_METADATA_CACHE_SIZE = 10_000;
+    private static final long DEFAULT_METADATA_CACHE_TTL_MINUTES = 60;
+
+    private static final Comparator<Variants.Variant> VARIANT_POSITION_ORDER = Comparator.comparingLong(
+            Variants.Variant::getStart).thenComparingLong(Variants.Variant::getEnd);
+
     private final Ga4ghRetroService ga4ghRetroService;
+    private final RequestTracer requestTracer;
+    private final MetadataCache<String, References.ReferenceSet> referenceSetCache;
+    private final MetadataCache<String, Variants.CallSet> callSetCache;
 
     public Ga4ghClient(String url) {
-        ga4ghRetroService = Ga4ghRetroServiceFactory.create(url);
+        this(url,
+                new GuavaMetadataCache<>(DEFAULT_METADATA_CACHE_SIZE,
+                        DEFAULT_METADATA_CACHE_TTL_MINUTES,
+                        TimeUnit.MINUTES),
+                new GuavaMetadataCache<>(DEFAULT_METADATA_CACHE_SIZE,
+                        DEFAULT_METADATA_CACHE_TTL_MINUTES,
+                        TimeUnit.MINUTES));
+    }
+
+    /**
+     * @param referenceSetCache cache of the reference sets, keyed by reference set id
+     * @param callSetCache      cache of the call sets, keyed by call set id
+     */
+    public Ga4ghClient(String url, MetadataCache<String, References.ReferenceSet> referenceSetCache, MetadataCache<String, Variants.CallSet> callSetCache) {
+        this(url, false, referenceSetCache, callSetCache);
+    }
+
+    /**
+     * @param acceptProtobuf    whether to ask the server for binary protobuf responses instead of Json, for servers
+     *                          that support it
+     * @param referenceSetCache cache of the reference sets, keyed by reference set id
+     * @param callSetCache      cache of the call sets, keyed by call set id
+     */
+    public Ga4ghClient(String url, boolean acceptProtobuf, MetadataCache<String, References.ReferenceSet> referenceSetCache, MetadataCache<String, Variants.CallSet> callSetCache) {
+        this(url, acceptProtobuf, HttpTransportConfig.defaults(), referenceSetCache, callSetCache);
+    }
+
+    /**
+     * @param acceptProtobuf    whether to ask the server for binary protobuf responses instead of Json, for servers
+     *                          that support it
+     * @param transportConfig   settings of the HTTP transport, shared with the other clients of the same host
+     * @param referenceSetCache cache of the reference sets, keyed by reference set id
+     * @param callSetCache      cache of the call sets, keyed by call set id
+     */
+    public Ga4ghClient(String url, boolean acceptProtobuf, HttpTransportConfig transportConfig, MetadataCache<String, References.ReferenceSet> referenceSetCache, MetadataCache<String, Variants.CallSet> callSetCache) {
+        this(url, acceptProtobuf, transportConfig, RequestTracer.withoutBodies(), referenceSetCache, callSetCache);
+    }
+
+    /**
+     * @param acceptProtobuf    whether to ask the server for binary protobuf responses instead of Json, for servers
+     *                          that support it
+     * @param transportConfig   settings of the HTTP transport, shared with the other clients of the same host
+     * @param requestTracer     tracer recording the requests of the client
+     * @param referenceSetCache cache of the reference sets, keyed by reference set id
+     * @param callSetCache      cache of the call sets, keyed by call set id
+     */
+    public Ga4ghClient(String url, boolean acceptProtobuf, HttpTransportConfig transportConfig, RequestTracer requestTracer, MetadataCache<String, References.ReferenceSet> referenceSetCache, MetadataCache<String, Variants.CallSet> callSetCache) {
+        this.ga4ghRetroService = Ga4ghRetroServiceFactory.create(url, acceptProtobuf, transportConfig, requestTracer);
+        this.requestTracer = requestTracer;
+        this.referenceSetCache = referenceSetCache;
+        this.callSetCache = callSetCache;
     }
 
     public Beacon getBeacon() throws Ga4ghClientException {
-        BeaconOuterClass.Beacon beaconJson = executeCall(ga4ghRetroService.searchBeacon());
+        return convertToBeacon(executeCall(ga4ghRetroService.searchBeacon()));
+    }
 
+    public CompletableFuture<Beacon> getBeaconAsync() {
+        return CompletableFutures.thenApply(executeCallAsync(ga4ghRetroService.searchBeacon()), this::convertToBeacon);
+    }
+
+    private Beacon convertToBeacon(BeaconOuterClass.Beacon beaconJson) {
         return Beacon.newBuilder()
                 .setId(beaconJson.getId())
                 .setName(beaconJson.getName())
@@ -102,6 +179,15 @@ public class Ga4ghClient {
         RESPONSE execute(REQUEST request) throws Ga4ghClientException;
     }
 
+    /**
+     * Same as {@link RequestExecutor}, but returns the response page asynchronously.
+     */
+    @FunctionalInterface
+    private interface AsyncRequestExecutor<REQUEST, RESPONSE> {
+
+        CompletableFuture<RESPONSE> execute(REQUEST request);
+    }
+
     private <T> T executeCall(Call<T> call) throws Ga4ghClientException {
         Response<T> response;
         try {
@@ -114,45 +200,94 @@ public class Ga4ghClient {
             return response.body();
         } else {
             throw new Ga4ghClientException(String.format("Received error response from server. HTTP code: %s",
-                    response.code()));
+                    response.code()), response.code());
         }
     }
 
+    /**
+     * Enqueues the call instead of executing it on the calling thread. The returned future fails with {@link
+     * Ga4ghClientException} on the same errors {@link #executeCall(Call)} throws it. Cancelling the future cancels the
+     * call.
+     */
+    private <T> CompletableFuture<T> executeCallAsync(Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (response.isSuccessful()) {
+                    future.complete(response.body());
+                } else {
+                    future.completeExceptionally(new Ga4ghClientException(String.format(
+                            "Received error response from server. HTTP code: %s",
+                            response.code()), response.code()));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                future.completeExceptionally(new Ga4ghClientException("Error during communication to server.", t));
+            }
+        });
+
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
     /**
      * Loads all response pages for given request. Ga4gh server returns responses by pages.
      *
      * @return list of all response pages
      * @throws Ga4ghClientException on IO error
      */
-    private <REQUEST extends GeneratedMessage, RESPONSE> List<RESPONSE> requestAllResponsePages(REQUEST request, RequestExecutor<REQUEST, RESPONSE> requestExecutor) throws Ga4ghClientException {
+    private <REQUEST, RESPONSE> List<RESPONSE> requestAllResponsePages(REQUEST request, PagedSearch<REQUEST, RESPONSE> pagedSearch, RequestExecutor<REQUEST, RESPONSE> requestExecutor) throws Ga4ghClientException {
         List<RESPONSE> responsePages = new ArrayList<>();
 
-        Message.Builder requestBuilder = request.toBuilder();
         String nextPageToken = "";
         do {
-            RESPONSE responsePage = loadResponsePage(requestBuilder, requestExecutor, nextPageToken);
+            RESPONSE responsePage = requestExecutor.execute(pagedSearch.withPageToken(request, nextPageToken));
             responsePages.add(responsePage);
 
-            nextPageToken = invokeMethod(responsePage, "getNextPageToken");
+            nextPageToken = pagedSearch.getNextPageToken(responsePage);
         } while (StringUtils.isNotBlank(nextPageToken));
 
         return responsePages;
     }
 
-    private <REQUEST extends GeneratedMessage, RESPONSE> RESPONSE loadResponsePage(Message.Builder requestBuilder, RequestExecutor<REQUEST, RESPONSE> requestExecutor, String nextPageToken) throws Ga4ghClientException {
-        invokeMethod(requestBuilder, "setPageToken", nextPageToken);
-        //noinspection unchecked
-        REQUEST requestWithPageToken = (REQUEST) requestBuilder.build();
-        return requestExecutor.execute(requestWithPageToken);
+    /**
+     * Same as {@link #requestAllResponsePages(Object, PagedSearch, RequestExecutor)}, but requests the next page only
+     * once the previous one has arrived, without blocking any thread in between.
+     */
+    private <REQUEST, RESPONSE> CompletableFuture<List<RESPONSE>> requestAllResponsePagesAsync(REQUEST request, PagedSearch<REQUEST, RESPONSE> pagedSearch, AsyncRequestExecutor<REQUEST, RESPONSE> requestExecutor) {
+        return requestRemainingResponsePagesAsync(request, pagedSearch, requestExecutor, "", new ArrayList<>());
     }
 
-    @SuppressWarnings("unchecked")
-    private <T> T invokeMethod(Object response, String methodName, Object... args) throws Ga4ghClientException {
-        try {
-            return (T) MethodUtils.invokeMethod(response, methodName, args);
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-            throw new Ga4ghClientException(String.format("Couldn't invoke method %s.", methodName), e);
-        }
+    private <REQUEST, RESPONSE> CompletableFuture<List<RESPONSE>> requestRemainingResponsePagesAsync(REQUEST request, PagedSearch<REQUEST, RESPONSE> pagedSearch, AsyncRequestExecutor<REQUEST, RESPONSE> requestExecutor, String nextPageToken, List<RESPONSE> responsePages) {
+        return CompletableFutures.thenCompose(requestExecutor.execute(pagedSearch.withPageToken(request, nextPageToken)), responsePage -> {
+            responsePages.add(responsePage);
+
+            String followingPageToken = pagedSearch.getNextPageToken(responsePage);
+            return StringUtils.isNotBlank(followingPageToken)
+                    ? requestRemainingResponsePagesAsync(request, pagedSearch, requestExecutor, followingPageToken, responsePages)
+                    : CompletableFuture.completedFuture(responsePages);
+        });
+    }
+
+    /**
+     * Streams the response pages for given request lazily, see {@link ResponsePageIterator}. Closing the stream cancels
+     * the page being prefetched.
+     */
+    private <REQUEST, RESPONSE> Stream<RESPONSE> streamResponsePages(REQUEST request, PagedSearch<REQUEST, RESPONSE> pagedSearch, AsyncRequestExecutor<REQUEST, RESPONSE> requestExecutor) {
+        ResponsePageIterator<RESPONSE> pageIterator = new ResponsePageIterator<>(
+                pageToken -> requestExecutor.execute(pagedSearch.withPageToken(request, pageToken)),
+                pagedSearch::getNextPageToken);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pageIterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(pageIterator::close);
     }
 
     public List<Metadata.Dataset> searchDatasets() throws Ga4ghClientException {
@@ -161,6 +296,7 @@ public class Ga4ghClient {
         List<MetadataServiceOuterClass.SearchDatasetsResponse> allResponsePages = new ArrayList<>();
 
         allResponsePages.addAll(requestAllResponsePages(request,
+                PagedSearch.DATASETS,
                 pagedRequest -> executeCall(ga4ghRetroService.searchDatasets(
                         pagedRequest))));
 
@@ -170,26 +306,125 @@ public class Ga4ghClient {
                 .collect(Collectors.toList());
     }
 
+    public CompletableFuture<List<Metadata.Dataset>> searchDatasetsAsync() {
+        MetadataServiceOuterClass.SearchDatasetsRequest request = MetadataServiceOuterClass.SearchDatasetsRequest.newBuilder().build();
+
+        return CompletableFutures.thenApply(requestAllResponsePagesAsync(request,
+                PagedSearch.DATASETS,
+                pagedRequest -> executeCallAsync(ga4ghRetroService.searchDatasets(pagedRequest))),
+                allResponsePages -> allResponsePages.stream()
+                        .flatMap(responsePage -> responsePage.getDatasetsList().stream())
+                        .collect(Collectors.toList()));
+    }
+
     public List<Variants.Variant> searchVariants(String variantSetId, String referenceName, long start) throws Ga4ghClientException {
-        VariantServiceOuterClass.SearchVariantsRequest request = VariantServiceOuterClass.SearchVariantsRequest.newBuilder()
+        try (Stream<Variants.Variant> variants = streamVariants(variantSetId, referenceName, start)) {
+            return variants.collect(Collectors.toList());
+        } catch (UncheckedGa4ghClientException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Streams the variants page by page, so that only the page being consumed and the prefetched one are held in
+     * memory, and no further pages are requested once the consumer stops. The stream should be closed after use.
+     *
+     * @throws UncheckedGa4ghClientException from the terminal operation on IO error
+     */
+    public Stream<Variants.Variant> streamVariants(String variantSetId, String referenceName, long start) {
+        return streamVariants(variantSetId, referenceName, start, start + 1);
+    }
+
+    /**
+     * Same as {@link #streamVariants(String, String, long)}, but streams all variants overlapping the range [start,
+     * end) of the reference.
+     */
+    public Stream<Variants.Variant> streamVariants(String variantSetId, String referenceName, long start, long end) {
+        return streamResponsePages(createSearchVariantsRequest(variantSetId, referenceName, start, end),
+                PagedSearch.VARIANTS,
+                pagedRequest -> executeCallAsync(ga4ghRetroService.searchVariants(pagedRequest)))
+                .flatMap(responsePage -> responsePage.getVariantsList().stream());
+    }
+
+    public CompletableFuture<List<Variants.Variant>> searchVariantsAsync(String variantSetId, String referenceName, long start) {
+        return CompletableFutures.thenApply(requestAllResponsePagesAsync(createSearchVariantsRequest(variantSetId,
+                referenceName,
+                start,
+                start + 1),
+                PagedSearch.VARIANTS,
+                pagedRequest -> executeCallAsync(ga4ghRetroService.searchVariants(pagedRequest))),
+                allResponsePages -> allResponsePages.stream()
+                        .flatMap(responsePage -> responsePage.getVariantsList().stream())
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Searches the variants matching the range or bracket query. The searched range is split into windows of at most
+     * {@code windowLength} bases, which are searched concurrently, limited only by the dispatcher of the HTTP client.
+     *
+     * @return matching variants ordered by their position
+     * @throws Ga4ghClientException if the search of any of the windows fails
+     */
+    public List<Variants.Variant> searchVariants(String variantSetId, String referenceName, VariantRegion region, long windowLength) throws Ga4ghClientException {
+        try {
+            return searchVariantsAsync(variantSetId, referenceName, region, windowLength).get();
+        } catch (ExecutionException e) {
+            Throwable cause = CompletableFutures.unwrap(e);
+            if (cause instanceof Ga4ghClientException) {
+                throw (Ga4ghClientException) cause;
+            }
+            throw new Ga4ghClientException("Couldn't search variants.", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Ga4ghClientException("Interrupted while searching variants.", e);
+        }
+    }
+
+    /**
+     * Same as {@link #searchVariants(String, String, VariantRegion, long)}, but doesn't block the calling thread.
+     */
+    public CompletableFuture<List<Variants.Variant>> searchVariantsAsync(String variantSetId, String referenceName, VariantRegion region, long windowLength) {
+        List<CompletableFuture<List<Variants.Variant>>> windowSearches = region.split(windowLength)
+                .stream()
+                .map(window -> searchWindowAsync(variantSetId, referenceName, region, window))
+                .collect(Collectors.toList());
+
+        // The windows are consecutive and each one is sorted, so the concatenation is sorted too.
+        return CompletableFutures.thenApply(CompletableFutures.allAsList(windowSearches),
+                windowVariants -> windowVariants.stream()
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList()));
+    }
+
+    private CompletableFuture<List<Variants.Variant>> searchWindowAsync(String variantSetId, String referenceName, VariantRegion region, VariantRegion window) {
+        return CompletableFutures.thenApply(requestAllResponsePagesAsync(createSearchVariantsRequest(variantSetId,
+                referenceName,
+                window.getStart(),
+                window.getEnd()),
+                PagedSearch.VARIANTS,
+                pagedRequest -> executeCallAsync(ga4ghRetroService.searchVariants(pagedRequest))),
+                allResponsePages -> allResponsePages.stream()
+                        .flatMap(responsePage -> responsePage.getVariantsList().stream())
+                        .filter(variant -> region.ownsVariant(window, variant.getStart()))
+                        .filter(variant -> region.matches(variant.getStart(), variant.getEnd()))
+                        .sorted(VARIANT_POSITION_ORDER)
+                        .collect(Collectors.toList()));
+    }
+
+    private VariantServiceOuterClass.SearchVariantsRequest createSearchVariantsRequest(String variantSetId, String referenceName, long start, long end) {
+        return VariantServiceOuterClass.SearchVariantsRequest.newBuilder()
                 .setVariantSetId(variantSetId)
                 .setReferenceName(referenceName)
                 .setStart(start)
-                .setEnd(start + 1)
+                .setEnd(end)
                 .build();
-
-        List<VariantServiceOuterClass.SearchVariantsResponse> allResponsePages = requestAllResponsePages(request,
-                pagedRequest -> executeCall(ga4ghRetroService.searchVariants(pagedRequest)));
-
-        return allResponsePages.stream()
-                .flatMap(responsePage -> responsePage.getVariantsList().stream())
-                .collect(Collectors.toList());
     }
 
     public List<Variants.VariantSet> searchVariantSets(String datasetId) throws Ga4ghClientException {
         VariantServiceOuterClass.SearchVariantSetsRequest request = VariantServiceOuterClass.SearchVariantSetsRequest.newBuilder().setDatasetId(datasetId).build();
 
         List<VariantServiceOuterClass.SearchVariantSetsResponse> allResponsePages = requestAllResponsePages(request,
+                PagedSearch.VARIANT_SETS,
                 pagedRequest -> executeCall(
                         ga4ghRetroService.searchVariantSets(pagedRequest)));
 
@@ -198,12 +433,136 @@ public class Ga4ghClient {
                 .collect(Collectors.toList());
     }
 
+    public CompletableFuture<List<Variants.VariantSet>> searchVariantSetsAsync(String datasetId) {
+        VariantServiceOuterClass.SearchVariantSetsRequest request = VariantServiceOuterClass.SearchVariantSetsRequest.newBuilder().setDatasetId(datasetId).build();
+
+        return CompletableFutures.thenApply(requestAllResponsePagesAsync(request,
+                PagedSearch.VARIANT_SETS,
+                pagedRequest -> executeCallAsync(ga4ghRetroService.searchVariantSets(pagedRequest))),
+                allResponsePages -> allResponsePages.stream()
+                        .flatMap(responsePage -> responsePage.getVariantSetsList().stream())
+                        .collect(Collectors.toList()));
+    }
+
     public References.ReferenceSet loadReferenceSet(String referenceSetId) throws Ga4ghClientException {
-        return executeCall(ga4ghRetroService.loadReferenceSet(referenceSetId));
+        return referenceSetCache.get(referenceSetId, id -> executeCall(ga4ghRetroService.loadReferenceSet(id)));
+    }
+
+    /**
+     * Returns the cached reference set right away, otherwise loads it asynchronously and caches it.
+     */
+    public CompletableFuture<References.ReferenceSet> loadReferenceSetAsync(String referenceSetId) {
+        References.ReferenceSet cachedReferenceSet = referenceSetCache.getIfPresent(referenceSetId);
+        if (cachedReferenceSet != null) {
+            return CompletableFuture.completedFuture(cachedReferenceSet);
+        }
+
+        return CompletableFutures.thenApply(executeCallAsync(ga4ghRetroService.loadReferenceSet(referenceSetId)), referenceSet -> {
+            referenceSetCache.put(referenceSetId, referenceSet);
+            return referenceSet;
+        });
     }
 
     public Variants.CallSet loadCallSet(String callSetId) throws Ga4ghClientException {
-        return executeCall(ga4ghRetroService.loadCallSet(callSetId));
+        return callSetCache.get(callSetId, id -> executeCall(ga4ghRetroService.loadCallSet(id)));
+    }
+
+    /**
+     * Returns the cached call set right away, otherwise loads it asynchronously and caches it.
+     */
+    public CompletableFuture<Variants.CallSet> loadCallSetAsync(String callSetId) {
+        Variants.CallSet cachedCallSet = callSetCache.getIfPresent(callSetId);
+        if (cachedCallSet != null) {
+            return CompletableFuture.completedFuture(cachedCallSet);
+        }
+
+        return CompletableFutures.thenApply(executeCallAsync(ga4ghRetroService.loadCallSet(callSetId)), callSet -> {
+            callSetCache.put(callSetId, callSet);
+            return callSet;
+        });
+    }
+
+    public List<Variants.CallSet> searchCallSets(String variantSetId) throws Ga4ghClientException {
+        return searchCallSetPages(variantSetId).stream()
+                .flatMap(responsePage -> responsePage.getCallSetsList().stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Loads all call sets of the given variant set, page by page. Exposed to the package so that the callers can tell
+     * how many requests the search took.
+     */
+    List<VariantServiceOuterClass.SearchCallSetsResponse> searchCallSetPages(String variantSetId) throws Ga4ghClientException {
+        VariantServiceOuterClass.SearchCallSetsRequest request = VariantServiceOuterClass.SearchCallSetsRequest.newBuilder()
+                .setVariantSetId(variantSetId)
+                .build();
+
+        List<VariantServiceOuterClass.SearchCallSetsResponse> allResponsePages = requestAllResponsePages(request,
+                PagedSearch.CALL_SETS,
+                pagedRequest -> executeCall(ga4ghRetroService.searchCallSets(pagedRequest)));
+
+        allResponsePages.stream()
+                .flatMap(responsePage -> responsePage.getCallSetsList().stream())
+                .forEach(callSet -> callSetCache.put(callSet.getId(), callSet));
+
+        return allResponsePages;
+    }
+
+    /**
+     * Same as {@link #searchCallSetPages(String)}, but asynchronous.
+     */
+    CompletableFuture<List<VariantServiceOuterClass.SearchCallSetsResponse>> searchCallSetPagesAsync(String variantSetId) {
+        VariantServiceOuterClass.SearchCallSetsRequest request = VariantServiceOuterClass.SearchCallSetsRequest.newBuilder()
+                .setVariantSetId(variantSetId)
+                .build();
+
+        return CompletableFutures.thenApply(requestAllResponsePagesAsync(request,
+                PagedSearch.CALL_SETS,
+                pagedRequest -> executeCallAsync(ga4ghRetroService.searchCallSets(pagedRequest))),
+                allResponsePages -> {
+                    allResponsePages.stream()
+                            .flatMap(responsePage -> responsePage.getCallSetsList().stream())
+                            .forEach(callSet -> callSetCache.put(callSet.getId(), callSet));
+                    return allResponsePages;
+                });
+    }
+
+    /**
+     * @return the call set if it's cached, null otherwise
+     */
+    Variants.CallSet getCachedCallSet(String callSetId) {
+        return callSetCache.getIfPresent(callSetId);
+    }
+
+    public MetadataCache<String, References.ReferenceSet> getReferenceSetCache() {
+        return referenceSetCache;
+    }
+
+    public MetadataCache<String, Variants.CallSet> getCallSetCache() {
+        return callSetCache;
+    }
+
+    public void invalidateReferenceSet(String referenceSetId) {
+        referenceSetCache.invalidate(referenceSetId);
+    }
+
+    public void invalidateCallSet(String callSetId) {
+        callSetCache.invalidate(callSetId);
+    }
+
+    /**
+     * Drops all cached metadata, so that it's loaded from the server again on the next use.
+     */
+    public void invalidateMetadata() {
+        referenceSetCache.invalidateAll();
+        callSetCache.invalidateAll();
+    }
+
+    /**
+     * @return stats of the requests the client has sent so far, keyed by endpoint
+     */
+    public Map<String, RequestTraceStats> getRequestTraceStats() {
+        return requestTracer.getStats();
     }
 
 }
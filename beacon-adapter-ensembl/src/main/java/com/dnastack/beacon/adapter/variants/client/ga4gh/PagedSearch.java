@@ -0,0 +1,54 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh;
+
+import ga4gh.MetadataServiceOuterClass;
+import ga4gh.VariantServiceOuterClass;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Typed access to the page tokens of a paged Ga4gh search, so that the client can follow the pages without looking
+ * the accessors up reflectively on every page.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+final class PagedSearch<REQUEST, RESPONSE> {
+
+    static final PagedSearch<MetadataServiceOuterClass.SearchDatasetsRequest, MetadataServiceOuterClass.SearchDatasetsResponse> DATASETS = new PagedSearch<>(
+            (request, pageToken) -> request.toBuilder().setPageToken(pageToken).build(),
+            MetadataServiceOuterClass.SearchDatasetsResponse::getNextPageToken);
+
+    static final PagedSearch<VariantServiceOuterClass.SearchVariantSetsRequest, VariantServiceOuterClass.SearchVariantSetsResponse> VARIANT_SETS = new PagedSearch<>(
+            (request, pageToken) -> request.toBuilder().setPageToken(pageToken).build(),
+            VariantServiceOuterClass.SearchVariantSetsResponse::getNextPageToken);
+
+    static final PagedSearch<VariantServiceOuterClass.SearchVariantsRequest, VariantServiceOuterClass.SearchVariantsResponse> VARIANTS = new PagedSearch<>(
+            (request, pageToken) -> request.toBuilder().setPageToken(pageToken).build(),
+            VariantServiceOuterClass.SearchVariantsResponse::getNextPageToken);
+
+    static final PagedSearch<VariantServiceOuterClass.SearchCallSetsRequest, VariantServiceOuterClass.SearchCallSetsResponse> CALL_SETS = new PagedSearch<>(
+            (request, pageToken) -> request.toBuilder().setPageToken(pageToken).build(),
+            VariantServiceOuterClass.SearchCallSetsResponse::getNextPageToken);
+
+    private final BiFunction<REQUEST, String, REQUEST> pageTokenSetter;
+    private final Function<RESPONSE, String> nextPageTokenGetter;
+
+    private PagedSearch(BiFunction<REQUEST, String, REQUEST> pageTokenSetter, Function<RESPONSE, String> nextPageTokenGetter) {
+        this.pageTokenSetter = pageTokenSetter;
+        this.nextPageTokenGetter = nextPageTokenGetter;
+    }
+
+    /**
+     * @return copy of the request that asks for the page with the given token
+     */
+    REQUEST withPageToken(REQUEST request, String pageToken) {
+        return pageTokenSetter.apply(request, pageToken);
+    }
+
+    /**
+     * @return token of the page that follows the given one, blank if it's the last page
+     */
+    String getNextPageToken(RESPONSE responsePage) {
+        return nextPageTokenGetter.apply(responsePage);
+    }
+}
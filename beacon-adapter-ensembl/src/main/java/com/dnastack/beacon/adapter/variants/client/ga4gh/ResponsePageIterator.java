@@ -0,0 +1,111 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh;
+
+import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.Ga4ghClientException;
+import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.UncheckedGa4ghClientException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Iterates over the response pages of a Ga4gh search lazily. The first page is requested on the first call of {@link
+ * #hasNext()}; once a page is handed out, the following one is requested in the background, so that it's usually there
+ * by the time the consumer is done with the current one. At most two pages are held at a time.
+ * <p>
+ * Errors of the requests are thrown as {@link UncheckedGa4ghClientException}, and so is an interrupt of the thread
+ * waiting for a page. Closing the iterator cancels the page being prefetched, e.g. when the consumer has found what it
+ * was looking for.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class ResponsePageIterator<RESPONSE> implements Iterator<RESPONSE>, AutoCloseable {
+
+    /**
+     * Requests the response page with the given page token, an empty one for the first page.
+     */
+    @FunctionalInterface
+    interface PageRequester<RESPONSE> {
+
+        CompletableFuture<RESPONSE> request(String pageToken);
+    }
+
+    /**
+     * Reads the token of the page that follows the given one, blank if it's the last page.
+     */
+    @FunctionalInterface
+    interface NextPageTokenReader<RESPONSE> {
+
+        String read(RESPONSE responsePage);
+    }
+
+    private final PageRequester<RESPONSE> pageRequester;
+    private final NextPageTokenReader<RESPONSE> nextPageTokenReader;
+
+    private boolean started;
+    private CompletableFuture<RESPONSE> nextPage;
+
+    ResponsePageIterator(PageRequester<RESPONSE> pageRequester, NextPageTokenReader<RESPONSE> nextPageTokenReader) {
+        this.pageRequester = pageRequester;
+        this.nextPageTokenReader = nextPageTokenReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            nextPage = pageRequester.request("");
+        }
+        return nextPage != null;
+    }
+
+    @Override
+    public RESPONSE next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        RESPONSE responsePage = await(nextPage);
+        nextPage = null;
+
+        String nextPageToken = nextPageTokenReader.read(responsePage);
+        if (StringUtils.isNotBlank(nextPageToken)) {
+            nextPage = pageRequester.request(nextPageToken);
+        }
+        return responsePage;
+    }
+
+    @Override
+    public void close() {
+        started = true;
+        if (nextPage != null) {
+            nextPage.cancel(true);
+            nextPage = null;
+        }
+    }
+
+    private RESPONSE await(CompletableFuture<RESPONSE> page) {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            page.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new UncheckedGa4ghClientException(new Ga4ghClientException("Interrupted while loading response page.",
+                    e));
+        } catch (ExecutionException | CancellationException e) {
+            Throwable cause = CompletableFutures.unwrap(e);
+            if (cause instanceof Ga4ghClientException) {
+                throw new UncheckedGa4ghClientException((Ga4ghClientException) cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new UncheckedGa4ghClientException(new Ga4ghClientException("Couldn't load response page.", cause));
+        }
+    }
+}
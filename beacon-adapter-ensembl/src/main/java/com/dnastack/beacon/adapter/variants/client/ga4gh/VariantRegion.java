@@ -0,0 +1,124 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Positions of the variants to search for, 0-based like in the Ga4gh API. Either a range query, that matches the
+ * variants overlapping [start, end), or a bracket query, that matches the variants starting within [startMin, startMax]
+ * and ending within [endMin, endMax].
+ * <p>
+ * The Ga4gh server only searches by overlap, hence a bracket query searches the range of the possible starts and the
+ * variants found are filtered by {@link #matches(long, long)}.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public final class VariantRegion {
+
+    private final long start;
+    private final long end;
+    private final boolean bracket;
+    private final long startMin;
+    private final long startMax;
+    private final long endMin;
+    private final long endMax;
+
+    private VariantRegion(long start, long end, boolean bracket, long startMin, long startMax, long endMin, long endMax) {
+        this.start = start;
+        this.end = end;
+        this.bracket = bracket;
+        this.startMin = startMin;
+        this.startMax = startMax;
+        this.endMin = endMin;
+        this.endMax = endMax;
+    }
+
+    /**
+     * @return query for the variants overlapping [start, end)
+     */
+    public static VariantRegion range(long start, long end) {
+        if (start < 0 || end <= start) {
+            throw new IllegalArgumentException(String.format("Invalid range [%s, %s).", start, end));
+        }
+        return new VariantRegion(start, end, false, 0, 0, 0, 0);
+    }
+
+    /**
+     * @return query for the variants whose start lies within [startMin, startMax] and end within [endMin, endMax]
+     */
+    public static VariantRegion bracket(long startMin, long startMax, long endMin, long endMax) {
+        if (startMin < 0 || startMax < startMin || endMax < endMin || endMax <= startMin) {
+            throw new IllegalArgumentException(String.format("Invalid bracket start [%s, %s], end [%s, %s].",
+                    startMin,
+                    startMax,
+                    endMin,
+                    endMax));
+        }
+        return new VariantRegion(startMin, startMax + 1, true, startMin, startMax, endMin, endMax);
+    }
+
+    /**
+     * @return start of the range to search, inclusive
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return end of the range to search, exclusive
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    public boolean isBracket() {
+        return bracket;
+    }
+
+    /**
+     * @return true if a variant found by the search of {@link #getStart()}-{@link #getEnd()} matches the query
+     */
+    public boolean matches(long variantStart, long variantEnd) {
+        if (!bracket) {
+            return variantStart < end && variantEnd > start;
+        }
+        return variantStart >= startMin && variantStart <= startMax && variantEnd >= endMin && variantEnd <= endMax;
+    }
+
+    /**
+     * Splits the searched range into consecutive ranges of at most {@code windowLength} bases, that can be searched
+     * concurrently. A variant overlapping several windows is found by each of them, use {@link #ownsVariant(VariantRegion,
+     * long)} to keep it in one window only.
+     */
+    public List<VariantRegion> split(long windowLength) {
+        if (windowLength < 1) {
+            throw new IllegalArgumentException("Window length must be positive, got " + windowLength);
+        }
+
+        List<VariantRegion> windows = new ArrayList<>();
+        long windowStart = start;
+        while (windowStart < end) {
+            long windowEnd = end - windowStart <= windowLength ? end : windowStart + windowLength;
+            windows.add(range(windowStart, windowEnd));
+            windowStart = windowEnd;
+        }
+        return windows;
+    }
+
+    /**
+     * @param window one of the windows this region has been {@link #split(long) split} into
+     * @return true if the variant with the given start, found by the search of the window, belongs to the window. Each
+     * variant belongs to the window containing its start, or to the first window if it starts before the region.
+     */
+    public boolean ownsVariant(VariantRegion window, long variantStart) {
+        long anchor = Math.max(variantStart, start);
+        return anchor >= window.start && anchor < window.end;
+    }
+
+    @Override
+    public String toString() {
+        return bracket
+                ? String.format("start [%s, %s], end [%s, %s]", startMin, startMax, endMin, endMax)
+                : String.format("[%s, %s)", start, end);
+    }
+}
@@ -0,0 +1,43 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh.cache;
+
+import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.Ga4ghClientException;
+
+/**
+ * Cache for immutable Ga4gh metadata, such as reference sets and call sets, used by the Ga4gh client to avoid
+ * repeated round trips to the server. Implementations must be thread-safe.
+ *
+ * @param <K> type of the metadata id
+ * @param <V> type of the metadata
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public interface MetadataCache<K, V> {
+
+    /**
+     * Loads a single metadata item and throws {@link Ga4ghClientException} on any IO error. In fact, this is just a copy
+     * of the the Java 8 function, but that throws {@link Ga4ghClientException}.
+     */
+    @FunctionalInterface
+    interface Loader<K, V> {
+
+        V load(K key) throws Ga4ghClientException;
+    }
+
+    /**
+     * @return cached value, or the value returned by the loader, which is cached then
+     * @throws Ga4ghClientException if the value wasn't cached and the loader failed
+     */
+    V get(K key, Loader<? super K, ? extends V> loader) throws Ga4ghClientException;
+
+    /**
+     * @return cached value or null if there is none
+     */
+    V getIfPresent(K key);
+
+    void put(K key, V value);
+
+    void invalidate(K key);
+
+    void invalidateAll();
+
+    MetadataCacheStats getStats();
+}
@@ -0,0 +1,46 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh.cache;
+
+/**
+ * Snapshot of the counters of a {@link MetadataCache}.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class MetadataCacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+
+    public MetadataCacheStats(long hitCount, long missCount, long evictionCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MetadataCacheStats{hits=%d, misses=%d, evictions=%d, size=%d}",
+                hitCount,
+                missCount,
+                evictionCount,
+                size);
+    }
+}
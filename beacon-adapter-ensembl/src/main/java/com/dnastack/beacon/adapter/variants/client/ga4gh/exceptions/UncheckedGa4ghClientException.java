@@ -0,0 +1,18 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions;
+
+/**
+ * Wraps {@link Ga4ghClientException} where the checked exception can't be thrown, e.g. from iterators and streams.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class UncheckedGa4ghClientException extends RuntimeException {
+
+    public UncheckedGa4ghClientException(Ga4ghClientException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized Ga4ghClientException getCause() {
+        return (Ga4ghClientException) super.getCause();
+    }
+}
@@ -0,0 +1,80 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh.retro;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the requests to one endpoint, updated concurrently by {@link RequestTracer}.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class EndpointTrace {
+
+    /**
+     * Upper bounds of the latency buckets. The last bucket counts everything slower.
+     */
+    static final long[] LATENCY_BUCKET_BOUNDS_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final String endpoint;
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final ConcurrentMap<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKET_BOUNDS_MILLIS.length + 1);
+
+    EndpointTrace(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void recordResponse(int status, long latencyNanos) {
+        requestCount.increment();
+        statusCounts.computeIfAbsent(status, code -> new LongAdder()).increment();
+        recordLatency(latencyNanos);
+    }
+
+    /**
+     * Records a request that got no response, e.g. because of a timeout.
+     */
+    void recordFailure(long latencyNanos) {
+        requestCount.increment();
+        failureCount.increment();
+        recordLatency(latencyNanos);
+    }
+
+    void recordBytes(long bytes) {
+        bytesReceived.add(bytes);
+    }
+
+    RequestTraceStats snapshot() {
+        Map<Integer, Long> statuses = new TreeMap<>();
+        statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+
+        long[] buckets = new long[latencyBuckets.length()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = latencyBuckets.get(i);
+        }
+
+        return new RequestTraceStats(endpoint,
+                requestCount.sum(),
+                failureCount.sum(),
+                bytesReceived.sum(),
+                statuses,
+                LATENCY_BUCKET_BOUNDS_MILLIS.clone(),
+                buckets);
+    }
+
+    private void recordLatency(long latencyNanos) {
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKET_BOUNDS_MILLIS.length && latencyMillis > LATENCY_BUCKET_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        latencyBuckets.incrementAndGet(bucket);
+    }
+}
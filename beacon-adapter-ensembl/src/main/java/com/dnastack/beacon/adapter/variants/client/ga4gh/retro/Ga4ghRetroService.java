@@ -1,6 +1,8 @@
 package com.dnastack.beacon.adapter.variants.client.ga4gh.retro;
 
 import ga4gh.References.ReferenceSet;
+import ga4gh.VariantServiceOuterClass.SearchCallSetsRequest;
+import ga4gh.VariantServiceOuterClass.SearchCallSetsResponse;
 import ga4gh.VariantServiceOuterClass.SearchVariantSetsRequest;
 import ga4gh.VariantServiceOuterClass.SearchVariantSetsResponse;
 import ga4gh.VariantServiceOuterClass.SearchVariantsRequest;
@@ -29,6 +31,7 @@ public interface Ga4ghRetroService {
     String VARIANTS_SEARCH_PATH = "ga4gh/com.dnastack.beacon.adapter.variants.variants/search";
     String REFERENCE_SETS_GET_PATH = "ga4gh/referencesets";
     String CALL_SETS_GET_PATH = "ga4gh/callsets";
+    String CALL_SETS_SEARCH_PATH = "ga4gh/callsets/search";
     String BEACON_SEARCH_PATH = "ga4gh/beacon";
 
     String REFERENCE_SET_ID_PARAM = "id";
@@ -49,6 +52,9 @@ public interface Ga4ghRetroService {
     @GET(CALL_SETS_GET_PATH + "/{id}")
     Call<CallSet> loadCallSet(@Path(CALL_SET_ID_PARAM) String id);
 
+    @POST(CALL_SETS_SEARCH_PATH)
+    Call<SearchCallSetsResponse> searchCallSets(@Body SearchCallSetsRequest request);
+
     @GET(BEACON_SEARCH_PATH)
     Call<Beacon> searchBeacon();
 }
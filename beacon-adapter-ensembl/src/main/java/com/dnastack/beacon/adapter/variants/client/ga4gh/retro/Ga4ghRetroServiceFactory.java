@@ -2,11 +2,8 @@ package com.dnastack.beacon.adapter.variants.client.ga4gh.retro;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 
-import java.util.concurrent.TimeUnit;
-
 /**
  * @author Artem (tema.voskoboynick@gmail.com)
  * @author Miro Cupak (mirocupak@gmail.com)
@@ -18,27 +15,51 @@ public class Ga4ghRetroServiceFactory {
      * GsonConverterFactory is thread-safe. Can declare it static.
      */
     private static final ProtoJsonConverter CONVERTER_FACTORY = ProtoJsonConverter.create();
-    private static final HttpLoggingInterceptor bodyInterceptor = new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BODY);
+
+    private static final String JSON_ACCEPT_HEADER = ProtoJsonConverter.JSON_MEDIA_TYPE;
+    private static final String PROTOBUF_ACCEPT_HEADER = ProtoJsonConverter.PROTOBUF_MEDIA_TYPE + ", " + ProtoJsonConverter.JSON_MEDIA_TYPE + ";q=0.9";
+
+    public static Ga4ghRetroService create(String baseUrl) {
+        return create(baseUrl, false);
+    }
 
     /**
-     * OkHttpClient is thread-safe. Can declare it static.
-     * Set read timeout to 5 minutes as querying beacons may take quite a long time.
+     * @param acceptProtobuf whether to ask the server for binary protobuf responses, with Json as a fallback
      */
-    private static final OkHttpClient HTTP_CLIENT = new OkHttpClient.Builder().readTimeout(5, TimeUnit.MINUTES)
-                                                                              .addNetworkInterceptor(chain -> {
-                                                                                  Request request = chain.request()
-                                                                                                         .newBuilder()
-                                                                                                         .addHeader(
-                                                                                                                 "Accept",
-                                                                                                                 "application/json")
-                                                                                                         .build();
-                                                                                  return chain.proceed(request);
-                                                                              })
-                                                                              .addInterceptor(bodyInterceptor)
-                                                                              .build();
+    public static Ga4ghRetroService create(String baseUrl, boolean acceptProtobuf) {
+        return create(baseUrl, acceptProtobuf, HttpTransportConfig.defaults());
+    }
 
-    public static Ga4ghRetroService create(String baseUrl) {
-        return new Retrofit.Builder().client(HTTP_CLIENT)
+    /**
+     * @param acceptProtobuf  whether to ask the server for binary protobuf responses, with Json as a fallback
+     * @param transportConfig settings of the HTTP transport shared with the other services of the same host
+     */
+    public static Ga4ghRetroService create(String baseUrl, boolean acceptProtobuf, HttpTransportConfig transportConfig) {
+        return create(baseUrl, acceptProtobuf, transportConfig, RequestTracer.withoutBodies());
+    }
+
+    /**
+     * @param acceptProtobuf  whether to ask the server for binary protobuf responses, with Json as a fallback
+     * @param transportConfig settings of the HTTP transport shared with the other services of the same host
+     * @param requestTracer   tracer recording the requests of the service
+     */
+    public static Ga4ghRetroService create(String baseUrl, boolean acceptProtobuf, HttpTransportConfig transportConfig, RequestTracer requestTracer) {
+        String acceptHeader = acceptProtobuf ? PROTOBUF_ACCEPT_HEADER : JSON_ACCEPT_HEADER;
+
+        // The derived client shares the connection pool and the dispatcher with the transport of the host.
+        OkHttpClient httpClient = HttpTransports.get(baseUrl, transportConfig)
+                                             .newBuilder()
+                                             .addInterceptor(requestTracer.interceptor(baseUrl))
+                                             .addNetworkInterceptor(chain -> {
+                                                 Request request = chain.request()
+                                                                        .newBuilder()
+                                                                        .addHeader("Accept", acceptHeader)
+                                                                        .build();
+                                                 return chain.proceed(request);
+                                             })
+                                             .build();
+
+        return new Retrofit.Builder().client(httpClient)
                                      .addConverterFactory(CONVERTER_FACTORY)
                                      .baseUrl(baseUrl)
                                      .build()
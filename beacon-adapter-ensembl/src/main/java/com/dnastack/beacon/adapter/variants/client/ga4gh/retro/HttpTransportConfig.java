@@ -0,0 +1,91 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh.retro;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Settings of the HTTP transport shared by all clients of one upstream host, see {@link HttpTransports}.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+@Getter
+@EqualsAndHashCode
+public final class HttpTransportConfig {
+
+    /**
+     * OkHttp defaults for the connection pool.
+     */
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    public static final long DEFAULT_KEEP_ALIVE_SECONDS = 300;
+
+    /**
+     * OkHttp defaults to 5 requests per host, which would queue most of the requests of concurrent beacon queries.
+     */
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 64;
+
+    public static final long DEFAULT_CONNECT_TIMEOUT_SECONDS = 10;
+
+    /**
+     * Querying beacons may take quite a long time.
+     */
+    public static final long DEFAULT_READ_TIMEOUT_SECONDS = 300;
+
+    /**
+     * Maximum number of idle connections kept open to the host.
+     */
+    private final int maxIdleConnections;
+
+    /**
+     * How long an idle connection is kept open.
+     */
+    private final long keepAliveSeconds;
+
+    /**
+     * Maximum number of asynchronous requests to the host in flight. Blocking calls aren't limited.
+     */
+    private final int maxRequestsPerHost;
+
+    /**
+     * Whether HTTP/2 may be negotiated with the host (via ALPN over TLS), multiplexing the requests over a single
+     * connection.
+     */
+    private final boolean http2;
+
+    private final long connectTimeoutSeconds;
+    private final long readTimeoutSeconds;
+
+    @Builder
+    private HttpTransportConfig(int maxIdleConnections, long keepAliveSeconds, int maxRequestsPerHost, boolean http2, long connectTimeoutSeconds, long readTimeoutSeconds) {
+        if (maxIdleConnections < 0) {
+            throw new IllegalArgumentException("Max idle connections must not be negative, got " + maxIdleConnections);
+        }
+        if (maxRequestsPerHost < 1) {
+            throw new IllegalArgumentException("Max requests per host must be positive, got " + maxRequestsPerHost);
+        }
+
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAliveSeconds = keepAliveSeconds;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        this.http2 = http2;
+        this.connectTimeoutSeconds = connectTimeoutSeconds;
+        this.readTimeoutSeconds = readTimeoutSeconds;
+    }
+
+    public static HttpTransportConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Starts from the defaults, the rest is generated.
+     */
+    public static class HttpTransportConfigBuilder {
+
+        private int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+        private long keepAliveSeconds = DEFAULT_KEEP_ALIVE_SECONDS;
+        private int maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
+        private boolean http2 = true;
+        private long connectTimeoutSeconds = DEFAULT_CONNECT_TIMEOUT_SECONDS;
+        private long readTimeoutSeconds = DEFAULT_READ_TIMEOUT_SECONDS;
+    }
+}
@@ -1,6 +1,6 @@
 package com.dnastack.beacon.adapter.variants.client.ga4gh.retro;
 
-import com.google.protobuf.GeneratedMessage;
+import com.google.protobuf.Message;
 import com.google.protobuf.MessageLite;
 import com.google.protobuf.MessageOrBuilder;
 import com.google.protobuf.util.JsonFormat;
@@ -11,13 +11,16 @@ import org.apache.commons.lang3.reflect.MethodUtils;
 import retrofit2.Converter;
 import retrofit2.Retrofit;
 
-import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Type;
 
 /**
  * A simple converter Json <-> protobuf DTOs.
+ * <p>
+ * Responses are decoded straight from the response stream. If the server answers with binary protobuf ({@code
+ * application/x-protobuf}) instead of Json, e.g. because it has been asked for it in the Accept header, the response is
+ * parsed as such.
  *
  * @author Artem (tema.voskoboynick@gmail.com)
  * @author Miro Cupak (mirocupak@gmail.com)
@@ -25,6 +28,15 @@ import java.lang.reflect.Type;
  */
 public class ProtoJsonConverter extends Converter.Factory {
 
+    public static final String JSON_MEDIA_TYPE = "application/json";
+    public static final String PROTOBUF_MEDIA_TYPE = "application/x-protobuf";
+
+    /**
+     * The parser and printer are immutable and thread-safe. Can declare them static.
+     */
+    private static final JsonFormat.Parser JSON_PARSER = JsonFormat.parser();
+    private static final JsonFormat.Printer JSON_PRINTER = JsonFormat.printer();
+
     public static ProtoJsonConverter create() {
         return new ProtoJsonConverter();
     }
@@ -46,6 +58,12 @@ public class ProtoJsonConverter extends Converter.Factory {
         return clazz;
     }
 
+    private static boolean isProtobuf(MediaType contentType) {
+        return contentType != null
+                && "application".equals(contentType.type())
+                && ("x-protobuf".equals(contentType.subtype()) || "protobuf".equals(contentType.subtype()));
+    }
+
     @Override
     public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
         Class<?> clazz = getConvertibleClass(type);
@@ -53,27 +71,31 @@ public class ProtoJsonConverter extends Converter.Factory {
             return null;
         }
 
-        return new Converter<ResponseBody, Object>() {
+        // Looked up once per response type, the builders are then created from the prototype without reflection.
+        Message prototype = getDefaultInstance(clazz);
 
-            private GeneratedMessage.Builder createBuilder(Class<?> clazz) {
-                try {
-                    return (GeneratedMessage.Builder) MethodUtils.invokeStaticMethod(clazz, "newBuilder");
-                } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-                    throw new RuntimeException("Couldn't create builder", e);
+        return responseBody -> {
+            try (ResponseBody body = responseBody) {
+                if (isProtobuf(body.contentType())) {
+                    return prototype.getParserForType().parseFrom(body.byteStream());
                 }
-            }
 
-            @Override
-            public Object convert(ResponseBody responseBody) throws IOException {
-                String json = responseBody.string();
-                GeneratedMessage.Builder builder = createBuilder(clazz);
-                JsonFormat.parser().merge(json, builder);
+                Message.Builder builder = prototype.newBuilderForType();
+                JSON_PARSER.merge(body.charStream(), builder);
 
                 return builder.build();
             }
         };
     }
 
+    private Message getDefaultInstance(Class<?> clazz) {
+        try {
+            return (Message) MethodUtils.invokeStaticMethod(clazz, "getDefaultInstance");
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException("Couldn't create builder", e);
+        }
+    }
+
     @Override
     public Converter<?, RequestBody> requestBodyConverter(Type type, Annotation[] parameterAnnotations, Annotation[] methodAnnotations, Retrofit retrofit) {
         if (!isConvertible(type)) {
@@ -82,9 +104,9 @@ public class ProtoJsonConverter extends Converter.Factory {
 
         return o -> {
             MessageOrBuilder message = (MessageOrBuilder) o;
-            String json = JsonFormat.printer().print(message);
+            String json = JSON_PRINTER.print(message);
 
-            return RequestBody.create(MediaType.parse("application/json"), json);
+            return RequestBody.create(MediaType.parse(JSON_MEDIA_TYPE), json);
         };
     }
 
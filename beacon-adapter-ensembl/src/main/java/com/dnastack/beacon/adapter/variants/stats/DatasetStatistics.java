@@ -0,0 +1,91 @@
+package com.dnastack.beacon.adapter.variants.stats;
+
+import com.dnastack.beacon.adapter.variants.client.ga4gh.CallSetReferences;
+import ga4gh.Variants;
+import org.ga4gh.beacon.BeaconDatasetAlleleResponse;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects everything {@link BeaconDatasetAlleleResponse} reports about a dataset in one pass over the matching
+ * variants and their calls: the variant count, the genotype counts and the referenced call sets. The variants can be
+ * added as their pages arrive and don't need to be kept; once the call sets are resolved, the response is ready.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class DatasetStatistics {
+
+    private final String alternateBases;
+    private final GenotypeAccumulator genotypes;
+    private final CallSetReferences callSetReferences = new CallSetReferences();
+    private long variantCount;
+
+    /**
+     * @param alternateBases requested alternate bases
+     */
+    public DatasetStatistics(String alternateBases) {
+        this.alternateBases = alternateBases;
+        this.genotypes = new GenotypeAccumulator(alternateBases);
+    }
+
+    public String getAlternateBases() {
+        return alternateBases;
+    }
+
+    /**
+     * Adds a variant matching the allele request.
+     */
+    public void add(Variants.Variant variant) {
+        double requestedGenotype = genotypes.getRequestedGenotype(variant);
+        String variantSetId = variant.getVariantSetId();
+
+        int callCount = variant.getCallsCount();
+        for (int i = 0; i < callCount; i++) {
+            Variants.Call call = variant.getCalls(i);
+
+            genotypes.addCall(call, requestedGenotype);
+            callSetReferences.add(variantSetId, call.getCallSetId());
+        }
+        variantCount++;
+    }
+
+    /**
+     * @return call sets referenced by the added variants, to be resolved for {@link #toResponse(String, Map)}
+     */
+    public CallSetReferences getCallSetReferences() {
+        return callSetReferences;
+    }
+
+    public long getVariantCount() {
+        return variantCount;
+    }
+
+    /**
+     * @param callSets the resolved {@link #getCallSetReferences() call sets}, keyed by call set id. May contain call
+     *                 sets of other statistics too, e.g. when they've been resolved together.
+     */
+    public BeaconDatasetAlleleResponse toResponse(String datasetId, Map<String, Variants.CallSet> callSets) {
+        Set<String> biosampleIds = new HashSet<>();
+        for (Set<String> callSetIds : callSetReferences.getCallSetIdsByVariantSet().values()) {
+            for (String callSetId : callSetIds) {
+                Variants.CallSet callSet = callSets.get(callSetId);
+                if (callSet != null) {
+                    biosampleIds.add(callSet.getBiosampleId());
+                }
+            }
+        }
+
+        return BeaconDatasetAlleleResponse.newBuilder()
+                .setDatasetId(datasetId)
+                .setFrequency(genotypes.getFrequency())
+                .setCallCount(genotypes.getCallCount())
+                .setVariantCount(variantCount)
+                .setSampleCount((long) biosampleIds.size())
+                .setExists(variantCount > 0)
+                .build();
+    }
+}
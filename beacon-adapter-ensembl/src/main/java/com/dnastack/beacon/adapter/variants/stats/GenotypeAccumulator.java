@@ -0,0 +1,91 @@
+package com.dnastack.beacon.adapter.variants.stats;
+
+import com.google.protobuf.ListValue;
+import ga4gh.Variants;
+
+/**
+ * Counts the calls and the genotypes of the variants matching an allele request, and how many of the genotypes are the
+ * requested alternate allele, in a single pass over the calls. The genotypes are compared as primitives, without
+ * streams or boxing.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class GenotypeAccumulator {
+
+    private final String alternateBases;
+
+    private long callCount;
+    private long totalGenotypeCount;
+    private long matchingGenotypeCount;
+
+    /**
+     * Requested genotype of region queries without alternate bases, matching any of the alternate alleles.
+     */
+    private static final double ANY_ALTERNATE_GENOTYPE = -1;
+
+    /**
+     * @param alternateBases requested alternate bases, the genotypes of which are counted as matching, or null to
+     *                       count the genotypes of all alternate alleles
+     */
+    public GenotypeAccumulator(String alternateBases) {
+        this.alternateBases = alternateBases;
+    }
+
+    public void add(Variants.Variant variant) {
+        double requestedGenotype = getRequestedGenotype(variant);
+
+        int variantCallCount = variant.getCallsCount();
+        for (int i = 0; i < variantCallCount; i++) {
+            addCall(variant.getCalls(i), requestedGenotype);
+        }
+    }
+
+    /**
+     * @return genotype value of the requested alternate allele in the given variant
+     */
+    public double getRequestedGenotype(Variants.Variant variant) {
+        if (alternateBases == null) {
+            return ANY_ALTERNATE_GENOTYPE;
+        }
+        // Genotype 0 is the reference allele, alternate alleles are numbered from 1.
+        return variant.getAlternateBasesList().indexOf(alternateBases) + 1;
+    }
+
+    /**
+     * Adds a single call, for callers that walk the calls of a variant themselves.
+     *
+     * @param requestedGenotype see {@link #getRequestedGenotype(Variants.Variant)}
+     */
+    public void addCall(Variants.Call call, double requestedGenotype) {
+        ListValue genotype = call.getGenotype();
+
+        int genotypeCount = genotype.getValuesCount();
+        for (int i = 0; i < genotypeCount; i++) {
+            double value = genotype.getValues(i).getNumberValue();
+            if (requestedGenotype == ANY_ALTERNATE_GENOTYPE ? value > 0 : value == requestedGenotype) {
+                matchingGenotypeCount++;
+            }
+        }
+        totalGenotypeCount += genotypeCount;
+        callCount++;
+    }
+
+    public long getCallCount() {
+        return callCount;
+    }
+
+    public long getTotalGenotypeCount() {
+        return totalGenotypeCount;
+    }
+
+    public long getMatchingGenotypeCount() {
+        return matchingGenotypeCount;
+    }
+
+    /**
+     * @return share of the matching genotypes among all genotypes, or null if there are no genotypes
+     */
+    public Double getFrequency() {
+        return totalGenotypeCount == 0 ? null : ((double) matchingGenotypeCount / totalGenotypeCount);
+    }
+}
@@ -0,0 +1,95 @@
+package com.dnastack.beacon.adapter.variants
+
+import com.dnastack.beacon.exceptions.BeaconAlleleRequestException
+import com.dnastack.beacon.utils.Reason
+import org.testng.annotations.AfterClass
+import org.testng.annotations.Test
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import static org.assertj.core.api.Assertions.assertThat
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class ParallelMapperTest {
+
+    private final ParallelMapper mapper = new ParallelMapper(4, "parallel-mapper-test")
+
+    @AfterClass
+    void shutdown() {
+        mapper.shutdown()
+    }
+
+    @Test
+    void resultsKeepInputOrder() {
+        def input = (1..20).toList()
+
+        def result = mapper.map(input, { Integer i ->
+            Thread.sleep((20 - i) * 2)
+            return i * 10
+        } as VariantsBeaconAdapter.FunctionThrowingAlleleRequestException)
+
+        assertThat(result).isEqualTo(input.collect { it * 10 })
+    }
+
+    @Test
+    void firstFailureIsRethrownAndSiblingsAreCancelled() {
+        def started = new CountDownLatch(1)
+        def blocked = new CountDownLatch(1)
+        def interrupted = new CountDownLatch(1)
+
+        try {
+            mapper.map(["fail", "block"], { String item ->
+                if (item == "block") {
+                    started.countDown()
+                    try {
+                        blocked.await()
+                    } catch (InterruptedException ignored) {
+                        interrupted.countDown()
+                    }
+                    return item
+                }
+                started.await()
+                throw new BeaconAlleleRequestException("failed " + item, Reason.CONN_ERR, null)
+            } as VariantsBeaconAdapter.FunctionThrowingAlleleRequestException)
+            failBecauseExceptionWasNotThrown(BeaconAlleleRequestException.class)
+        } catch (BeaconAlleleRequestException e) {
+            assertThat(e).hasMessage("failed fail")
+        }
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue()
+    }
+
+    @Test
+    void anyMatchStopsAtFirstMatchAndCancelsTheRest() {
+        def started = new CountDownLatch(1)
+        def interrupted = new CountDownLatch(1)
+
+        def matches = mapper.anyMatch(["match", "block"], { String item ->
+            if (item == "block") {
+                started.countDown()
+                try {
+                    new CountDownLatch(1).await()
+                } catch (InterruptedException ignored) {
+                    interrupted.countDown()
+                }
+                return false
+            }
+            started.await()
+            return true
+        } as VariantsBeaconAdapter.PredicateThrowingAlleleRequestException)
+
+        assertThat(matches).isTrue()
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue()
+    }
+
+    @Test
+    void anyMatchWithoutMatch() {
+        def matches = mapper.anyMatch([1, 2, 3], { Integer i -> i > 3 } as VariantsBeaconAdapter.PredicateThrowingAlleleRequestException)
+
+        assertThat(matches).isFalse()
+    }
+}
@@ -0,0 +1,38 @@
+package com.dnastack.beacon.adapter.variants.assembly
+
+import org.testng.annotations.Test
+
+import static org.assertj.core.api.Assertions.assertThat
+import static org.assertj.core.api.Assertions.assertThatThrownBy
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class AssemblyNormalizerTest {
+
+    @Test
+    void defaultAliasesAreCaseInsensitive() {
+        def normalizer = AssemblyNormalizer.withDefaults()
+
+        assertThat(normalizer.normalize("HG19").name).isEqualTo("GRCh37")
+        assertThat(normalizer.sameAssembly("grch37", "hg19")).isTrue()
+        assertThat(normalizer.sameAssembly("GRCh37", "GRCh38")).isFalse()
+        assertThat(normalizer.normalize("unknown")).isNull()
+        assertThat(normalizer.sameAssembly("unknown", "unknown")).isFalse()
+    }
+
+    @Test
+    void configuredAliasesExtendDefaults() {
+        def normalizer = AssemblyNormalizer.create("grch38=GRCh38.p13, GRCh38.p12;CHM13=T2T-CHM13")
+
+        assertThat(normalizer.normalize("grch38.P13").name).isEqualTo("GRCh38")
+        assertThat(normalizer.sameAssembly("hg38", "GRCh38.p12")).isTrue()
+        assertThat(normalizer.normalize("t2t-chm13").name).isEqualTo("CHM13")
+    }
+
+    @Test
+    void aliasOfTwoAssembliesIsRejected() {
+        assertThatThrownBy({ AssemblyNormalizer.create("GRCh38=hg19") })
+                .isInstanceOf(IllegalArgumentException.class)
+    }
+}
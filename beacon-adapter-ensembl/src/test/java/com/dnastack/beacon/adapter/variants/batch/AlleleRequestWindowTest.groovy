@@ -0,0 +1,67 @@
+package com.dnastack.beacon.adapter.variants.batch
+
+import org.ga4gh.beacon.BeaconAlleleRequest
+import org.testng.annotations.Test
+
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class AlleleRequestWindowTest {
+
+    private static BeaconAlleleRequest request(String referenceName, long start, String assemblyId = "GRCh37") {
+        BeaconAlleleRequest.newBuilder()
+                .setReferenceName(referenceName)
+                .setStart(start)
+                .setReferenceBases("A")
+                .setAlternateBases("T")
+                .setAssemblyId(assemblyId)
+                .build()
+    }
+
+    @Test
+    void groupsNearbyPositionsOfTheSameReference() {
+        def requests = [request("1", 500), request("2", 100), request("1", 100), request("1", 5000), request("1", 120, "hg19")]
+
+        def windows = AlleleRequestWindow.group(requests, 1000, { it == "hg19" ? "GRCh37" : it })
+
+        assertThat(windows).hasSize(3)
+        assertThat(windows[0].referenceName).isEqualTo("1")
+        assertThat(windows[0].requestIndexes).containsExactly(2, 4, 0)
+        assertThat(windows[0].start).isEqualTo(100)
+        assertThat(windows[0].end).isEqualTo(501)
+        assertThat(windows[1].requestIndexes).containsExactly(1)
+        assertThat(windows[2].requestIndexes).containsExactly(3)
+    }
+
+    @Test
+    void findsRequestsOverlappedByVariant() {
+        def window = AlleleRequestWindow.group([request("1", 10), request("1", 12), request("1", 12), request("1", 20)],
+                100, { it })[0]
+
+        assertThat(window.getOverlappedRequests(12, 13)).containsExactly(1, 2)
+        assertThat(window.getOverlappedRequests(9, 21)).containsExactly(0, 1, 2, 3)
+        assertThat(window.getOverlappedRequests(13, 20)).isEmpty()
+    }
+
+    @Test
+    void leavesInvalidRequestsOutOfWindows() {
+        // The builder doesn't accept missing required fields, the requests deserialized by the server may miss them.
+        def missingStart = request("1", 100)
+        missingStart.start = null
+        def missingBases = request("1", 100)
+        missingBases.alternateBases = null
+        def requests = [missingStart, request("1", 100), null, missingBases, request("1", -1)]
+
+        def windows = AlleleRequestWindow.group(requests, 1000, { it })
+
+        assertThat(windows).hasSize(1)
+        assertThat(windows[0].requestIndexes).containsExactly(1)
+        assertThat(AlleleRequestWindow.validate(missingStart)).isEqualTo("Start is missing.")
+        assertThat(AlleleRequestWindow.validate(missingBases)).isEqualTo("Alternate bases are missing.")
+        assertThat(AlleleRequestWindow.validate(null)).isNotNull()
+        assertThat(AlleleRequestWindow.validate(requests[4])).contains("-1")
+        assertThat(AlleleRequestWindow.validate(requests[1])).isNull()
+    }
+}
@@ -0,0 +1,81 @@
+package com.dnastack.beacon.adapter.variants.catalog
+
+import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.Ga4ghClientException
+import org.testng.annotations.Test
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class DatasetCatalogHolderTest {
+
+    @Test
+    void failedRefreshKeepsPreviousSnapshot() {
+        def fail = false
+        def loader = {
+            if (fail) {
+                throw new Ga4ghClientException("server down")
+            }
+            return ["dataset-1": [new CatalogVariantSet("variant-set-1", "reference-set-1", "GRCh37", null)]]
+        } as CatalogLoader
+        def holder = new DatasetCatalogHolder(loader)
+
+        assertThat(holder.get()).isNull()
+        assertThat(holder.refresh()).isTrue()
+        def snapshot = holder.get()
+
+        fail = true
+        assertThat(holder.refresh()).isFalse()
+
+        assertThat(holder.get()).isSameAs(snapshot)
+        assertThat(holder.lastRefreshError).hasMessage("server down")
+        assertThat(snapshot.datasetIds).containsExactly("dataset-1")
+        assertThat(snapshot.getVariantSets("dataset-1")*.assemblyId).containsExactly("GRCh37")
+        assertThat(snapshot.getVariantSets("unknown")).isEmpty()
+
+        holder.shutdown()
+    }
+
+    @Test
+    void everyRefreshIncrementsVersion() {
+        def holder = new DatasetCatalogHolder({ [:] } as CatalogLoader)
+
+        holder.refresh()
+        def firstVersion = holder.get().version
+        holder.refresh()
+
+        assertThat(holder.get().version).isGreaterThan(firstVersion)
+
+        holder.shutdown()
+    }
+
+    @Test
+    void overlappingRefreshesNeverInstallOlderVersion() {
+        def secondLoadStarted = new CountDownLatch(1)
+        def loads = 0
+        def loader = {
+            if (++loads == 1) {
+                // Give the second refresh the chance to load and install its snapshot first.
+                secondLoadStarted.await(200, TimeUnit.MILLISECONDS)
+                return ["stale": []]
+            }
+            secondLoadStarted.countDown()
+            return ["fresh": []]
+        } as CatalogLoader
+        def holder = new DatasetCatalogHolder(loader)
+
+        def firstRefresh = Thread.start { holder.refresh() }
+        Thread.sleep(50)
+        holder.refresh()
+        firstRefresh.join()
+
+        assertThat(holder.get().version).isEqualTo(2)
+        assertThat(holder.get().datasetIds).containsExactly("fresh")
+
+        holder.shutdown()
+    }
+}
@@ -0,0 +1,155 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh
+
+import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.Ga4ghClientException
+import ga4gh.VariantServiceOuterClass
+import ga4gh.Variants
+import org.testng.annotations.Test
+
+import java.util.concurrent.CompletableFuture
+
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class CallSetResolverTest {
+
+    /**
+     * Serves the call sets from memory and counts the requests instead of sending them.
+     */
+    static class StubGa4ghClient extends Ga4ghClient {
+
+        int bulkSearchHttpCode
+        int bulkSearches
+        int loads
+
+        StubGa4ghClient() {
+            super("http://localhost:8089")
+        }
+
+        @Override
+        List<VariantServiceOuterClass.SearchCallSetsResponse> searchCallSetPages(String variantSetId) {
+            bulkSearches++
+            if (bulkSearchHttpCode != 0) {
+                throw new Ga4ghClientException("bulk search failed", bulkSearchHttpCode)
+            }
+            return [VariantServiceOuterClass.SearchCallSetsResponse.newBuilder()
+                            .addAllCallSets(["a", "b", "c"].collect { callSet(it) })
+                            .build()]
+        }
+
+        @Override
+        CompletableFuture<List<VariantServiceOuterClass.SearchCallSetsResponse>> searchCallSetPagesAsync(String variantSetId) {
+            try {
+                return CompletableFuture.completedFuture(searchCallSetPages(variantSetId))
+            } catch (Ga4ghClientException e) {
+                def future = new CompletableFuture()
+                future.completeExceptionally(e)
+                return future
+            }
+        }
+
+        @Override
+        Variants.CallSet loadCallSet(String callSetId) {
+            loads++
+            return callSet(callSetId)
+        }
+
+        @Override
+        CompletableFuture<Variants.CallSet> loadCallSetAsync(String callSetId) {
+            return CompletableFuture.completedFuture(loadCallSet(callSetId))
+        }
+
+        @Override
+        Variants.CallSet getCachedCallSet(String callSetId) {
+            return null
+        }
+
+        static Variants.CallSet callSet(String id) {
+            return Variants.CallSet.newBuilder().setId(id).build()
+        }
+    }
+
+    private static CallSetReferences references(String variantSetId, List<String> callSetIds) {
+        def references = new CallSetReferences()
+        callSetIds.each { references.add(variantSetId, it) }
+        return references
+    }
+
+    @Test
+    void searchesInBulkAtThreshold() {
+        def client = new StubGa4ghClient()
+        def resolver = new CallSetResolver(client, 1, 3)
+
+        def resolved = resolver.resolve(references("variant-set-1", ["a", "b", "c", "a"]))
+
+        assertThat(resolved.keySet()).containsOnly("a", "b", "c")
+        assertThat(client.bulkSearches).isEqualTo(1)
+        assertThat(client.loads).isZero()
+        assertThat(resolver.roundTrips).isEqualTo(1)
+        assertThat(resolver.savedRoundTrips).isEqualTo(3)
+
+        resolver.shutdown()
+    }
+
+    @Test
+    void loadsOneByOneBelowThreshold() {
+        def client = new StubGa4ghClient()
+        def resolver = new CallSetResolver(client, 1, 3)
+
+        def resolved = resolver.resolve(references("variant-set-1", ["a", "b"]))
+
+        assertThat(resolved.keySet()).containsOnly("a", "b")
+        assertThat(client.bulkSearches).isZero()
+        assertThat(client.loads).isEqualTo(2)
+
+        resolver.shutdown()
+    }
+
+    @Test
+    void unsupportedBulkSearchFallsBackAndIsDisabled() {
+        def client = new StubGa4ghClient(bulkSearchHttpCode: 404)
+        def resolver = new CallSetResolver(client, 1, 3)
+
+        assertThat(resolver.resolve(references("variant-set-1", ["a", "b", "c"])).keySet()).containsOnly("a", "b", "c")
+        assertThat(client.loads).isEqualTo(3)
+
+        resolver.resolve(references("variant-set-2", ["a", "b", "c"]))
+        assertThat(client.bulkSearches).isEqualTo(1)
+        assertThat(client.loads).isEqualTo(6)
+
+        resolver.shutdown()
+    }
+
+    @Test
+    void transientBulkSearchErrorFallsBackAndIsRetried() {
+        def client = new StubGa4ghClient(bulkSearchHttpCode: 503)
+        def resolver = new CallSetResolver(client, 1, 3)
+
+        assertThat(resolver.resolve(references("variant-set-1", ["a", "b", "c"])).keySet()).containsOnly("a", "b", "c")
+        assertThat(client.loads).isEqualTo(3)
+
+        client.bulkSearchHttpCode = 0
+        resolver.resolve(references("variant-set-2", ["a", "b", "c"]))
+        assertThat(client.bulkSearches).isEqualTo(2)
+        assertThat(client.loads).isEqualTo(3)
+
+        resolver.shutdown()
+    }
+
+    @Test
+    void asyncResolveRetriesAfterTransientError() {
+        def client = new StubGa4ghClient(bulkSearchHttpCode: 500)
+        def resolver = new CallSetResolver(client, 1, 3)
+
+        assertThat(resolver.resolveAsync(references("variant-set-1", ["a", "b", "c"])).get().keySet())
+                .containsOnly("a", "b", "c")
+
+        client.bulkSearchHttpCode = 0
+        resolver.resolveAsync(references("variant-set-2", ["a", "b", "c"])).get()
+        assertThat(client.bulkSearches).isEqualTo(2)
+        assertThat(client.loads).isEqualTo(3)
+
+        resolver.shutdown()
+    }
+}
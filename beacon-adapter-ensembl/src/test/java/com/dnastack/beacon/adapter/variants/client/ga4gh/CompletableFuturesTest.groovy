@@ -0,0 +1,93 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh
+
+import org.testng.annotations.Test
+
+import java.util.concurrent.CompletableFuture
+
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class CompletableFuturesTest {
+
+    @Test
+    void cancellingAppliedFutureCancelsSource() {
+        def source = new CompletableFuture<String>()
+
+        CompletableFutures.thenApply(source, { it.length() }).cancel(true)
+
+        assertThat(source.isCancelled()).isTrue()
+    }
+
+    @Test
+    void cancellingComposedFutureCancelsRunningStage() {
+        def source = new CompletableFuture<String>()
+        def next = new CompletableFuture<Integer>()
+        def composed = CompletableFutures.thenCompose(source, { next })
+
+        source.complete("done")
+        composed.cancel(true)
+
+        assertThat(next.isCancelled()).isTrue()
+    }
+
+    @Test
+    void composedFutureCompletesWithNextStage() {
+        def source = new CompletableFuture<String>()
+        def composed = CompletableFutures.thenCompose(source, { CompletableFuture.completedFuture(it.length()) })
+
+        source.complete("four")
+
+        assertThat(composed.get()).isEqualTo(4)
+    }
+
+    @Test
+    void cancellingAllAsListCancelsEveryFuture() {
+        def first = new CompletableFuture<String>()
+        def second = new CompletableFuture<String>()
+
+        CompletableFutures.allAsList([first, second]).cancel(true)
+
+        assertThat(first.isCancelled()).isTrue()
+        assertThat(second.isCancelled()).isTrue()
+    }
+
+    @Test
+    void failedFutureFailsAllAsListAndCancelsTheRest() {
+        def first = new CompletableFuture<String>()
+        def second = new CompletableFuture<String>()
+        def all = CompletableFutures.allAsList([first, second])
+
+        second.completeExceptionally(new IllegalStateException("failed"))
+
+        assertThat(all.isCompletedExceptionally()).isTrue()
+        assertThat(first.isCancelled()).isTrue()
+    }
+
+    @Test
+    void anyMatchCompletesOnFirstMatchAndCancelsRest() {
+        def first = new CompletableFuture<Boolean>()
+        def second = new CompletableFuture<Boolean>()
+        def anyMatch = CompletableFutures.anyMatch([first, second])
+
+        second.complete(true)
+
+        assertThat(anyMatch.get()).isTrue()
+        assertThat(first.isCancelled()).isTrue()
+    }
+
+    @Test
+    void anyMatchIsFalseOnceAllDontMatch() {
+        def first = new CompletableFuture<Boolean>()
+        def second = new CompletableFuture<Boolean>()
+        def anyMatch = CompletableFutures.anyMatch([first, second])
+
+        first.complete(false)
+        assertThat(anyMatch.isDone()).isFalse()
+        second.complete(false)
+
+        assertThat(anyMatch.get()).isFalse()
+        assertThat(CompletableFutures.anyMatch([]).get()).isFalse()
+    }
+}
@@ -0,0 +1,63 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh;
+
+import ga4gh.VariantServiceOuterClass;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-page overhead of following the page tokens: the reflective lookup the client used to do on every page against
+ * the typed {@link PagedSearch} accessors. Run via {@link #main(String[])} on the test classpath; it's not part of
+ * the test suite.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagingBenchmark {
+
+    private final VariantServiceOuterClass.SearchVariantsRequest request = VariantServiceOuterClass.SearchVariantsRequest.newBuilder()
+            .setVariantSetId("variant-set")
+            .setReferenceName("1")
+            .setStart(10_000)
+            .setEnd(10_001)
+            .build();
+
+    private final VariantServiceOuterClass.SearchVariantsResponse page = VariantServiceOuterClass.SearchVariantsResponse.newBuilder()
+            .setNextPageToken("next-page")
+            .build();
+
+    @Benchmark
+    public Object reflective() throws Exception {
+        Object requestBuilder = request.toBuilder();
+        String nextPageToken = (String) MethodUtils.invokeMethod(page, "getNextPageToken");
+        MethodUtils.invokeMethod(requestBuilder, "setPageToken", nextPageToken);
+        return MethodUtils.invokeMethod(requestBuilder, "build");
+    }
+
+    @Benchmark
+    public Object typed() {
+        String nextPageToken = PagedSearch.VARIANTS.getNextPageToken(page);
+        return PagedSearch.VARIANTS.withPageToken(request, nextPageToken);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PagingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
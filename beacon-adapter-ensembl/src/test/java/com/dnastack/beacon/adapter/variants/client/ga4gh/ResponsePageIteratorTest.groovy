@@ -0,0 +1,68 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh
+
+import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.Ga4ghClientException
+import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.UncheckedGa4ghClientException
+import org.testng.annotations.Test
+
+import java.util.concurrent.CompletableFuture
+
+import static org.assertj.core.api.Assertions.assertThat
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class ResponsePageIteratorTest {
+
+    /**
+     * Pages "", "1", "2"; the next page token of a page is the following page, blank for the last one.
+     */
+    private static final Map<String, String> NEXT_PAGE_TOKENS = ["": "1", "1": "2", "2": ""]
+
+    @Test
+    void prefetchesOnlyTheFollowingPage() {
+        def requestedTokens = []
+        def pages = []
+        def iterator = new ResponsePageIterator<String>({ String token ->
+            requestedTokens << token
+            def page = new CompletableFuture<String>()
+            pages << page
+            page
+        } as ResponsePageIterator.PageRequester, { String page -> NEXT_PAGE_TOKENS[page] } as ResponsePageIterator.NextPageTokenReader)
+
+        assertThat(requestedTokens).isEmpty()
+
+        assertThat(iterator.hasNext()).isTrue()
+        pages[0].complete("")
+        assertThat(iterator.next()).isEqualTo("")
+        assertThat(requestedTokens).containsExactly("", "1")
+
+        iterator.close()
+
+        assertThat(pages[1].isCancelled()).isTrue()
+        assertThat(iterator.hasNext()).isFalse()
+        assertThat(requestedTokens).containsExactly("", "1")
+    }
+
+    @Test
+    void iteratesOverAllPages() {
+        def iterator = new ResponsePageIterator<String>({ String token -> CompletableFuture.completedFuture(token) } as ResponsePageIterator.PageRequester,
+                { String page -> NEXT_PAGE_TOKENS[page] } as ResponsePageIterator.NextPageTokenReader)
+
+        assertThat(iterator.collect()).containsExactly("", "1", "2")
+    }
+
+    @Test
+    void throwsRequestErrorsUnchecked() {
+        def error = new Ga4ghClientException("Server down.")
+        def iterator = new ResponsePageIterator<String>({ String token -> CompletableFutures.failedFuture(error) } as ResponsePageIterator.PageRequester,
+                { String page -> NEXT_PAGE_TOKENS[page] } as ResponsePageIterator.NextPageTokenReader)
+
+        try {
+            iterator.next()
+            failBecauseExceptionWasNotThrown(UncheckedGa4ghClientException)
+        } catch (UncheckedGa4ghClientException e) {
+            assertThat(e.cause).isSameAs(error)
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh
+
+import org.testng.annotations.Test
+
+import static org.assertj.core.api.Assertions.assertThat
+import static org.assertj.core.api.Assertions.assertThatThrownBy
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class VariantRegionTest {
+
+    @Test
+    void rangeMatchesOverlappingVariants() {
+        def region = VariantRegion.range(100, 200)
+
+        assertThat(region.matches(90, 101)).isTrue()
+        assertThat(region.matches(199, 200)).isTrue()
+        assertThat(region.matches(90, 100)).isFalse()
+        assertThat(region.matches(200, 201)).isFalse()
+    }
+
+    @Test
+    void bracketSearchesPossibleStartsAndFiltersEnds() {
+        def region = VariantRegion.bracket(100, 110, 150, 160)
+
+        assertThat(region.start).isEqualTo(100)
+        assertThat(region.end).isEqualTo(111)
+        assertThat(region.matches(105, 155)).isTrue()
+        assertThat(region.matches(105, 161)).isFalse()
+        assertThat(region.matches(99, 155)).isFalse()
+    }
+
+    @Test
+    void splitsIntoWindowsOwningEachVariantOnce() {
+        def region = VariantRegion.range(100, 350)
+        def windows = region.split(100)
+
+        assertThat(windows*.start).containsExactly(100L, 200L, 300L)
+        assertThat(windows*.end).containsExactly(200L, 300L, 350L)
+
+        // A variant starting before the region belongs to the first window, the rest to the window of their start.
+        assertThat(windows.findAll { region.ownsVariant(it, 50) }).containsExactly(windows[0])
+        assertThat(windows.findAll { region.ownsVariant(it, 250) }).containsExactly(windows[1])
+    }
+
+    @Test
+    void rejectsEmptyRange() {
+        assertThatThrownBy({ VariantRegion.range(10, 10) }).isInstanceOf(IllegalArgumentException)
+    }
+}
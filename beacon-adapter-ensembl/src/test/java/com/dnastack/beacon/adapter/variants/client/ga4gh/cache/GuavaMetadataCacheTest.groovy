@@ -0,0 +1,65 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh.cache
+
+import com.dnastack.beacon.adapter.variants.client.ga4gh.exceptions.Ga4ghClientException
+import org.testng.annotations.Test
+
+import java.util.concurrent.TimeUnit
+
+import static org.assertj.core.api.Assertions.assertThat
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class GuavaMetadataCacheTest {
+
+    @Test
+    void loadsOnceAndCountsHitsAndMisses() {
+        def cache = new GuavaMetadataCache<String, String>(10, 1, TimeUnit.HOURS)
+        def loads = 0
+        def loader = { String key -> loads++; key.toUpperCase() } as MetadataCache.Loader
+
+        assertThat(cache.get("a", loader)).isEqualTo("A")
+        assertThat(cache.get("a", loader)).isEqualTo("A")
+
+        assertThat(loads).isEqualTo(1)
+        assertThat(cache.stats.hitCount).isEqualTo(1)
+        assertThat(cache.stats.missCount).isEqualTo(1)
+    }
+
+    @Test
+    void evictsBeyondMaximumSize() {
+        def cache = new GuavaMetadataCache<String, String>(1, 1, TimeUnit.HOURS)
+
+        cache.put("a", "A")
+        cache.put("b", "B")
+
+        assertThat(cache.getIfPresent("a")).isNull()
+        assertThat(cache.getIfPresent("b")).isEqualTo("B")
+        assertThat(cache.stats.evictionCount).isEqualTo(1)
+    }
+
+    @Test
+    void invalidationForcesReload() {
+        def cache = new GuavaMetadataCache<String, String>(10, 1, TimeUnit.HOURS)
+        cache.put("a", "A")
+
+        cache.invalidate("a")
+
+        assertThat(cache.getIfPresent("a")).isNull()
+    }
+
+    @Test
+    void loaderFailureIsPropagated() {
+        def cache = new GuavaMetadataCache<String, String>(10, 1, TimeUnit.HOURS)
+        def loader = { String key -> throw new Ga4ghClientException("failed " + key) } as MetadataCache.Loader
+
+        try {
+            cache.get("a", loader)
+            failBecauseExceptionWasNotThrown(Ga4ghClientException.class)
+        } catch (Ga4ghClientException e) {
+            assertThat(e).hasMessage("failed a")
+        }
+        assertThat(cache.getIfPresent("a")).isNull()
+    }
+}
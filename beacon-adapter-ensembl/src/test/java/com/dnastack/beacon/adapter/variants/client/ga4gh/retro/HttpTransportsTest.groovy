@@ -0,0 +1,42 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh.retro
+
+import okhttp3.Protocol
+import org.testng.annotations.Test
+
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class HttpTransportsTest {
+
+    @Test
+    void sharesTheTransportOfOneHost() {
+        def config = HttpTransportConfig.builder().maxIdleConnections(2).build()
+
+        def first = HttpTransports.get("http://transports-test-1:8000/ga4gh/", config)
+        def second = HttpTransports.get("http://transports-test-1:8000/other/", HttpTransportConfig.builder().maxIdleConnections(2).build())
+        def otherHost = HttpTransports.get("http://transports-test-2:8000/ga4gh/", config)
+
+        assertThat(second).isSameAs(first)
+        assertThat(otherHost).isNotSameAs(first)
+        assertThat(otherHost.connectionPool()).isNotSameAs(first.connectionPool())
+        assertThat(HttpTransports.getStats()).containsKeys("http://transports-test-1:8000", "http://transports-test-2:8000")
+        assertThat(HttpTransports.getStats()["http://transports-test-1:8000"].connectionCount).isZero()
+    }
+
+    @Test
+    void appliesTheSettings() {
+        def config = HttpTransportConfig.builder()
+                .maxRequestsPerHost(3)
+                .http2(false)
+                .connectTimeoutSeconds(1)
+                .build()
+
+        def httpClient = HttpTransports.get("http://transports-test-3:8000/", config)
+
+        assertThat(httpClient.dispatcher().maxRequestsPerHost).isEqualTo(3)
+        assertThat(httpClient.protocols()).containsExactly(Protocol.HTTP_1_1)
+        assertThat(httpClient.connectTimeoutMillis()).isEqualTo(1000)
+    }
+}
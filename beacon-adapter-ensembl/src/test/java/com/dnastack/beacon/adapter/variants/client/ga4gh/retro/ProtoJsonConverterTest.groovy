@@ -0,0 +1,71 @@
+package com.dnastack.beacon.adapter.variants.client.ga4gh.retro
+
+import ga4gh.VariantServiceOuterClass
+import ga4gh.Variants
+import okhttp3.MediaType
+import okhttp3.ResponseBody
+import okio.Buffer
+import org.testng.annotations.Test
+
+import java.lang.annotation.Annotation
+
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class ProtoJsonConverterTest {
+
+    private static final VariantServiceOuterClass.SearchVariantsResponse RESPONSE = VariantServiceOuterClass.SearchVariantsResponse.newBuilder()
+            .addVariants(Variants.Variant.newBuilder()
+                    .setId("variant-1")
+                    .setVariantSetId("variant-set-1")
+                    .setReferenceName("1")
+                    .setStart(10_000)
+                    .setEnd(10_001)
+                    .setReferenceBases("A")
+                    .addAlternateBases("C"))
+            .setNextPageToken("next-page")
+            .build()
+
+    private final ProtoJsonConverter converter = ProtoJsonConverter.create()
+
+    private def convert(ResponseBody body) {
+        return converter.responseBodyConverter(VariantServiceOuterClass.SearchVariantsResponse,
+                [] as Annotation[],
+                null).convert(body)
+    }
+
+    @Test
+    void decodesJson() {
+        def json = '{"variants": [{"id": "variant-1", "variantSetId": "variant-set-1", "referenceName": "1", ' +
+                '"start": "10000", "end": "10001", "referenceBases": "A", "alternateBases": ["C"]}], ' +
+                '"nextPageToken": "next-page"}'
+
+        def body = ResponseBody.create(MediaType.parse("application/json; charset=utf-8"), json)
+
+        assertThat(convert(body)).isEqualTo(RESPONSE)
+    }
+
+    @Test
+    void decodesBinaryProtobuf() {
+        def body = ResponseBody.create(MediaType.parse(ProtoJsonConverter.PROTOBUF_MEDIA_TYPE), RESPONSE.toByteArray())
+
+        assertThat(convert(body)).isEqualTo(RESPONSE)
+    }
+
+    @Test
+    void encodesRequestAsJson() {
+        def request = VariantServiceOuterClass.SearchVariantsRequest.newBuilder().setVariantSetId("variant-set-1").build()
+        def requestBody = converter.requestBodyConverter(VariantServiceOuterClass.SearchVariantsRequest,
+                [] as Annotation[],
+                [] as Annotation[],
+                null).convert(request)
+
+        def buffer = new Buffer()
+        requestBody.writeTo(buffer)
+
+        assertThat(requestBody.contentType().toString()).startsWith(ProtoJsonConverter.JSON_MEDIA_TYPE)
+        assertThat(buffer.readUtf8()).contains('"variantSetId": "variant-set-1"')
+    }
+}
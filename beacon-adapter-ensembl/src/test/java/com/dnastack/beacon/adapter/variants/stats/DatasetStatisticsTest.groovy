@@ -0,0 +1,44 @@
+package com.dnastack.beacon.adapter.variants.stats
+
+import com.dnastack.beacon.adapter.variants.TestData
+import org.testng.annotations.Test
+
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class DatasetStatisticsTest {
+
+    @Test
+    void buildsTheDatasetResponseFromOnePass() {
+        def statistics = new DatasetStatistics(TestData.TEST_VARIANT.getAlternateBases(0))
+
+        statistics.add(TestData.TEST_VARIANT)
+        statistics.add(TestData.TEST_VARIANT)
+
+        assertThat(statistics.callSetReferences.referenceCount).isEqualTo(4)
+        assertThat(statistics.callSetReferences.callSetIdsByVariantSet[TestData.TEST_VARIANT.variantSetId])
+                .containsExactly(TestData.TEST_CALL_SET_1.id, TestData.TEST_CALL_SET_2.id)
+
+        def response = statistics.toResponse(TestData.TEST_DATASET.id,
+                [(TestData.TEST_CALL_SET_1.id): TestData.TEST_CALL_SET_1, (TestData.TEST_CALL_SET_2.id): TestData.TEST_CALL_SET_2])
+
+        assertThat(response.datasetId).isEqualTo(TestData.TEST_DATASET.id)
+        assertThat(response.exists).isTrue()
+        assertThat(response.variantCount).isEqualTo(2)
+        assertThat(response.callCount).isEqualTo(4)
+        assertThat(response.sampleCount).isEqualTo(2)
+        assertThat(response.frequency).isEqualTo(0.25d)
+    }
+
+    @Test
+    void datasetWithoutMatchingVariants() {
+        def response = new DatasetStatistics("T").toResponse(TestData.TEST_DATASET.id, [:])
+
+        assertThat(response.exists).isFalse()
+        assertThat(response.variantCount).isZero()
+        assertThat(response.sampleCount).isZero()
+        assertThat(response.frequency).isNull()
+    }
+}
@@ -0,0 +1,32 @@
+package com.dnastack.beacon.adapter.variants.stats
+
+import com.dnastack.beacon.adapter.variants.TestData
+import org.testng.annotations.Test
+
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class GenotypeAccumulatorTest {
+
+    @Test
+    void countsCallsAndMatchingGenotypes() {
+        def genotypes = new GenotypeAccumulator(TestData.TEST_VARIANT.getAlternateBases(0))
+
+        genotypes.add(TestData.TEST_VARIANT)
+
+        assertThat(genotypes.callCount).isEqualTo(TestData.TEST_VARIANT.callsCount)
+        assertThat(genotypes.totalGenotypeCount).isEqualTo(4)
+        assertThat(genotypes.matchingGenotypeCount).isEqualTo(1)
+        assertThat(genotypes.frequency).isEqualTo(0.25d)
+    }
+
+    @Test
+    void frequencyIsUnknownWithoutGenotypes() {
+        def genotypes = new GenotypeAccumulator("T")
+
+        assertThat(genotypes.callCount).isZero()
+        assertThat(genotypes.frequency).isNull()
+    }
+}
@@ -0,0 +1,95 @@
+package com.dnastack.beacon.adapter.variants.stats;
+
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Value;
+import ga4gh.Variants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frequency and call count of a variant with 10k diploid calls: the stream-based computation the adapter used to do
+ * against {@link GenotypeAccumulator}. Run via {@link #main(String[])} on the test classpath; it's not part of the test
+ * suite.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenotypeAggregationBenchmark {
+
+    private static final String ALTERNATE_BASES = "T";
+
+    @Param("10000")
+    private int sampleCount;
+
+    private Variants.Variant variant;
+
+    @Setup
+    public void createVariant() {
+        Random random = new Random(42);
+        Variants.Variant.Builder builder = Variants.Variant.newBuilder()
+                .setReferenceBases("A")
+                .addAlternateBases("C")
+                .addAlternateBases(ALTERNATE_BASES);
+
+        for (int i = 0; i < sampleCount; i++) {
+            builder.addCalls(Variants.Call.newBuilder()
+                    .setCallSetId("call-set-" + i)
+                    .setGenotype(ListValue.newBuilder()
+                            .addValues(Value.newBuilder().setNumberValue(random.nextInt(3)))
+                            .addValues(Value.newBuilder().setNumberValue(random.nextInt(3)))));
+        }
+        variant = builder.build();
+    }
+
+    @Benchmark
+    public double streams() {
+        int requestedGenotype = variant.getAlternateBasesList().indexOf(ALTERNATE_BASES) + 1;
+
+        long matchingGenotypes = variant.getCallsList()
+                .stream()
+                .map(Variants.Call::getGenotype)
+                .flatMap(listValue -> listValue.getValuesList().stream())
+                .filter(genotype -> genotype.getNumberValue() == (double) requestedGenotype)
+                .count();
+        long totalGenotypes = variant.getCallsList()
+                .stream()
+                .map(Variants.Call::getGenotype)
+                .mapToLong(ListValue::getValuesCount)
+                .sum();
+        long calls = variant.getCallsCount();
+
+        return (double) matchingGenotypes / totalGenotypes + calls;
+    }
+
+    @Benchmark
+    public double accumulator() {
+        GenotypeAccumulator genotypes = new GenotypeAccumulator(ALTERNATE_BASES);
+        genotypes.add(variant);
+
+        return genotypes.getFrequency() + genotypes.getCallCount();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GenotypeAggregationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,60 @@
+package com.dnastack.beacon.adapter.variants.tests.successfull
+
+import com.dnastack.beacon.adapter.variants.BaseTest
+import com.dnastack.beacon.adapter.variants.TestData
+import com.dnastack.beacon.adapter.variants.VariantsBeaconAdapter
+import org.ga4gh.beacon.BeaconAlleleRequest
+import org.ga4gh.beacon.BeaconAlleleResponse
+import org.testng.annotations.Test
+
+import java.util.concurrent.TimeUnit
+
+import static org.assertj.core.api.Assertions.assertThat
+import static org.assertj.core.api.Assertions.catchThrowable
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class BeaconResponseAsyncTest extends BaseTest {
+
+    private static BeaconAlleleRequest createRequest(boolean includeDatasetResponses = true) {
+        return BeaconAlleleRequest.newBuilder()
+                .setReferenceName(TestData.SEARCH_VARIANTS_TEST_REQUEST.referenceName)
+                .setStart(TestData.SEARCH_VARIANTS_TEST_REQUEST.start)
+                .setReferenceBases(TestData.TEST_VARIANT.referenceBases)
+                .setAlternateBases(TestData.TEST_VARIANT.getAlternateBases(0))
+                .setAssemblyId(TestData.TEST_REFERENCE_SET.assemblyId)
+                .setDatasetIds(null)
+                .setIncludeDatasetResponses(includeDatasetResponses)
+                .build()
+    }
+
+    @Override
+    void doTest() {
+        def request = createRequest()
+
+        BeaconAlleleResponse response = BaseTest.ADAPTER.getBeaconAlleleResponseAsync(request).get(1, TimeUnit.MINUTES)
+
+        assertThat(response).isEqualTo(BaseTest.ADAPTER.getBeaconAlleleResponse(request))
+        assertThat(response.exists).isTrue()
+        assertThat(response.datasetAlleleResponses).hasSize(1)
+
+        def existsOnlyRequest = createRequest(false)
+        BeaconAlleleResponse existsOnlyResponse = BaseTest.ADAPTER.getBeaconAlleleResponseAsync(existsOnlyRequest)
+                .get(1, TimeUnit.MINUTES)
+
+        assertThat(existsOnlyResponse).isEqualTo(BaseTest.ADAPTER.getBeaconAlleleResponse(existsOnlyRequest))
+        assertThat(existsOnlyResponse.exists).isTrue()
+        assertThat(existsOnlyResponse.datasetAlleleResponses).isNull()
+    }
+
+    @Test
+    void uninitializedAdapterFailsLikeBlockingMethod() {
+        def adapter = new VariantsBeaconAdapter()
+
+        assertThat(catchThrowable { adapter.getBeaconAlleleResponse(createRequest()) })
+                .isInstanceOf(IllegalStateException)
+        assertThat(catchThrowable { adapter.getBeaconAlleleResponseAsync(createRequest()) })
+                .isInstanceOf(IllegalStateException)
+    }
+}
@@ -0,0 +1,58 @@
+package com.dnastack.beacon.adapter.variants.tests.successfull
+
+import com.dnastack.beacon.adapter.variants.BaseTest
+import com.dnastack.beacon.adapter.variants.TestData
+import org.ga4gh.beacon.BeaconAlleleRequest
+
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class BeaconResponseBatchTest extends BaseTest {
+
+    private static BeaconAlleleRequest createRequest(String referenceName, long start) {
+        return BeaconAlleleRequest.newBuilder()
+                .setReferenceName(referenceName)
+                .setStart(start)
+                .setReferenceBases(TestData.TEST_VARIANT.referenceBases)
+                .setAlternateBases(TestData.TEST_VARIANT.getAlternateBases(0))
+                .setAssemblyId(TestData.TEST_REFERENCE_SET.assemblyId)
+                .setDatasetIds(null)
+                .setIncludeDatasetResponses(true)
+                .build()
+    }
+
+    /**
+     * Test that an incomplete request and a failed window get error responses, while the others are answered.
+     */
+    @Override
+    void doTest() {
+        def referenceName = TestData.SEARCH_VARIANTS_TEST_REQUEST.referenceName
+        def start = TestData.SEARCH_VARIANTS_TEST_REQUEST.start
+        // The variants of the unknown reference aren't mocked, so its search fails.
+        def requests = [createRequest(referenceName, start),
+                        createRequest(referenceName, start),
+                        createRequest("unknown-reference", start),
+                        createRequest(referenceName, start)]
+
+        // The builder doesn't accept a missing start, a request deserialized by the server may miss it.
+        requests[1].start = null
+
+        def responses = BaseTest.ADAPTER.getBeaconAlleleResponses(requests)
+
+        assertThat(responses).hasSize(4)
+        assertThat(responses*.alleleRequest).containsExactlyElementsOf(requests)
+
+        assertThat(responses[0]).isEqualTo(BaseTest.ADAPTER.getBeaconAlleleResponse(requests[0]))
+        assertThat(responses[0].exists).isTrue()
+        assertThat(responses[3]).isEqualTo(responses[0])
+
+        assertThat(responses[1].exists).isNull()
+        assertThat(responses[1].error.errorCode).isEqualTo(400)
+        assertThat(responses[1].error.message).contains("Start")
+
+        assertThat(responses[2].exists).isNull()
+        assertThat(responses[2].error.errorCode).isEqualTo(502)
+    }
+}
@@ -1,24 +1,38 @@
 package com.dnastack.beacon.adapter.variants;
 
+import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
 import com.dnastack.beacon.adapter.api.BeaconAdapter;
+import com.dnastack.beacon.adapter.variants.client.fhir.DatasetMapping;
 import com.dnastack.beacon.adapter.variants.client.fhir.FhirClient;
+import com.dnastack.beacon.adapter.variants.client.fhir.FhirHttpConfig;
+import com.dnastack.beacon.adapter.variants.client.fhir.FhirSearchConfig;
+import com.dnastack.beacon.adapter.variants.client.fhir.SequenceIndexSync;
+import com.dnastack.beacon.adapter.variants.client.fhir.SequenceSearch;
+import com.dnastack.beacon.adapter.variants.stats.DatasetStatistics;
+import com.dnastack.beacon.exceptions.BeaconAlleleRequestException;
 import com.dnastack.beacon.exceptions.BeaconException;
 import com.dnastack.beacon.utils.AdapterConfig;
 import com.dnastack.beacon.utils.ConfigValue;
+import com.dnastack.beacon.utils.Reason;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.ga4gh.beacon.Beacon;
 import org.ga4gh.beacon.BeaconAlleleRequest;
 import org.ga4gh.beacon.BeaconAlleleResponse;
+import org.ga4gh.beacon.BeaconDataset;
 import org.ga4gh.beacon.BeaconDatasetAlleleResponse;
-import org.hl7.fhir.dstu3.model.Sequence;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.Dependent;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * @author Andrey Mochalov (mochalovandrey@gmail.com)
@@ -28,9 +42,26 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
 
     private Beacon beacon;
     private FhirClient fhirClient;
+    private SequenceIndexSync indexSync;
+
+    /**
+     * The local index of the Sequences if it's enabled, the FHIR server otherwise.
+     */
+    private SequenceSearch sequenceSearch;
+    private DatasetMapping datasetMapping;
+
+    /**
+     * Datasets searched by the requests that don't ask for particular ones, null to report every dataset found.
+     */
+    private List<String> allDatasetIds;
+
+    /**
+     * Sample counts of the datasets configured in the beacon that state one, the denominators of the frequencies.
+     */
+    private Map<String, Long> sampleCountByDataset;
 
     private void checkAdapterInit() {
-        if (fhirClient == null) {
+        if (sequenceSearch == null) {
             throw new IllegalStateException("VariantsBeaconAdapter adapter has not been initialized");
         }
     }
@@ -38,6 +69,12 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
     private void initGa4ghClient(AdapterConfig adapterConfig) {
         List<ConfigValue> configValues = adapterConfig.getConfigValues();
         String url = null;
+        FhirSearchConfig.Builder searchConfig = FhirSearchConfig.builder();
+        FhirHttpConfig.Builder httpConfig = FhirHttpConfig.builder();
+        long indexSyncInterval = 0;
+        long indexRebuildInterval = SequenceIndexSync.DEFAULT_REBUILD_INTERVAL_SECONDS;
+        String datasetTagSystem = null;
+        String defaultDatasetId = null;
 
         for (ConfigValue configValue : configValues) {
             switch (configValue.getName()) {
@@ -50,6 +87,51 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
                 case "url":
                     url = configValue.getValue();
                     break;
+                case "pageSize":
+                    searchConfig.pageSize(Integer.parseInt(configValue.getValue().trim()));
+                    break;
+                case "chromosomeSearchParam":
+                    searchConfig.chromosomeSearchParam(configValue.getValue());
+                    break;
+                case "startSearchParam":
+                    searchConfig.startSearchParam(configValue.getValue());
+                    break;
+                case "endSearchParam":
+                    searchConfig.endSearchParam(configValue.getValue());
+                    break;
+                case "elements":
+                    searchConfig.elements(parseList(configValue.getValue()));
+                    break;
+                case "indexSyncInterval":
+                    indexSyncInterval = Long.parseLong(configValue.getValue().trim());
+                    break;
+                case "indexRebuildInterval":
+                    indexRebuildInterval = Long.parseLong(configValue.getValue().trim());
+                    break;
+                case "datasetTagSystem":
+                    datasetTagSystem = configValue.getValue().trim();
+                    break;
+                case "defaultDatasetId":
+                    defaultDatasetId = configValue.getValue().trim();
+                    break;
+                case "httpMaxConnections":
+                    httpConfig.maxConnections(Integer.parseInt(configValue.getValue().trim()));
+                    break;
+                case "httpMaxConnectionsPerRoute":
+                    httpConfig.maxConnectionsPerRoute(Integer.parseInt(configValue.getValue().trim()));
+                    break;
+                case "httpKeepAliveSeconds":
+                    httpConfig.keepAliveSeconds(Long.parseLong(configValue.getValue().trim()));
+                    break;
+                case "httpConnectTimeoutSeconds":
+                    httpConfig.connectTimeoutSeconds(Long.parseLong(configValue.getValue().trim()));
+                    break;
+                case "httpSocketTimeoutSeconds":
+                    httpConfig.socketTimeoutSeconds(Long.parseLong(configValue.getValue().trim()));
+                    break;
+                case "httpGzip":
+                    httpConfig.gzip(Boolean.parseBoolean(configValue.getValue().trim()));
+                    break;
             }
         }
 
@@ -58,7 +140,39 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
                     "Missing required parameter: beaconJson. Please add the appropriate configuration parameter then retry");
         }
 
-        fhirClient = new FhirClient(url);
+        allDatasetIds = beacon.getDatasets() != null && !beacon.getDatasets().isEmpty()
+                ? beacon.getDatasets().stream().map(BeaconDataset::getId).collect(Collectors.toList())
+                : null;
+        sampleCountByDataset = new HashMap<>();
+        if (beacon.getDatasets() != null) {
+            for (BeaconDataset dataset : beacon.getDatasets()) {
+                if (dataset.getSampleCount() != null) {
+                    sampleCountByDataset.put(dataset.getId(), dataset.getSampleCount());
+                }
+            }
+        }
+        if (datasetTagSystem == null && defaultDatasetId == null) {
+            // All Sequences make up one dataset.
+            defaultDatasetId = allDatasetIds != null ? allDatasetIds.get(0) : beacon.getId();
+        }
+        datasetMapping = new DatasetMapping(datasetTagSystem, defaultDatasetId);
+
+        fhirClient = new FhirClient(url, searchConfig.build(), httpConfig.build());
+
+        if (indexSyncInterval > 0) {
+            indexSync = new SequenceIndexSync(fhirClient);
+            indexSync.start(indexSyncInterval, indexRebuildInterval);
+            sequenceSearch = indexSync.getIndex();
+        } else {
+            sequenceSearch = fhirClient;
+        }
+    }
+
+    private List<String> parseList(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(element -> !element.isEmpty())
+                .collect(Collectors.toList());
     }
 
     private Beacon readBeaconJsonFile(String filename) {
@@ -96,27 +210,85 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
 
     @Override
     public void initAdapter(AdapterConfig adapterConfig) {
+        destroy();
         initGa4ghClient(adapterConfig);
     }
 
+    /**
+     * Stops the synchronization of the local index and releases the index and the client, so that the adapter fails
+     * the requests until it's initialized again.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (indexSync != null) {
+            indexSync.shutdown();
+            indexSync = null;
+        }
+        sequenceSearch = null;
+        fhirClient = null;
+    }
+
     @Override
     public BeaconAlleleResponse getBeaconAlleleResponse(BeaconAlleleRequest request) throws BeaconException {
         checkAdapterInit();
 
-        List<Sequence.SequenceVariantComponent> variants = fhirClient.getVariants(request.getStart(), request.getStart() + 1,
-                request.getReferenceBases(), request.getAlternateBases());
+        List<String> datasetIdsToSearch = request.getDatasetIds() != null && !request.getDatasetIds().isEmpty()
+                ? request.getDatasetIds()
+                : allDatasetIds;
+        long start = request.getStart();
+        long end = request.getStart() + 1;
+
+        Map<String, DatasetStatistics> statisticsByDataset = new LinkedHashMap<>();
+        if (datasetIdsToSearch != null) {
+            for (String datasetId : datasetIdsToSearch) {
+                statisticsByDataset.put(datasetId, createStatistics(request, datasetId));
+            }
+        }
+
+        try {
+            sequenceSearch.searchSequences(request.getReferenceName(), start, end, sequence -> {
+                for (String datasetId : datasetMapping.getDatasetIds(sequence)) {
+                    DatasetStatistics statistics = datasetIdsToSearch != null
+                            ? statisticsByDataset.get(datasetId)
+                            : statisticsByDataset.computeIfAbsent(datasetId, key -> createStatistics(request, key));
+                    if (statistics != null) {
+                        statistics.add(sequence);
+                    }
+                }
+            });
+        } catch (BaseServerResponseException e) {
+            BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(
+                    "Couldn't load Sequences from the FHIR server.",
+                    Reason.CONN_ERR,
+                    request);
+            alleleRequestException.initCause(e);
+            throw alleleRequestException;
+        }
+
+        List<BeaconDatasetAlleleResponse> datasetResponses = statisticsByDataset.entrySet()
+                .stream()
+                .map(entry -> entry.getValue().toResponse(entry.getKey()))
+                .collect(Collectors.toList());
 
         return BeaconAlleleResponse.newBuilder()
                 .setBeaconId(beacon.getId())
                 .setError(null)
                 .setAlleleRequest(request)
-                .setExists(!variants.isEmpty())
-                .setDatasetAlleleResponses(Collections.singletonList(BeaconDatasetAlleleResponse.newBuilder()
-                        .setExists(!variants.isEmpty())
-                        .build()))
+                .setExists(datasetResponses.stream().anyMatch(BeaconDatasetAlleleResponse::getExists))
+                .setDatasetAlleleResponses(Boolean.TRUE.equals(request.getIncludeDatasetResponses())
+                        ? datasetResponses
+                        : null)
                 .build();
     }
 
+    private DatasetStatistics createStatistics(BeaconAlleleRequest request, String datasetId) {
+        return new DatasetStatistics(request.getStart(),
+                request.getStart() + 1,
+                request.getReferenceBases(),
+                request.getAlternateBases(),
+                sampleCountByDataset.get(datasetId));
+    }
+
     @Override
     public BeaconAlleleResponse getBeaconAlleleResponse(String referenceName, Long start, String referenceBases,
                                                         String alternateBases, String assemblyId, List<String> datasetIds,
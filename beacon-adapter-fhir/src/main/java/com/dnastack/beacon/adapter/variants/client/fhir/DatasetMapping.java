@@ -0,0 +1,59 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import org.hl7.fhir.dstu3.model.Coding;
+import org.hl7.fhir.dstu3.model.Sequence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maps the Sequences to the datasets they belong to. A Sequence belongs to the datasets named by the codes of its meta
+ * tags of the configured system, e.g. a tag {@code {"system": "http://example.org/beacon-dataset", "code": "1000g"}}
+ * puts the Sequence into the dataset "1000g". A Sequence without such a tag belongs to the default dataset, if there's
+ * one.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class DatasetMapping {
+
+    private final String tagSystem;
+    private final String defaultDatasetId;
+
+    /**
+     * @param tagSystem        system of the meta tags naming the datasets, or null if the Sequences aren't tagged
+     * @param defaultDatasetId dataset of the Sequences without a dataset tag, or null to leave them out
+     */
+    public DatasetMapping(String tagSystem, String defaultDatasetId) {
+        this.tagSystem = tagSystem;
+        this.defaultDatasetId = defaultDatasetId;
+    }
+
+    public String getTagSystem() {
+        return tagSystem;
+    }
+
+    public String getDefaultDatasetId() {
+        return defaultDatasetId;
+    }
+
+    /**
+     * @return ids of the datasets the Sequence belongs to, empty if none
+     */
+    public List<String> getDatasetIds(Sequence sequence) {
+        List<String> datasetIds = new ArrayList<>();
+
+        if (tagSystem != null && sequence.hasMeta()) {
+            for (Coding tag : sequence.getMeta().getTag()) {
+                if (tagSystem.equals(tag.getSystem()) && tag.getCode() != null) {
+                    datasetIds.add(tag.getCode());
+                }
+            }
+        }
+
+        if (datasetIds.isEmpty() && defaultDatasetId != null) {
+            return Collections.singletonList(defaultDatasetId);
+        }
+        return datasetIds;
+    }
+}
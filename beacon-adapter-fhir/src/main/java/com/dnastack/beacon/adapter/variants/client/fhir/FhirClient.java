@@ -1,54 +1,132 @@
 package com.dnastack.beacon.adapter.variants.client.fhir;
 
-import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.rest.api.SummaryEnum;
 import ca.uhn.fhir.rest.client.IGenericClient;
+import ca.uhn.fhir.rest.gclient.IQuery;
+import ca.uhn.fhir.rest.gclient.NumberClientParam;
+import ca.uhn.fhir.rest.gclient.TokenClientParam;
+import ca.uhn.fhir.rest.param.DateRangeParam;
 import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.Coding;
 import org.hl7.fhir.dstu3.model.Sequence;
 import org.hl7.fhir.dstu3.model.Sequence.SequenceVariantComponent;
 
-import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * @author Andrey Mochalov (mochalovandrey@gmail.com)
  */
-public class FhirClient {
+public class FhirClient implements SequenceSearch, UpdatedSequenceSource {
 
     private IGenericClient client;
+    private FhirSearchConfig searchConfig;
 
     public FhirClient(String url) {
-        FhirContext fhirContext = FhirContext.forDstu3();
+        this(url, FhirSearchConfig.defaults());
+    }
+
+    public FhirClient(String url, FhirSearchConfig searchConfig) {
+        this(url, searchConfig, FhirHttpConfig.defaults());
+    }
 
-        client = fhirContext.newRestfulGenericClient(url);
+    public FhirClient(String url, FhirSearchConfig searchConfig, FhirHttpConfig httpConfig) {
+        this.client = FhirContexts.newClient(url, httpConfig);
+        this.searchConfig = searchConfig;
     }
 
     public List<SequenceVariantComponent> getVariants(Long start, Long end, String refAllele, String obsAllele) {
-        Bundle results = client
+        return getVariants(null, start, end, refAllele, obsAllele);
+    }
+
+    /**
+     * Searches for the Sequences of the given chromosome having a variant at the given position and passes them to the
+     * consumer page by page, so that only one bundle page is held in memory at a time. The criteria are sent as the
+     * search parameters configured in {@link FhirSearchConfig}, which must all be supported by the server: a strict
+     * server rejects the search otherwise.
+     */
+    @Override
+    public void searchSequences(String chromosome, Long start, Long end, Consumer<Sequence> consumer) {
+        IQuery<Bundle> query = createSequenceQuery();
+
+        if (chromosome != null && !searchConfig.getChromosomeSearchParam().isEmpty()) {
+            query = query.where(new TokenClientParam(searchConfig.getChromosomeSearchParam()).exactly().code(chromosome));
+        }
+        if (start != null && !searchConfig.getStartSearchParam().isEmpty()) {
+            query = query.where(new NumberClientParam(searchConfig.getStartSearchParam()).exactly().number(start));
+        }
+        if (end != null && !searchConfig.getEndSearchParam().isEmpty()) {
+            query = query.where(new NumberClientParam(searchConfig.getEndSearchParam()).exactly().number(end));
+        }
+
+        forEachSequence(query, chromosome, consumer);
+    }
+
+    /**
+     * Passes the Sequences created or updated on the server since the given time to the consumer page by page.
+     *
+     * @param since time of the last update to search from, inclusive, or null to pass all Sequences
+     */
+    @Override
+    public void searchSequencesUpdatedSince(Date since, Consumer<Sequence> consumer) {
+        IQuery<Bundle> query = createSequenceQuery();
+
+        if (since != null) {
+            query = query.lastUpdated(new DateRangeParam(since, null));
+        }
+
+        forEachSequence(query, null, consumer);
+    }
+
+    private IQuery<Bundle> createSequenceQuery() {
+        IQuery<Bundle> query = client
                 .search()
                 .forResource(Sequence.class)
                 .returnBundle(Bundle.class)
-                .execute();
-
-        List<SequenceVariantComponent> variants = new ArrayList<>();
+                .count(searchConfig.getPageSize());
 
-        for (Bundle.BundleEntryComponent bundleEntryComponent : results.getEntry()) {
-            Sequence sequence = (Sequence) bundleEntryComponent.getResource();
-
-            variants.addAll(sequence.getVariant().stream()
-                    .filter(sequenceVariantComponent -> filterVariants(start, end, refAllele, obsAllele, sequenceVariantComponent))
-                    .collect(Collectors.toList()));
+        if (!searchConfig.getElements().isEmpty()) {
+            query = query.elementsSubset(searchConfig.getElements().toArray(new String[0]));
+        } else {
+            // Whole Sequences, but without the narrative.
+            query = query.summaryMode(SummaryEnum.DATA);
         }
+        return query;
+    }
+
+    private void forEachSequence(IQuery<Bundle> query, String chromosome, Consumer<Sequence> consumer) {
+        Bundle page = query.execute();
+        while (true) {
+            for (Bundle.BundleEntryComponent bundleEntryComponent : page.getEntry()) {
+                if (!(bundleEntryComponent.getResource() instanceof Sequence)) {
+                    // Included resources and operation outcomes aren't search matches.
+                    continue;
+                }
 
-        return variants;
+                Sequence sequence = (Sequence) bundleEntryComponent.getResource();
+                if (matchesChromosome(chromosome, sequence)) {
+                    consumer.accept(sequence);
+                }
+            }
 
+            if (page.getLink(Bundle.LINK_NEXT) == null) {
+                break;
+            }
+            page = client.loadPage().next(page).execute();
+        }
     }
 
-    private boolean filterVariants(Long start, Long end, String refAllele, String obsAllele, SequenceVariantComponent sequenceVariantComponent) {
-        return sequenceVariantComponent.getStart() == start
-                && sequenceVariantComponent.getEnd() == end
-                && sequenceVariantComponent.getReferenceAllele().equalsIgnoreCase(refAllele)
-                && sequenceVariantComponent.getObservedAllele().equalsIgnoreCase(obsAllele);
+    /**
+     * Sequences whose reference sequence doesn't state a chromosome match any chromosome.
+     */
+    static boolean matchesChromosome(String chromosome, Sequence sequence) {
+        if (chromosome == null || !sequence.hasReferenceSeq() || !sequence.getReferenceSeq().hasChromosome()) {
+            return true;
+        }
+
+        List<Coding> codings = sequence.getReferenceSeq().getChromosome().getCoding();
+        return codings.isEmpty() || codings.stream().anyMatch(coding -> chromosome.equalsIgnoreCase(coding.getCode()));
     }
 
 }
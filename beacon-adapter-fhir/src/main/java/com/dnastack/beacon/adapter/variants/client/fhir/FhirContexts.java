@@ -0,0 +1,91 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.LenientErrorHandler;
+import ca.uhn.fhir.rest.client.IGenericClient;
+import ca.uhn.fhir.rest.client.IRestfulClientFactory;
+import ca.uhn.fhir.rest.client.ServerValidationModeEnum;
+import ca.uhn.fhir.rest.client.apache.ApacheRestfulClientFactory;
+import ca.uhn.fhir.rest.server.EncodingEnum;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link FhirContext} shared by all the clients and adapters of the application, and one pooled HTTP client per
+ * {@link FhirHttpConfig}. Creating a context scans the model classes by reflection and takes seconds, while the
+ * context is thread-safe and meant to be reused.
+ * <p>
+ * The context parses the resources leniently and silently, so that the elements the adapter doesn't know are skipped
+ * without logging. The clients don't fetch the conformance statement of the server before their first request and
+ * ask for compact JSON.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public final class FhirContexts {
+
+    private static final ConcurrentMap<FhirHttpConfig, IRestfulClientFactory> CLIENT_FACTORIES = new ConcurrentHashMap<>();
+
+    /**
+     * @return the shared STU3 context, created on first use
+     */
+    public static FhirContext dstu3() {
+        return Dstu3ContextHolder.CONTEXT;
+    }
+
+    /**
+     * @return client of the server at the given url, using the shared HTTP client for the given settings
+     */
+    public static IGenericClient newClient(String url, FhirHttpConfig config) {
+        IGenericClient client = CLIENT_FACTORIES.computeIfAbsent(config, FhirContexts::createClientFactory)
+                .newGenericClient(url);
+        client.setEncoding(EncodingEnum.JSON);
+        client.setPrettyPrint(false);
+        return client;
+    }
+
+    private static IRestfulClientFactory createClientFactory(FhirHttpConfig config) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(config.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+
+        int connectTimeoutMillis = (int) TimeUnit.SECONDS.toMillis(config.getConnectTimeoutSeconds());
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMillis)
+                .setConnectionRequestTimeout(connectTimeoutMillis)
+                .setSocketTimeout((int) TimeUnit.SECONDS.toMillis(config.getSocketTimeoutSeconds()))
+                .build();
+
+        HttpClientBuilder httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictIdleConnections(config.getKeepAliveSeconds(), TimeUnit.SECONDS);
+        if (!config.isGzip()) {
+            httpClient.disableContentCompression();
+        }
+
+        ApacheRestfulClientFactory clientFactory = new ApacheRestfulClientFactory(dstu3());
+        clientFactory.setHttpClient(httpClient.build());
+        clientFactory.setServerValidationMode(ServerValidationModeEnum.NEVER);
+        return clientFactory;
+    }
+
+    private static final class Dstu3ContextHolder {
+
+        private static final FhirContext CONTEXT = createDstu3Context();
+
+        private static FhirContext createDstu3Context() {
+            FhirContext context = FhirContext.forDstu3();
+            context.setParserErrorHandler(new LenientErrorHandler(false));
+            return context;
+        }
+    }
+
+    private FhirContexts() {
+    }
+}
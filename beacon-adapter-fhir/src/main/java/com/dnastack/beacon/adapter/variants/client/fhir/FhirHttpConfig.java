@@ -0,0 +1,166 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import java.util.Objects;
+
+/**
+ * Settings of the HTTP client shared by all {@link FhirClient}s with the same settings, see {@link FhirContexts}.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public final class FhirHttpConfig {
+
+    /**
+     * HAPI defaults for the connection pool.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+
+    public static final long DEFAULT_KEEP_ALIVE_SECONDS = 300;
+    public static final long DEFAULT_CONNECT_TIMEOUT_SECONDS = 10;
+
+    /**
+     * HAPI defaults to 10 seconds, too little for the unfiltered searches that load the local index.
+     */
+    public static final long DEFAULT_SOCKET_TIMEOUT_SECONDS = 60;
+
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final long keepAliveSeconds;
+    private final long connectTimeoutSeconds;
+    private final long socketTimeoutSeconds;
+    private final boolean gzip;
+
+    private FhirHttpConfig(Builder builder) {
+        if (builder.maxConnections < 1) {
+            throw new IllegalArgumentException("Max connections must be positive, got " + builder.maxConnections);
+        }
+        if (builder.maxConnectionsPerRoute < 1) {
+            throw new IllegalArgumentException("Max connections per route must be positive, got " + builder.maxConnectionsPerRoute);
+        }
+
+        this.maxConnections = builder.maxConnections;
+        this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+        this.keepAliveSeconds = builder.keepAliveSeconds;
+        this.connectTimeoutSeconds = builder.connectTimeoutSeconds;
+        this.socketTimeoutSeconds = builder.socketTimeoutSeconds;
+        this.gzip = builder.gzip;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static FhirHttpConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @return maximum number of connections open to all servers
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @return maximum number of connections open to one server
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * @return how long an idle connection is kept open
+     */
+    public long getKeepAliveSeconds() {
+        return keepAliveSeconds;
+    }
+
+    public long getConnectTimeoutSeconds() {
+        return connectTimeoutSeconds;
+    }
+
+    public long getSocketTimeoutSeconds() {
+        return socketTimeoutSeconds;
+    }
+
+    /**
+     * @return true if gzip-compressed responses are accepted
+     */
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FhirHttpConfig that = (FhirHttpConfig) o;
+        return maxConnections == that.maxConnections
+                && maxConnectionsPerRoute == that.maxConnectionsPerRoute
+                && keepAliveSeconds == that.keepAliveSeconds
+                && connectTimeoutSeconds == that.connectTimeoutSeconds
+                && socketTimeoutSeconds == that.socketTimeoutSeconds
+                && gzip == that.gzip;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxConnections,
+                maxConnectionsPerRoute,
+                keepAliveSeconds,
+                connectTimeoutSeconds,
+                socketTimeoutSeconds,
+                gzip);
+    }
+
+    public static final class Builder {
+
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+        private long keepAliveSeconds = DEFAULT_KEEP_ALIVE_SECONDS;
+        private long connectTimeoutSeconds = DEFAULT_CONNECT_TIMEOUT_SECONDS;
+        private long socketTimeoutSeconds = DEFAULT_SOCKET_TIMEOUT_SECONDS;
+        private boolean gzip = true;
+
+        private Builder() {
+        }
+
+        public Builder maxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        public Builder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        public Builder keepAliveSeconds(long keepAliveSeconds) {
+            this.keepAliveSeconds = keepAliveSeconds;
+            return this;
+        }
+
+        public Builder connectTimeoutSeconds(long connectTimeoutSeconds) {
+            this.connectTimeoutSeconds = connectTimeoutSeconds;
+            return this;
+        }
+
+        public Builder socketTimeoutSeconds(long socketTimeoutSeconds) {
+            this.socketTimeoutSeconds = socketTimeoutSeconds;
+            return this;
+        }
+
+        public Builder gzip(boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
+        public FhirHttpConfig build() {
+            return new FhirHttpConfig(this);
+        }
+    }
+}
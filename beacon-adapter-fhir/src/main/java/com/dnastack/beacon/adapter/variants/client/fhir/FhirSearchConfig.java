@@ -0,0 +1,136 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Settings of the Sequence searches {@link FhirClient} sends to the FHIR server.
+ * <p>
+ * STU3 only defines the "chromosome" search parameter of a Sequence for the variant position, so only that one is sent
+ * by default. "variant-start" and "variant-end" come from later FHIR versions and are supported by some STU3 servers
+ * too; configure them only for such a server, because strict servers, e.g. HAPI JPA, reject a search with an unknown
+ * parameter with 400 Bad Request instead of ignoring it. A parameter whose name is empty isn't sent; the client filters
+ * the variants by all the criteria itself anyway, so the parameters only reduce what comes over the wire.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public final class FhirSearchConfig {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final String DEFAULT_CHROMOSOME_SEARCH_PARAM = "chromosome";
+    public static final String DEFAULT_START_SEARCH_PARAM = "";
+    public static final String DEFAULT_END_SEARCH_PARAM = "";
+
+    /**
+     * Elements of a Sequence the allele queries read: the variants, the chromosome, the sample and the dataset tags.
+     */
+    public static final List<String> DEFAULT_ELEMENTS = Collections.unmodifiableList(Arrays.asList("meta",
+            "referenceSeq",
+            "variant",
+            "patient",
+            "specimen"));
+
+    private final int pageSize;
+    private final String chromosomeSearchParam;
+    private final String startSearchParam;
+    private final String endSearchParam;
+    private final List<String> elements;
+
+    private FhirSearchConfig(Builder builder) {
+        if (builder.pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive, got " + builder.pageSize);
+        }
+
+        this.pageSize = builder.pageSize;
+        this.chromosomeSearchParam = builder.chromosomeSearchParam;
+        this.startSearchParam = builder.startSearchParam;
+        this.endSearchParam = builder.endSearchParam;
+        this.elements = Collections.unmodifiableList(new ArrayList<>(builder.elements));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static FhirSearchConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @return number of Sequences requested per bundle page
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return name of the token search parameter of the reference chromosome, empty if it isn't sent
+     */
+    public String getChromosomeSearchParam() {
+        return chromosomeSearchParam;
+    }
+
+    /**
+     * @return name of the number search parameter of the variant start, empty if it isn't sent
+     */
+    public String getStartSearchParam() {
+        return startSearchParam;
+    }
+
+    /**
+     * @return name of the number search parameter of the variant end, empty if it isn't sent
+     */
+    public String getEndSearchParam() {
+        return endSearchParam;
+    }
+
+    /**
+     * @return elements of the Sequences requested via "_elements", empty to request whole Sequences
+     */
+    public List<String> getElements() {
+        return elements;
+    }
+
+    public static final class Builder {
+
+        private int pageSize = DEFAULT_PAGE_SIZE;
+        private String chromosomeSearchParam = DEFAULT_CHROMOSOME_SEARCH_PARAM;
+        private String startSearchParam = DEFAULT_START_SEARCH_PARAM;
+        private String endSearchParam = DEFAULT_END_SEARCH_PARAM;
+        private List<String> elements = DEFAULT_ELEMENTS;
+
+        private Builder() {
+        }
+
+        public Builder pageSize(int pageSize) {
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        public Builder chromosomeSearchParam(String chromosomeSearchParam) {
+            this.chromosomeSearchParam = chromosomeSearchParam.trim();
+            return this;
+        }
+
+        public Builder startSearchParam(String startSearchParam) {
+            this.startSearchParam = startSearchParam.trim();
+            return this;
+        }
+
+        public Builder endSearchParam(String endSearchParam) {
+            this.endSearchParam = endSearchParam.trim();
+            return this;
+        }
+
+        public Builder elements(List<String> elements) {
+            this.elements = elements;
+            return this;
+        }
+
+        public FhirSearchConfig build() {
+            return new FhirSearchConfig(this);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import org.hl7.fhir.dstu3.model.Sequence;
+import org.hl7.fhir.dstu3.model.Sequence.SequenceVariantComponent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory copy of the Sequences of a FHIR server, indexed by the start positions of their variants, so that the
+ * allele queries are answered without a request to the server. The index is filled and kept current by {@link
+ * SequenceIndexSync}; a Sequence put again replaces its previous version, and the whole index is replaced when it's
+ * rebuilt.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class SequenceIndex implements SequenceSearch {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Sequence> sequencesById = new HashMap<>();
+    private Map<Long, Set<String>> sequenceIdsByStart = new HashMap<>();
+
+    /**
+     * Adds the Sequence or replaces the indexed Sequence with the same id. Sequences without an id can't be replaced
+     * later and are ignored.
+     */
+    public void put(Sequence sequence) {
+        String id = sequence.getIdElement().getIdPart();
+        if (id == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Sequence previous = sequencesById.put(id, sequence);
+            if (previous != null) {
+                for (SequenceVariantComponent variant : previous.getVariant()) {
+                    Set<String> ids = sequenceIdsByStart.get((long) variant.getStart());
+                    if (ids != null) {
+                        ids.remove(id);
+                        if (ids.isEmpty()) {
+                            sequenceIdsByStart.remove((long) variant.getStart());
+                        }
+                    }
+                }
+            }
+            for (SequenceVariantComponent variant : sequence.getVariant()) {
+                sequenceIdsByStart.computeIfAbsent((long) variant.getStart(), start -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the indexed Sequences with those of the given index, which mustn't be used afterwards.
+     */
+    public void replaceWith(SequenceIndex other) {
+        lock.writeLock().lock();
+        try {
+            sequencesById = other.sequencesById;
+            sequenceIdsByStart = other.sequenceIdsByStart;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Passes the indexed Sequences of the given chromosome having a variant that starts at the given position. The
+     * consumer is called outside of the lock, so a slow consumer doesn't hold up the synchronization.
+     */
+    @Override
+    public void searchSequences(String chromosome, Long start, Long end, Consumer<Sequence> consumer) {
+        List<Sequence> sequences = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            if (start == null) {
+                sequences.addAll(sequencesById.values());
+            } else {
+                for (String id : sequenceIdsByStart.getOrDefault(start, new HashSet<>())) {
+                    sequences.add(sequencesById.get(id));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        for (Sequence sequence : sequences) {
+            if (FhirClient.matchesChromosome(chromosome, sequence)) {
+                consumer.accept(sequence);
+            }
+        }
+    }
+
+    /**
+     * @return number of indexed Sequences
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return sequencesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
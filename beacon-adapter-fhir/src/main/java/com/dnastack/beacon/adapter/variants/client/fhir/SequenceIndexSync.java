@@ -0,0 +1,148 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import org.hl7.fhir.dstu3.model.Sequence;
+
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fills a {@link SequenceIndex} with all Sequences of the FHIR server and then polls the server on a schedule for the
+ * Sequences updated since the latest update seen, using the "_lastUpdated" search parameter of {@link FhirClient}.
+ * <p>
+ * The latest update is taken from the meta of the Sequences returned by the server, so the clocks of the server and
+ * the adapter don't need to agree; without the meta every poll loads all Sequences again. It only moves forward once a
+ * poll has passed all its pages to the index, a failed poll is repeated by the next one.
+ * <p>
+ * Deleted Sequences aren't returned by a search, so the polls can't drop them. Instead, the index is rebuilt on a
+ * schedule of its own: all Sequences are loaded into a new index, which replaces the current one once complete. Until
+ * then, and if the rebuild fails, the queries are answered from the current index.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class SequenceIndexSync {
+
+    /**
+     * Bounds how long a Sequence deleted on the server is still reported, unless configured otherwise.
+     */
+    public static final long DEFAULT_REBUILD_INTERVAL_SECONDS = 3600;
+
+    private final UpdatedSequenceSource source;
+    private final SequenceIndex index = new SequenceIndex();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Date lastUpdated;
+    private volatile Exception lastSyncError;
+
+    public SequenceIndexSync(UpdatedSequenceSource source) {
+        this.source = source;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "beacon-fhir-index-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Same as {@link #start(long, long)}, but never rebuilds the index.
+     */
+    public void start(long syncIntervalSeconds) {
+        start(syncIntervalSeconds, 0);
+    }
+
+    /**
+     * Loads all Sequences right away and then polls for the updated ones in the background every given number of
+     * seconds.
+     *
+     * @param rebuildIntervalSeconds seconds between the rebuilds of the index that drop the deleted Sequences, or 0 to
+     *                               never rebuild it
+     * @throws RuntimeException if the Sequences can't be loaded
+     */
+    public void start(long syncIntervalSeconds, long rebuildIntervalSeconds) {
+        if (!sync()) {
+            throw new RuntimeException("Failed to load the Sequences of the FHIR server: " + lastSyncError.getMessage(),
+                    lastSyncError);
+        }
+
+        scheduler.scheduleWithFixedDelay(this::sync, syncIntervalSeconds, syncIntervalSeconds, TimeUnit.SECONDS);
+        if (rebuildIntervalSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(this::rebuild,
+                    rebuildIntervalSeconds,
+                    rebuildIntervalSeconds,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Passes the Sequences updated since the previous sync to the index.
+     *
+     * @return true if all of them have been passed
+     */
+    public synchronized boolean sync() {
+        try {
+            lastUpdated = load(lastUpdated, index);
+            lastSyncError = null;
+            return true;
+        } catch (Exception e) {
+            lastSyncError = e;
+            return false;
+        }
+    }
+
+    /**
+     * Loads all Sequences into a new index and replaces the current index with it, dropping the Sequences deleted on
+     * the server.
+     *
+     * @return true if the index has been replaced, false if the load failed and the current index is kept
+     */
+    public synchronized boolean rebuild() {
+        SequenceIndex rebuiltIndex = new SequenceIndex();
+        try {
+            Date rebuiltLastUpdated = load(null, rebuiltIndex);
+            index.replaceWith(rebuiltIndex);
+            lastUpdated = rebuiltLastUpdated;
+            lastSyncError = null;
+            return true;
+        } catch (Exception e) {
+            lastSyncError = e;
+            return false;
+        }
+    }
+
+    /**
+     * @return latest update of the Sequences passed to the index and {@code since}
+     */
+    private Date load(Date since, SequenceIndex target) {
+        AtomicReference<Date> latestUpdate = new AtomicReference<>(since);
+        source.searchSequencesUpdatedSince(since, sequence -> {
+            target.put(sequence);
+
+            Date updated = getLastUpdated(sequence);
+            if (updated != null && (latestUpdate.get() == null || updated.after(latestUpdate.get()))) {
+                latestUpdate.set(updated);
+            }
+        });
+        return latestUpdate.get();
+    }
+
+    private Date getLastUpdated(Sequence sequence) {
+        return sequence.hasMeta() ? sequence.getMeta().getLastUpdated() : null;
+    }
+
+    public SequenceIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @return error of the last sync or rebuild, or null if it succeeded
+     */
+    public Exception getLastSyncError() {
+        return lastSyncError;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
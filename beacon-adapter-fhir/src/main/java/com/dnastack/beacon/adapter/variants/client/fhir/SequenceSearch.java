@@ -0,0 +1,41 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import org.hl7.fhir.dstu3.model.Sequence;
+import org.hl7.fhir.dstu3.model.Sequence.SequenceVariantComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Source of the Sequences having a variant at a given position: either the FHIR server itself or a local index of it.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public interface SequenceSearch {
+
+    /**
+     * Passes the Sequences of the given chromosome that may have a variant at the given position to the consumer. The
+     * Sequences passed may have no variant at the position, the caller needs to check the variants.
+     *
+     * @param chromosome chromosome to search, or null to search all of them
+     */
+    void searchSequences(String chromosome, Long start, Long end, Consumer<Sequence> consumer);
+
+    default List<SequenceVariantComponent> getVariants(String chromosome, Long start, Long end, String refAllele, String obsAllele) {
+        List<SequenceVariantComponent> variants = new ArrayList<>();
+
+        searchSequences(chromosome, start, end, sequence -> {
+            for (SequenceVariantComponent sequenceVariantComponent : sequence.getVariant()) {
+                if (sequenceVariantComponent.getStart() == start
+                        && sequenceVariantComponent.getEnd() == end
+                        && sequenceVariantComponent.getReferenceAllele().equalsIgnoreCase(refAllele)
+                        && sequenceVariantComponent.getObservedAllele().equalsIgnoreCase(obsAllele)) {
+                    variants.add(sequenceVariantComponent);
+                }
+            }
+        });
+
+        return variants;
+    }
+}
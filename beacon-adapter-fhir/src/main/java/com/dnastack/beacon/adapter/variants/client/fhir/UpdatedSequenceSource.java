@@ -0,0 +1,22 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import org.hl7.fhir.dstu3.model.Sequence;
+
+import java.util.Date;
+import java.util.function.Consumer;
+
+/**
+ * Source of the Sequences created or updated since a given time, which {@link SequenceIndexSync} keeps its index
+ * current from.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public interface UpdatedSequenceSource {
+
+    /**
+     * Passes the Sequences created or updated since the given time to the consumer.
+     *
+     * @param since time of the last update to search from, inclusive, or null to pass all Sequences
+     */
+    void searchSequencesUpdatedSince(Date since, Consumer<Sequence> consumer);
+}
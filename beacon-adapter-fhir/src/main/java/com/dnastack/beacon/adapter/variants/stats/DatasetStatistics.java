@@ -0,0 +1,131 @@
+package com.dnastack.beacon.adapter.variants.stats;
+
+import org.ga4gh.beacon.BeaconDatasetAlleleResponse;
+import org.hl7.fhir.dstu3.model.Sequence;
+import org.hl7.fhir.dstu3.model.Sequence.SequenceVariantComponent;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Collects everything {@link BeaconDatasetAlleleResponse} reports about a dataset in one pass over the Sequences with a
+ * variant at the requested position. The Sequences can be added as their bundle pages arrive and don't need to be kept.
+ * <p>
+ * As in the GA4GH adapters, the variant count is the number of distinct variants matching the request, however many
+ * Sequences carry them, and the call count is the number of calls of those variants, one per Sequence carrying one.
+ * A sample is the patient of a Sequence, or its specimen if it has no patient, or the Sequence itself if it has
+ * neither. The frequency is the share of the samples with the requested allele among all samples of the dataset, so
+ * it's only reported if the dataset's sample count is known: the Sequences found only cover the samples having a
+ * variant at the position, which would make an allele seen in one sample look like it's in all of them.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class DatasetStatistics {
+
+    private final long start;
+    private final long end;
+    private final String referenceBases;
+    private final String alternateBases;
+    private final Long datasetSampleCount;
+
+    private final Set<String> matchingVariants = new HashSet<>();
+    private final Set<String> matchingSamples = new HashSet<>();
+    private long callCount;
+
+    /**
+     * @param referenceBases     requested reference bases, null matches no variant
+     * @param alternateBases     requested alternate bases, null matches no variant
+     * @param datasetSampleCount number of samples in the dataset, or null if unknown
+     */
+    public DatasetStatistics(long start, long end, String referenceBases, String alternateBases, Long datasetSampleCount) {
+        this.start = start;
+        this.end = end;
+        this.referenceBases = referenceBases;
+        this.alternateBases = alternateBases;
+        this.datasetSampleCount = datasetSampleCount;
+    }
+
+    /**
+     * Adds a Sequence of the dataset. Its variants at other positions are ignored.
+     */
+    public void add(Sequence sequence) {
+        String sample = getSample(sequence);
+
+        for (SequenceVariantComponent variant : sequence.getVariant()) {
+            if (variant.getStart() != start || variant.getEnd() != end || !matches(variant)) {
+                continue;
+            }
+
+            callCount++;
+            matchingVariants.add(variant.getReferenceAllele().toUpperCase(Locale.ROOT)
+                    + ">"
+                    + variant.getObservedAllele().toUpperCase(Locale.ROOT));
+            matchingSamples.add(sample);
+        }
+    }
+
+    private boolean matches(SequenceVariantComponent variant) {
+        return referenceBases != null
+                && alternateBases != null
+                && referenceBases.equalsIgnoreCase(variant.getReferenceAllele())
+                && alternateBases.equalsIgnoreCase(variant.getObservedAllele());
+    }
+
+    private static String getSample(Sequence sequence) {
+        if (sequence.hasPatient() && sequence.getPatient().getReference() != null) {
+            return sequence.getPatient().getReference();
+        }
+        if (sequence.hasSpecimen() && sequence.getSpecimen().getReference() != null) {
+            return sequence.getSpecimen().getReference();
+        }
+        String id = sequence.getIdElement().getIdPart();
+        // A Sequence without an id can't be told apart from the others, count it as a sample of its own.
+        return id != null ? "Sequence/" + id : "Sequence@" + System.identityHashCode(sequence);
+    }
+
+    /**
+     * @return number of distinct variants matching the request
+     */
+    public long getVariantCount() {
+        return matchingVariants.size();
+    }
+
+    /**
+     * @return number of calls of the matching variants
+     */
+    public long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * @return number of samples with the requested allele
+     */
+    public long getSampleCount() {
+        return matchingSamples.size();
+    }
+
+    /**
+     * @return share of the dataset's samples with the requested allele, or null if the dataset's sample count is
+     * unknown
+     */
+    public Double getFrequency() {
+        if (datasetSampleCount == null || datasetSampleCount <= 0) {
+            return null;
+        }
+        return (double) matchingSamples.size() / datasetSampleCount;
+    }
+
+    public BeaconDatasetAlleleResponse toResponse(String datasetId) {
+        return BeaconDatasetAlleleResponse.newBuilder()
+                .setDatasetId(datasetId)
+                .setFrequency(getFrequency())
+                .setCallCount(callCount)
+                .setVariantCount(getVariantCount())
+                .setSampleCount(getSampleCount())
+                .setExists(!matchingVariants.isEmpty())
+                .build();
+    }
+}
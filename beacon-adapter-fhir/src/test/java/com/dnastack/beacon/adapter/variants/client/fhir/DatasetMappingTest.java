@@ -0,0 +1,51 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import org.hl7.fhir.dstu3.model.Sequence;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class DatasetMappingTest {
+
+    private static final String TAG_SYSTEM = "http://example.org/beacon-dataset";
+
+    @Test
+    public void mapsSequenceToTheDatasetsOfItsTags() {
+        DatasetMapping mapping = new DatasetMapping(TAG_SYSTEM, "default");
+        Sequence sequence = new Sequence();
+        sequence.getMeta().addTag(TAG_SYSTEM, "1000g", null);
+        sequence.getMeta().addTag(TAG_SYSTEM, "exac", null);
+        sequence.getMeta().addTag("http://example.org/other", "other", null);
+
+        assertThat(mapping.getDatasetIds(sequence)).containsExactly("1000g", "exac");
+    }
+
+    @Test
+    public void mapsUntaggedSequenceToTheDefaultDataset() {
+        DatasetMapping mapping = new DatasetMapping(TAG_SYSTEM, "default");
+        Sequence sequence = new Sequence();
+        sequence.getMeta().addTag("http://example.org/other", "other", null);
+
+        assertThat(mapping.getDatasetIds(sequence)).containsExactly("default");
+        assertThat(mapping.getDatasetIds(new Sequence())).containsExactly("default");
+    }
+
+    @Test
+    public void leavesUntaggedSequenceOutWithoutDefaultDataset() {
+        DatasetMapping mapping = new DatasetMapping(TAG_SYSTEM, null);
+
+        assertThat(mapping.getDatasetIds(new Sequence())).isEmpty();
+    }
+
+    @Test
+    public void mapsAllSequencesToTheDefaultDatasetWithoutTagSystem() {
+        DatasetMapping mapping = new DatasetMapping(null, "default");
+        Sequence sequence = new Sequence();
+        sequence.getMeta().addTag(TAG_SYSTEM, "1000g", null);
+
+        assertThat(mapping.getDatasetIds(sequence)).containsExactly("default");
+    }
+}
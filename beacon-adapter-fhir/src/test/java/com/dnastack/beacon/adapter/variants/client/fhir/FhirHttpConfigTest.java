@@ -0,0 +1,56 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class FhirHttpConfigTest {
+
+    @Test
+    public void defaultsMatchTheConstants() {
+        FhirHttpConfig config = FhirHttpConfig.defaults();
+
+        assertThat(config.getMaxConnections()).isEqualTo(FhirHttpConfig.DEFAULT_MAX_CONNECTIONS);
+        assertThat(config.getMaxConnectionsPerRoute()).isEqualTo(FhirHttpConfig.DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+        assertThat(config.getKeepAliveSeconds()).isEqualTo(FhirHttpConfig.DEFAULT_KEEP_ALIVE_SECONDS);
+        assertThat(config.getConnectTimeoutSeconds()).isEqualTo(FhirHttpConfig.DEFAULT_CONNECT_TIMEOUT_SECONDS);
+        assertThat(config.getSocketTimeoutSeconds()).isEqualTo(FhirHttpConfig.DEFAULT_SOCKET_TIMEOUT_SECONDS);
+        assertThat(config.isGzip()).isTrue();
+    }
+
+    @Test
+    public void configsWithTheSameSettingsAreEqual() {
+        FhirHttpConfig config = FhirHttpConfig.builder().maxConnections(50).socketTimeoutSeconds(120).build();
+        FhirHttpConfig sameConfig = FhirHttpConfig.builder().socketTimeoutSeconds(120).maxConnections(50).build();
+
+        assertThat(config).isEqualTo(sameConfig);
+        assertThat(config.hashCode()).isEqualTo(sameConfig.hashCode());
+        assertThat(FhirHttpConfig.defaults()).isEqualTo(FhirHttpConfig.defaults());
+    }
+
+    @Test
+    public void configsWithDifferentSettingsAreNotEqual() {
+        FhirHttpConfig config = FhirHttpConfig.defaults();
+
+        assertThat(config).isNotEqualTo(FhirHttpConfig.builder().maxConnections(50).build());
+        assertThat(config).isNotEqualTo(FhirHttpConfig.builder().maxConnectionsPerRoute(5).build());
+        assertThat(config).isNotEqualTo(FhirHttpConfig.builder().keepAliveSeconds(30).build());
+        assertThat(config).isNotEqualTo(FhirHttpConfig.builder().connectTimeoutSeconds(30).build());
+        assertThat(config).isNotEqualTo(FhirHttpConfig.builder().socketTimeoutSeconds(30).build());
+        assertThat(config).isNotEqualTo(FhirHttpConfig.builder().gzip(false).build());
+    }
+
+    @Test
+    public void rejectsNonPositiveConnectionLimits() {
+        assertThatThrownBy(() -> FhirHttpConfig.builder().maxConnections(0).build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Max connections");
+        assertThatThrownBy(() -> FhirHttpConfig.builder().maxConnectionsPerRoute(-1).build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Max connections per route");
+    }
+}
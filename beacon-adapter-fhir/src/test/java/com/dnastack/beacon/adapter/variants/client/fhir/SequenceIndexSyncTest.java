@@ -0,0 +1,147 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import org.hl7.fhir.dstu3.model.Sequence;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class SequenceIndexSyncTest {
+
+    /**
+     * Serves the Sequences of the next poll from memory and records the times the polls start from.
+     */
+    private static class StubSequenceSource implements UpdatedSequenceSource {
+
+        private final List<Date> sinces = new ArrayList<>();
+        private List<Sequence> sequences = Collections.emptyList();
+        private boolean failAfterSequences;
+
+        @Override
+        public void searchSequencesUpdatedSince(Date since, Consumer<Sequence> consumer) {
+            sinces.add(since);
+            sequences.forEach(consumer);
+            if (failAfterSequences) {
+                throw new IllegalStateException("next page failed");
+            }
+        }
+    }
+
+    @Test
+    public void pollsFromTheLatestUpdateSeen() {
+        StubSequenceSource source = new StubSequenceSource();
+        SequenceIndexSync sync = new SequenceIndexSync(source);
+
+        source.sequences = Arrays.asList(sequence("seq-1", 2000), sequence("seq-2", 3000), sequence("seq-3", 1000));
+        assertThat(sync.sync()).isTrue();
+        source.sequences = Collections.emptyList();
+        assertThat(sync.sync()).isTrue();
+
+        assertThat(source.sinces).containsExactly(null, new Date(3000));
+        assertThat(sync.getIndex().size()).isEqualTo(3);
+        assertThat(sync.getLastSyncError()).isNull();
+
+        sync.shutdown();
+    }
+
+    @Test
+    public void failedPollDoesNotAdvanceTheLatestUpdate() {
+        StubSequenceSource source = new StubSequenceSource();
+        SequenceIndexSync sync = new SequenceIndexSync(source);
+
+        source.sequences = Arrays.asList(sequence("seq-1", 1000));
+        sync.sync();
+
+        source.sequences = Arrays.asList(sequence("seq-2", 5000));
+        source.failAfterSequences = true;
+        assertThat(sync.sync()).isFalse();
+        assertThat(sync.getLastSyncError()).hasMessage("next page failed");
+
+        source.sequences = Collections.emptyList();
+        source.failAfterSequences = false;
+        assertThat(sync.sync()).isTrue();
+
+        assertThat(source.sinces).containsExactly(null, new Date(1000), new Date(1000));
+        assertThat(sync.getLastSyncError()).isNull();
+
+        sync.shutdown();
+    }
+
+    @Test
+    public void sequencesWithoutMetaDoNotAdvanceTheLatestUpdate() {
+        StubSequenceSource source = new StubSequenceSource();
+        SequenceIndexSync sync = new SequenceIndexSync(source);
+
+        source.sequences = Arrays.asList(SequenceIndexTest.sequence("seq-1", "1", 100));
+        sync.sync();
+        sync.sync();
+
+        assertThat(source.sinces).containsExactly(null, null);
+
+        sync.shutdown();
+    }
+
+    @Test
+    public void rebuildDropsDeletedSequences() {
+        StubSequenceSource source = new StubSequenceSource();
+        SequenceIndexSync sync = new SequenceIndexSync(source);
+
+        source.sequences = Arrays.asList(sequence("seq-1", 1000), sequence("seq-2", 2000));
+        sync.sync();
+        source.sequences = Arrays.asList(sequence("seq-2", 2000));
+        assertThat(sync.rebuild()).isTrue();
+        source.sequences = Collections.emptyList();
+        sync.sync();
+
+        assertThat(sync.getIndex().size()).isEqualTo(1);
+        assertThat(source.sinces).containsExactly(null, null, new Date(2000));
+
+        sync.shutdown();
+    }
+
+    @Test
+    public void failedRebuildKeepsTheIndex() {
+        StubSequenceSource source = new StubSequenceSource();
+        SequenceIndexSync sync = new SequenceIndexSync(source);
+
+        source.sequences = Arrays.asList(sequence("seq-1", 1000), sequence("seq-2", 2000));
+        sync.sync();
+        source.sequences = Arrays.asList(sequence("seq-2", 2000));
+        source.failAfterSequences = true;
+
+        assertThat(sync.rebuild()).isFalse();
+        assertThat(sync.getLastSyncError()).hasMessage("next page failed");
+        assertThat(sync.getIndex().size()).isEqualTo(2);
+
+        sync.shutdown();
+    }
+
+    @Test
+    public void startFailsIfTheSequencesCannotBeLoaded() {
+        StubSequenceSource source = new StubSequenceSource();
+        source.failAfterSequences = true;
+        SequenceIndexSync sync = new SequenceIndexSync(source);
+
+        assertThatThrownBy(() -> sync.start(60))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("next page failed");
+
+        sync.shutdown();
+    }
+
+    private static Sequence sequence(String id, long lastUpdated) {
+        Sequence sequence = SequenceIndexTest.sequence(id, "1", 100);
+        sequence.getMeta().setLastUpdated(new Date(lastUpdated));
+        return sequence;
+    }
+}
@@ -0,0 +1,112 @@
+package com.dnastack.beacon.adapter.variants.client.fhir;
+
+import org.hl7.fhir.dstu3.model.CodeableConcept;
+import org.hl7.fhir.dstu3.model.Coding;
+import org.hl7.fhir.dstu3.model.Sequence;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class SequenceIndexTest {
+
+    @Test
+    public void findsSequencesByVariantStart() {
+        SequenceIndex index = new SequenceIndex();
+        Sequence first = sequence("seq-1", "1", 100, 200);
+        Sequence second = sequence("seq-2", "1", 100);
+        index.put(first);
+        index.put(second);
+
+        assertThat(search(index, "1", 100L)).containsOnly(first, second);
+        assertThat(search(index, "1", 200L)).containsOnly(first);
+        assertThat(search(index, "1", 300L)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void putReplacesSequenceAndReindexesItsStarts() {
+        SequenceIndex index = new SequenceIndex();
+        index.put(sequence("seq-1", "1", 100, 200));
+        Sequence updated = sequence("seq-1", "1", 200, 300);
+        index.put(updated);
+
+        assertThat(search(index, "1", 100L)).isEmpty();
+        assertThat(search(index, "1", 200L)).containsExactly(updated);
+        assertThat(search(index, "1", 300L)).containsExactly(updated);
+        assertThat(search(index, null, null)).containsExactly(updated);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void putReplacingSequenceKeepsOtherSequencesAtTheStart() {
+        SequenceIndex index = new SequenceIndex();
+        Sequence other = sequence("seq-2", "1", 100);
+        index.put(sequence("seq-1", "1", 100));
+        index.put(other);
+        index.put(sequence("seq-1", "1", 200));
+
+        assertThat(search(index, "1", 100L)).containsExactly(other);
+    }
+
+    @Test
+    public void replaceWithDropsTheSequencesMissingFromTheOtherIndex() {
+        SequenceIndex index = new SequenceIndex();
+        index.put(sequence("seq-1", "1", 100));
+        index.put(sequence("seq-2", "1", 100));
+        SequenceIndex rebuiltIndex = new SequenceIndex();
+        Sequence kept = sequence("seq-2", "1", 100);
+        rebuiltIndex.put(kept);
+
+        index.replaceWith(rebuiltIndex);
+
+        assertThat(search(index, "1", 100L)).containsExactly(kept);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void ignoresSequencesWithoutId() {
+        SequenceIndex index = new SequenceIndex();
+        index.put(sequence(null, "1", 100));
+
+        assertThat(search(index, "1", 100L)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    public void filtersByChromosome() {
+        SequenceIndex index = new SequenceIndex();
+        Sequence chromosome1 = sequence("seq-1", "1", 100);
+        Sequence unknownChromosome = sequence("seq-2", null, 100);
+        index.put(chromosome1);
+        index.put(sequence("seq-3", "2", 100));
+        index.put(unknownChromosome);
+
+        assertThat(search(index, "1", 100L)).containsOnly(chromosome1, unknownChromosome);
+    }
+
+    static Sequence sequence(String id, String chromosome, int... starts) {
+        Sequence sequence = new Sequence();
+        if (id != null) {
+            sequence.setId(id);
+        }
+        if (chromosome != null) {
+            sequence.getReferenceSeq().setChromosome(new CodeableConcept().addCoding(new Coding().setCode(chromosome)));
+        }
+        for (int start : starts) {
+            sequence.addVariant().setStart(start).setEnd(start + 1).setReferenceAllele("A").setObservedAllele("T");
+        }
+        return sequence;
+    }
+
+    private static List<Sequence> search(SequenceSearch search, String chromosome, Long start) {
+        List<Sequence> sequences = new ArrayList<>();
+        search.searchSequences(chromosome, start, start != null ? start + 1 : null, sequences::add);
+        return sequences;
+    }
+}
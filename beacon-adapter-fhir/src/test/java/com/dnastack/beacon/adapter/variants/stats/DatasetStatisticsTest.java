@@ -0,0 +1,103 @@
+package com.dnastack.beacon.adapter.variants.stats;
+
+import org.ga4gh.beacon.BeaconDatasetAlleleResponse;
+import org.hl7.fhir.dstu3.model.Reference;
+import org.hl7.fhir.dstu3.model.Sequence;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class DatasetStatisticsTest {
+
+    @Test
+    public void countsVariantsCallsAndSamplesAtThePosition() {
+        DatasetStatistics statistics = new DatasetStatistics(100, 101, "A", "T", 10L);
+        statistics.add(sequence("seq-1", "Patient/1", "A", "T"));
+        // The same patient counts as one sample.
+        statistics.add(sequence("seq-2", "Patient/1", "a", "t"));
+        statistics.add(sequence("seq-3", "Patient/2", "A", "G"));
+        statistics.add(sequence("seq-4", null, "A", "T"));
+
+        BeaconDatasetAlleleResponse response = statistics.toResponse("dataset");
+
+        assertThat(response.getDatasetId()).isEqualTo("dataset");
+        assertThat(response.getExists()).isTrue();
+        assertThat(response.getVariantCount()).isEqualTo(1);
+        assertThat(response.getCallCount()).isEqualTo(3);
+        assertThat(response.getSampleCount()).isEqualTo(2);
+        assertThat(response.getFrequency()).isEqualTo(0.2);
+    }
+
+    @Test
+    public void patientsSharingTheAlleleCountAsOneVariant() {
+        DatasetStatistics statistics = new DatasetStatistics(100, 101, "A", "T", 10L);
+        statistics.add(sequence("seq-1", "Patient/1", "A", "T"));
+        statistics.add(sequence("seq-2", "Patient/2", "A", "T"));
+
+        BeaconDatasetAlleleResponse response = statistics.toResponse("dataset");
+
+        assertThat(response.getVariantCount()).isEqualTo(1);
+        assertThat(response.getCallCount()).isEqualTo(2);
+        assertThat(response.getSampleCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void ignoresVariantsAtOtherPositions() {
+        DatasetStatistics statistics = new DatasetStatistics(100, 101, "A", "T", 10L);
+        Sequence sequence = sequence("seq-1", "Patient/1", "A", "T");
+        sequence.addVariant().setStart(200).setEnd(201).setReferenceAllele("A").setObservedAllele("T");
+        statistics.add(sequence);
+
+        assertThat(statistics.getVariantCount()).isEqualTo(1);
+        assertThat(statistics.getCallCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void singleAlleleIsNotReportedInAllSamples() {
+        DatasetStatistics statistics = new DatasetStatistics(100, 101, "A", "T", 4L);
+        statistics.add(sequence("seq-1", "Patient/1", "A", "T"));
+
+        assertThat(statistics.getFrequency()).isEqualTo(0.25);
+    }
+
+    @Test
+    public void leavesFrequencyUnsetIfDatasetSampleCountIsUnknown() {
+        DatasetStatistics statistics = new DatasetStatistics(100, 101, "A", "T", null);
+        statistics.add(sequence("seq-1", "Patient/1", "A", "T"));
+
+        BeaconDatasetAlleleResponse response = statistics.toResponse("dataset");
+
+        assertThat(response.getFrequency()).isNull();
+        assertThat(response.getSampleCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void missingBasesMatchNoVariant() {
+        DatasetStatistics statistics = new DatasetStatistics(100, 101, null, null, 10L);
+        statistics.add(sequence("seq-1", "Patient/1", "A", "T"));
+
+        BeaconDatasetAlleleResponse response = statistics.toResponse("dataset");
+
+        assertThat(response.getExists()).isFalse();
+        assertThat(response.getVariantCount()).isZero();
+        assertThat(response.getCallCount()).isZero();
+        assertThat(response.getFrequency()).isZero();
+    }
+
+    private static Sequence sequence(String id, String patient, String referenceAllele, String observedAllele) {
+        Sequence sequence = new Sequence();
+        sequence.setId(id);
+        if (patient != null) {
+            sequence.setPatient(new Reference(patient));
+        }
+        sequence.addVariant()
+                .setStart(100)
+                .setEnd(101)
+                .setReferenceAllele(referenceAllele)
+                .setObservedAllele(observedAllele);
+        return sequence;
+    }
+}
@@ -1,15 +1,32 @@
 package com.dnastack.beacon.adater.variants;
 
 import com.dnastack.beacon.adapter.api.BeaconAdapter;
+import com.dnastack.beacon.adater.variants.assembly.AssemblyNormalizer;
+import com.dnastack.beacon.adater.variants.assembly.CanonicalAssembly;
+import com.dnastack.beacon.adater.variants.batch.AlleleRequestWindow;
+import com.dnastack.beacon.adater.variants.catalog.CatalogVariantSet;
+import com.dnastack.beacon.adater.variants.catalog.DatasetCatalog;
+import com.dnastack.beacon.adater.variants.catalog.DatasetCatalogHolder;
+import com.dnastack.beacon.adater.variants.catalog.Ga4ghCatalogLoader;
+import com.dnastack.beacon.adater.variants.client.ga4gh.CallSetReferences;
+import com.dnastack.beacon.adater.variants.client.ga4gh.CallSetResolver;
+import com.dnastack.beacon.adater.variants.client.ga4gh.DatasetSearchResult;
 import com.dnastack.beacon.adater.variants.client.ga4gh.Ga4ghClient;
+import com.dnastack.beacon.adater.variants.client.ga4gh.VariantRegion;
+import com.dnastack.beacon.adater.variants.client.ga4gh.cache.GuavaMetadataCache;
 import com.dnastack.beacon.adater.variants.client.ga4gh.exceptions.Ga4ghClientException;
 import com.dnastack.beacon.adater.variants.client.ga4gh.model.*;
+import com.dnastack.beacon.adater.variants.client.ga4gh.retro.HttpPoolStats;
+import com.dnastack.beacon.adater.variants.client.ga4gh.retro.HttpTransportConfig;
+import com.dnastack.beacon.adater.variants.client.ga4gh.retro.HttpTransports;
+import com.dnastack.beacon.adater.variants.client.ga4gh.retro.RequestTraceStats;
+import com.dnastack.beacon.adater.variants.client.ga4gh.retro.RequestTracer;
+import com.dnastack.beacon.adater.variants.stats.DatasetStatistics;
 import com.dnastack.beacon.exceptions.BeaconAlleleRequestException;
 import com.dnastack.beacon.exceptions.BeaconException;
 import com.dnastack.beacon.utils.AdapterConfig;
 import com.dnastack.beacon.utils.ConfigValue;
 import com.dnastack.beacon.utils.Reason;
-import com.google.common.collect.ImmutableSet;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.apache.commons.collections.CollectionUtils;
@@ -17,11 +34,14 @@ import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.ga4gh.beacon.*;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.Dependent;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -35,13 +55,68 @@ import java.util.stream.Collectors;
 @Dependent
 public class VariantsBeaconAdapter implements BeaconAdapter {
 
-    private static final Set<Set<String>> ASSEMBLY_ALIASES = ImmutableSet.of(ImmutableSet.of("grch38", "hg38", "hg20"),
-            ImmutableSet.of("grch37", "hg37", "hg19"),
-            ImmutableSet.of("ncbi36", "hg18"),
-            ImmutableSet.of("ncbi35", "hg17"),
-            ImmutableSet.of("ncbi34", "hg16"));
+    /**
+     * Maximum number of call set requests in flight, unless configured by "callSetConcurrency".
+     */
+    private static final int DEFAULT_CALL_SET_CONCURRENCY = 16;
+
+    /**
+     * Minimal number of distinct call sets of one variant set that are fetched by a bulk search instead of one by one,
+     * unless configured by "callSetBulkThreshold".
+     */
+    private static final int DEFAULT_CALL_SET_BULK_THRESHOLD = 16;
+
+    /**
+     * Maximum number of cached reference sets and call sets each, unless configured by "metadataCacheSize".
+     */
+    private static final long DEFAULT_METADATA_CACHE_SIZE = 10_000;
+
+    /**
+     * Time to live of cached reference sets and call sets, unless configured by "metadataCacheTtlSeconds".
+     */
+    private static final long DEFAULT_METADATA_CACHE_TTL_SECONDS = 3600;
+
+    /**
+     * Interval between background refreshes of the dataset catalog, unless configured by "catalogRefreshSeconds".
+     */
+    private static final long DEFAULT_CATALOG_REFRESH_SECONDS = 300;
+
+    /**
+     * Maximum distance in bases between the start positions of batched allele requests answered by one range search,
+     * unless configured by "batchWindowLength".
+     */
+    private static final long DEFAULT_BATCH_WINDOW_LENGTH = 10_000;
+
+    /**
+     * Length in bases of the windows a region query is split into and searched concurrently, unless configured by
+     * "regionWindowLength".
+     */
+    private static final long DEFAULT_REGION_WINDOW_LENGTH = 100_000;
+
+    /**
+     * How long the servers of all datasets are waited for to list their datasets, unless configured by
+     * "datasetSearchTimeoutSeconds".
+     */
+    private static final long DEFAULT_DATASET_SEARCH_TIMEOUT_SECONDS = 30;
+
+    /**
+     * Error code of the response to an incomplete request of a batch or a request for an unknown dataset.
+     */
+    private static final int INVALID_REQUEST_ERROR_CODE = 400;
+
+    /**
+     * Error codes of the datasets whose servers failed to list them or didn't answer in time, the first one also of the
+     * batch windows whose search failed.
+     */
+    private static final int DATASET_SERVER_ERROR_CODE = 502;
+    private static final int DATASET_SERVER_TIMEOUT_ERROR_CODE = 504;
 
     private Ga4ghClient ga4ghClient;
+    private CallSetResolver callSetResolver;
+    private DatasetCatalogHolder catalogHolder;
+    private AssemblyNormalizer assemblyNormalizer;
+    private long batchWindowLength = DEFAULT_BATCH_WINDOW_LENGTH;
+    private long regionWindowLength = DEFAULT_REGION_WINDOW_LENGTH;
 
     /**
      * Copy of the the Java 8 function, but can throw {@link BeaconAlleleRequestException}.
@@ -61,15 +136,23 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
         boolean test(T t) throws BeaconAlleleRequestException;
     }
 
-    private static boolean containsCaseInsensitive(Collection<String> container, String element) {
-        return container.stream().anyMatch(s -> s.equalsIgnoreCase(element));
-    }
-
     private void initGa4ghClient(AdapterConfig adapterConfig) {
         List<ConfigValue> configValues = adapterConfig.getConfigValues();
         Beacon beacon = null;
         String apiKey = null;
         String projectId = null;
+        int callSetConcurrency = DEFAULT_CALL_SET_CONCURRENCY;
+        int callSetBulkThreshold = DEFAULT_CALL_SET_BULK_THRESHOLD;
+        long metadataCacheSize = DEFAULT_METADATA_CACHE_SIZE;
+        long metadataCacheTtlSeconds = DEFAULT_METADATA_CACHE_TTL_SECONDS;
+        long catalogRefreshSeconds = DEFAULT_CATALOG_REFRESH_SECONDS;
+        long batchWindowLength = DEFAULT_BATCH_WINDOW_LENGTH;
+        long regionWindowLength = DEFAULT_REGION_WINDOW_LENGTH;
+        long datasetSearchTimeoutSeconds = DEFAULT_DATASET_SEARCH_TIMEOUT_SECONDS;
+        String assemblyAliases = null;
+        HttpTransportConfig.HttpTransportConfigBuilder transportConfig = HttpTransportConfig.builder();
+        double traceBodySampleRate = 0;
+        boolean traceBodies = false;
 
         for (ConfigValue configValue : configValues) {
             switch (configValue.getName()) {
@@ -85,7 +168,57 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
                 case "projectId":
                     projectId = configValue.getValue();
                     break;
-
+                case "callSetConcurrency":
+                    callSetConcurrency = Integer.parseInt(configValue.getValue());
+                    break;
+                case "callSetBulkThreshold":
+                    callSetBulkThreshold = Integer.parseInt(configValue.getValue());
+                    break;
+                case "metadataCacheSize":
+                    metadataCacheSize = Long.parseLong(configValue.getValue());
+                    break;
+                case "metadataCacheTtlSeconds":
+                    metadataCacheTtlSeconds = Long.parseLong(configValue.getValue());
+                    break;
+                case "catalogRefreshSeconds":
+                    catalogRefreshSeconds = Long.parseLong(configValue.getValue());
+                    break;
+                case "batchWindowLength":
+                    batchWindowLength = Long.parseLong(configValue.getValue());
+                    break;
+                case "regionWindowLength":
+                    regionWindowLength = Long.parseLong(configValue.getValue());
+                    break;
+                case "datasetSearchTimeoutSeconds":
+                    datasetSearchTimeoutSeconds = Long.parseLong(configValue.getValue());
+                    break;
+                case "assemblyAliases":
+                    assemblyAliases = configValue.getValue();
+                    break;
+                case "httpMaxIdleConnections":
+                    transportConfig.maxIdleConnections(Integer.parseInt(configValue.getValue()));
+                    break;
+                case "httpKeepAliveSeconds":
+                    transportConfig.keepAliveSeconds(Long.parseLong(configValue.getValue()));
+                    break;
+                case "httpMaxRequestsPerHost":
+                    transportConfig.maxRequestsPerHost(Integer.parseInt(configValue.getValue()));
+                    break;
+                case "http2":
+                    transportConfig.http2(Boolean.parseBoolean(configValue.getValue()));
+                    break;
+                case "httpConnectTimeoutSeconds":
+                    transportConfig.connectTimeoutSeconds(Long.parseLong(configValue.getValue()));
+                    break;
+                case "httpReadTimeoutSeconds":
+                    transportConfig.readTimeoutSeconds(Long.parseLong(configValue.getValue()));
+                    break;
+                case "traceBodySampleRate":
+                    traceBodySampleRate = Double.parseDouble(configValue.getValue());
+                    break;
+                case "traceBodies":
+                    traceBodies = Boolean.parseBoolean(configValue.getValue());
+                    break;
             }
         }
 
@@ -93,12 +226,32 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
             throw new RuntimeException(
                     "Missing required parameter: beaconJson. Please add the appropriate configuration parameter then retry");
         }
+        if (batchWindowLength < 1) {
+            throw new IllegalArgumentException("Batch window length must be positive, got " + batchWindowLength);
+        }
+        if (regionWindowLength < 1) {
+            throw new IllegalArgumentException("Region window length must be positive, got " + regionWindowLength);
+        }
 
+        assemblyNormalizer = AssemblyNormalizer.create(assemblyAliases);
+        this.batchWindowLength = batchWindowLength;
+        this.regionWindowLength = regionWindowLength;
         ga4ghClient = new Ga4ghClient(Ga4ghClientRequest.builder()
                 .beacon(beacon)
                 .apiKey(apiKey)
                 .projectId(projectId)
+                .referenceSetCache(new GuavaMetadataCache<>(metadataCacheSize, metadataCacheTtlSeconds, TimeUnit.SECONDS))
+                .callSetCache(new GuavaMetadataCache<>(metadataCacheSize, metadataCacheTtlSeconds, TimeUnit.SECONDS))
+                .transportConfig(transportConfig.build())
+                .requestTracer(new RequestTracer(traceBodySampleRate, traceBodies))
+                .datasetSearchTimeoutSeconds(datasetSearchTimeoutSeconds)
                 .build());
+        callSetResolver = new CallSetResolver(ga4ghClient, callSetConcurrency, callSetBulkThreshold);
+
+        if (catalogRefreshSeconds > 0) {
+            catalogHolder = new DatasetCatalogHolder(new Ga4ghCatalogLoader(ga4ghClient, assemblyNormalizer));
+            catalogHolder.start(catalogRefreshSeconds);
+        }
     }
 
     private Beacon readBeaconJsonFile(String filename) {
@@ -134,94 +287,58 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
     }
 
     private BeaconDatasetAlleleResponse getDatasetResponse(String referenceName, long start, String referenceBases, String alternateBases, String assemblyId, String datasetId) throws BeaconAlleleRequestException {
-        List<VariantSet> variantSets = getVariantSetsToSearch(datasetId, assemblyId);
-
-        List<Variant> variants = map(variantSets,
-                variantSet -> loadVariants(datasetId,
-                        variantSet.getId(),
-                        referenceName,
-                        start)).stream()
-                .flatMap(Collection::stream)
-                .filter(variant -> basesMatchVariant(variant,
-                        referenceBases,
-                        alternateBases))
-                .collect(Collectors.toList());
-
-        Double frequency = calculateFrequency(alternateBases, variants);
-        Long sampleCount = countSamples(datasetId, variants);
-        Long callsCount = variants.stream().map(Variant::getCalls).mapToLong(List::size).sum();
-        long variantCount = variants.size();
-        boolean exists = CollectionUtils.isNotEmpty(variants);
-
-        return BeaconDatasetAlleleResponse.newBuilder()
-                .setDatasetId(datasetId)
-                .setFrequency(frequency)
-                .setCallCount(callsCount)
-                .setVariantCount(variantCount)
-                .setSampleCount(sampleCount)
-                .setExists(exists)
-                .build();
-    }
-
-    private Long countSamples(String datasetId, List<Variant> variants) throws BeaconAlleleRequestException {
-        List<String> callSetIds = variants.stream()
-                .flatMap(variant -> variant.getCalls().stream())
-                .map(Call::getCallSetId)
-                .map(CharSequence::toString)
-                .collect(Collectors.toList());
-
-        List<CallSet> callSets = new ArrayList<>();
-
-        for (String callSetId : callSetIds) {
-            callSets.add(loadCallSet(datasetId, callSetId));
+        DatasetStatistics statistics = new DatasetStatistics(alternateBases);
+        for (String variantSetId : getVariantSetIdsToSearch(datasetId, assemblyId)) {
+            for (Variant variant : loadVariants(datasetId, variantSetId, referenceName, start)) {
+                if (basesMatchVariant(variant, referenceBases, alternateBases)) {
+                    statistics.add(variant);
+                }
+            }
         }
 
-        return callSets.stream().map(CallSet::getSampleId).distinct().count();
+        return statistics.toResponse(datasetId, resolveCallSets(datasetId, statistics.getCallSetReferences()));
     }
 
-    private Double calculateFrequency(String alternateBases, List<Variant> variants) {
-        Long matchingGenotypesCount = variants.stream()
-                .mapToLong(variant -> calculateMatchingGenotypesCount(variant,
-                        alternateBases))
-                .sum();
-
-        Long totalGenotypesCount = variants.stream()
-                .flatMap(variant -> variant.getCalls().stream())
-                .map(Call::getGenotype)
-                .mapToLong(List::size)
-                .sum();
-
-        return (totalGenotypesCount == 0) ? null : ((double) matchingGenotypesCount / totalGenotypesCount);
+    /**
+     * Exists-only counterpart of {@link #getDatasetResponse}: stops at the first variant set with a matching variant,
+     * without counting anything or resolving call sets.
+     */
+    private boolean datasetContainsVariant(String referenceName, long start, String referenceBases, String alternateBases, String assemblyId, String datasetId) throws BeaconAlleleRequestException {
+        for (String variantSetId : getVariantSetIdsToSearch(datasetId, assemblyId)) {
+            if (loadVariants(datasetId, variantSetId, referenceName, start).stream()
+                    .anyMatch(variant -> basesMatchVariant(variant, referenceBases, alternateBases))) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private long calculateMatchingGenotypesCount(Variant variant, String alternateBases) {
-        int requestedGenotype = variant.getAlternateBases().stream().map(CharSequence::toString)
-                .collect(Collectors.toList()).indexOf(alternateBases) + 1;
-
-        return variant.getCalls()
-                .stream()
-                .map(Call::getGenotype)
-                .flatMap(Collection::stream)
-                .filter(integer -> integer.equals(requestedGenotype))
-                .count();
-    }
+    /**
+     * Takes the variant sets from the dataset catalog if it knows the dataset, otherwise asks the Ga4gh server.
+     */
+    private List<String> getVariantSetIdsToSearch(String datasetId, String assemblyId) throws BeaconAlleleRequestException {
+        DatasetCatalog catalog = getCatalog();
+        if (catalog != null && catalog.containsDataset(datasetId)) {
+            CanonicalAssembly requestedAssembly = assemblyNormalizer.normalize(assemblyId);
+
+            return catalog.getVariantSets(datasetId)
+                    .stream()
+                    .filter(variantSet -> requestedAssembly != null
+                            && requestedAssembly.equals(variantSet.getCanonicalAssembly()))
+                    .map(CatalogVariantSet::getId)
+                    .collect(Collectors.toList());
+        }
 
-    private List<com.dnastack.beacon.adater.variants.client.ga4gh.model.VariantSet> getVariantSetsToSearch(String datasetId, String assemblyId) throws BeaconAlleleRequestException {
         List<com.dnastack.beacon.adater.variants.client.ga4gh.model.VariantSet> variantSets = loadVariantSets(datasetId);
         filter(variantSets, variantSet -> referencesetMatchesVariantset(datasetId, variantSet, assemblyId));
-        return variantSets;
+        return variantSets.stream()
+                .map(com.dnastack.beacon.adater.variants.client.ga4gh.model.VariantSet::getId)
+                .collect(Collectors.toList());
     }
 
     private boolean referencesetMatchesVariantset(String datasetId, com.dnastack.beacon.adater.variants.client.ga4gh.model.VariantSet variantSet, String assemblyId) throws BeaconAlleleRequestException {
         com.dnastack.beacon.adater.variants.client.ga4gh.model.ReferenceSet referenceSet = loadReferenceSet(datasetId, variantSet.getReferenceSetId().toString());
-
-        Optional<Set<String>> assemblySynonyms = ASSEMBLY_ALIASES.stream()
-                .filter(bag -> containsCaseInsensitive(bag,
-                        assemblyId))
-                .findAny();
-
-        return assemblySynonyms.isPresent() ? containsCaseInsensitive(assemblySynonyms.get(),
-                referenceSet.getAssemblyId().toString()) : false;
+        return assemblyNormalizer.sameAssembly(assemblyId, referenceSet.getAssemblyId());
     }
 
     private boolean basesMatchVariant(Variant variant, String referenceBases, String alternateBases) {
@@ -230,17 +347,34 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
                     .contains(alternateBases);
     }
 
-    private List<String> getDatasetIdsToSearch(List<String> requestedDatasetIds) throws BeaconAlleleRequestException {
-        return CollectionUtils.isNotEmpty(requestedDatasetIds) ? requestedDatasetIds : loadAllDatasetIds();
+    /**
+     * @param unavailableDatasetResponses receives the error responses of the datasets whose servers failed to list
+     *                                    them, when all datasets are searched and the catalog isn't loaded
+     */
+    private List<String> getDatasetIdsToSearch(List<String> requestedDatasetIds, List<BeaconDatasetAlleleResponse> unavailableDatasetResponses) throws BeaconAlleleRequestException {
+        if (CollectionUtils.isNotEmpty(requestedDatasetIds)) {
+            return requestedDatasetIds;
+        }
+
+        DatasetCatalog catalog = getCatalog();
+        return catalog != null ? catalog.getDatasetIds() : loadAllDatasetIds(unavailableDatasetResponses);
     }
 
-    private List<String> loadAllDatasetIds() throws BeaconAlleleRequestException {
-        return loadAllDatasets().stream().map(Dataset::getId).map(CharSequence::toString).collect(Collectors.toList());
+    private DatasetCatalog getCatalog() {
+        return catalogHolder != null ? catalogHolder.get() : null;
     }
 
-    private List<Dataset> loadAllDatasets() throws BeaconAlleleRequestException {
+    /**
+     * Lists the datasets of all servers. The datasets of the servers that fail are reported as dataset responses with
+     * an error, unless all servers fail.
+     */
+    private List<String> loadAllDatasetIds(List<BeaconDatasetAlleleResponse> unavailableDatasetResponses) throws BeaconAlleleRequestException {
+        DatasetSearchResult result;
         try {
-            return ga4ghClient.searchDatasets();
+            result = ga4ghClient.searchAllDatasets();
+            if (result.getDatasets().isEmpty() && !result.isComplete()) {
+                throw result.getFailures().values().iterator().next();
+            }
         } catch (Ga4ghClientException e) {
             BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(
                     "Couldn't load all datasets.",
@@ -249,11 +383,32 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
             alleleRequestException.initCause(e);
             throw alleleRequestException;
         }
+
+        result.getFailures().forEach((datasetId, e) -> unavailableDatasetResponses.add(
+                BeaconDatasetAlleleResponse.newBuilder()
+                        .setDatasetId(datasetId)
+                        .setError(BeaconError.newBuilder()
+                                .setErrorCode(e.getCause() instanceof TimeoutException
+                                        ? DATASET_SERVER_TIMEOUT_ERROR_CODE
+                                        : DATASET_SERVER_ERROR_CODE)
+                                .setMessage(e.getMessage())
+                                .build())
+                        .build()));
+
+        return result.getDatasets()
+                .stream()
+                .map(Dataset::getId)
+                .map(CharSequence::toString)
+                .collect(Collectors.toList());
     }
 
     private List<com.dnastack.beacon.adater.variants.client.ga4gh.model.Variant> loadVariants(String datasetId, String variantSetId, String referenceName, long start) throws BeaconAlleleRequestException {
+        return loadVariants(datasetId, variantSetId, referenceName, start, start + 1);
+    }
+
+    private List<com.dnastack.beacon.adater.variants.client.ga4gh.model.Variant> loadVariants(String datasetId, String variantSetId, String referenceName, long start, long end) throws BeaconAlleleRequestException {
         try {
-            return ga4ghClient.searchVariants(datasetId, variantSetId, referenceName, start);
+            return ga4ghClient.searchVariants(datasetId, variantSetId, referenceName, start, end);
         } catch (Ga4ghClientException e) {
             BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(
                     "Couldn't load reference set with id %s.",
@@ -289,14 +444,13 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
         }
     }
 
-    private com.dnastack.beacon.adater.variants.client.ga4gh.model.CallSet loadCallSet(String datasetId, String callSetId) throws BeaconAlleleRequestException {
+    private Map<String, CallSet> resolveCallSets(String datasetId, CallSetReferences references) throws BeaconAlleleRequestException {
         try {
-            return ga4ghClient.loadCallSet(datasetId, callSetId);
+            return callSetResolver.resolve(datasetId, references);
         } catch (Ga4ghClientException e) {
-            BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(
-                    "Couldn't load call set with id %s.",
-                    Reason.CONN_ERR,
-                    null);
+            BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(String.format(
+                    "Couldn't load call sets for dataset id %s.",
+                    datasetId), Reason.CONN_ERR, null);
             alleleRequestException.initCause(e);
             throw alleleRequestException;
         }
@@ -339,9 +493,85 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
 
     @Override
     public void initAdapter(AdapterConfig adapterConfig) {
+        destroy();
         initGa4ghClient(adapterConfig);
     }
 
+    /**
+     * Releases the worker threads. The adapter can be initialized again afterwards.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (callSetResolver != null) {
+            callSetResolver.shutdown();
+            callSetResolver = null;
+        }
+        if (catalogHolder != null) {
+            catalogHolder.shutdown();
+            catalogHolder = null;
+        }
+    }
+
+    /**
+     * @return canonical name of the given assembly according to the configured aliases, e.g. "GRCh37" for "hg19", or
+     * the given assembly id if it's unknown
+     */
+    public String canonicalAssemblyId(String assemblyId) {
+        checkAdapterInit();
+        CanonicalAssembly assembly = assemblyNormalizer.normalize(assemblyId);
+        return assembly != null ? assembly.getName() : assemblyId;
+    }
+
+    /**
+     * @return version of the dataset catalog the adapter currently answers from, or 0 if there is none
+     */
+    public long getCatalogVersion() {
+        DatasetCatalog catalog = getCatalog();
+        return catalog != null ? catalog.getVersion() : 0;
+    }
+
+    /**
+     * Reloads the dataset catalog right away instead of waiting for the next background refresh.
+     *
+     * @return true if the catalog has been reloaded
+     */
+    public boolean refreshCatalog() {
+        checkAdapterInit();
+        return catalogHolder != null && catalogHolder.refresh();
+    }
+
+    /**
+     * Drops the cached reference sets and call sets, e.g. after they've been changed on the server.
+     */
+    public void invalidateMetadata() {
+        checkAdapterInit();
+        ga4ghClient.invalidateMetadata();
+    }
+
+    /**
+     * @return call set resolver of the adapter, e.g. to read how many round trips it saved
+     */
+    public CallSetResolver getCallSetResolver() {
+        checkAdapterInit();
+        return callSetResolver;
+    }
+
+    /**
+     * @return utilization of the HTTP connection pools, keyed by upstream host. The pools are shared by the datasets of
+     * the same host and by all adapters of the application.
+     */
+    public Map<String, HttpPoolStats> getHttpPoolStats() {
+        return HttpTransports.getStats();
+    }
+
+    /**
+     * @return stats of the requests the adapter has sent to the Ga4gh servers, keyed by endpoint
+     */
+    public Map<String, RequestTraceStats> getRequestTraceStats() {
+        checkAdapterInit();
+        return ga4ghClient.getRequestTraceStats();
+    }
+
     @Override
     public Beacon getBeacon() throws BeaconException {
         checkAdapterInit();
@@ -353,7 +583,9 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
         checkAdapterInit();
 
         try {
-            List<String> datasetIdsToSearch = getDatasetIdsToSearch(request.getDatasetIds());
+            List<BeaconDatasetAlleleResponse> unavailableDatasetResponses = new ArrayList<>();
+            List<String> datasetIdsToSearch = getDatasetIdsToSearch(request.getDatasetIds(),
+                    unavailableDatasetResponses);
 
             for (String dataset : datasetIdsToSearch) {
                 if (!ga4ghClient.isExistDataset(dataset)) {
@@ -361,6 +593,10 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
                 }
             }
 
+            if (!BooleanUtils.isTrue(request.getIncludeDatasetResponses())) {
+                return getExistsOnlyResponse(request, datasetIdsToSearch, unavailableDatasetResponses);
+            }
+
             List<BeaconDatasetAlleleResponse> datasetResponses = map(datasetIdsToSearch,
                     datasetId -> getDatasetResponse(request.getReferenceName(),
                             request.getStart(),
@@ -368,28 +604,251 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
                             request.getAlternateBases(),
                             request.getAssemblyId(),
                             datasetId));
+            datasetResponses.addAll(unavailableDatasetResponses);
+
+            return createAlleleResponse(request, datasetResponses, getBeacon().getId());
+
+        } catch (BeaconAlleleRequestException e) {
+            e.setRequest(request);
+            throw e;
+        }
+    }
+
+    /**
+     * Answers a request that doesn't ask for the dataset responses. The search stops at the first matching variant,
+     * without counting anything or resolving call sets. If any dataset is unavailable, the answer is unknown anyway, so
+     * nothing is searched.
+     */
+    private BeaconAlleleResponse getExistsOnlyResponse(BeaconAlleleRequest request, List<String> datasetIdsToSearch, List<BeaconDatasetAlleleResponse> unavailableDatasetResponses) throws BeaconException {
+        BeaconError anyError = unavailableDatasetResponses.stream()
+                .map(BeaconDatasetAlleleResponse::getError)
+                .filter(Objects::nonNull)
+                .findAny()
+                .orElse(null);
+
+        Boolean exists = null;
+        if (anyError == null) {
+            exists = false;
+            for (String datasetId : datasetIdsToSearch) {
+                if (datasetContainsVariant(request.getReferenceName(),
+                        request.getStart(),
+                        request.getReferenceBases(),
+                        request.getAlternateBases(),
+                        request.getAssemblyId(),
+                        datasetId)) {
+                    exists = true;
+                    break;
+                }
+            }
+        }
+
+        return BeaconAlleleResponse.newBuilder()
+                .setAlleleRequest(request)
+                .setDatasetAlleleResponses(null)
+                .setBeaconId(getBeacon().getId())
+                .setError(anyError)
+                .setExists(exists)
+                .build();
+    }
+
+    private BeaconAlleleResponse createAlleleResponse(BeaconAlleleRequest request, List<BeaconDatasetAlleleResponse> datasetResponses, String beaconId) {
+        List<BeaconDatasetAlleleResponse> returnedDatasetResponses = BooleanUtils.isTrue(request.getIncludeDatasetResponses())
+                ? datasetResponses
+                : null;
+
+        BeaconError anyError = datasetResponses.stream()
+                .map(BeaconDatasetAlleleResponse::getError)
+                .filter(Objects::nonNull)
+                .findAny()
+                .orElse(null);
+
+        Boolean exists = anyError != null
+                ? null
+                : datasetResponses.stream().anyMatch(BeaconDatasetAlleleResponse::getExists);
+
+        return BeaconAlleleResponse.newBuilder()
+                .setAlleleRequest(request)
+                .setDatasetAlleleResponses(returnedDatasetResponses)
+                .setBeaconId(beaconId)
+                .setError(anyError)
+                .setExists(exists)
+                .build();
+    }
+
+    /**
+     * Answers a batch of allele requests, returning one response per request in the order of the requests.
+     * <p>
+     * Requests for the same reference, assembly and datasets are grouped into windows of nearby positions (see
+     * "batchWindowLength"). Every window is answered by one range search per variant set, whose variants are fanned out
+     * locally to the requests they match, and the call sets of all requests of a window are resolved at once.
+     * <p>
+     * A request that is incomplete or asks for an unknown dataset gets a response with a 400 error. If the search of a
+     * window fails, the requests of that window get a response with a 502 error, and the other windows are answered as
+     * usual.
+     */
+    public List<BeaconAlleleResponse> getBeaconAlleleResponses(List<BeaconAlleleRequest> requests) throws BeaconException {
+        checkAdapterInit();
+        List<AlleleRequestWindow> windows = AlleleRequestWindow.group(requests,
+                batchWindowLength,
+                this::canonicalAssemblyId);
+
+        BeaconError[] requestErrors = new BeaconError[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            String invalidReason = AlleleRequestWindow.validate(requests.get(i));
+            if (invalidReason != null) {
+                requestErrors[i] = createError(INVALID_REQUEST_ERROR_CODE, invalidReason);
+            }
+        }
+
+        List<List<BeaconDatasetAlleleResponse>> datasetResponses = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            datasetResponses.add(new ArrayList<>());
+        }
+
+        for (AlleleRequestWindow window : windows) {
+            try {
+                List<BeaconDatasetAlleleResponse> unavailableDatasetResponses = new ArrayList<>();
+                List<String> datasetIdsToSearch = getDatasetIdsToSearch(window.getDatasetIds(),
+                        unavailableDatasetResponses);
+
+                String unknownDatasetId = datasetIdsToSearch.stream()
+                        .filter(datasetId -> !ga4ghClient.isExistDataset(datasetId))
+                        .findFirst()
+                        .orElse(null);
+                if (unknownDatasetId != null) {
+                    setWindowError(requestErrors,
+                            window,
+                            createError(INVALID_REQUEST_ERROR_CODE, "Unknown dataset: " + unknownDatasetId));
+                    continue;
+                }
+
+                for (String datasetId : datasetIdsToSearch) {
+                    List<BeaconDatasetAlleleResponse> responses = getWindowDatasetResponses(window, datasetId, requests);
+                    for (int i = 0; i < responses.size(); i++) {
+                        datasetResponses.get(window.getRequestIndexes().get(i)).add(responses.get(i));
+                    }
+                }
+                for (int requestIndex : window.getRequestIndexes()) {
+                    datasetResponses.get(requestIndex).addAll(unavailableDatasetResponses);
+                }
+            } catch (BeaconAlleleRequestException e) {
+                setWindowError(requestErrors, window, createError(DATASET_SERVER_ERROR_CODE, e.getMessage()));
+            }
+        }
 
-            List<BeaconDatasetAlleleResponse> returnedDatasetResponses = BooleanUtils.isTrue(request.getIncludeDatasetResponses())
-                    ? datasetResponses
-                    : null;
+        String beaconId = getBeacon().getId();
+        List<BeaconAlleleResponse> responses = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            responses.add(requestErrors[i] != null
+                    ? createErrorResponse(requests.get(i), requestErrors[i], beaconId)
+                    : createAlleleResponse(requests.get(i), datasetResponses.get(i), beaconId));
+        }
+        return responses;
+    }
 
-            BeaconError anyError = datasetResponses.stream()
-                    .map(BeaconDatasetAlleleResponse::getError)
-                    .filter(Objects::nonNull)
-                    .findAny()
-                    .orElse(null);
+    private static void setWindowError(BeaconError[] requestErrors, AlleleRequestWindow window, BeaconError error) {
+        for (int requestIndex : window.getRequestIndexes()) {
+            requestErrors[requestIndex] = error;
+        }
+    }
 
-            Boolean exists = anyError != null
-                    ? null
-                    : datasetResponses.stream().anyMatch(BeaconDatasetAlleleResponse::getExists);
+    private static BeaconError createError(int errorCode, String message) {
+        return BeaconError.newBuilder().setErrorCode(errorCode).setMessage(message).build();
+    }
 
-            return BeaconAlleleResponse.newBuilder()
-                    .setAlleleRequest(request)
-                    .setDatasetAlleleResponses(returnedDatasetResponses)
-                    .setBeaconId(getBeacon().getId())
-                    .setError(anyError)
-                    .setExists(exists)
-                    .build();
+    private BeaconAlleleResponse createErrorResponse(BeaconAlleleRequest request, BeaconError error, String beaconId) {
+        return BeaconAlleleResponse.newBuilder()
+                .setAlleleRequest(request)
+                .setDatasetAlleleResponses(null)
+                .setBeaconId(beaconId)
+                .setError(error)
+                .setExists(null)
+                .build();
+    }
+
+    /**
+     * @return responses of the dataset to the requests of the window, in the order of the window
+     */
+    private List<BeaconDatasetAlleleResponse> getWindowDatasetResponses(AlleleRequestWindow window, String datasetId, List<BeaconAlleleRequest> requests) throws BeaconAlleleRequestException {
+        List<BeaconAlleleRequest> windowRequests = window.getRequestIndexes()
+                .stream()
+                .map(requests::get)
+                .collect(Collectors.toList());
+        List<DatasetStatistics> statistics = windowRequests.stream()
+                .map(request -> new DatasetStatistics(request.getAlternateBases()))
+                .collect(Collectors.toList());
+
+        for (String variantSetId : getVariantSetIdsToSearch(datasetId, window.getAssemblyId())) {
+            for (Variant variant : loadVariants(datasetId,
+                    variantSetId,
+                    window.getReferenceName(),
+                    window.getStart(),
+                    window.getEnd())) {
+                long variantEnd = variant.getEnd() != null ? variant.getEnd() : variant.getStart() + 1;
+
+                for (int i : window.getOverlappedRequests(variant.getStart(), variantEnd)) {
+                    BeaconAlleleRequest request = windowRequests.get(i);
+                    if (basesMatchVariant(variant, request.getReferenceBases(), request.getAlternateBases())) {
+                        statistics.get(i).add(variant);
+                    }
+                }
+            }
+        }
+
+        // Exists-only requests don't report samples, there's no need to resolve their call sets.
+        CallSetReferences references = new CallSetReferences();
+        for (int i = 0; i < windowRequests.size(); i++) {
+            if (BooleanUtils.isTrue(windowRequests.get(i).getIncludeDatasetResponses())) {
+                references.addAll(statistics.get(i).getCallSetReferences());
+            }
+        }
+        Map<String, CallSet> callSets = references.getReferenceCount() > 0
+                ? resolveCallSets(datasetId, references)
+                : Collections.emptyMap();
+
+        return map(statistics, datasetStatistics -> datasetStatistics.toResponse(datasetId, callSets));
+    }
+
+    /**
+     * Answers a range or bracket query over a region of the reference, e.g. to scan a gene. The region is split into
+     * windows of "regionWindowLength" bases that are searched concurrently. Unlike in an allele request, the bases are
+     * optional: null reference or alternate bases match any.
+     *
+     * @return response whose allele request carries the start of the searched region
+     */
+    public BeaconAlleleResponse getBeaconRegionResponse(String referenceName, VariantRegion region, String referenceBases, String alternateBases, String assemblyId, List<String> datasetIds, Boolean includeDatasetResponses) throws BeaconException {
+        checkAdapterInit();
+        BeaconAlleleRequest request = createRequest(referenceName,
+                region.getStart(),
+                referenceBases,
+                alternateBases,
+                assemblyId,
+                datasetIds,
+                includeDatasetResponses);
+        try {
+            List<BeaconDatasetAlleleResponse> unavailableDatasetResponses = new ArrayList<>();
+            List<String> datasetIdsToSearch = getDatasetIdsToSearch(datasetIds, unavailableDatasetResponses);
+
+            for (String dataset : datasetIdsToSearch) {
+                if (!ga4ghClient.isExistDataset(dataset)) {
+                    throw new BeaconException(dataset);
+                }
+            }
+
+            if (!BooleanUtils.isTrue(request.getIncludeDatasetResponses())) {
+                return getExistsOnlyResponse(request, datasetIdsToSearch, unavailableDatasetResponses);
+            }
+
+            List<BeaconDatasetAlleleResponse> datasetResponses = map(datasetIdsToSearch,
+                    datasetId -> getRegionDatasetResponse(referenceName,
+                            region,
+                            referenceBases,
+                            alternateBases,
+                            assemblyId,
+                            datasetId));
+            datasetResponses.addAll(unavailableDatasetResponses);
+
+            return createAlleleResponse(request, datasetResponses, getBeacon().getId());
 
         } catch (BeaconAlleleRequestException e) {
             e.setRequest(request);
@@ -397,6 +856,32 @@ public class VariantsBeaconAdapter implements BeaconAdapter {
         }
     }
 
+    private BeaconDatasetAlleleResponse getRegionDatasetResponse(String referenceName, VariantRegion region, String referenceBases, String alternateBases, String assemblyId, String datasetId) throws BeaconAlleleRequestException {
+        DatasetStatistics statistics = new DatasetStatistics(alternateBases);
+        for (String variantSetId : getVariantSetIdsToSearch(datasetId, assemblyId)) {
+            List<Variant> variants;
+            try {
+                variants = ga4ghClient.searchVariants(datasetId, variantSetId, referenceName, region, regionWindowLength);
+            } catch (Ga4ghClientException e) {
+                BeaconAlleleRequestException alleleRequestException = new BeaconAlleleRequestException(String.format(
+                        "Couldn't load variants of variant set with id %s in region %s.",
+                        variantSetId,
+                        region), Reason.CONN_ERR, null);
+                alleleRequestException.initCause(e);
+                throw alleleRequestException;
+            }
+
+            for (Variant variant : variants) {
+                if ((referenceBases == null || referenceBases.equals(variant.getReferenceBases()))
+                        && (alternateBases == null || variant.getAlternateBases().contains(alternateBases))) {
+                    statistics.add(variant);
+                }
+            }
+        }
+
+        return statistics.toResponse(datasetId, resolveCallSets(datasetId, statistics.getCallSetReferences()));
+    }
+
     @Override
     public BeaconAlleleResponse getBeaconAlleleResponse(String referenceName, Long start, String referenceBases, String alternateBases, String assemblyId, List<String> datasetIds, Boolean includeDatasetResponses) throws BeaconException {
         checkAdapterInit();
@@ -0,0 +1,189 @@
+package com.dnastack.beacon.adater.variants.batch;
+
+import org.ga4gh.beacon.BeaconAlleleRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.UnaryOperator;
+
+/**
+ * Allele requests of a batch that ask about nearby positions of the same reference, assembly and datasets, so that they
+ * can be answered by one range search per variant set instead of one search per request.
+ * <p>
+ * A single allele request searches the variants overlapping its start position, hence a variant found by the range
+ * search of the window belongs to every request of the window whose start the variant overlaps.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class AlleleRequestWindow {
+
+    private final String referenceName;
+    private final String assemblyId;
+    private final List<String> datasetIds;
+    private final List<Integer> requestIndexes;
+    private final long[] starts;
+
+    private AlleleRequestWindow(String referenceName, String assemblyId, List<String> datasetIds, List<Integer> requestIndexes, long[] starts) {
+        this.referenceName = referenceName;
+        this.assemblyId = assemblyId;
+        this.datasetIds = datasetIds;
+        this.requestIndexes = Collections.unmodifiableList(requestIndexes);
+        this.starts = starts;
+    }
+
+    /**
+     * @return why the request can't be put in a window, or null if it can
+     */
+    public static String validate(BeaconAlleleRequest request) {
+        if (request == null) {
+            return "Allele request is missing.";
+        }
+        if (request.getReferenceName() == null) {
+            return "Reference name is missing.";
+        }
+        if (request.getStart() == null) {
+            return "Start is missing.";
+        }
+        if (request.getStart() < 0) {
+            return "Start must not be negative, got " + request.getStart() + ".";
+        }
+        if (request.getReferenceBases() == null) {
+            return "Reference bases are missing.";
+        }
+        if (request.getAlternateBases() == null) {
+            return "Alternate bases are missing.";
+        }
+        if (request.getDatasetIds() != null && request.getDatasetIds().contains(null)) {
+            return "Dataset ids must not be null.";
+        }
+        return null;
+    }
+
+    /**
+     * Groups the requests by reference name, assembly and requested datasets, and splits every group into windows of
+     * positions, so that the start positions of one window span less than {@code maxWindowLength} bases. The requests
+     * that don't {@link #validate(BeaconAlleleRequest) validate} are left out of all windows.
+     *
+     * @param assemblyNormalizer maps the requested assemblies to their canonical names, so that the aliases of an
+     *                           assembly end up in the same window
+     * @return windows in the order of their first request
+     */
+    public static List<AlleleRequestWindow> group(List<BeaconAlleleRequest> requests, long maxWindowLength, UnaryOperator<String> assemblyNormalizer) {
+        if (maxWindowLength < 1) {
+            throw new IllegalArgumentException("Max window length must be positive, got " + maxWindowLength);
+        }
+
+        Map<List<Object>, List<Integer>> requestIndexesByGroup = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BeaconAlleleRequest request = requests.get(i);
+            if (validate(request) != null) {
+                continue;
+            }
+            List<Object> groupKey = Arrays.asList(request.getReferenceName(),
+                    assemblyNormalizer.apply(request.getAssemblyId()),
+                    request.getDatasetIds() != null ? new TreeSet<>(request.getDatasetIds()) : Collections.emptySet());
+            requestIndexesByGroup.computeIfAbsent(groupKey, key -> new ArrayList<>()).add(i);
+        }
+
+        List<AlleleRequestWindow> windows = new ArrayList<>();
+        for (List<Integer> groupIndexes : requestIndexesByGroup.values()) {
+            groupIndexes.sort(Comparator.comparingLong(index -> requests.get(index).getStart()));
+
+            int windowFrom = 0;
+            for (int i = 1; i <= groupIndexes.size(); i++) {
+                if (i == groupIndexes.size() || requests.get(groupIndexes.get(i)).getStart() - requests.get(
+                        groupIndexes.get(windowFrom)).getStart() >= maxWindowLength) {
+                    windows.add(create(requests, groupIndexes.subList(windowFrom, i)));
+                    windowFrom = i;
+                }
+            }
+        }
+
+        windows.sort(Comparator.comparingInt(window -> Collections.min(window.getRequestIndexes())));
+        return windows;
+    }
+
+    private static AlleleRequestWindow create(List<BeaconAlleleRequest> requests, List<Integer> sortedIndexes) {
+        BeaconAlleleRequest first = requests.get(sortedIndexes.get(0));
+
+        long[] starts = new long[sortedIndexes.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = requests.get(sortedIndexes.get(i)).getStart();
+        }
+
+        return new AlleleRequestWindow(first.getReferenceName(),
+                first.getAssemblyId(),
+                first.getDatasetIds(),
+                new ArrayList<>(sortedIndexes),
+                starts);
+    }
+
+    public String getReferenceName() {
+        return referenceName;
+    }
+
+    /**
+     * @return assembly of the first request, the other requests ask for the same assembly or its alias
+     */
+    public String getAssemblyId() {
+        return assemblyId;
+    }
+
+    /**
+     * @return datasets requested by the first request, the other requests ask for the same ones
+     */
+    public List<String> getDatasetIds() {
+        return datasetIds;
+    }
+
+    /**
+     * @return indexes of the requests in the batch, ordered by their start positions
+     */
+    public List<Integer> getRequestIndexes() {
+        return requestIndexes;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * @return start of the range to search, inclusive
+     */
+    public long getStart() {
+        return starts[0];
+    }
+
+    /**
+     * @return end of the range to search, exclusive
+     */
+    public long getEnd() {
+        return starts[starts.length - 1] + 1;
+    }
+
+    /**
+     * @return positions within the window of the requests whose start the given variant overlaps, in ascending order
+     */
+    public List<Integer> getOverlappedRequests(long variantStart, long variantEnd) {
+        int from = Arrays.binarySearch(starts, variantStart);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        // Requests with the same start are adjacent, find the first one.
+        while (from > 0 && starts[from - 1] == variantStart) {
+            from--;
+        }
+
+        List<Integer> overlapped = new ArrayList<>();
+        for (int i = from; i < starts.length && starts[i] < variantEnd; i++) {
+            overlapped.add(i);
+        }
+        return overlapped;
+    }
+}
@@ -0,0 +1,21 @@
+package com.dnastack.beacon.adater.variants.catalog;
+
+import com.dnastack.beacon.adater.variants.client.ga4gh.exceptions.Ga4ghClientException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the content of a {@link DatasetCatalog} from the Ga4gh server.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+@FunctionalInterface
+public interface CatalogLoader {
+
+    /**
+     * @return variant sets keyed by dataset id
+     * @throws Ga4ghClientException on IO error
+     */
+    Map<String, List<CatalogVariantSet>> load() throws Ga4ghClientException;
+}
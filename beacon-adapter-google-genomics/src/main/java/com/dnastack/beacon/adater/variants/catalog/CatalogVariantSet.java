@@ -0,0 +1,43 @@
+package com.dnastack.beacon.adater.variants.catalog;
+
+import com.dnastack.beacon.adater.variants.assembly.CanonicalAssembly;
+
+/**
+ * Variant set entry of a {@link DatasetCatalog}, with the assembly of its reference set already resolved and
+ * normalized.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class CatalogVariantSet {
+
+    private final String id;
+    private final String referenceSetId;
+    private final String assemblyId;
+    private final CanonicalAssembly canonicalAssembly;
+
+    /**
+     * @param canonicalAssembly normalized assembly of the reference set, or null if the assembly is unknown
+     */
+    public CatalogVariantSet(String id, String referenceSetId, String assemblyId, CanonicalAssembly canonicalAssembly) {
+        this.id = id;
+        this.referenceSetId = referenceSetId;
+        this.assemblyId = assemblyId;
+        this.canonicalAssembly = canonicalAssembly;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getReferenceSetId() {
+        return referenceSetId;
+    }
+
+    public String getAssemblyId() {
+        return assemblyId;
+    }
+
+    public CanonicalAssembly getCanonicalAssembly() {
+        return canonicalAssembly;
+    }
+}
@@ -0,0 +1,61 @@
+package com.dnastack.beacon.adater.variants.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the datasets of a Ga4gh server and their variant sets. Snapshots are replaced as a whole on
+ * every refresh, so the readers never need to lock.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class DatasetCatalog {
+
+    private final long version;
+    private final long loadedAtMillis;
+    private final List<String> datasetIds;
+    private final Map<String, List<CatalogVariantSet>> variantSetsByDataset;
+
+    /**
+     * @param variantSetsByDataset variant sets keyed by dataset id, in the order the server returned the datasets
+     */
+    public DatasetCatalog(long version, Map<String, List<CatalogVariantSet>> variantSetsByDataset) {
+        Map<String, List<CatalogVariantSet>> copy = new LinkedHashMap<>();
+        variantSetsByDataset.forEach((datasetId, variantSets) -> copy.put(datasetId,
+                Collections.unmodifiableList(new ArrayList<>(variantSets))));
+
+        this.version = version;
+        this.loadedAtMillis = System.currentTimeMillis();
+        this.variantSetsByDataset = Collections.unmodifiableMap(copy);
+        this.datasetIds = Collections.unmodifiableList(new ArrayList<>(copy.keySet()));
+    }
+
+    /**
+     * @return number that grows with every refresh of the catalog
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    public List<String> getDatasetIds() {
+        return datasetIds;
+    }
+
+    public boolean containsDataset(String datasetId) {
+        return variantSetsByDataset.containsKey(datasetId);
+    }
+
+    /**
+     * @return variant sets of the dataset, or an empty list for an unknown dataset
+     */
+    public List<CatalogVariantSet> getVariantSets(String datasetId) {
+        return variantSetsByDataset.getOrDefault(datasetId, Collections.emptyList());
+    }
+}
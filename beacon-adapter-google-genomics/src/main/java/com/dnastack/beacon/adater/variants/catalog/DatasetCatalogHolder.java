@@ -0,0 +1,81 @@
+package com.dnastack.beacon.adater.variants.catalog;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link DatasetCatalog} and replaces it with a fresh one on a schedule. A failed refresh keeps the
+ * previous snapshot in place; {@link #get()} returns null until the first refresh succeeds.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class DatasetCatalogHolder {
+
+    private final CatalogLoader catalogLoader;
+    private final AtomicReference<DatasetCatalog> catalog = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Exception lastRefreshError;
+
+    public DatasetCatalogHolder(CatalogLoader catalogLoader) {
+        this.catalogLoader = catalogLoader;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("beacon-genomics-catalog-%d")
+                .build());
+    }
+
+    /**
+     * Loads the catalog right away and then refreshes it in the background every given number of seconds.
+     */
+    public void start(long refreshIntervalSeconds) {
+        refresh();
+        scheduler.scheduleWithFixedDelay(this::refresh,
+                refreshIntervalSeconds,
+                refreshIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Loads a new snapshot and swaps it in. Refreshes don't overlap, so a snapshot is never replaced by an older one
+     * and the versions only grow.
+     *
+     * @return true if the snapshot has been replaced
+     */
+    public synchronized boolean refresh() {
+        try {
+            Map<String, List<CatalogVariantSet>> variantSetsByDataset = catalogLoader.load();
+            catalog.set(new DatasetCatalog(versions.incrementAndGet(), variantSetsByDataset));
+            lastRefreshError = null;
+            return true;
+        } catch (Exception e) {
+            lastRefreshError = e;
+            return false;
+        }
+    }
+
+    /**
+     * @return current snapshot or null if none has been loaded yet
+     */
+    public DatasetCatalog get() {
+        return catalog.get();
+    }
+
+    /**
+     * @return error of the last refresh, or null if it succeeded
+     */
+    public Exception getLastRefreshError() {
+        return lastRefreshError;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,55 @@
+package com.dnastack.beacon.adater.variants.catalog;
+
+import com.dnastack.beacon.adater.variants.assembly.AssemblyNormalizer;
+import com.dnastack.beacon.adater.variants.client.ga4gh.Ga4ghClient;
+import com.dnastack.beacon.adater.variants.client.ga4gh.exceptions.Ga4ghClientException;
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Dataset;
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.VariantSet;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Walks all datasets of the configured Ga4gh servers, their variant sets and the reference sets of those. The variant
+ * sets are tagged with the canonical assembly of their reference set. Datasets without a configured server are listed
+ * without variant sets.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class Ga4ghCatalogLoader implements CatalogLoader {
+
+    private final Ga4ghClient ga4ghClient;
+    private final AssemblyNormalizer assemblyNormalizer;
+
+    public Ga4ghCatalogLoader(Ga4ghClient ga4ghClient, AssemblyNormalizer assemblyNormalizer) {
+        this.ga4ghClient = ga4ghClient;
+        this.assemblyNormalizer = assemblyNormalizer;
+    }
+
+    @Override
+    public Map<String, List<CatalogVariantSet>> load() throws Ga4ghClientException {
+        Map<String, List<CatalogVariantSet>> variantSetsByDataset = new LinkedHashMap<>();
+
+        for (Dataset dataset : ga4ghClient.searchDatasets()) {
+            String datasetId = dataset.getId();
+            List<CatalogVariantSet> variantSets = new ArrayList<>();
+
+            if (ga4ghClient.isExistDataset(datasetId)) {
+                for (VariantSet variantSet : ga4ghClient.searchVariantSets(datasetId)) {
+                    String assemblyId = ga4ghClient.loadReferenceSet(datasetId, variantSet.getReferenceSetId())
+                            .getAssemblyId();
+                    variantSets.add(new CatalogVariantSet(variantSet.getId(),
+                            variantSet.getReferenceSetId(),
+                            assemblyId,
+                            assemblyNormalizer.normalize(assemblyId)));
+                }
+            }
+
+            variantSetsByDataset.put(datasetId, variantSets);
+        }
+
+        return variantSetsByDataset;
+    }
+}
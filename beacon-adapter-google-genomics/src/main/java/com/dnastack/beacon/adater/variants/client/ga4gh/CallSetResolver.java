@@ -0,0 +1,228 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh;
+
+import com.dnastack.beacon.adater.variants.client.ga4gh.exceptions.Ga4ghClientException;
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.CallSet;
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.SearchCallSetsResponse;
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Variant;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the call sets referenced by the calls of the given variants of one dataset.
+ * <p>
+ * The call set ids are deduplicated first and the call sets cached by the client are taken as they are. Variant sets
+ * that reference at least {@code bulkThreshold} distinct uncached call sets are fetched in bulk via the paged
+ * callsets/search endpoint, the rest is loaded one by one. All requests run concurrently, but no more than
+ * {@code maxInFlight} at a time across all callers of the resolver. If a bulk search fails, the call sets it should have
+ * found are loaded one by one; if the server answers that it doesn't support the search (HTTP 400, 404, 405 or 501),
+ * the resolver stops using bulk searches, other errors are retried with the next request.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class CallSetResolver {
+
+    private final Ga4ghClient ga4ghClient;
+    private final int bulkThreshold;
+    private final ExecutorService executor;
+
+    private volatile boolean bulkSearchSupported = true;
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong savedRoundTrips = new AtomicLong();
+
+    public CallSetResolver(Ga4ghClient ga4ghClient, int maxInFlight, int bulkThreshold) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in-flight requests must be positive, got " + maxInFlight);
+        }
+
+        this.ga4ghClient = ga4ghClient;
+        this.bulkThreshold = bulkThreshold;
+        this.executor = Executors.newFixedThreadPool(maxInFlight,
+                new ThreadFactoryBuilder().setDaemon(true)
+                        .setNameFormat("beacon-genomics-callset-%d")
+                        .build());
+    }
+
+    /**
+     * @return call sets referenced by the calls of the given variants, keyed by call set id
+     * @throws Ga4ghClientException if any of the call sets couldn't be loaded
+     */
+    public Map<String, CallSet> resolve(String datasetId, Collection<Variant> variants) throws Ga4ghClientException {
+        return resolve(datasetId, CallSetReferences.of(variants));
+    }
+
+    /**
+     * @return call sets with the given ids, keyed by call set id
+     * @throws Ga4ghClientException if any of the call sets couldn't be loaded
+     */
+    public Map<String, CallSet> resolve(String datasetId, CallSetReferences references) throws Ga4ghClientException {
+        Map<String, Set<String>> callSetIdsByVariantSet = new LinkedHashMap<>();
+        Set<String> callSetIds = new LinkedHashSet<>();
+        Map<String, CallSet> resolved = new ConcurrentHashMap<>();
+        long referencedCallSets = references.getReferenceCount();
+
+        references.getCallSetIdsByVariantSet().forEach((variantSetId, referencedIds) -> {
+            for (String callSetId : referencedIds) {
+                if (!callSetIds.add(callSetId)) {
+                    continue;
+                }
+
+                CallSet cachedCallSet = ga4ghClient.getCachedCallSet(datasetId, callSetId);
+                if (cachedCallSet != null) {
+                    resolved.put(callSetId, cachedCallSet);
+                } else {
+                    callSetIdsByVariantSet.computeIfAbsent(variantSetId, id -> new LinkedHashSet<>()).add(callSetId);
+                }
+            }
+        });
+
+        AtomicLong requestRoundTrips = new AtomicLong();
+
+        if (bulkSearchSupported) {
+            List<Callable<Void>> bulkSearches = new ArrayList<>();
+
+            callSetIdsByVariantSet.forEach((variantSetId, wantedIds) -> {
+                if (wantedIds.size() >= bulkThreshold) {
+                    bulkSearches.add(() -> {
+                        List<SearchCallSetsResponse> pages = ga4ghClient.searchCallSetPages(datasetId,
+                                variantSetId);
+                        requestRoundTrips.addAndGet(pages.size());
+
+                        pages.stream()
+                                .flatMap(page -> page.getCallSets().stream())
+                                .filter(callSet -> wantedIds.contains(callSet.getId()))
+                                .forEach(callSet -> resolved.put(callSet.getId(), callSet));
+                        return null;
+                    });
+                }
+            });
+
+            try {
+                invokeAll(bulkSearches);
+            } catch (Ga4ghClientException e) {
+                if (isBulkSearchUnsupported(e)) {
+                    bulkSearchSupported = false;
+                }
+            }
+        }
+
+        List<Callable<Void>> loads = new ArrayList<>();
+        for (String callSetId : callSetIds) {
+            if (!resolved.containsKey(callSetId)) {
+                loads.add(() -> {
+                    requestRoundTrips.incrementAndGet();
+                    resolved.put(callSetId, ga4ghClient.loadCallSet(datasetId, callSetId));
+                    return null;
+                });
+            }
+        }
+        invokeAll(loads);
+
+        roundTrips.addAndGet(requestRoundTrips.get());
+        savedRoundTrips.addAndGet(referencedCallSets - requestRoundTrips.get());
+
+        return resolved;
+    }
+
+    /**
+     * @return number of requests the resolver has sent to the server so far
+     */
+    public long getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    /**
+     * @return number of requests saved so far compared to loading every referenced call set separately
+     */
+    public long getSavedRoundTrips() {
+        return savedRoundTrips.get();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return true if the error is an error response saying that the server doesn't implement the callsets/search
+     * endpoint
+     */
+    static boolean isBulkSearchUnsupported(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof Ga4ghClientException) {
+                int httpCode = ((Ga4ghClientException) cause).getHttpCode();
+                if (httpCode == 400 || httpCode == 404 || httpCode == 405 || httpCode == 501) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void invokeAll(List<Callable<Void>> tasks) throws Ga4ghClientException {
+        if (tasks.size() == 1) {
+            runInline(tasks.get(0));
+            return;
+        }
+
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Void>> futures = new ArrayList<>(tasks.size());
+
+        try {
+            for (Callable<Void> task : tasks) {
+                futures.add(completionService.submit(task));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                completionService.take().get();
+            }
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new Ga4ghClientException("Interrupted while resolving call sets.", e);
+        }
+    }
+
+    private void runInline(Callable<Void> task) throws Ga4ghClientException {
+        try {
+            task.call();
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    private void cancelAll(List<Future<Void>> futures) {
+        for (Future<Void> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private Ga4ghClientException rethrow(Throwable cause) {
+        if (cause instanceof Ga4ghClientException) {
+            return (Ga4ghClientException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new Ga4ghClientException("Couldn't resolve call sets.", cause);
+    }
+}
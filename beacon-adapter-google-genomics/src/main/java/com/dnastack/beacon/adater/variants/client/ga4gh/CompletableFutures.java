@@ -0,0 +1,111 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for {@link CompletableFuture} missing in Java 8.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public final class CompletableFutures {
+
+    /**
+     * Unlike {@link CompletableFuture#allOf(CompletableFuture[])}, collects the results in the order of the given
+     * futures and fails as soon as any of them fails, cancelling the rest instead of waiting for them. Cancelling the
+     * returned future cancels the given ones.
+     */
+    public static <T> CompletableFuture<List<T>> allAsList(List<CompletableFuture<T>> futures) {
+        CompletableFuture<List<T>> result = CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+
+        for (CompletableFuture<T> future : futures) {
+            future.whenComplete((value, error) -> {
+                if (error != null && result.completeExceptionally(error)) {
+                    // The result is known to fail, the futures still running aren't needed.
+                    futures.forEach(sibling -> sibling.cancel(true));
+                }
+            });
+        }
+
+        return propagateCancellation(result, futures.toArray(new CompletableFuture[futures.size()]));
+    }
+
+    /**
+     * Same as {@code source.thenApply(fn)}, but cancelling the returned future cancels the source, and so the request
+     * behind it.
+     */
+    public static <T, U> CompletableFuture<U> thenApply(CompletableFuture<T> source, Function<? super T, ? extends U> fn) {
+        return propagateCancellation(source.thenApply(fn), source);
+    }
+
+    /**
+     * Same as {@code source.thenCompose(fn)}, but cancelling the returned future cancels the source and the future
+     * returned by the function, whichever is running.
+     */
+    public static <T, U> CompletableFuture<U> thenCompose(CompletableFuture<T> source, Function<? super T, ? extends CompletableFuture<U>> fn) {
+        CompletableFuture<U> result = new CompletableFuture<>();
+
+        source.whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+
+            CompletableFuture<U> next;
+            try {
+                next = fn.apply(value);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+                return;
+            }
+
+            propagateCancellation(result, next);
+            next.whenComplete((nextValue, nextError) -> {
+                if (nextError != null) {
+                    result.completeExceptionally(nextError);
+                } else {
+                    result.complete(nextValue);
+                }
+            });
+        });
+
+        return propagateCancellation(result, source);
+    }
+
+    /**
+     * Cancels the given sources once the dependent future is cancelled, right away if it already is. {@link
+     * CompletableFuture} doesn't do it by itself, so without this the requests behind a cancelled chain keep running.
+     *
+     * @return the dependent future
+     */
+    public static <T> CompletableFuture<T> propagateCancellation(CompletableFuture<T> dependent, CompletableFuture<?>... sources) {
+        dependent.whenComplete((value, error) -> {
+            if (dependent.isCancelled()) {
+                Arrays.stream(sources).forEach(source -> source.cancel(true));
+            }
+        });
+        return dependent;
+    }
+
+    /**
+     * @return the original error of a failed stage, without the {@link CompletionException} and {@link
+     * ExecutionException} wrappers
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable unwrapped = error;
+        while ((unwrapped instanceof CompletionException || unwrapped instanceof ExecutionException)
+                && unwrapped.getCause() != null) {
+            unwrapped = unwrapped.getCause();
+        }
+        return unwrapped;
+    }
+
+    private CompletableFutures() {
+    }
+}
@@ -0,0 +1,43 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh;
+
+import com.dnastack.beacon.adater.variants.client.ga4gh.exceptions.Ga4ghClientException;
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Dataset;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Datasets listed by the servers of the beacon datasets, and the errors of the servers that failed to list them or
+ * didn't answer in time.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class DatasetSearchResult {
+
+    private final List<Dataset> datasets;
+    private final Map<String, Ga4ghClientException> failures;
+
+    public DatasetSearchResult(List<Dataset> datasets, Map<String, Ga4ghClientException> failures) {
+        this.datasets = Collections.unmodifiableList(datasets);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return datasets listed by the servers that answered, in the order of the beacon datasets
+     */
+    public List<Dataset> getDatasets() {
+        return datasets;
+    }
+
+    /**
+     * @return errors of the servers that failed, keyed by the id of the beacon dataset the server belongs to
+     */
+    public Map<String, Ga4ghClientException> getFailures() {
+        return failures;
+    }
+
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+}
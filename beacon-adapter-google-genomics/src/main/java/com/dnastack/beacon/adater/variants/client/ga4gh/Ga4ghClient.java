@@ -1,21 +1,32 @@
 package com.dnastack.beacon.adater.variants.client.ga4gh;
 
+import com.dnastack.beacon.adater.variants.client.ga4gh.cache.GuavaMetadataCache;
+import com.dnastack.beacon.adater.variants.client.ga4gh.cache.MetadataCache;
 import com.dnastack.beacon.adater.variants.client.ga4gh.exceptions.Ga4ghClientException;
 import com.dnastack.beacon.adater.variants.client.ga4gh.model.*;
 import com.dnastack.beacon.adater.variants.client.ga4gh.retro.Ga4ghRetroService;
 import com.dnastack.beacon.adater.variants.client.ga4gh.retro.Ga4ghRetroServiceFactory;
+import com.dnastack.beacon.adater.variants.client.ga4gh.retro.HttpTransportConfig;
+import com.dnastack.beacon.adater.variants.client.ga4gh.retro.RequestTraceStats;
+import com.dnastack.beacon.adater.variants.client.ga4gh.retro.RequestTracer;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.reflect.MethodUtils;
 import org.ga4gh.beacon.Beacon;
 import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -27,9 +38,20 @@ import java.util.stream.Collectors;
  */
 public class Ga4ghClient {
 
+    private static final long DEFAULT_METADATA_CACHE_SIZE = 10_000;
+    private static final long DEFAULT_METADATA_CACHE_TTL_MINUTES = 60;
+    private static final long DEFAULT_DATASET_SEARCH_TIMEOUT_SECONDS = 30;
+
+    private static final Comparator<Variant> VARIANT_POSITION_ORDER = Comparator.comparingLong(Variant::getStart)
+            .thenComparingLong(Ga4ghClient::variantEnd);
+
     private Beacon beacon;
     private HashMap<String, Ga4ghRetroService> ga4ghRetroServices;
     private String projectId;
+    private MetadataCache<String, ReferenceSet> referenceSetCache;
+    private MetadataCache<String, CallSet> callSetCache;
+    private RequestTracer requestTracer;
+    private long datasetSearchTimeoutSeconds;
 
     /**
      * A function that returns a single response page for the given request and throws {@link Ga4ghClientException} on
@@ -45,16 +67,35 @@ public class Ga4ghClient {
         this.beacon = request.getBeacon();
         this.projectId = request.getProjectId();
         this.ga4ghRetroServices = new HashMap<>();
+        this.referenceSetCache = request.getReferenceSetCache() != null
+                ? request.getReferenceSetCache()
+                : new GuavaMetadataCache<>(DEFAULT_METADATA_CACHE_SIZE, DEFAULT_METADATA_CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+        this.callSetCache = request.getCallSetCache() != null
+                ? request.getCallSetCache()
+                : new GuavaMetadataCache<>(DEFAULT_METADATA_CACHE_SIZE, DEFAULT_METADATA_CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+
+        HttpTransportConfig transportConfig = request.getTransportConfig() != null
+                ? request.getTransportConfig()
+                : HttpTransportConfig.defaults();
+        this.requestTracer = request.getRequestTracer() != null
+                ? request.getRequestTracer()
+                : RequestTracer.withoutBodies();
+        this.datasetSearchTimeoutSeconds = request.getDatasetSearchTimeoutSeconds() != null
+                ? request.getDatasetSearchTimeoutSeconds()
+                : DEFAULT_DATASET_SEARCH_TIMEOUT_SECONDS;
 
         if (request.getApiKey() != null) {
             beacon.getDatasets().forEach(beaconDataset -> ga4ghRetroServices.put(
                     beaconDataset.getId(),
-                    Ga4ghRetroServiceFactory.create(beaconDataset.getExternalUrl(), request.getApiKey()))
+                    Ga4ghRetroServiceFactory.create(beaconDataset.getExternalUrl(),
+                            transportConfig,
+                            requestTracer,
+                            request.getApiKey()))
             );
         } else {
             beacon.getDatasets().forEach(beaconDataset -> ga4ghRetroServices.put(
                     beaconDataset.getId(),
-                    Ga4ghRetroServiceFactory.create(beaconDataset.getExternalUrl()))
+                    Ga4ghRetroServiceFactory.create(beaconDataset.getExternalUrl(), transportConfig, requestTracer))
             );
         }
     }
@@ -71,66 +112,228 @@ public class Ga4ghClient {
             return response.body();
         } else {
             throw new Ga4ghClientException(String.format("Received error response from server. HTTP code: %s",
-                    response.code()));
+                    response.code()), response.code());
         }
     }
 
+    /**
+     * Same as {@link RequestExecutor}, but returns the response page asynchronously.
+     */
+    @FunctionalInterface
+    private interface AsyncRequestExecutor<REQUEST, RESPONSE> {
+
+        CompletableFuture<RESPONSE> execute(REQUEST request);
+    }
+
+    /**
+     * Enqueues the call instead of executing it on the calling thread. The returned future fails with {@link
+     * Ga4ghClientException} on the same errors {@link #executeCall(Call)} throws it. Cancelling the future cancels the
+     * call.
+     */
+    private <T> CompletableFuture<T> executeCallAsync(Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (response.isSuccessful()) {
+                    future.complete(response.body());
+                } else {
+                    future.completeExceptionally(new Ga4ghClientException(String.format(
+                            "Received error response from server. HTTP code: %s",
+                            response.code()), response.code()));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                future.completeExceptionally(new Ga4ghClientException("Error during communication to server.", t));
+            }
+        });
+
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
     /**
      * Loads all response pages for given request. Ga4gh server returns responses by pages.
      *
      * @return list of all response pages
      * @throws Ga4ghClientException on IO error
      */
-    private <REQUEST extends RecordBase, RESPONSE> List<RESPONSE> requestAllResponsePages(REQUEST request, RequestExecutor<REQUEST, RESPONSE> requestExecutor) throws Ga4ghClientException {
+    private <REQUEST extends RecordBase, RESPONSE extends PagedResponse> List<RESPONSE> requestAllResponsePages(REQUEST request, RequestExecutor<REQUEST, RESPONSE> requestExecutor) throws Ga4ghClientException {
         List<RESPONSE> responsePages = new ArrayList<>();
 
-        CharSequence nextPageToken = "";
+        String nextPageToken = "";
         do {
             RESPONSE responsePage = loadResponsePage(request, requestExecutor, nextPageToken);
             responsePages.add(responsePage);
 
-            nextPageToken = invokeMethod(responsePage, "getNextPageToken");
+            nextPageToken = responsePage.getNextPageToken();
         } while (StringUtils.isNotBlank(nextPageToken));
 
         return responsePages;
     }
 
-    private <REQUEST extends RecordBase, RESPONSE> RESPONSE loadResponsePage(REQUEST requestBuilder, RequestExecutor<REQUEST, RESPONSE> requestExecutor, CharSequence nextPageToken) throws Ga4ghClientException {
-        invokeMethod(requestBuilder, "setPageToken", nextPageToken);
-        return requestExecutor.execute(requestBuilder);
+    /**
+     * Same as {@link #requestAllResponsePages(RecordBase, RequestExecutor)}, but requests the next page only once the
+     * previous one has arrived, without blocking any thread in between.
+     */
+    private <REQUEST extends RecordBase, RESPONSE extends PagedResponse> CompletableFuture<List<RESPONSE>> requestAllResponsePagesAsync(REQUEST request, AsyncRequestExecutor<REQUEST, RESPONSE> requestExecutor) {
+        return requestRemainingResponsePagesAsync(request, requestExecutor, "", new ArrayList<>());
     }
 
-    @SuppressWarnings("unchecked")
-    private <T> T invokeMethod(Object response, String methodName, Object... args) throws Ga4ghClientException {
-        try {
-            return (T) MethodUtils.invokeMethod(response, methodName, args);
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-            throw new Ga4ghClientException(String.format("Couldn't invoke method %s.", methodName), e);
-        }
+    private <REQUEST extends RecordBase, RESPONSE extends PagedResponse> CompletableFuture<List<RESPONSE>> requestRemainingResponsePagesAsync(REQUEST request, AsyncRequestExecutor<REQUEST, RESPONSE> requestExecutor, String nextPageToken, List<RESPONSE> responsePages) {
+        request.setPageToken(nextPageToken);
+        return CompletableFutures.thenCompose(requestExecutor.execute(request), responsePage -> {
+            responsePages.add(responsePage);
+
+            String followingPageToken = responsePage.getNextPageToken();
+            return StringUtils.isNotBlank(followingPageToken)
+                    ? requestRemainingResponsePagesAsync(request, requestExecutor, followingPageToken, responsePages)
+                    : CompletableFuture.completedFuture(responsePages);
+        });
+    }
+
+    private <REQUEST extends RecordBase, RESPONSE> RESPONSE loadResponsePage(REQUEST request, RequestExecutor<REQUEST, RESPONSE> requestExecutor, String nextPageToken) throws Ga4ghClientException {
+        request.setPageToken(nextPageToken);
+        return requestExecutor.execute(request);
     }
 
     public Beacon getBeacon() {
         return beacon;
     }
 
+    /**
+     * Same as {@link #searchAllDatasets()}, but fails if any of the servers fails.
+     *
+     * @throws Ga4ghClientException error of the first failed server
+     */
     public List<Dataset> searchDatasets() throws Ga4ghClientException {
-        List<SearchDatasetsResponse> allResponsePages = new ArrayList<>();
+        DatasetSearchResult result = searchAllDatasets();
+        if (!result.isComplete()) {
+            throw result.getFailures().values().iterator().next();
+        }
+        return result.getDatasets();
+    }
 
-        for (Ga4ghRetroService ga4ghRetroService : ga4ghRetroServices.values()) {
-            allResponsePages.add(executeCall(ga4ghRetroService.searchDatasets(projectId)));
+    /**
+     * Lists the datasets of the servers of all beacon datasets concurrently. The calls are enqueued on the dispatchers
+     * of the HTTP transports, which bound the requests in flight per host. A server that doesn't answer within the
+     * dataset search timeout is given up on and its call cancelled, without holding up the results of the others.
+     *
+     * @return datasets of the servers that answered and the errors of the others
+     * @throws Ga4ghClientException if interrupted while waiting for the servers
+     */
+    public DatasetSearchResult searchAllDatasets() throws Ga4ghClientException {
+        Map<String, CompletableFuture<SearchDatasetsResponse>> responses = new LinkedHashMap<>();
+        ga4ghRetroServices.forEach((datasetId, ga4ghRetroService) -> responses.put(datasetId,
+                executeCallAsync(ga4ghRetroService.searchDatasets(projectId))));
+
+        List<Dataset> datasets = new ArrayList<>();
+        Map<String, Ga4ghClientException> failures = new LinkedHashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(datasetSearchTimeoutSeconds);
+
+        for (Map.Entry<String, CompletableFuture<SearchDatasetsResponse>> response : responses.entrySet()) {
+            try {
+                datasets.addAll(response.getValue()
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                        .getDatasets());
+            } catch (TimeoutException e) {
+                response.getValue().cancel(true);
+                failures.put(response.getKey(), new Ga4ghClientException(String.format(
+                        "Server of dataset %s didn't list its datasets within %s seconds.",
+                        response.getKey(),
+                        datasetSearchTimeoutSeconds), e));
+            } catch (ExecutionException e) {
+                failures.put(response.getKey(), e.getCause() instanceof Ga4ghClientException
+                        ? (Ga4ghClientException) e.getCause()
+                        : new Ga4ghClientException("Error during communication to server.", e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                responses.values().forEach(future -> future.cancel(true));
+                throw new Ga4ghClientException("Interrupted while listing the datasets.", e);
+            }
         }
 
-        return allResponsePages.stream()
-                .flatMap(responsePage -> responsePage.getDatasets().stream())
-                .collect(Collectors.toList());
+        return new DatasetSearchResult(datasets, failures);
+    }
+
+    /**
+     * Searches the variants matching the range or bracket query. The searched range is split into windows of at most
+     * {@code windowLength} bases, which are searched concurrently, limited only by the dispatcher of the HTTP client.
+     * Once the search of a window fails, the searches of the other windows are cancelled along with their calls.
+     *
+     * @return matching variants ordered by their position
+     * @throws Ga4ghClientException if the search of any of the windows fails
+     */
+    public List<Variant> searchVariants(String datasetId, String variantSetId, String referenceName, VariantRegion region, long windowLength) throws Ga4ghClientException {
+        CompletableFuture<List<List<Variant>>> windowSearches = CompletableFutures.allAsList(region.split(windowLength)
+                .stream()
+                .map(window -> searchWindowAsync(datasetId, variantSetId, referenceName, region, window))
+                .collect(Collectors.toList()));
+
+        try {
+            // The windows are consecutive and each one is sorted, so the concatenation is sorted too.
+            return windowSearches.get()
+                    .stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        } catch (ExecutionException e) {
+            Throwable cause = CompletableFutures.unwrap(e);
+            if (cause instanceof Ga4ghClientException) {
+                throw (Ga4ghClientException) cause;
+            }
+            throw new Ga4ghClientException("Couldn't search variants.", cause);
+        } catch (InterruptedException e) {
+            windowSearches.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new Ga4ghClientException("Interrupted while searching variants.", e);
+        }
+    }
+
+    private CompletableFuture<List<Variant>> searchWindowAsync(String datasetId, String variantSetId, String referenceName, VariantRegion region, VariantRegion window) {
+        SearchVariantsRequest request = SearchVariantsRequest.builder()
+                .variantSetIds(Collections.singletonList(variantSetId))
+                .referenceName(referenceName)
+                .start(window.getStart())
+                .end(window.getEnd())
+                .build();
+
+        return CompletableFutures.thenApply(requestAllResponsePagesAsync(request,
+                pagedRequest -> executeCallAsync(ga4ghRetroServices.get(datasetId).searchVariants(pagedRequest))),
+                allResponsePages -> allResponsePages.stream()
+                        .flatMap(responsePage -> responsePage.getVariants().stream())
+                        .filter(variant -> region.ownsVariant(window, variant.getStart()))
+                        .filter(variant -> region.matches(variant.getStart(), variantEnd(variant)))
+                        .sorted(VARIANT_POSITION_ORDER)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * @return end of the variant, or the position following its start if the server didn't send the end
+     */
+    private static long variantEnd(Variant variant) {
+        return variant.getEnd() != null ? variant.getEnd() : variant.getStart() + 1;
     }
 
     public List<Variant> searchVariants(String datasetId, String variantSetId, String referenceName, long start) throws Ga4ghClientException {
+        return searchVariants(datasetId, variantSetId, referenceName, start, start + 1);
+    }
+
+    /**
+     * @return variants overlapping the range [start, end) of the reference
+     */
+    public List<Variant> searchVariants(String datasetId, String variantSetId, String referenceName, long start, long end) throws Ga4ghClientException {
         SearchVariantsRequest request = SearchVariantsRequest.builder()
                 .variantSetIds(Collections.singletonList(variantSetId))
                 .referenceName(referenceName)
                 .start(start)
-                .end(start + 1)
+                .end(end)
                 .build();
 
         List<SearchVariantsResponse> allResponsePages = requestAllResponsePages(request,
@@ -162,13 +365,83 @@ public class Ga4ghClient {
     }
 
     public ReferenceSet loadReferenceSet(String datasetId, String referenceSetId) throws Ga4ghClientException {
-        return executeCall(ga4ghRetroServices.get(datasetId).loadReferenceSet(referenceSetId));
+        return referenceSetCache.get(metadataKey(datasetId, referenceSetId),
+                key -> executeCall(ga4ghRetroServices.get(datasetId).loadReferenceSet(referenceSetId)));
+    }
+
+    public CallSet loadCallSet(String datasetId, String callSetId) throws Ga4ghClientException {
+        return callSetCache.get(metadataKey(datasetId, callSetId),
+                key -> executeCall(ga4ghRetroServices.get(datasetId).loadCallSet(callSetId)));
     }
 
+    public List<CallSet> searchCallSets(String datasetId, String variantSetId) throws Ga4ghClientException {
+        return searchCallSetPages(datasetId, variantSetId).stream()
+                .flatMap(responsePage -> responsePage.getCallSets().stream())
+                .collect(Collectors.toList());
+    }
 
+    /**
+     * Loads all call sets of the given variant set, page by page. Exposed to the package so that the callers can tell
+     * how many requests the search took.
+     */
+    List<SearchCallSetsResponse> searchCallSetPages(String datasetId, String variantSetId) throws Ga4ghClientException {
+        SearchCallSetsRequest request = SearchCallSetsRequest.builder()
+                .variantSetIds(Collections.singletonList(variantSetId))
+                .build();
 
-    public CallSet loadCallSet(String datasetId, String callSetId) throws Ga4ghClientException {
-        return executeCall(ga4ghRetroServices.get(datasetId).loadCallSet(callSetId));
+        List<SearchCallSetsResponse> allResponsePages = requestAllResponsePages(request,
+                pagedRequest -> executeCall(ga4ghRetroServices.get(datasetId).searchCallSets(pagedRequest)));
+
+        allResponsePages.stream()
+                .flatMap(responsePage -> responsePage.getCallSets().stream())
+                .forEach(callSet -> callSetCache.put(metadataKey(datasetId, callSet.getId()), callSet));
+
+        return allResponsePages;
+    }
+
+    /**
+     * @return the call set if it's cached, null otherwise
+     */
+    CallSet getCachedCallSet(String datasetId, String callSetId) {
+        return callSetCache.getIfPresent(metadataKey(datasetId, callSetId));
+    }
+
+    public MetadataCache<String, ReferenceSet> getReferenceSetCache() {
+        return referenceSetCache;
+    }
+
+    public MetadataCache<String, CallSet> getCallSetCache() {
+        return callSetCache;
+    }
+
+    public void invalidateReferenceSet(String datasetId, String referenceSetId) {
+        referenceSetCache.invalidate(metadataKey(datasetId, referenceSetId));
+    }
+
+    public void invalidateCallSet(String datasetId, String callSetId) {
+        callSetCache.invalidate(metadataKey(datasetId, callSetId));
+    }
+
+    /**
+     * Drops all cached metadata, so that it's loaded from the server again on the next use.
+     */
+    public void invalidateMetadata() {
+        referenceSetCache.invalidateAll();
+        callSetCache.invalidateAll();
+    }
+
+    /**
+     * @return stats of the requests the client has sent so far to the servers of all datasets, keyed by endpoint
+     */
+    public Map<String, RequestTraceStats> getRequestTraceStats() {
+        return requestTracer.getStats();
+    }
+
+    /**
+     * Metadata ids are only unique within a single Ga4gh server, hence the cache keys include the dataset id.
+     */
+    private static String metadataKey(String datasetId, String id) {
+        return datasetId + "/" + id;
     }
 
     public boolean isExistDataset(String datasetId) {
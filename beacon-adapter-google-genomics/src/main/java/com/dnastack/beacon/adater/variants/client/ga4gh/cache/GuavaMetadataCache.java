@@ -0,0 +1,75 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh.cache;
+
+import com.dnastack.beacon.adater.variants.client.ga4gh.exceptions.Ga4ghClientException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default {@link MetadataCache}, backed by a Guava cache. Evicts the least recently used entries once the maximum size
+ * is reached and expires entries after the given time to live. Maximum size of 0 disables caching.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class GuavaMetadataCache<K, V> implements MetadataCache<K, V> {
+
+    private final Cache<K, V> cache;
+
+    public GuavaMetadataCache(long maximumSize, long timeToLive, TimeUnit timeUnit) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive, timeUnit)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public V get(K key, Loader<? super K, ? extends V> loader) throws Ga4ghClientException {
+        try {
+            return cache.get(key, () -> loader.load(key));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Ga4ghClientException) {
+                throw (Ga4ghClientException) e.getCause();
+            }
+            throw new Ga4ghClientException("Couldn't load metadata.", e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw new Ga4ghClientException("Couldn't load metadata.", e.getCause());
+        } catch (CacheLoader.InvalidCacheLoadException e) {
+            throw new Ga4ghClientException(String.format("Received empty metadata for id %s.", key), e);
+        } catch (ExecutionError e) {
+            throw (Error) e.getCause();
+        }
+    }
+
+    @Override
+    public V getIfPresent(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public MetadataCacheStats getStats() {
+        CacheStats stats = cache.stats();
+        return new MetadataCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.size());
+    }
+}
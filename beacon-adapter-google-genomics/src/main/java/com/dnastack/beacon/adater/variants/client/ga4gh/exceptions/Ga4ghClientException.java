@@ -8,11 +8,29 @@ package com.dnastack.beacon.adater.variants.client.ga4gh.exceptions;
  */
 public class Ga4ghClientException extends Exception {
 
+    /**
+     * HTTP code of the error response from the server, 0 if the error isn't an error response.
+     */
+    private final int httpCode;
+
     public Ga4ghClientException(String message) {
+        this(message, 0);
+    }
+
+    public Ga4ghClientException(String message, int httpCode) {
         super(message);
+        this.httpCode = httpCode;
     }
 
     public Ga4ghClientException(String message, Throwable cause) {
         super(message, cause);
+        this.httpCode = 0;
+    }
+
+    /**
+     * @return HTTP code of the error response from the server, 0 if the error isn't an error response
+     */
+    public int getHttpCode() {
+        return httpCode;
     }
 }
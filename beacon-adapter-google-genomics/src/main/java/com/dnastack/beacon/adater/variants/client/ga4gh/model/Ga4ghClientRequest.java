@@ -1,5 +1,8 @@
 package com.dnastack.beacon.adater.variants.client.ga4gh.model;
 
+import com.dnastack.beacon.adater.variants.client.ga4gh.cache.MetadataCache;
+import com.dnastack.beacon.adater.variants.client.ga4gh.retro.HttpTransportConfig;
+import com.dnastack.beacon.adater.variants.client.ga4gh.retro.RequestTracer;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
@@ -22,4 +25,29 @@ public class Ga4ghClientRequest {
     @NonNull
     private final String projectId;
 
+    /**
+     * Cache of the reference sets, keyed by dataset id and reference set id. The client's default is used when null.
+     */
+    private final MetadataCache<String, ReferenceSet> referenceSetCache;
+
+    /**
+     * Cache of the call sets, keyed by dataset id and call set id. The client's default is used when null.
+     */
+    private final MetadataCache<String, CallSet> callSetCache;
+
+    /**
+     * Settings of the HTTP transport, shared with the other clients of the same host. The defaults are used when null.
+     */
+    private final HttpTransportConfig transportConfig;
+
+    /**
+     * Tracer recording the requests of the client. A tracer that doesn't log bodies is used when null.
+     */
+    private final RequestTracer requestTracer;
+
+    /**
+     * How long the datasets of all servers are waited for, in seconds. The client's default is used when null.
+     */
+    private final Long datasetSearchTimeoutSeconds;
+
 }
@@ -0,0 +1,14 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh.model;
+
+/**
+ * A response page of a Ga4gh search. Lets the client follow the pages without reflection.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public interface PagedResponse {
+
+    /**
+     * @return token of the following page, blank if this is the last page
+     */
+    String getNextPageToken();
+}
@@ -0,0 +1,18 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+@Builder
+@Getter
+public class SearchCallSetsRequest extends RecordBase {
+
+    private List<String> variantSetIds;
+    private String name;
+
+}
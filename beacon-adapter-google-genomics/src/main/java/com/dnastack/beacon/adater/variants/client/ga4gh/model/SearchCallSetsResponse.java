@@ -0,0 +1,21 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+@Builder
+@Getter
+public class SearchCallSetsResponse extends RecordBase implements PagedResponse {
+
+    @Builder.Default
+    private List<CallSet> callSets = new ArrayList<>();
+
+    private String nextPageToken;
+
+}
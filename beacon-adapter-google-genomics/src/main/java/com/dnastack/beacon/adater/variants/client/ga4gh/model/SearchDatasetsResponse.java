@@ -11,7 +11,7 @@ import java.util.List;
  */
 @Builder
 @Getter
-public class SearchDatasetsResponse extends RecordBase {
+public class SearchDatasetsResponse extends RecordBase implements PagedResponse {
 
     @Builder.Default
     private List<Dataset> datasets = new ArrayList<>();
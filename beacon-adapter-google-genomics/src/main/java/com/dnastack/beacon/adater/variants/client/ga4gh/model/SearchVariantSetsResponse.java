@@ -12,7 +12,7 @@ import java.util.List;
  */
 @Builder
 @Getter
-public class SearchVariantSetsResponse extends RecordBase {
+public class SearchVariantSetsResponse extends RecordBase implements PagedResponse {
 
     @JsonProperty("variantSets")
     @Builder.Default
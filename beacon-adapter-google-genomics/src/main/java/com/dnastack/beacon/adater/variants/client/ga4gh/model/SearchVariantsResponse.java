@@ -11,7 +11,7 @@ import java.util.List;
  */
 @Builder
 @Getter
-public class SearchVariantsResponse extends RecordBase {
+public class SearchVariantsResponse extends RecordBase implements PagedResponse {
 
     @Builder.Default
     private List<Variant> variants = new ArrayList<>();
@@ -20,6 +20,7 @@ public interface Ga4ghRetroService {
     String VARIANTS_SEARCH_PATH = "variants/search";
     String REFERENCE_SETS_GET_PATH = "referencesets";
     String CALL_SETS_GET_PATH = "callsets";
+    String CALL_SETS_SEARCH_PATH = "callsets/search";
 
     String REFERENCE_SET_ID_PARAM = "id";
     String CALL_SET_ID_PARAM = "id";
@@ -39,4 +40,7 @@ public interface Ga4ghRetroService {
 
     @GET(CALL_SETS_GET_PATH + "/{id}")
     Call<CallSet> loadCallSet(@Path(CALL_SET_ID_PARAM) String id);
+
+    @POST(CALL_SETS_SEARCH_PATH)
+    Call<SearchCallSetsResponse> searchCallSets(@Body SearchCallSetsRequest request);
 }
@@ -3,12 +3,9 @@ package com.dnastack.beacon.adater.variants.client.ga4gh.retro;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
-import java.util.concurrent.TimeUnit;
-
 /**
  * @author Artem (tema.voskoboynick@gmail.com)
  * @author Miro Cupak (mirocupak@gmail.com)
@@ -16,11 +13,19 @@ import java.util.concurrent.TimeUnit;
  */
 public class Ga4ghRetroServiceFactory {
 
-    private static OkHttpClient createHttpClient() {
-        HttpLoggingInterceptor bodyInterceptor = new HttpLoggingInterceptor();
-        bodyInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+    /**
+     * GsonConverterFactory is thread-safe. Can declare it static.
+     */
+    private static final GsonConverterFactory CONVERTER_FACTORY = GsonConverterFactory.create();
 
-        return new OkHttpClient.Builder().readTimeout(5, TimeUnit.MINUTES)
+    /**
+     * Derives the client of a service from the shared transport of its host, so that the services of all datasets
+     * of one host share the connection pool and the dispatcher.
+     */
+    private static OkHttpClient.Builder createHttpClientBuilder(String baseUrl, HttpTransportConfig transportConfig, RequestTracer requestTracer) {
+        return HttpTransports.get(baseUrl, transportConfig)
+                .newBuilder()
+                .addInterceptor(requestTracer.interceptor(baseUrl))
                 .addNetworkInterceptor(chain -> {
                     Request request = chain.request()
                             .newBuilder()
@@ -29,25 +34,15 @@ public class Ga4ghRetroServiceFactory {
                                     "application/json")
                             .build();
                     return chain.proceed(request);
-                })
-                .addInterceptor(bodyInterceptor)
-                .build();
+                });
     }
 
-    private static OkHttpClient createHttpClient(String apiKey) {
-        HttpLoggingInterceptor bodyInterceptor = new HttpLoggingInterceptor();
-        bodyInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+    private static OkHttpClient createHttpClient(String baseUrl, HttpTransportConfig transportConfig, RequestTracer requestTracer) {
+        return createHttpClientBuilder(baseUrl, transportConfig, requestTracer).build();
+    }
 
-        return new OkHttpClient.Builder().readTimeout(5, TimeUnit.MINUTES)
-                .addNetworkInterceptor(chain -> {
-                    Request request = chain.request()
-                            .newBuilder()
-                            .addHeader(
-                                    "Accept",
-                                    "application/json")
-                            .build();
-                    return chain.proceed(request);
-                })
+    private static OkHttpClient createHttpClient(String baseUrl, HttpTransportConfig transportConfig, RequestTracer requestTracer, String apiKey) {
+        return createHttpClientBuilder(baseUrl, transportConfig, requestTracer)
                 .addInterceptor(chain -> {
                     Request original = chain.request();
                     HttpUrl originalHttpUrl = original.url();
@@ -63,21 +58,37 @@ public class Ga4ghRetroServiceFactory {
 
                     return chain.proceed(request);
                 })
-                .addInterceptor(bodyInterceptor)
                 .build();
     }
 
     public static Ga4ghRetroService create(String baseUrl) {
-        return new Retrofit.Builder().client(createHttpClient())
-                .addConverterFactory(GsonConverterFactory.create())
+        return create(baseUrl, HttpTransportConfig.defaults(), RequestTracer.withoutBodies());
+    }
+
+    public static Ga4ghRetroService create(String baseUrl, String apiKey) {
+        return create(baseUrl, HttpTransportConfig.defaults(), RequestTracer.withoutBodies(), apiKey);
+    }
+
+    /**
+     * @param transportConfig settings of the HTTP transport shared with the other services of the same host
+     * @param requestTracer   tracer recording the requests of the service
+     */
+    public static Ga4ghRetroService create(String baseUrl, HttpTransportConfig transportConfig, RequestTracer requestTracer) {
+        return new Retrofit.Builder().client(createHttpClient(baseUrl, transportConfig, requestTracer))
+                .addConverterFactory(CONVERTER_FACTORY)
                 .baseUrl(baseUrl)
                 .build()
                 .create(Ga4ghRetroService.class);
     }
 
-    public static Ga4ghRetroService create(String baseUrl, String apiKey) {
-        return new Retrofit.Builder().client(createHttpClient(apiKey))
-                .addConverterFactory(GsonConverterFactory.create())
+    /**
+     * @param transportConfig settings of the HTTP transport shared with the other services of the same host
+     * @param requestTracer   tracer recording the requests of the service
+     * @param apiKey          key added to every request as the "key" query parameter
+     */
+    public static Ga4ghRetroService create(String baseUrl, HttpTransportConfig transportConfig, RequestTracer requestTracer, String apiKey) {
+        return new Retrofit.Builder().client(createHttpClient(baseUrl, transportConfig, requestTracer, apiKey))
+                .addConverterFactory(CONVERTER_FACTORY)
                 .baseUrl(baseUrl)
                 .build()
                 .create(Ga4ghRetroService.class);
@@ -86,4 +97,4 @@ public class Ga4ghRetroServiceFactory {
     private Ga4ghRetroServiceFactory() {
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh.retro;
+
+/**
+ * Snapshot of the utilization of the HTTP transport of one upstream host.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class HttpPoolStats {
+
+    private final int connectionCount;
+    private final int idleConnectionCount;
+    private final int runningCallCount;
+    private final int queuedCallCount;
+
+    public HttpPoolStats(int connectionCount, int idleConnectionCount, int runningCallCount, int queuedCallCount) {
+        this.connectionCount = connectionCount;
+        this.idleConnectionCount = idleConnectionCount;
+        this.runningCallCount = runningCallCount;
+        this.queuedCallCount = queuedCallCount;
+    }
+
+    /**
+     * @return open connections, both in use and idle
+     */
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    public int getIdleConnectionCount() {
+        return idleConnectionCount;
+    }
+
+    /**
+     * @return asynchronous calls being executed
+     */
+    public int getRunningCallCount() {
+        return runningCallCount;
+    }
+
+    /**
+     * @return asynchronous calls waiting for the per-host limit
+     */
+    public int getQueuedCallCount() {
+        return queuedCallCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HttpPoolStats{connections=%d, idle=%d, running=%d, queued=%d}",
+                connectionCount,
+                idleConnectionCount,
+                runningCallCount,
+                queuedCallCount);
+    }
+}
@@ -0,0 +1,119 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh.retro;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link OkHttpClient}, i.e. one connection pool and one dispatcher, per upstream host and transport settings,
+ * shared by all the clients and adapters of the application. Clients that need extra interceptors should derive
+ * them via {@link OkHttpClient#newBuilder()}, which keeps the pool and the dispatcher shared.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public final class HttpTransports {
+
+    /**
+     * Limit of the asynchronous calls in flight to all hosts of one transport. The effective limit is per host.
+     */
+    private static final int MAX_REQUESTS = 256;
+
+    private static final ConcurrentMap<TransportKey, OkHttpClient> TRANSPORTS = new ConcurrentHashMap<>();
+
+    /**
+     * @return the shared HTTP client for the host of the given url, created with the given settings on first use
+     */
+    public static OkHttpClient get(String url, HttpTransportConfig config) {
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        if (httpUrl == null) {
+            throw new IllegalArgumentException("Invalid url: " + url);
+        }
+
+        TransportKey key = new TransportKey(httpUrl.scheme() + "://" + httpUrl.host() + ":" + httpUrl.port(), config);
+        return TRANSPORTS.computeIfAbsent(key, ignored -> createHttpClient(config));
+    }
+
+    /**
+     * @return utilization of the transports created so far, keyed by host. The stats of transports of the same host
+     * with different settings are summed.
+     */
+    public static Map<String, HttpPoolStats> getStats() {
+        Map<String, HttpPoolStats> stats = new TreeMap<>();
+
+        TRANSPORTS.forEach((key, httpClient) -> {
+            ConnectionPool pool = httpClient.connectionPool();
+            Dispatcher dispatcher = httpClient.dispatcher();
+            HttpPoolStats transportStats = new HttpPoolStats(pool.connectionCount(),
+                    pool.idleConnectionCount(),
+                    dispatcher.runningCallsCount(),
+                    dispatcher.queuedCallsCount());
+
+            stats.merge(key.host, transportStats, (a, b) -> new HttpPoolStats(
+                    a.getConnectionCount() + b.getConnectionCount(),
+                    a.getIdleConnectionCount() + b.getIdleConnectionCount(),
+                    a.getRunningCallCount() + b.getRunningCallCount(),
+                    a.getQueuedCallCount() + b.getQueuedCallCount()));
+        });
+
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private static OkHttpClient createHttpClient(HttpTransportConfig config) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(Math.max(MAX_REQUESTS, config.getMaxRequestsPerHost()));
+        dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+
+        return new OkHttpClient.Builder().connectionPool(new ConnectionPool(config.getMaxIdleConnections(),
+                config.getKeepAliveSeconds(),
+                TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .protocols(config.isHttp2()
+                        ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : Collections.singletonList(Protocol.HTTP_1_1))
+                .connectTimeout(config.getConnectTimeoutSeconds(), TimeUnit.SECONDS)
+                .readTimeout(config.getReadTimeoutSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    private static final class TransportKey {
+
+        private final String host;
+        private final HttpTransportConfig config;
+
+        private TransportKey(String host, HttpTransportConfig config) {
+            this.host = host;
+            this.config = config;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TransportKey that = (TransportKey) o;
+            return host.equals(that.host) && config.equals(that.config);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, config);
+        }
+    }
+
+    private HttpTransports() {
+    }
+}
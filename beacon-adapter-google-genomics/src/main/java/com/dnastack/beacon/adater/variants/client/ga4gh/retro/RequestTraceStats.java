@@ -0,0 +1,113 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh.retro;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Snapshot of the requests to one endpoint recorded by {@link RequestTracer}.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class RequestTraceStats {
+
+    private final String endpoint;
+    private final long requestCount;
+    private final long failureCount;
+    private final long bytesReceived;
+    private final Map<Integer, Long> statusCounts;
+    private final long[] latencyBucketBoundsMillis;
+    private final long[] latencyBucketCounts;
+
+    public RequestTraceStats(String endpoint, long requestCount, long failureCount, long bytesReceived, Map<Integer, Long> statusCounts, long[] latencyBucketBoundsMillis, long[] latencyBucketCounts) {
+        this.endpoint = endpoint;
+        this.requestCount = requestCount;
+        this.failureCount = failureCount;
+        this.bytesReceived = bytesReceived;
+        this.statusCounts = Collections.unmodifiableMap(statusCounts);
+        this.latencyBucketBoundsMillis = latencyBucketBoundsMillis;
+        this.latencyBucketCounts = latencyBucketCounts;
+    }
+
+    /**
+     * @return method and path of the endpoint relative to the base url, e.g. "POST variants/search"
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @return requests that got no response at all
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return bytes of the response bodies read so far
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * @return number of responses by HTTP status code
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    /**
+     * @return upper bounds of the latency buckets, in milliseconds
+     */
+    public long[] getLatencyBucketBoundsMillis() {
+        return latencyBucketBoundsMillis.clone();
+    }
+
+    /**
+     * @return number of requests per latency bucket. Has one more element than the bounds, counting the requests
+     * slower than the last bound.
+     */
+    public long[] getLatencyBucketCounts() {
+        return latencyBucketCounts.clone();
+    }
+
+    /**
+     * @return upper bound of the bucket the given percentile of the requests falls into, {@link Long#MAX_VALUE} if it
+     * falls beyond the last bound, or 0 if there were no requests
+     */
+    public long getLatencyPercentileMillis(double percentile) {
+        long total = 0;
+        for (long count : latencyBucketCounts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < latencyBucketBoundsMillis.length; i++) {
+            seen += latencyBucketCounts[i];
+            if (seen >= rank) {
+                return latencyBucketBoundsMillis[i];
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RequestTraceStats{endpoint=%s, requests=%d, failures=%d, bytes=%d, statuses=%s, p50=%dms, p99=%dms}",
+                endpoint,
+                requestCount,
+                failureCount,
+                bytesReceived,
+                statusCounts,
+                getLatencyPercentileMillis(50),
+                getLatencyPercentileMillis(99));
+    }
+}
@@ -0,0 +1,190 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh.retro;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.logging.HttpLoggingInterceptor;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records the requests of a client per endpoint: status codes, received bytes and latency histograms. The response
+ * bodies are counted as they are read, without buffering them.
+ * <p>
+ * Full request and response bodies are logged only for a sampled fraction of the requests, or for all requests if
+ * body tracing is enabled for debugging. Logging a body buffers the whole response page in memory.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class RequestTracer {
+
+    private static final HttpLoggingInterceptor BODY_LOGGER = new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BODY);
+
+    /**
+     * Paths of the GET endpoints of {@link Ga4ghRetroService} that end with an id, up to the id.
+     */
+    private static final List<String> ID_PATH_PREFIXES = Arrays.asList(
+            Ga4ghRetroService.DATASET_SEARCH_GET_PATH + "/projectId=",
+            Ga4ghRetroService.REFERENCE_SETS_GET_PATH + "/",
+            Ga4ghRetroService.CALL_SETS_GET_PATH + "/");
+
+    private final double bodySampleRate;
+    private final boolean traceBodies;
+    private final ConcurrentMap<String, EndpointTrace> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * @param bodySampleRate share of the requests, from 0 to 1, whose bodies are logged
+     * @param traceBodies    whether to log the bodies of all requests
+     */
+    public RequestTracer(double bodySampleRate, boolean traceBodies) {
+        if (bodySampleRate < 0 || bodySampleRate > 1) {
+            throw new IllegalArgumentException("Body sample rate must be between 0 and 1, got " + bodySampleRate);
+        }
+
+        this.bodySampleRate = bodySampleRate;
+        this.traceBodies = traceBodies;
+    }
+
+    /**
+     * @return tracer that records the stats but never logs bodies
+     */
+    public static RequestTracer withoutBodies() {
+        return new RequestTracer(0, false);
+    }
+
+    /**
+     * @param baseUrl base url of the service, stripped from the endpoint names
+     * @return interceptor to install as an application interceptor of the service's HTTP client
+     */
+    public Interceptor interceptor(String baseUrl) {
+        HttpUrl httpUrl = HttpUrl.parse(baseUrl);
+        String basePath = httpUrl != null ? httpUrl.encodedPath() : "/";
+
+        return chain -> {
+            Request request = chain.request();
+            EndpointTrace trace = endpoints.computeIfAbsent(endpointOf(request, basePath), EndpointTrace::new);
+
+            long startNanos = System.nanoTime();
+            Response response;
+            try {
+                response = shouldTraceBody() ? BODY_LOGGER.intercept(chain) : chain.proceed(request);
+            } catch (IOException | RuntimeException e) {
+                trace.recordFailure(System.nanoTime() - startNanos);
+                throw e;
+            }
+            trace.recordResponse(response.code(), System.nanoTime() - startNanos);
+
+            ResponseBody body = response.body();
+            return body == null ? response : response.newBuilder().body(new CountingResponseBody(body, trace)).build();
+        };
+    }
+
+    /**
+     * @return stats of the requests traced so far, keyed by endpoint, e.g. "POST variants/search"
+     */
+    public Map<String, RequestTraceStats> getStats() {
+        Map<String, RequestTraceStats> stats = new TreeMap<>();
+        endpoints.forEach((endpoint, trace) -> stats.put(endpoint, trace.snapshot()));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private boolean shouldTraceBody() {
+        return traceBodies || (bodySampleRate > 0 && ThreadLocalRandom.current().nextDouble() < bodySampleRate);
+    }
+
+    /**
+     * Names the endpoint by the method and the path relative to the base url. The id of a GET request to an endpoint
+     * loading by id is replaced by a placeholder, so that e.g. all call set loads share one endpoint. The paths of the
+     * other endpoints are kept as they are.
+     */
+    static String endpointOf(Request request, String basePath) {
+        String fullPath = request.url().encodedPath();
+        String path = fullPath;
+        if (path.startsWith(basePath)) {
+            path = path.substring(basePath.length());
+        } else if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+
+        if ("GET".equals(request.method())) {
+            String id = idOf(fullPath);
+            if (id != null && path.endsWith(id)) {
+                path = path.substring(0, path.length() - id.length()) + "{id}";
+            }
+        }
+
+        return request.method() + " " + path;
+    }
+
+    /**
+     * @return id the path ends with if it's the path of an endpoint loading by id, null otherwise
+     */
+    private static String idOf(String path) {
+        for (String idPathPrefix : ID_PATH_PREFIXES) {
+            int prefixStart = path.lastIndexOf("/" + idPathPrefix);
+            if (prefixStart < 0) {
+                continue;
+            }
+
+            String id = path.substring(prefixStart + 1 + idPathPrefix.length());
+            if (!id.isEmpty() && id.indexOf('/') < 0) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the bytes of the body as the caller reads them.
+     */
+    private static final class CountingResponseBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        private CountingResponseBody(ResponseBody delegate, EndpointTrace trace) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                        trace.recordBytes(read);
+                    }
+                    return read;
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.dnastack.beacon.adater.variants.stats;
+
+import com.dnastack.beacon.adater.variants.client.ga4gh.CallSetReferences;
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Call;
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.CallSet;
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Variant;
+import org.ga4gh.beacon.BeaconDatasetAlleleResponse;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects everything {@link BeaconDatasetAlleleResponse} reports about a dataset in one pass over the matching
+ * variants and their calls: the variant count, the genotype counts and the referenced call sets. The variants can be
+ * added as their pages arrive and don't need to be kept; once the call sets are resolved, the response is ready.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class DatasetStatistics {
+
+    private final GenotypeAccumulator genotypes;
+    private final CallSetReferences callSetReferences = new CallSetReferences();
+    private long variantCount;
+
+    /**
+     * @param alternateBases requested alternate bases
+     */
+    public DatasetStatistics(String alternateBases) {
+        this.genotypes = new GenotypeAccumulator(alternateBases);
+    }
+
+    /**
+     * Adds a variant matching the allele request.
+     */
+    public void add(Variant variant) {
+        int requestedGenotype = genotypes.getRequestedGenotype(variant);
+        String variantSetId = variant.getVariantSetId();
+
+        List<Call> calls = variant.getCalls();
+        int callCount = calls.size();
+        for (int i = 0; i < callCount; i++) {
+            Call call = calls.get(i);
+
+            genotypes.addCall(call, requestedGenotype);
+            callSetReferences.add(variantSetId, call.getCallSetId());
+        }
+        variantCount++;
+    }
+
+    /**
+     * @return call sets referenced by the added variants, to be resolved for {@link #toResponse(String, Map)}
+     */
+    public CallSetReferences getCallSetReferences() {
+        return callSetReferences;
+    }
+
+    public long getVariantCount() {
+        return variantCount;
+    }
+
+    /**
+     * @param callSets the resolved {@link #getCallSetReferences() call sets}, keyed by call set id. May contain call
+     *                 sets of other statistics too, e.g. when they've been resolved together.
+     */
+    public BeaconDatasetAlleleResponse toResponse(String datasetId, Map<String, CallSet> callSets) {
+        Set<String> sampleIds = new HashSet<>();
+        for (Set<String> callSetIds : callSetReferences.getCallSetIdsByVariantSet().values()) {
+            for (String callSetId : callSetIds) {
+                CallSet callSet = callSets.get(callSetId);
+                if (callSet != null) {
+                    sampleIds.add(callSet.getSampleId());
+                }
+            }
+        }
+
+        return BeaconDatasetAlleleResponse.newBuilder()
+                .setDatasetId(datasetId)
+                .setFrequency(genotypes.getFrequency())
+                .setCallCount(genotypes.getCallCount())
+                .setVariantCount(variantCount)
+                .setSampleCount((long) sampleIds.size())
+                .setExists(variantCount > 0)
+                .build();
+    }
+}
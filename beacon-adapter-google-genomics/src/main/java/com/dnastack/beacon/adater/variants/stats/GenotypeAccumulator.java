@@ -0,0 +1,94 @@
+package com.dnastack.beacon.adater.variants.stats;
+
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Call;
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Variant;
+
+import java.util.List;
+
+/**
+ * Counts the calls and the genotypes of the variants matching an allele request, and how many of the genotypes are the
+ * requested alternate allele, in a single pass over the calls. The genotypes are compared as primitives, without
+ * streams or intermediate lists.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class GenotypeAccumulator {
+
+    private final String alternateBases;
+
+    private long callCount;
+    private long totalGenotypeCount;
+    private long matchingGenotypeCount;
+
+    /**
+     * Requested genotype of region queries without alternate bases, matching any of the alternate alleles.
+     */
+    private static final int ANY_ALTERNATE_GENOTYPE = -1;
+
+    /**
+     * @param alternateBases requested alternate bases, the genotypes of which are counted as matching, or null to
+     *                       count the genotypes of all alternate alleles
+     */
+    public GenotypeAccumulator(String alternateBases) {
+        this.alternateBases = alternateBases;
+    }
+
+    public void add(Variant variant) {
+        int requestedGenotype = getRequestedGenotype(variant);
+
+        List<Call> calls = variant.getCalls();
+        int variantCallCount = calls.size();
+        for (int i = 0; i < variantCallCount; i++) {
+            addCall(calls.get(i), requestedGenotype);
+        }
+    }
+
+    /**
+     * @return genotype value of the requested alternate allele in the given variant
+     */
+    public int getRequestedGenotype(Variant variant) {
+        if (alternateBases == null) {
+            return ANY_ALTERNATE_GENOTYPE;
+        }
+        // Genotype 0 is the reference allele, alternate alleles are numbered from 1.
+        return variant.getAlternateBases().indexOf(alternateBases) + 1;
+    }
+
+    /**
+     * Adds a single call, for callers that walk the calls of a variant themselves.
+     *
+     * @param requestedGenotype see {@link #getRequestedGenotype(Variant)}
+     */
+    public void addCall(Call call, int requestedGenotype) {
+        List<Integer> genotype = call.getGenotype();
+
+        int genotypeCount = genotype.size();
+        for (int i = 0; i < genotypeCount; i++) {
+            Integer allele = genotype.get(i);
+            if (allele != null && (requestedGenotype == ANY_ALTERNATE_GENOTYPE ? allele > 0 : allele == requestedGenotype)) {
+                matchingGenotypeCount++;
+            }
+        }
+        totalGenotypeCount += genotypeCount;
+        callCount++;
+    }
+
+    public long getCallCount() {
+        return callCount;
+    }
+
+    public long getTotalGenotypeCount() {
+        return totalGenotypeCount;
+    }
+
+    public long getMatchingGenotypeCount() {
+        return matchingGenotypeCount;
+    }
+
+    /**
+     * @return share of the matching genotypes among all genotypes, or null if there are no genotypes
+     */
+    public Double getFrequency() {
+        return totalGenotypeCount == 0 ? null : ((double) matchingGenotypeCount / totalGenotypeCount);
+    }
+}
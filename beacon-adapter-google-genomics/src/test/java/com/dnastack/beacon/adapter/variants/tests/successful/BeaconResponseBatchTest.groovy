@@ -0,0 +1,64 @@
+package com.dnastack.beacon.adapter.variants.tests.successful
+
+import com.dnastack.beacon.adapter.variants.BaseTest
+import org.ga4gh.beacon.BeaconAlleleRequest
+
+import static com.dnastack.beacon.adapter.variants.TestData.*
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class BeaconResponseBatchTest extends BaseTest {
+
+    private static BeaconAlleleRequest createRequest(String referenceName, long start, List<String> datasetIds = null) {
+        return BeaconAlleleRequest.newBuilder()
+                .setReferenceName(referenceName)
+                .setStart(start)
+                .setReferenceBases(getTestVariant().referenceBases)
+                .setAlternateBases(getTestVariant().getAlternateBases().get(0))
+                .setAssemblyId(getTestReferenceSet().assemblyId)
+                .setDatasetIds(datasetIds)
+                .setIncludeDatasetResponses(true)
+                .build()
+    }
+
+    /**
+     * Test that incomplete requests, unknown datasets and failed windows get error responses, while the others are
+     * answered.
+     */
+    @Override
+    void doTest() {
+        def referenceName = getSearchVariantsRequest().referenceName
+        def start = getSearchVariantsRequest().start
+        // The variants of the unknown reference aren't mocked, so its search fails.
+        def requests = [createRequest(referenceName, start),
+                        createRequest(referenceName, start),
+                        createRequest("unknown-reference", start),
+                        createRequest(referenceName, start, ["unknown-dataset"]),
+                        createRequest(referenceName, start)]
+
+        // The builder doesn't accept a missing start, a request deserialized by the server may miss it.
+        requests[1].start = null
+
+        def responses = ADAPTER.getBeaconAlleleResponses(requests)
+
+        assertThat(responses).hasSize(5)
+        assertThat(responses*.alleleRequest).containsExactlyElementsOf(requests)
+
+        assertThat(responses[0]).isEqualTo(ADAPTER.getBeaconAlleleResponse(requests[0]))
+        assertThat(responses[0].exists).isTrue()
+        assertThat(responses[4]).isEqualTo(responses[0])
+
+        assertThat(responses[1].exists).isNull()
+        assertThat(responses[1].error.errorCode).isEqualTo(400)
+        assertThat(responses[1].error.message).contains("Start")
+
+        assertThat(responses[2].exists).isNull()
+        assertThat(responses[2].error.errorCode).isEqualTo(502)
+
+        assertThat(responses[3].exists).isNull()
+        assertThat(responses[3].error.errorCode).isEqualTo(400)
+        assertThat(responses[3].error.message).contains("unknown-dataset")
+    }
+}
@@ -0,0 +1,120 @@
+package com.dnastack.beacon.adater.variants
+
+import com.dnastack.beacon.adater.variants.client.ga4gh.Ga4ghClient
+import com.dnastack.beacon.adater.variants.client.ga4gh.exceptions.Ga4ghClientException
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Ga4ghClientRequest
+import com.dnastack.beacon.utils.AdapterConfig
+import com.dnastack.beacon.utils.ConfigValue
+import com.github.tomakehurst.wiremock.WireMockServer
+import org.ga4gh.beacon.Beacon
+import org.ga4gh.beacon.BeaconAlleleRequest
+import org.ga4gh.beacon.BeaconDataset
+import org.testng.annotations.AfterClass
+import org.testng.annotations.BeforeClass
+import org.testng.annotations.BeforeMethod
+import org.testng.annotations.Test
+
+import java.util.concurrent.TimeoutException
+
+import static com.dnastack.beacon.adater.variants.client.ga4gh.retro.Ga4ghRetroService.DATASET_SEARCH_GET_PATH
+import static com.dnastack.beacon.adater.variants.client.ga4gh.retro.Ga4ghRetroService.VARIANT_SETS_SEARCH_PATH
+import static com.github.tomakehurst.wiremock.client.WireMock.*
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * Listing the datasets of three servers of which one answers, one fails and one stalls.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class DatasetSearchFailureTest {
+
+    private static final int PORT = 8092
+    private static final int STALL_MILLIS = 10_000
+    private static final long TIMEOUT_SECONDS = 1
+
+    private final WireMockServer server = new WireMockServer(wireMockConfig().port(PORT))
+
+    @BeforeClass
+    void startServer() {
+        server.start()
+    }
+
+    @AfterClass
+    void stopServer() {
+        server.stop()
+    }
+
+    @BeforeMethod
+    void setupMappings() {
+        server.resetMappings()
+        server.stubFor(get(urlEqualTo("/ok/$DATASET_SEARCH_GET_PATH/projectId=project"))
+                .willReturn(aResponse().withBody('{"datasets":[{"id":"ok"}],"nextPageToken":""}')))
+        server.stubFor(post(urlEqualTo("/ok/$VARIANT_SETS_SEARCH_PATH"))
+                .willReturn(aResponse().withBody('{"variantSets":[],"nextPageToken":""}')))
+        server.stubFor(get(urlEqualTo("/failing/$DATASET_SEARCH_GET_PATH/projectId=project"))
+                .willReturn(aResponse().withStatus(500)))
+        server.stubFor(get(urlEqualTo("/stalling/$DATASET_SEARCH_GET_PATH/projectId=project"))
+                .willReturn(aResponse()
+                .withFixedDelay(STALL_MILLIS)
+                .withBody('{"datasets":[{"id":"stalling"}],"nextPageToken":""}')))
+    }
+
+    private static List<BeaconDataset> datasets() {
+        return ["ok", "failing", "stalling"].collect {
+            new BeaconDataset(id: it, externalUrl: "http://localhost:$PORT/$it/")
+        }
+    }
+
+    @Test
+    void clientReportsFailedAndStalledServersApart() {
+        def client = new Ga4ghClient(Ga4ghClientRequest.builder()
+                .beacon(new Beacon(id: "beacon", datasets: datasets()))
+                .projectId("project")
+                .datasetSearchTimeoutSeconds(TIMEOUT_SECONDS)
+                .build())
+
+        long startNanos = System.nanoTime()
+        def result = client.searchAllDatasets()
+
+        assertThat(System.nanoTime() - startNanos).isLessThan(STALL_MILLIS * 1_000_000L)
+        assertThat(result.complete).isFalse()
+        assertThat(result.datasets*.id).containsExactly("ok")
+        assertThat(result.failures.keySet()).containsOnly("failing", "stalling")
+        assertThat(result.failures["failing"].httpCode).isEqualTo(500)
+        assertThat(result.failures["stalling"].cause).isInstanceOf(TimeoutException)
+    }
+
+    @Test
+    void adapterAnswersWithErrorsOfTheUnavailableDatasets() {
+        def beaconJson = """{"id":"beacon","datasets":[${datasets().collect {
+            """{"id":"$it.id","externalUrl":"$it.externalUrl"}"""
+        }.join(",")}]}"""
+        def adapter = new VariantsBeaconAdapter()
+        adapter.initAdapter(new AdapterConfig("Dataset Search Failure Test Adapter", VariantsBeaconAdapter.getName(), [
+                new ConfigValue("beaconJson", beaconJson),
+                new ConfigValue("projectId", "project"),
+                new ConfigValue("catalogRefreshSeconds", "0"),
+                new ConfigValue("datasetSearchTimeoutSeconds", String.valueOf(TIMEOUT_SECONDS))]))
+
+        def response = adapter.getBeaconAlleleResponse(BeaconAlleleRequest.newBuilder()
+                .setReferenceName("1")
+                .setStart(100L)
+                .setReferenceBases("A")
+                .setAlternateBases("T")
+                .setAssemblyId("GRCh37")
+                .setDatasetIds([])
+                .setIncludeDatasetResponses(true)
+                .build())
+
+        def datasetResponses = response.datasetAlleleResponses.collectEntries { [(it.datasetId): it] }
+        assertThat(response.exists).isNull()
+        assertThat(datasetResponses.keySet()).containsOnly("ok", "failing", "stalling")
+        assertThat(datasetResponses["ok"].error).isNull()
+        assertThat(datasetResponses["ok"].exists).isFalse()
+        assertThat(datasetResponses["failing"].error.errorCode).isEqualTo(502)
+        assertThat(datasetResponses["stalling"].error.errorCode).isEqualTo(504)
+
+        adapter.destroy()
+    }
+}
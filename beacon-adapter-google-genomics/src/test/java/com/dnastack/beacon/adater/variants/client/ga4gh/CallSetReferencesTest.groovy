@@ -0,0 +1,26 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh
+
+import org.testng.annotations.Test
+
+import static com.dnastack.beacon.adater.variants.stats.GenotypeAccumulatorTest.createVariant
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class CallSetReferencesTest {
+
+    @Test
+    void deduplicatesCallSetsPerVariantSetButCountsEveryReference() {
+        def references = CallSetReferences.of([createVariant(), createVariant()])
+
+        def other = new CallSetReferences()
+        other.add("variant-set-2", "call-set-1")
+        references.addAll(other)
+
+        assertThat(references.referenceCount).isEqualTo(5)
+        assertThat(references.callSetIdsByVariantSet.keySet()).containsExactly("variant-set-1", "variant-set-2")
+        assertThat(references.callSetIdsByVariantSet["variant-set-1"]).containsExactly("call-set-1", "call-set-2")
+        assertThat(references.callSetIdsByVariantSet["variant-set-2"]).containsExactly("call-set-1")
+    }
+}
@@ -0,0 +1,126 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh
+
+import com.dnastack.beacon.adater.variants.client.ga4gh.exceptions.Ga4ghClientException
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.CallSet
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Ga4ghClientRequest
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.SearchCallSetsResponse
+import org.ga4gh.beacon.Beacon
+import org.testng.annotations.Test
+
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class CallSetResolverTest {
+
+    /**
+     * Serves the call sets from memory and counts the requests instead of sending them.
+     */
+    static class StubGa4ghClient extends Ga4ghClient {
+
+        int bulkSearchHttpCode
+        int bulkSearches
+        int loads
+
+        StubGa4ghClient() {
+            super(Ga4ghClientRequest.builder()
+                    .beacon(new Beacon(id: "beacon", datasets: []))
+                    .projectId("project")
+                    .build())
+        }
+
+        @Override
+        List<SearchCallSetsResponse> searchCallSetPages(String datasetId, String variantSetId) {
+            bulkSearches++
+            if (bulkSearchHttpCode != 0) {
+                throw new Ga4ghClientException("bulk search failed", bulkSearchHttpCode)
+            }
+            return [SearchCallSetsResponse.builder().callSets(["a", "b", "c"].collect { callSet(it) }).build()]
+        }
+
+        @Override
+        CallSet loadCallSet(String datasetId, String callSetId) {
+            loads++
+            return callSet(callSetId)
+        }
+
+        @Override
+        CallSet getCachedCallSet(String datasetId, String callSetId) {
+            return null
+        }
+
+        static CallSet callSet(String id) {
+            return CallSet.builder().id(id).build()
+        }
+    }
+
+    private static CallSetReferences references(String variantSetId, List<String> callSetIds) {
+        def references = new CallSetReferences()
+        callSetIds.each { references.add(variantSetId, it) }
+        return references
+    }
+
+    @Test
+    void searchesInBulkAtThreshold() {
+        def client = new StubGa4ghClient()
+        def resolver = new CallSetResolver(client, 1, 3)
+
+        def resolved = resolver.resolve("dataset", references("variant-set-1", ["a", "b", "c", "a"]))
+
+        assertThat(resolved.keySet()).containsOnly("a", "b", "c")
+        assertThat(client.bulkSearches).isEqualTo(1)
+        assertThat(client.loads).isZero()
+        assertThat(resolver.roundTrips).isEqualTo(1)
+        assertThat(resolver.savedRoundTrips).isEqualTo(3)
+
+        resolver.shutdown()
+    }
+
+    @Test
+    void loadsOneByOneBelowThreshold() {
+        def client = new StubGa4ghClient()
+        def resolver = new CallSetResolver(client, 1, 3)
+
+        def resolved = resolver.resolve("dataset", references("variant-set-1", ["a", "b"]))
+
+        assertThat(resolved.keySet()).containsOnly("a", "b")
+        assertThat(client.bulkSearches).isZero()
+        assertThat(client.loads).isEqualTo(2)
+
+        resolver.shutdown()
+    }
+
+    @Test
+    void unsupportedBulkSearchFallsBackAndIsDisabled() {
+        def client = new StubGa4ghClient(bulkSearchHttpCode: 501)
+        def resolver = new CallSetResolver(client, 1, 3)
+
+        assertThat(resolver.resolve("dataset", references("variant-set-1", ["a", "b", "c"])).keySet())
+                .containsOnly("a", "b", "c")
+        assertThat(client.loads).isEqualTo(3)
+
+        resolver.resolve("dataset", references("variant-set-2", ["a", "b", "c"]))
+        assertThat(client.bulkSearches).isEqualTo(1)
+        assertThat(client.loads).isEqualTo(6)
+
+        resolver.shutdown()
+    }
+
+    @Test
+    void transientBulkSearchErrorFallsBackAndIsRetried() {
+        def client = new StubGa4ghClient(bulkSearchHttpCode: 503)
+        def resolver = new CallSetResolver(client, 1, 3)
+
+        assertThat(resolver.resolve("dataset", references("variant-set-1", ["a", "b", "c"])).keySet())
+                .containsOnly("a", "b", "c")
+        assertThat(client.loads).isEqualTo(3)
+
+        client.bulkSearchHttpCode = 0
+        resolver.resolve("dataset", references("variant-set-2", ["a", "b", "c"]))
+        assertThat(client.bulkSearches).isEqualTo(2)
+        assertThat(client.loads).isEqualTo(3)
+
+        resolver.shutdown()
+    }
+}
@@ -0,0 +1,89 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh
+
+import com.dnastack.beacon.adater.variants.client.ga4gh.exceptions.Ga4ghClientException
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Ga4ghClientRequest
+import com.github.tomakehurst.wiremock.WireMockServer
+import org.ga4gh.beacon.Beacon
+import org.ga4gh.beacon.BeaconDataset
+import org.testng.annotations.AfterClass
+import org.testng.annotations.AfterMethod
+import org.testng.annotations.BeforeClass
+import org.testng.annotations.Test
+
+import static com.dnastack.beacon.adater.variants.client.ga4gh.retro.Ga4ghRetroService.VARIANTS_SEARCH_PATH
+import static com.github.tomakehurst.wiremock.client.WireMock.*
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig
+import static org.assertj.core.api.Assertions.assertThat
+import static org.assertj.core.api.Assertions.catchThrowable
+
+/**
+ * Searches of a region split into windows, against a stub server answering every window on its own.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class RegionSearchTest {
+
+    private static final int PORT = 8091
+    private static final int STALL_MILLIS = 10_000
+
+    private final WireMockServer server = new WireMockServer(wireMockConfig().port(PORT))
+    private Ga4ghClient client
+
+    @BeforeClass
+    void startServer() {
+        server.start()
+        client = new Ga4ghClient(Ga4ghClientRequest.builder()
+                .beacon(new Beacon(id: "beacon",
+                        datasets: [new BeaconDataset(id: "dataset", externalUrl: "http://localhost:$PORT/")]))
+                .projectId("project")
+                .build())
+    }
+
+    @AfterClass
+    void stopServer() {
+        server.stop()
+    }
+
+    @AfterMethod
+    void resetMappings() {
+        server.resetMappings()
+    }
+
+    private void stubWindow(long start, String body, int status = 200, int delayMillis = 0) {
+        server.stubFor(post(urlEqualTo("/$VARIANTS_SEARCH_PATH"))
+                .withRequestBody(containing("\"start\":$start,"))
+                .willReturn(aResponse().withStatus(status).withFixedDelay(delayMillis).withBody(body)))
+    }
+
+    private static String variantsPage(List<List<Long>> positions) {
+        def variants = positions.collect { """{"id":"v${it[0]}","start":${it[0]},"end":${it[1]},"alternateBases":["T"]}""" }
+        return """{"variants":[${variants.join(",")}],"nextPageToken":""}"""
+    }
+
+    @Test
+    void concatenatesWindowsInPositionOrder() {
+        // The variant starting in the first window and overlapping the second one is owned by the first only.
+        stubWindow(100, variantsPage([[150L, 151L], [120L, 210L]]))
+        stubWindow(200, variantsPage([[120L, 210L], [250L, 251L]]))
+        stubWindow(300, variantsPage([]))
+
+        def variants = client.searchVariants("dataset", "variant-set", "1", VariantRegion.range(100, 350), 100)
+
+        assertThat(variants*.start).containsExactly(120L, 150L, 250L)
+    }
+
+    @Test
+    void failedWindowFailsWithoutWaitingForStalledOnes() {
+        stubWindow(100, variantsPage([]), 200, STALL_MILLIS)
+        stubWindow(200, "", 500)
+
+        long startNanos = System.nanoTime()
+        def error = catchThrowable {
+            client.searchVariants("dataset", "variant-set", "1", VariantRegion.range(100, 300), 100)
+        }
+
+        assertThat(error).isInstanceOf(Ga4ghClientException)
+        assertThat(((Ga4ghClientException) error).httpCode).isEqualTo(500)
+        assertThat(System.nanoTime() - startNanos).isLessThan(STALL_MILLIS * 1_000_000L)
+    }
+}
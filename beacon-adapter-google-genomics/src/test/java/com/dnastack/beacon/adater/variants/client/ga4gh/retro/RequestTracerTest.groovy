@@ -0,0 +1,87 @@
+package com.dnastack.beacon.adater.variants.client.ga4gh.retro
+
+import okhttp3.Interceptor
+import okhttp3.MediaType
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.RequestBody
+import okhttp3.Response
+import okhttp3.ResponseBody
+import org.testng.annotations.Test
+
+import static org.assertj.core.api.Assertions.assertThat
+import static org.assertj.core.api.Assertions.catchThrowable
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class RequestTracerTest {
+
+    private static final String BASE_URL = "http://localhost:8089/ga4gh/"
+
+    @Test
+    void namesEndpointsRelativeToTheBaseUrl() {
+        def search = new Request.Builder().url(BASE_URL + "variants/search")
+                .post(RequestBody.create(MediaType.parse("application/json"), "{}"))
+                .build()
+        def load = new Request.Builder().url(BASE_URL + "callsets/some-call-set").build()
+
+        assertThat(RequestTracer.endpointOf(search, "/ga4gh/")).isEqualTo("POST variants/search")
+        assertThat(RequestTracer.endpointOf(load, "/ga4gh/")).isEqualTo("GET callsets/{id}")
+    }
+
+    @Test
+    void keepsThePathsOfGetEndpointsWithoutId() {
+        def beacon = new Request.Builder().url("http://localhost:8089/ga4gh/beacon").build()
+        def load = new Request.Builder().url("http://localhost:8089/ga4gh/referencesets/some-reference-set").build()
+
+        assertThat(RequestTracer.endpointOf(beacon, "/")).isEqualTo("GET ga4gh/beacon")
+        assertThat(RequestTracer.endpointOf(load, "/")).isEqualTo("GET ga4gh/referencesets/{id}")
+    }
+
+    @Test
+    void templatesTheProjectIdOfDatasetSearches() {
+        def search = new Request.Builder().url("http://localhost:8089/datasets/projectId=some-project").build()
+
+        assertThat(RequestTracer.endpointOf(search, "/")).isEqualTo("GET datasets/projectId={id}")
+    }
+
+    @Test
+    void recordsStatusesAndBytesAsTheBodyIsRead() {
+        def tracer = RequestTracer.withoutBodies()
+        def interceptor = tracer.interceptor(BASE_URL)
+
+        def ok = interceptor.intercept(chain(BASE_URL + "callsets/1", 200, "call set"))
+        def notFound = interceptor.intercept(chain(BASE_URL + "callsets/2", 404, ""))
+
+        assertThat(tracer.stats["GET callsets/{id}"].bytesReceived).isZero()
+
+        assertThat(ok.body().string()).isEqualTo("call set")
+        notFound.close()
+
+        def stats = tracer.stats["GET callsets/{id}"]
+        assertThat(stats.requestCount).isEqualTo(2)
+        assertThat(stats.failureCount).isZero()
+        assertThat(stats.bytesReceived).isEqualTo("call set".length())
+        assertThat(stats.statusCounts).containsEntry(200, 1L).containsEntry(404, 1L)
+        assertThat(stats.latencyBucketCounts.sum()).isEqualTo(2)
+    }
+
+    @Test
+    void rejectsInvalidSampleRate() {
+        assertThat(catchThrowable { new RequestTracer(1.5, false) }).isInstanceOf(IllegalArgumentException)
+    }
+
+    private static Interceptor.Chain chain(String url, int code, String body) {
+        def request = new Request.Builder().url(url).build()
+        [request: { request },
+         proceed: { Request r ->
+             new Response.Builder().request(r)
+                     .protocol(Protocol.HTTP_1_1)
+                     .code(code)
+                     .message("")
+                     .body(ResponseBody.create(MediaType.parse("application/json"), body))
+                     .build()
+         }] as Interceptor.Chain
+    }
+}
@@ -0,0 +1,47 @@
+package com.dnastack.beacon.adater.variants.stats
+
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.CallSet
+import org.testng.annotations.Test
+
+import static com.dnastack.beacon.adater.variants.stats.GenotypeAccumulatorTest.createVariant
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class DatasetStatisticsTest {
+
+    @Test
+    void buildsTheDatasetResponseFromOnePass() {
+        def statistics = new DatasetStatistics("C")
+
+        statistics.add(createVariant())
+        statistics.add(createVariant())
+
+        assertThat(statistics.callSetReferences.referenceCount).isEqualTo(4)
+        assertThat(statistics.callSetReferences.callSetIdsByVariantSet["variant-set-1"])
+                .containsExactly("call-set-1", "call-set-2")
+
+        // Both call sets belong to one sample.
+        def response = statistics.toResponse("dataset-1",
+                ["call-set-1": CallSet.builder().id("call-set-1").sampleId("sample-1").build(),
+                 "call-set-2": CallSet.builder().id("call-set-2").sampleId("sample-1").build()])
+
+        assertThat(response.datasetId).isEqualTo("dataset-1")
+        assertThat(response.exists).isTrue()
+        assertThat(response.variantCount).isEqualTo(2)
+        assertThat(response.callCount).isEqualTo(4)
+        assertThat(response.sampleCount).isEqualTo(1)
+        assertThat(response.frequency).isEqualTo(0.25d)
+    }
+
+    @Test
+    void datasetWithoutMatchingVariants() {
+        def response = new DatasetStatistics("T").toResponse("dataset-1", [:])
+
+        assertThat(response.exists).isFalse()
+        assertThat(response.variantCount).isZero()
+        assertThat(response.sampleCount).isZero()
+        assertThat(response.frequency).isNull()
+    }
+}
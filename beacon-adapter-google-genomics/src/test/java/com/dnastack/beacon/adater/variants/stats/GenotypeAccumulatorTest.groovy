@@ -0,0 +1,54 @@
+package com.dnastack.beacon.adater.variants.stats
+
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Call
+import com.dnastack.beacon.adater.variants.client.ga4gh.model.Variant
+import org.testng.annotations.Test
+
+import static org.assertj.core.api.Assertions.assertThat
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+class GenotypeAccumulatorTest {
+
+    static Variant createVariant() {
+        return Variant.builder()
+                .id("variant-1")
+                .variantSetId("variant-set-1")
+                .referenceBases("A")
+                .alternateBases(["C", "G"])
+                .calls([Call.builder().callSetId("call-set-1").genotype([0, 1]).build(),
+                        Call.builder().callSetId("call-set-2").genotype([2, 2]).build()])
+                .build()
+    }
+
+    @Test
+    void countsCallsAndMatchingGenotypes() {
+        def genotypes = new GenotypeAccumulator("C")
+
+        genotypes.add(createVariant())
+
+        assertThat(genotypes.callCount).isEqualTo(2)
+        assertThat(genotypes.totalGenotypeCount).isEqualTo(4)
+        assertThat(genotypes.matchingGenotypeCount).isEqualTo(1)
+        assertThat(genotypes.frequency).isEqualTo(0.25d)
+    }
+
+    @Test
+    void countsAllAlternateAllelesWithoutAlternateBases() {
+        def genotypes = new GenotypeAccumulator(null)
+
+        genotypes.add(createVariant())
+
+        assertThat(genotypes.matchingGenotypeCount).isEqualTo(3)
+        assertThat(genotypes.frequency).isEqualTo(0.75d)
+    }
+
+    @Test
+    void frequencyIsUnknownWithoutGenotypes() {
+        def genotypes = new GenotypeAccumulator("T")
+
+        assertThat(genotypes.callCount).isZero()
+        assertThat(genotypes.frequency).isNull()
+    }
+}
@@ -15,16 +15,14 @@ import org.ga4gh.beacon.BeaconAlleleResponse;
 import org.ga4gh.beacon.BeaconDatasetAlleleResponse;
 import org.phenopackets.api.PhenoPacket;
 import org.phenopackets.api.io.JsonReader;
-import org.phenopackets.api.model.entity.Variant;
 
 import javax.enterprise.context.Dependent;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Objects;
-import java.util.function.Predicate;
 
 /**
  * @author Andrey Mochalov (mochalovandrey@gmail.com)
@@ -38,6 +36,8 @@ public class ReferenceBeaconAdapter implements BeaconAdapter {
     private void initPhenopacketClient(AdapterConfig adapterConfig) {
         List<ConfigValue> configValues = adapterConfig.getConfigValues();
         PhenoPacket phenoPacket = null;
+        String phenoPacketFile = null;
+        String variantSnapshotFile = null;
 
         for (ConfigValue configValue : configValues) {
             switch (configValue.getName()) {
@@ -48,15 +48,20 @@ public class ReferenceBeaconAdapter implements BeaconAdapter {
                     beacon = readBeaconJson(configValue.getValue());
                     break;
                 case "phenoPacketFile":
-                    phenoPacket = readPhenoPacketFile(configValue.getValue());
+                    phenoPacketFile = configValue.getValue();
+                    phenoPacket = null;
                     break;
                 case "phenoPacket":
                     phenoPacket = readPhenoPacket(configValue.getValue());
+                    phenoPacketFile = null;
+                    break;
+                case "variantSnapshotFile":
+                    variantSnapshotFile = configValue.getValue();
                     break;
             }
         }
 
-        if (phenoPacket == null) {
+        if (phenoPacket == null && phenoPacketFile == null) {
             throw new RuntimeException(
                     "Missing required parameter: phenoPacket. Please add the appropriate configuration parameter then retry");
         }
@@ -66,7 +71,23 @@ public class ReferenceBeaconAdapter implements BeaconAdapter {
                     "Missing required parameter: beaconJson. Please add the appropriate configuration parameter then retry");
         }
 
-        phenopacketClient = new PhenopacketClient(phenoPacket);
+        if (phenoPacketFile == null) {
+            phenopacketClient = new PhenopacketClient(phenoPacket);
+        } else if (variantSnapshotFile == null) {
+            phenopacketClient = new PhenopacketClient(readPhenoPacketFile(phenoPacketFile));
+        } else {
+            phenopacketClient = createSnapshotClient(phenoPacketFile, variantSnapshotFile);
+        }
+    }
+
+    private PhenopacketClient createSnapshotClient(String phenoPacketFile, String variantSnapshotFile) {
+        try {
+            return PhenopacketClient.withSnapshot(Paths.get(phenoPacketFile),
+                    Paths.get(variantSnapshotFile),
+                    () -> readPhenoPacketFile(phenoPacketFile));
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading file: " + e);
+        }
     }
 
     private PhenoPacket readPhenoPacketFile(String path) {
@@ -120,9 +141,11 @@ public class ReferenceBeaconAdapter implements BeaconAdapter {
     public BeaconAlleleResponse getBeaconAlleleResponse(BeaconAlleleRequest request) throws BeaconException {
         checkAdapterInit();
 
-        List<Variant> variants = phenopacketClient.getVariants();
-
-        long count = variants.stream().filter(filterVariants(request)).count();
+        long count = phenopacketClient.countVariants(request.getAssemblyId(),
+                request.getReferenceName(),
+                request.getStart(),
+                request.getReferenceBases(),
+                request.getAlternateBases());
 
         BeaconDatasetAlleleResponse datasetAlleleResponse = BeaconDatasetAlleleResponse.newBuilder()
                 .setVariantCount(count)
@@ -143,14 +166,6 @@ public class ReferenceBeaconAdapter implements BeaconAdapter {
         return builder.build();
     }
 
-    private Predicate<Variant> filterVariants(BeaconAlleleRequest request) {
-        return variant -> Objects.equals(request.getStart(), (long) variant.getStartPosition())
-                && Objects.equals(request.getStart() + 1, (long) variant.getEndPosition())
-                && variant.getAltBases().equalsIgnoreCase(request.getAlternateBases())
-                && variant.getRefBases().equalsIgnoreCase(request.getReferenceBases())
-                && variant.getAssembly().equalsIgnoreCase(request.getAssemblyId());
-    }
-
     @Override
     public BeaconAlleleResponse getBeaconAlleleResponse(String referenceName, Long start, String referenceBases,
                                                         String alternateBases, String assemblyId, List<String> datasetIds,
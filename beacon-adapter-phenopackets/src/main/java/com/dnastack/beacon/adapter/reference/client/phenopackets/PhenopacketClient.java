@@ -3,21 +3,88 @@ package com.dnastack.beacon.adapter.reference.client.phenopackets;
 import org.phenopackets.api.PhenoPacket;
 import org.phenopackets.api.model.entity.Variant;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * @author Andrey Mochalov (mochalovandrey@gmail.com)
  */
 public class PhenopacketClient {
 
+    private static final Logger LOGGER = Logger.getLogger(PhenopacketClient.class.getName());
+
     private PhenoPacket phenoPacket;
+    private Supplier<PhenoPacket> phenoPacketReader;
+    private VariantIndex variantIndex;
 
     public PhenopacketClient(PhenoPacket phenoPacket) {
         this.phenoPacket = phenoPacket;
+        this.variantIndex = VariantIndex.of(phenoPacket.getVariants());
+    }
+
+    private PhenopacketClient(VariantIndex variantIndex, Supplier<PhenoPacket> phenoPacketReader) {
+        this.variantIndex = variantIndex;
+        this.phenoPacketReader = phenoPacketReader;
     }
 
-    public List<Variant> getVariants() {
+    /**
+     * Creates the client from the {@link VariantSnapshot} of the phenopacket file, without parsing the file. If the
+     * snapshot doesn't exist yet or has been generated from another version of the file, the file is parsed and the
+     * snapshot is written for the following starts. Only the attributes of the file are read to tell the version. A snapshot that can't be mapped or written, e.g. because it would
+     * be too large, is logged and skipped: the client then answers from the parsed file.
+     *
+     * @param phenoPacketReader parses the phenopacket file, used only if the snapshot can't be or the variants are
+     *                          asked for
+     * @throws IOException if the phenopacket file can't be read
+     */
+    public static PhenopacketClient withSnapshot(Path phenoPacketFile, Path snapshotFile, Supplier<PhenoPacket> phenoPacketReader) throws IOException {
+        VariantSnapshot.Source source = VariantSnapshot.Source.of(phenoPacketFile);
+
+        VariantIndex snapshotIndex = null;
+        try {
+            snapshotIndex = VariantSnapshot.map(snapshotFile, source);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Couldn't map variant snapshot " + snapshotFile + ", parsing the phenopacket instead.", e);
+        }
+        if (snapshotIndex != null) {
+            return new PhenopacketClient(snapshotIndex, phenoPacketReader);
+        }
+
+        PhenopacketClient client = new PhenopacketClient(phenoPacketReader.get());
+        try {
+            VariantSnapshot.write(client.variantIndex, snapshotFile, source);
+        } catch (IOException e) {
+            // The client works from memory all the same, only the next start parses the phenopacket again.
+            LOGGER.log(Level.WARNING, "Couldn't write variant snapshot " + snapshotFile + ".", e);
+        }
+        return client;
+    }
+
+    /**
+     * @return variants of the phenopacket. If the client has been created from a snapshot, the phenopacket is parsed on
+     * the first call.
+     */
+    public synchronized List<Variant> getVariants() {
+        if (phenoPacket == null) {
+            phenoPacket = phenoPacketReader.get();
+        }
         return phenoPacket.getVariants();
     }
 
+    /**
+     * Looks the variants up in the index built from the phenopacket, see {@link VariantIndex#count(String, String,
+     * Long, String, String)}.
+     */
+    public long countVariants(String assembly, String chromosome, Long start, String refBases, String altBases) {
+        return variantIndex.count(assembly, chromosome, start, refBases, altBases);
+    }
+
+    public VariantIndex getVariantIndex() {
+        return variantIndex;
+    }
+
 }
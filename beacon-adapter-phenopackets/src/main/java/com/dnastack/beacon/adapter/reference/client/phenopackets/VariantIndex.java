@@ -0,0 +1,238 @@
+package com.dnastack.beacon.adapter.reference.client.phenopackets;
+
+import org.phenopackets.api.model.entity.Variant;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read-only index of the variants of a phenopacket: assembly, then chromosome, then the variant start positions sorted
+ * in a primitive column, so that a lookup is a binary search instead of a scan of all variants.
+ * <p>
+ * Assemblies, chromosomes and bases are compared case-insensitively. They're upper-cased and dictionary-encoded, so
+ * the columns of a chromosome hold only numbers and the many variants sharing the same bases share one dictionary
+ * entry. The columns are either on the heap or memory-mapped from a {@link VariantSnapshot}.
+ * <p>
+ * Variants without a chromosome are indexed under an unknown chromosome and match any requested one. Variants missing
+ * the assembly or the bases can't match any request and are left out.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class VariantIndex {
+
+    static final String UNKNOWN_CHROMOSOME = "";
+
+    private final List<String> dictionary;
+    private final Map<String, Integer> codes;
+    private final Map<String, Map<String, ChromosomeIndex>> chromosomesByAssembly;
+    private final int size;
+
+    VariantIndex(List<String> dictionary, Map<String, Map<String, ChromosomeIndex>> chromosomesByAssembly) {
+        this.dictionary = dictionary;
+        this.codes = new HashMap<>();
+        for (int code = 0; code < dictionary.size(); code++) {
+            codes.put(dictionary.get(code), code);
+        }
+        this.chromosomesByAssembly = chromosomesByAssembly;
+
+        int size = 0;
+        for (Map<String, ChromosomeIndex> chromosomes : chromosomesByAssembly.values()) {
+            for (ChromosomeIndex chromosomeIndex : chromosomes.values()) {
+                size += chromosomeIndex.size();
+            }
+        }
+        this.size = size;
+    }
+
+    public static VariantIndex of(List<Variant> variants) {
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        Map<String, Map<String, List<Variant>>> variantsByChromosome = new LinkedHashMap<>();
+
+        for (Variant variant : variants) {
+            if (variant.getAssembly() == null || variant.getRefBases() == null || variant.getAltBases() == null) {
+                continue;
+            }
+
+            String chromosome = variant.getChromosome() != null
+                    ? normalize(variant.getChromosome())
+                    : UNKNOWN_CHROMOSOME;
+            variantsByChromosome.computeIfAbsent(normalize(variant.getAssembly()), assembly -> new LinkedHashMap<>())
+                    .computeIfAbsent(chromosome, key -> new ArrayList<>())
+                    .add(variant);
+        }
+
+        Map<String, Map<String, ChromosomeIndex>> chromosomesByAssembly = new LinkedHashMap<>();
+        variantsByChromosome.forEach((assembly, chromosomes) -> {
+            encode(assembly, codes);
+
+            Map<String, ChromosomeIndex> chromosomeIndexes = new LinkedHashMap<>();
+            chromosomes.forEach((chromosome, chromosomeVariants) -> {
+                encode(chromosome, codes);
+                chromosomeIndexes.put(chromosome, ChromosomeIndex.of(chromosomeVariants, codes));
+            });
+            chromosomesByAssembly.put(assembly, chromosomeIndexes);
+        });
+
+        return new VariantIndex(new ArrayList<>(codes.keySet()), chromosomesByAssembly);
+    }
+
+    /**
+     * @return number of indexed variants of the given assembly and chromosome that start at the given position, end at
+     * the following one and have the given bases, or 0 if any of the arguments is null
+     */
+    public long count(String assembly, String chromosome, Long start, String refBases, String altBases) {
+        if (assembly == null || start == null || refBases == null || altBases == null) {
+            return 0;
+        }
+
+        Map<String, ChromosomeIndex> chromosomes = chromosomesByAssembly.get(normalize(assembly));
+        Integer refCode = codes.get(normalize(refBases));
+        Integer altCode = codes.get(normalize(altBases));
+        if (chromosomes == null || refCode == null || altCode == null) {
+            return 0;
+        }
+
+        long count = 0;
+        if (chromosome != null) {
+            ChromosomeIndex chromosomeIndex = chromosomes.get(normalize(chromosome));
+            if (chromosomeIndex != null) {
+                count += chromosomeIndex.count(start, refCode, altCode);
+            }
+        }
+        ChromosomeIndex unknownChromosomeIndex = chromosomes.get(UNKNOWN_CHROMOSOME);
+        if (unknownChromosomeIndex != null) {
+            count += unknownChromosomeIndex.count(start, refCode, altCode);
+        }
+        return count;
+    }
+
+    /**
+     * @return number of indexed variants
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return distinct assemblies, chromosomes and bases, the position of each being its code
+     */
+    List<String> getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return code of the given dictionary entry
+     */
+    int getCode(String entry) {
+        return codes.get(entry);
+    }
+
+    Map<String, Map<String, ChromosomeIndex>> getChromosomesByAssembly() {
+        return chromosomesByAssembly;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static int encode(String value, Map<String, Integer> codes) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = codes.size();
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * Variants of one chromosome in columns sorted by the start position. Only absolute reads are used, so that the
+     * columns can be shared by concurrent lookups.
+     */
+    static class ChromosomeIndex {
+
+        private final LongBuffer starts;
+        private final LongBuffer ends;
+        private final IntBuffer refCodes;
+        private final IntBuffer altCodes;
+
+        ChromosomeIndex(LongBuffer starts, LongBuffer ends, IntBuffer refCodes, IntBuffer altCodes) {
+            this.starts = starts;
+            this.ends = ends;
+            this.refCodes = refCodes;
+            this.altCodes = altCodes;
+        }
+
+        static ChromosomeIndex of(List<Variant> variants, Map<String, Integer> codes) {
+            List<Variant> sorted = new ArrayList<>(variants);
+            sorted.sort(Comparator.comparingLong(variant -> variant.getStartPosition()));
+
+            int size = sorted.size();
+            long[] starts = new long[size];
+            long[] ends = new long[size];
+            int[] refCodes = new int[size];
+            int[] altCodes = new int[size];
+
+            for (int i = 0; i < size; i++) {
+                Variant variant = sorted.get(i);
+                starts[i] = variant.getStartPosition();
+                ends[i] = variant.getEndPosition();
+                refCodes[i] = encode(normalize(variant.getRefBases()), codes);
+                altCodes[i] = encode(normalize(variant.getAltBases()), codes);
+            }
+
+            return new ChromosomeIndex(LongBuffer.wrap(starts),
+                    LongBuffer.wrap(ends),
+                    IntBuffer.wrap(refCodes),
+                    IntBuffer.wrap(altCodes));
+        }
+
+        int size() {
+            return starts.limit();
+        }
+
+        LongBuffer getStarts() {
+            return starts.duplicate();
+        }
+
+        LongBuffer getEnds() {
+            return ends.duplicate();
+        }
+
+        IntBuffer getRefCodes() {
+            return refCodes.duplicate();
+        }
+
+        IntBuffer getAltCodes() {
+            return altCodes.duplicate();
+        }
+
+        long count(long start, int refCode, int altCode) {
+            // Binary search for the first variant starting at or after the start.
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts.get(middle) < start) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            long count = 0;
+            for (int i = low; i < size() && starts.get(i) == start; i++) {
+                if (ends.get(i) == start + 1 && refCodes.get(i) == refCode && altCodes.get(i) == altCode) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.dnastack.beacon.adapter.reference.client.phenopackets;
+
+import com.dnastack.beacon.adapter.reference.client.phenopackets.VariantIndex.ChromosomeIndex;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary columnar snapshot of a {@link VariantIndex}, generated once from the phenopacket JSON and memory-mapped on the
+ * following starts, so that the JSON doesn't need to be parsed again and the variants don't occupy the heap.
+ * <p>
+ * The snapshot starts with a header: magic number, format version, size and modification time of the phenopacket file
+ * it was generated from, and length and CRC32 of the layout. The layout holds the dictionary of the assemblies,
+ * chromosomes and bases as UTF-8 strings, followed by the code and the variant count of every chromosome of every
+ * assembly. The start, end, reference bases code and alternate bases code columns of the chromosomes follow the layout
+ * in the same order.
+ * <p>
+ * Mapping a snapshot only reads the header and the layout, so it takes the same time however large the phenopacket is:
+ * the phenopacket file isn't read, only its attributes are compared, and the columns aren't checked against a checksum,
+ * only their length is. A snapshot of another phenopacket file, of another format version, with a corrupted layout or
+ * of the wrong length is ignored.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public final class VariantSnapshot {
+
+    private static final int MAGIC = 0x50505658;
+    private static final int VERSION = 2;
+    private static final int HEADER_LENGTH = 36;
+
+    /**
+     * A snapshot is mapped as a single buffer, which can't be larger.
+     */
+    public static final long MAX_LENGTH = Integer.MAX_VALUE;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Size and modification time of the phenopacket file a snapshot is generated from, which tell whether the snapshot
+     * is outdated without reading the file. A change that keeps both, e.g. a rewrite of the same size within the
+     * resolution of the file system's timestamps, isn't noticed.
+     */
+    public static final class Source {
+
+        private final long size;
+        private final long lastModifiedMillis;
+
+        private Source(long size, long lastModifiedMillis) {
+            this.size = size;
+            this.lastModifiedMillis = lastModifiedMillis;
+        }
+
+        public static Source of(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Source(attributes.size(), attributes.lastModifiedTime().toMillis());
+        }
+    }
+
+    /**
+     * Same as {@link #write(VariantIndex, Path, Source, long)} with the largest length that can be mapped.
+     */
+    public static void write(VariantIndex index, Path snapshot, Source source) throws IOException {
+        write(index, snapshot, source, MAX_LENGTH);
+    }
+
+    /**
+     * Streams the snapshot of the index to a temporary file first and moves it in place, so that a concurrently
+     * starting adapter never maps a half-written snapshot. Only the write buffer is allocated, however large the index.
+     *
+     * @param source    {@link Source#of(Path) source} of the phenopacket file the index has been built from
+     * @param maxLength largest length of the snapshot in bytes, at most {@link #MAX_LENGTH}
+     * @throws IOException also if the snapshot would be longer
+     */
+    public static void write(VariantIndex index, Path snapshot, Source source, long maxLength) throws IOException {
+        long length = HEADER_LENGTH + layoutLength(index) + columnsLength(index);
+        if (length > Math.min(maxLength, MAX_LENGTH)) {
+            throw new IOException(String.format("Variant snapshot %s would have %d bytes, more than the %d bytes that can be mapped.",
+                    snapshot,
+                    length,
+                    Math.min(maxLength, MAX_LENGTH)));
+        }
+
+        Path directory = snapshot.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, snapshot.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.position(HEADER_LENGTH);
+                // Not closed, which would close the channel before the header is written.
+                BufferedOutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel),
+                        WRITE_BUFFER_SIZE);
+
+                CRC32 layoutCrc = new CRC32();
+                DataOutputStream layoutOut = new DataOutputStream(new CheckedOutputStream(buffered, layoutCrc));
+                writeLayout(index, layoutOut);
+                layoutOut.flush();
+
+                DataOutputStream columnsOut = new DataOutputStream(buffered);
+                writeColumns(index, columnsOut);
+                columnsOut.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+                header.putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(source.size)
+                        .putLong(source.lastModifiedMillis)
+                        .putInt(layoutOut.size())
+                        .putLong(layoutCrc.getValue())
+                        .flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Same as {@link #map(Path, Source, long)} with the largest length that can be mapped.
+     */
+    public static VariantIndex map(Path snapshot, Source source) throws IOException {
+        return map(snapshot, source, MAX_LENGTH);
+    }
+
+    /**
+     * Maps the snapshot into memory. The columns are read straight from the mapped file, only the dictionary is
+     * decoded onto the heap.
+     *
+     * @param source    {@link Source#of(Path) source} of the phenopacket file the snapshot should have been generated
+     *                  from
+     * @param maxLength largest length of the snapshot in bytes, at most {@link #MAX_LENGTH}
+     * @return the index, or null if the snapshot doesn't exist, is outdated or corrupted
+     * @throws IOException also if the snapshot is longer
+     */
+    public static VariantIndex map(Path snapshot, Source source, long maxLength) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() > Math.min(maxLength, MAX_LENGTH)) {
+                throw new IOException(String.format("Variant snapshot %s has %d bytes, more than the %d bytes that can be mapped.",
+                        snapshot,
+                        channel.size(),
+                        Math.min(maxLength, MAX_LENGTH)));
+            }
+            if (channel.size() < HEADER_LENGTH) {
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        if (buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION
+                || buffer.getLong() != source.size
+                || buffer.getLong() != source.lastModifiedMillis) {
+            return null;
+        }
+        int layoutLength = buffer.getInt();
+        long expectedLayoutCrc = buffer.getLong();
+        if (layoutLength < 0 || layoutLength > buffer.remaining()) {
+            return null;
+        }
+
+        ByteBuffer layout = buffer.slice();
+        layout.limit(layoutLength);
+        CRC32 layoutCrc = new CRC32();
+        layoutCrc.update(layout.duplicate());
+        if (layoutCrc.getValue() != expectedLayoutCrc) {
+            return null;
+        }
+
+        buffer.position(buffer.position() + layoutLength);
+        ByteBuffer columns = buffer.slice();
+        try {
+            return decode(layout, columns);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return length of the layout {@link #writeLayout written} for the index
+     */
+    private static long layoutLength(VariantIndex index) {
+        long length = 4;
+        for (String entry : index.getDictionary()) {
+            length += 4 + entry.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        length += 4;
+        for (Map<String, ChromosomeIndex> chromosomes : index.getChromosomesByAssembly().values()) {
+            length += 8 + chromosomes.size() * 8L;
+        }
+        return length;
+    }
+
+    /**
+     * @return length of the columns {@link #writeColumns written} for the index
+     */
+    private static long columnsLength(VariantIndex index) {
+        long length = 0;
+        for (Map<String, ChromosomeIndex> chromosomes : index.getChromosomesByAssembly().values()) {
+            for (ChromosomeIndex chromosomeIndex : chromosomes.values()) {
+                // Two long and two int columns.
+                length += chromosomeIndex.size() * 24L;
+            }
+        }
+        return length;
+    }
+
+    private static void writeLayout(VariantIndex index, DataOutputStream out) throws IOException {
+        List<String> dictionary = index.getDictionary();
+        out.writeInt(dictionary.size());
+        for (String entry : dictionary) {
+            byte[] encoded = entry.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+
+        Map<String, Map<String, ChromosomeIndex>> chromosomesByAssembly = index.getChromosomesByAssembly();
+        out.writeInt(chromosomesByAssembly.size());
+        for (Map.Entry<String, Map<String, ChromosomeIndex>> assembly : chromosomesByAssembly.entrySet()) {
+            out.writeInt(index.getCode(assembly.getKey()));
+            out.writeInt(assembly.getValue().size());
+
+            for (Map.Entry<String, ChromosomeIndex> chromosome : assembly.getValue().entrySet()) {
+                out.writeInt(index.getCode(chromosome.getKey()));
+                out.writeInt(chromosome.getValue().size());
+            }
+        }
+    }
+
+    private static void writeColumns(VariantIndex index, DataOutputStream out) throws IOException {
+        for (Map<String, ChromosomeIndex> chromosomes : index.getChromosomesByAssembly().values()) {
+            for (ChromosomeIndex chromosomeIndex : chromosomes.values()) {
+                writeColumn(chromosomeIndex.getStarts(), out);
+                writeColumn(chromosomeIndex.getEnds(), out);
+                writeColumn(chromosomeIndex.getRefCodes(), out);
+                writeColumn(chromosomeIndex.getAltCodes(), out);
+            }
+        }
+    }
+
+    private static void writeColumn(LongBuffer column, DataOutputStream out) throws IOException {
+        while (column.hasRemaining()) {
+            out.writeLong(column.get());
+        }
+    }
+
+    private static void writeColumn(IntBuffer column, DataOutputStream out) throws IOException {
+        while (column.hasRemaining()) {
+            out.writeInt(column.get());
+        }
+    }
+
+    /**
+     * @throws BufferUnderflowException if the columns are shorter than the layout states
+     * @throws IllegalArgumentException if they're longer
+     */
+    private static VariantIndex decode(ByteBuffer layout, ByteBuffer columns) {
+        int dictionarySize = layout.getInt();
+        List<String> dictionary = new ArrayList<>(dictionarySize);
+        for (int i = 0; i < dictionarySize; i++) {
+            byte[] encoded = new byte[layout.getInt()];
+            layout.get(encoded);
+            dictionary.add(new String(encoded, StandardCharsets.UTF_8));
+        }
+
+        Map<String, Map<String, ChromosomeIndex>> chromosomesByAssembly = new LinkedHashMap<>();
+        int assemblyCount = layout.getInt();
+        for (int i = 0; i < assemblyCount; i++) {
+            String assembly = dictionary.get(layout.getInt());
+            int chromosomeCount = layout.getInt();
+
+            Map<String, ChromosomeIndex> chromosomes = new LinkedHashMap<>();
+            for (int j = 0; j < chromosomeCount; j++) {
+                String chromosome = dictionary.get(layout.getInt());
+                int variantCount = layout.getInt();
+
+                chromosomes.put(chromosome, new ChromosomeIndex(column(columns, variantCount * 8L).asLongBuffer(),
+                        column(columns, variantCount * 8L).asLongBuffer(),
+                        column(columns, variantCount * 4L).asIntBuffer(),
+                        column(columns, variantCount * 4L).asIntBuffer()));
+            }
+            chromosomesByAssembly.put(assembly, chromosomes);
+        }
+
+        if (layout.hasRemaining() || columns.hasRemaining()) {
+            throw new IllegalArgumentException("Variant snapshot is longer than its layout states.");
+        }
+        return new VariantIndex(dictionary, chromosomesByAssembly);
+    }
+
+    /**
+     * @return view of the next {@code length} bytes of the columns, advancing the columns past them
+     */
+    private static ByteBuffer column(ByteBuffer columns, long length) {
+        if (length < 0 || length > columns.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        ByteBuffer column = columns.slice();
+        column.limit((int) length);
+        columns.position(columns.position() + (int) length);
+        return column;
+    }
+
+    private VariantSnapshot() {
+    }
+}
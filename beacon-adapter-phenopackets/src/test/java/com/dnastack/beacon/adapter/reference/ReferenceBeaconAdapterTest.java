@@ -2,17 +2,29 @@ package com.dnastack.beacon.adapter.reference;
 
 import com.dnastack.beacon.adapter.api.BeaconAdapter;
 import com.dnastack.beacon.adapter.reference.ReferenceBeaconAdapter;
+import com.dnastack.beacon.adapter.reference.client.phenopackets.VariantIndex;
+import com.dnastack.beacon.adapter.reference.client.phenopackets.VariantSnapshot;
 import com.dnastack.beacon.exceptions.BeaconException;
 import com.dnastack.beacon.utils.AdapterConfig;
 import com.dnastack.beacon.utils.ConfigValue;
 import com.google.common.collect.ImmutableList;
 import org.ga4gh.beacon.BeaconAlleleRequest;
 import org.ga4gh.beacon.BeaconAlleleResponse;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -26,6 +38,8 @@ public class ReferenceBeaconAdapterTest {
     private final static String PHENO_PACKET_FILE = "test_pheno_packet.json";
     private final static AdapterConfig adapterConfig = createConfig();
 
+    private final List<Path> temporaryDirectories = new ArrayList<>();
+
     private static AdapterConfig createConfig() {
         ClassLoader cl = ReferenceBeaconAdapter.class.getClassLoader();
         try {
@@ -105,4 +119,128 @@ public class ReferenceBeaconAdapterTest {
         assertThat(beaconAlleleResponse.getDatasetAlleleResponses().get(0).getVariantCount()).isEqualTo(1);
     }
 
+    @Test
+    public void should_matchBasesAndAssemblyCaseInsensitively_when_params() throws BeaconException {
+        ReferenceBeaconAdapter adapter = new ReferenceBeaconAdapter();
+        adapter.initAdapter(adapterConfig);
+
+        BeaconAlleleResponse beaconAlleleResponse = adapter.getBeaconAlleleResponse("refName", 10572L, "a", "bc", "grch37", Collections.emptyList(), true);
+
+        assertThat(beaconAlleleResponse.getExists()).isTrue();
+        assertThat(beaconAlleleResponse.getDatasetAlleleResponses().get(0).getVariantCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_returnNotExistVariant_when_noVariantAtPosition() throws BeaconException {
+        ReferenceBeaconAdapter adapter = new ReferenceBeaconAdapter();
+        adapter.initAdapter(adapterConfig);
+
+        BeaconAlleleResponse beaconAlleleResponse = adapter.getBeaconAlleleResponse("refName", 10573L, "A", "BC", "GRCh37", Collections.emptyList(), true);
+
+        assertThat(beaconAlleleResponse.getExists()).isFalse();
+        assertThat(beaconAlleleResponse.getDatasetAlleleResponses().get(0).getVariantCount()).isZero();
+        assertThat(adapter.getPhenopacketClient().getVariantIndex().size()).isEqualTo(2);
+    }
+
+    @Test
+    public void should_answerFromVariantSnapshot_when_snapshotConfigured() throws Exception {
+        Path snapshot = createTemporaryDirectory().resolve("variants.snapshot");
+        AdapterConfig snapshotConfig = createSnapshotConfig(snapshot);
+
+        // The first start generates the snapshot, the second one maps it.
+        new ReferenceBeaconAdapter().initAdapter(snapshotConfig);
+        assertThat(snapshot).exists();
+
+        ReferenceBeaconAdapter adapter = new ReferenceBeaconAdapter();
+        adapter.initAdapter(snapshotConfig);
+
+        BeaconAlleleResponse beaconAlleleResponse = adapter.getBeaconAlleleResponse("refName", 10571L, "A", "AC", "GRCh37", Collections.emptyList(), true);
+
+        assertThat(beaconAlleleResponse.getExists()).isTrue();
+        assertThat(beaconAlleleResponse.getDatasetAlleleResponses().get(0).getVariantCount()).isEqualTo(1);
+        assertThat(adapter.getPhenopacketClient().getVariants()).hasSize(2);
+    }
+
+    @Test
+    public void should_answerFromPhenopacket_when_snapshotCannotBeWritten() throws Exception {
+        Path snapshot = createTemporaryDirectory().resolve("missing").resolve("variants.snapshot");
+
+        ReferenceBeaconAdapter adapter = new ReferenceBeaconAdapter();
+        adapter.initAdapter(createSnapshotConfig(snapshot));
+
+        BeaconAlleleResponse beaconAlleleResponse = adapter.getBeaconAlleleResponse("refName", 10571L, "A", "AC", "GRCh37", Collections.emptyList(), true);
+
+        assertThat(snapshot).doesNotExist();
+        assertThat(beaconAlleleResponse.getExists()).isTrue();
+    }
+
+    @Test
+    public void should_rejectSnapshot_when_longerThanTheLimit() throws Exception {
+        Path directory = createTemporaryDirectory();
+        Path snapshot = directory.resolve("variants.snapshot");
+        new ReferenceBeaconAdapter().initAdapter(createSnapshotConfig(snapshot));
+
+        VariantSnapshot.Source source = VariantSnapshot.Source.of(getResourcePath(PHENO_PACKET_FILE));
+        long length = Files.size(snapshot);
+        VariantIndex index = VariantSnapshot.map(snapshot, source, length);
+        assertThat(index).isNotNull();
+
+        assertThatThrownBy(() -> VariantSnapshot.map(snapshot, source, length - 1)).isInstanceOf(IOException.class)
+                .hasMessageContaining("can be mapped");
+
+        Path rewrittenSnapshot = directory.resolve("rewritten.snapshot");
+        assertThatThrownBy(() -> VariantSnapshot.write(index, rewrittenSnapshot, source, length - 1))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("can be mapped");
+        assertThat(rewrittenSnapshot).doesNotExist();
+    }
+
+    @Test
+    public void should_regenerateSnapshot_when_outdated() throws Exception {
+        Path snapshot = createTemporaryDirectory().resolve("variants.snapshot");
+        Files.write(snapshot, "outdated".getBytes(StandardCharsets.UTF_8));
+
+        ReferenceBeaconAdapter adapter = new ReferenceBeaconAdapter();
+        adapter.initAdapter(createSnapshotConfig(snapshot));
+
+        assertThat(adapter.getBeaconAlleleResponse("refName", 10571L, "A", "AC", "GRCh37", Collections.emptyList(), true)
+                .getExists()).isTrue();
+        assertThat(VariantSnapshot.map(snapshot, VariantSnapshot.Source.of(getResourcePath(PHENO_PACKET_FILE))))
+                .isNotNull();
+    }
+
+    private Path createTemporaryDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("phenopackets");
+        temporaryDirectories.add(directory);
+        return directory;
+    }
+
+    @AfterMethod
+    public void deleteTemporaryDirectories() throws IOException {
+        for (Path directory : temporaryDirectories) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        temporaryDirectories.clear();
+    }
+
+    private static Path getResourcePath(String resource) throws URISyntaxException {
+        return Paths.get(ReferenceBeaconAdapter.class.getClassLoader().getResource(resource).toURI());
+    }
+
+    private static AdapterConfig createSnapshotConfig(Path snapshot) throws URISyntaxException {
+        ClassLoader cl = ReferenceBeaconAdapter.class.getClassLoader();
+        return AdapterConfig.builder()
+                .name("phenoPacket_snapshot_test_beacon")
+                .adapterClass(AdapterConfig.class.getCanonicalName())
+                .configValues(ImmutableList.of(
+                        ConfigValue.builder().name("beaconJsonFile").value(cl.getResource(BEACON_FILE).toURI().getPath()).build(),
+                        ConfigValue.builder().name("phenoPacketFile").value(cl.getResource(PHENO_PACKET_FILE).toURI().getPath()).build(),
+                        ConfigValue.builder().name("variantSnapshotFile").value(snapshot.toString()).build()))
+                .build();
+    }
+
 }
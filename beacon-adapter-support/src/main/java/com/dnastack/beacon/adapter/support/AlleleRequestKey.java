@@ -0,0 +1,167 @@
+package com.dnastack.beacon.adapter.support;
+
+import org.ga4gh.beacon.BeaconAlleleRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.UnaryOperator;
+
+/**
+ * Canonical form of a {@link BeaconAlleleRequest}: requests that ask the same question have equal keys, however they
+ * are spelled. The reference name, the bases, the assembly and the dataset ids are trimmed, the assembly is normalized
+ * by the given alias mapping, the dataset ids are deduplicated and sorted, and a missing
+ * {@code includeDatasetResponses} means false.
+ * <p>
+ * Nothing is case folded, because adapters match the reference names, the bases and the dataset ids exactly; map the
+ * assembly spellings that mean the same assembly with the alias mapping. Decorators sharing one answer between the
+ * requests of a key ask the delegate the {@link #toRequest() canonical request}, so that the answer doesn't depend on
+ * which spelling came first.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public final class AlleleRequestKey {
+
+    private final String referenceName;
+    private final Long start;
+    private final String referenceBases;
+    private final String alternateBases;
+    private final String assemblyId;
+    private final List<String> datasetIds;
+    private final boolean includeDatasetResponses;
+
+    private AlleleRequestKey(String referenceName, Long start, String referenceBases, String alternateBases, String assemblyId, List<String> datasetIds, boolean includeDatasetResponses) {
+        this.referenceName = referenceName;
+        this.start = start;
+        this.referenceBases = referenceBases;
+        this.alternateBases = alternateBases;
+        this.assemblyId = assemblyId;
+        this.datasetIds = datasetIds;
+        this.includeDatasetResponses = includeDatasetResponses;
+    }
+
+    public static AlleleRequestKey of(BeaconAlleleRequest request) {
+        return of(request, UnaryOperator.identity());
+    }
+
+    /**
+     * @param assemblyNormalizer maps assembly aliases to the canonical assembly name, e.g. "hg19" to "GRCh37"
+     */
+    public static AlleleRequestKey of(BeaconAlleleRequest request, UnaryOperator<String> assemblyNormalizer) {
+        String assemblyId = request.getAssemblyId() != null
+                ? assemblyNormalizer.apply(request.getAssemblyId().trim())
+                : null;
+
+        List<String> datasetIds = Collections.emptyList();
+        if (request.getDatasetIds() != null && !request.getDatasetIds().isEmpty()) {
+            TreeSet<String> sortedIds = new TreeSet<>();
+            for (String datasetId : request.getDatasetIds()) {
+                if (datasetId != null) {
+                    sortedIds.add(datasetId.trim());
+                }
+            }
+            datasetIds = Collections.unmodifiableList(new ArrayList<>(sortedIds));
+        }
+
+        return new AlleleRequestKey(trim(request.getReferenceName()),
+                request.getStart(),
+                trim(request.getReferenceBases()),
+                trim(request.getAlternateBases()),
+                trim(assemblyId),
+                datasetIds,
+                Boolean.TRUE.equals(request.getIncludeDatasetResponses()));
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    /**
+     * @return the request all the requests of this key stand for; it asks for all datasets if no dataset ids are given
+     */
+    public BeaconAlleleRequest toRequest() {
+        return BeaconAlleleRequest.newBuilder()
+                .setReferenceName(referenceName)
+                .setStart(start)
+                .setReferenceBases(referenceBases)
+                .setAlternateBases(alternateBases)
+                .setAssemblyId(assemblyId)
+                .setDatasetIds(datasetIds.isEmpty() ? null : new ArrayList<>(datasetIds))
+                .setIncludeDatasetResponses(includeDatasetResponses)
+                .build();
+    }
+
+    public String getReferenceName() {
+        return referenceName;
+    }
+
+    public Long getStart() {
+        return start;
+    }
+
+    public String getReferenceBases() {
+        return referenceBases;
+    }
+
+    public String getAlternateBases() {
+        return alternateBases;
+    }
+
+    public String getAssemblyId() {
+        return assemblyId;
+    }
+
+    /**
+     * @return requested dataset ids, sorted; empty if all datasets are requested
+     */
+    public List<String> getDatasetIds() {
+        return datasetIds;
+    }
+
+    public boolean isIncludeDatasetResponses() {
+        return includeDatasetResponses;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        AlleleRequestKey that = (AlleleRequestKey) o;
+        return includeDatasetResponses == that.includeDatasetResponses
+                && Objects.equals(referenceName, that.referenceName)
+                && Objects.equals(start, that.start)
+                && Objects.equals(referenceBases, that.referenceBases)
+                && Objects.equals(alternateBases, that.alternateBases)
+                && Objects.equals(assemblyId, that.assemblyId)
+                && datasetIds.equals(that.datasetIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(referenceName,
+                start,
+                referenceBases,
+                alternateBases,
+                assemblyId,
+                datasetIds,
+                includeDatasetResponses);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AlleleRequestKey{%s:%d %s>%s, assembly=%s, datasets=%s, includeDatasetResponses=%s}",
+                referenceName,
+                start,
+                referenceBases,
+                alternateBases,
+                assemblyId,
+                datasetIds,
+                includeDatasetResponses);
+    }
+}
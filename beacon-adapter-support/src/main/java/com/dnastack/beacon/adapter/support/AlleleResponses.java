@@ -0,0 +1,29 @@
+package com.dnastack.beacon.adapter.support;
+
+import org.ga4gh.beacon.BeaconAlleleRequest;
+import org.ga4gh.beacon.BeaconAlleleResponse;
+
+import java.util.Objects;
+
+/**
+ * Helpers for the responses shared by requests with equal {@link AlleleRequestKey keys}.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+final class AlleleResponses {
+
+    /**
+     * The response echoes the allele request. Requests with equal keys may still be spelled differently.
+     *
+     * @return the response with the given allele request in it
+     */
+    static BeaconAlleleResponse withRequest(BeaconAlleleResponse response, BeaconAlleleRequest request) {
+        if (response == null || Objects.equals(response.getAlleleRequest(), request)) {
+            return response;
+        }
+        return BeaconAlleleResponse.newBuilder(response).setAlleleRequest(request).build();
+    }
+
+    private AlleleResponses() {
+    }
+}
@@ -0,0 +1,227 @@
+package com.dnastack.beacon.adapter.support;
+
+import com.dnastack.beacon.adapter.api.BeaconAdapter;
+import com.dnastack.beacon.exceptions.BeaconException;
+import com.dnastack.beacon.utils.AdapterConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.ga4gh.beacon.Beacon;
+import org.ga4gh.beacon.BeaconAlleleRequest;
+import org.ga4gh.beacon.BeaconAlleleResponse;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Decorates a {@link BeaconAdapter} with a bounded cache of the allele responses, keyed by {@link AlleleRequestKey}.
+ * The delegate is asked the canonical request of the key, so the cached response answers every spelling of it.
+ * <p>
+ * Responses saying that the allele doesn't exist are cached too, with their own, usually shorter, time to live.
+ * Responses with an error and failed requests aren't cached. If a catalog version is given, e.g. the version of the
+ * dataset catalog of the adapter, the responses cached for an older version are dropped once it changes.
+ * <p>
+ * Combine with {@link CoalescingBeaconAdapter} to also share the queries of concurrent cache misses:
+ * <pre>
+ * CachingBeaconAdapter.builder(new CoalescingBeaconAdapter(adapter)).build();
+ * </pre>
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class CachingBeaconAdapter implements BeaconAdapter {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    public static final long DEFAULT_TTL_SECONDS = 600;
+    public static final long DEFAULT_NEGATIVE_TTL_SECONDS = 60;
+
+    private final BeaconAdapter delegate;
+    private final UnaryOperator<String> assemblyNormalizer;
+    private final LongSupplier catalogVersion;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Cache<AlleleRequestKey, CachedResponse> cache;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    private CachingBeaconAdapter(Builder builder) {
+        this.delegate = builder.delegate;
+        this.assemblyNormalizer = builder.assemblyNormalizer;
+        this.catalogVersion = builder.catalogVersion;
+        this.ttlNanos = builder.ttlNanos;
+        this.negativeTtlNanos = builder.negativeTtlNanos;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(builder.maximumSize)
+                .expireAfterWrite(Math.max(1, Math.max(ttlNanos, negativeTtlNanos)), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    public static Builder builder(BeaconAdapter delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * Initializes the wrapped adapter and drops the cached responses, which may be stale for the new configuration.
+     */
+    @Override
+    public void initAdapter(AdapterConfig adapterConfig) {
+        delegate.initAdapter(adapterConfig);
+        invalidateAll();
+    }
+
+    @Override
+    public BeaconAlleleResponse getBeaconAlleleResponse(BeaconAlleleRequest request) throws BeaconException {
+        AlleleRequestKey key = AlleleRequestKey.of(request, assemblyNormalizer);
+        long version = catalogVersion.getAsLong();
+
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (cached.isValid(version, System.nanoTime())) {
+                hitCount.increment();
+                return AlleleResponses.withRequest(cached.response, request);
+            }
+            cache.asMap().remove(key, cached);
+        }
+        missCount.increment();
+
+        BeaconAlleleResponse response = delegate.getBeaconAlleleResponse(key.toRequest());
+
+        long ttl = ttlOf(response);
+        if (ttl > 0) {
+            cache.put(key, new CachedResponse(response, version, System.nanoTime() + ttl));
+        }
+        return AlleleResponses.withRequest(response, request);
+    }
+
+    @Override
+    public BeaconAlleleResponse getBeaconAlleleResponse(String referenceName, Long start, String referenceBases, String alternateBases, String assemblyId, List<String> datasetIds, Boolean includeDatasetResponses) throws BeaconException {
+        return getBeaconAlleleResponse(BeaconAlleleRequest.newBuilder()
+                .setReferenceName(referenceName)
+                .setStart(start)
+                .setReferenceBases(referenceBases)
+                .setAlternateBases(alternateBases)
+                .setAssemblyId(assemblyId)
+                .setDatasetIds(datasetIds)
+                .setIncludeDatasetResponses(includeDatasetResponses)
+                .build());
+    }
+
+    @Override
+    public Beacon getBeacon() throws BeaconException {
+        return delegate.getBeacon();
+    }
+
+    /**
+     * Drops all cached responses.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return number of cached responses, including the expired ones not cleaned up yet
+     */
+    public long getSize() {
+        return cache.size();
+    }
+
+    /**
+     * @return how long the response may be cached, 0 if it mustn't be
+     */
+    private long ttlOf(BeaconAlleleResponse response) {
+        if (response == null || response.getError() != null) {
+            return 0;
+        }
+        return Boolean.TRUE.equals(response.getExists()) ? ttlNanos : negativeTtlNanos;
+    }
+
+    private static final class CachedResponse {
+
+        private final BeaconAlleleResponse response;
+        private final long catalogVersion;
+        private final long expiresAtNanos;
+
+        private CachedResponse(BeaconAlleleResponse response, long catalogVersion, long expiresAtNanos) {
+            this.response = response;
+            this.catalogVersion = catalogVersion;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isValid(long currentCatalogVersion, long nowNanos) {
+            return catalogVersion == currentCatalogVersion && nowNanos - expiresAtNanos < 0;
+        }
+    }
+
+    public static final class Builder {
+
+        private final BeaconAdapter delegate;
+        private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private long ttlNanos = TimeUnit.SECONDS.toNanos(DEFAULT_TTL_SECONDS);
+        private long negativeTtlNanos = TimeUnit.SECONDS.toNanos(DEFAULT_NEGATIVE_TTL_SECONDS);
+        private UnaryOperator<String> assemblyNormalizer = UnaryOperator.identity();
+        private LongSupplier catalogVersion = () -> 0;
+
+        private Builder(BeaconAdapter delegate) {
+            this.delegate = Objects.requireNonNull(delegate);
+        }
+
+        /**
+         * @param maximumSize maximum number of cached responses, the least recently used are evicted first
+         */
+        public Builder maximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * @param ttl time to live of the responses saying that the allele exists
+         */
+        public Builder ttl(long ttl, TimeUnit unit) {
+            this.ttlNanos = unit.toNanos(ttl);
+            return this;
+        }
+
+        /**
+         * @param negativeTtl time to live of the responses saying that the allele doesn't exist, 0 to not cache them
+         */
+        public Builder negativeTtl(long negativeTtl, TimeUnit unit) {
+            this.negativeTtlNanos = unit.toNanos(negativeTtl);
+            return this;
+        }
+
+        /**
+         * @param assemblyNormalizer maps assembly aliases to the canonical assembly name, see {@link AlleleRequestKey}
+         */
+        public Builder assemblyNormalizer(UnaryOperator<String> assemblyNormalizer) {
+            this.assemblyNormalizer = Objects.requireNonNull(assemblyNormalizer);
+            return this;
+        }
+
+        /**
+         * @param catalogVersion version of the data the adapter answers from; cached responses of other versions are
+         *                       dropped
+         */
+        public Builder catalogVersion(LongSupplier catalogVersion) {
+            this.catalogVersion = Objects.requireNonNull(catalogVersion);
+            return this;
+        }
+
+        public CachingBeaconAdapter build() {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("Maximum size must not be negative, got " + maximumSize);
+            }
+            return new CachingBeaconAdapter(this);
+        }
+    }
+}
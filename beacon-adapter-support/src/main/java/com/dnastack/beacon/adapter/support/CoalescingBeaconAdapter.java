@@ -0,0 +1,128 @@
+package com.dnastack.beacon.adapter.support;
+
+import com.dnastack.beacon.adapter.api.BeaconAdapter;
+import com.dnastack.beacon.exceptions.BeaconException;
+import com.dnastack.beacon.utils.AdapterConfig;
+import org.ga4gh.beacon.Beacon;
+import org.ga4gh.beacon.BeaconAlleleRequest;
+import org.ga4gh.beacon.BeaconAlleleResponse;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Decorates a {@link BeaconAdapter}, so that concurrent allele requests with equal {@link AlleleRequestKey keys} are
+ * answered by a single call of the delegate. The first request runs the query, the others wait for it and get its
+ * response, or its error. Nothing is kept once the query completes; see {@link CachingBeaconAdapter} for that.
+ * <p>
+ * The delegate is asked the canonical request of the key, and every request gets the response with its own allele
+ * request in it.
+ *
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class CoalescingBeaconAdapter implements BeaconAdapter {
+
+    private final BeaconAdapter delegate;
+    private final UnaryOperator<String> assemblyNormalizer;
+    private final ConcurrentMap<AlleleRequestKey, CompletableFuture<BeaconAlleleResponse>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedRequests = new LongAdder();
+
+    public CoalescingBeaconAdapter(BeaconAdapter delegate) {
+        this(delegate, UnaryOperator.identity());
+    }
+
+    /**
+     * @param assemblyNormalizer maps assembly aliases to the canonical assembly name, see {@link AlleleRequestKey}
+     */
+    public CoalescingBeaconAdapter(BeaconAdapter delegate, UnaryOperator<String> assemblyNormalizer) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.assemblyNormalizer = Objects.requireNonNull(assemblyNormalizer);
+    }
+
+    @Override
+    public void initAdapter(AdapterConfig adapterConfig) {
+        delegate.initAdapter(adapterConfig);
+    }
+
+    @Override
+    public BeaconAlleleResponse getBeaconAlleleResponse(BeaconAlleleRequest request) throws BeaconException {
+        AlleleRequestKey key = AlleleRequestKey.of(request, assemblyNormalizer);
+
+        CompletableFuture<BeaconAlleleResponse> flight = new CompletableFuture<>();
+        CompletableFuture<BeaconAlleleResponse> runningFlight = inFlight.putIfAbsent(key, flight);
+        if (runningFlight != null) {
+            coalescedRequests.increment();
+            return AlleleResponses.withRequest(await(runningFlight), request);
+        }
+
+        try {
+            BeaconAlleleResponse response = delegate.getBeaconAlleleResponse(key.toRequest());
+            flight.complete(response);
+            return AlleleResponses.withRequest(response, request);
+        } catch (BeaconException | RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    @Override
+    public BeaconAlleleResponse getBeaconAlleleResponse(String referenceName, Long start, String referenceBases, String alternateBases, String assemblyId, List<String> datasetIds, Boolean includeDatasetResponses) throws BeaconException {
+        return getBeaconAlleleResponse(BeaconAlleleRequest.newBuilder()
+                .setReferenceName(referenceName)
+                .setStart(start)
+                .setReferenceBases(referenceBases)
+                .setAlternateBases(alternateBases)
+                .setAssemblyId(assemblyId)
+                .setDatasetIds(datasetIds)
+                .setIncludeDatasetResponses(includeDatasetResponses)
+                .build());
+    }
+
+    @Override
+    public Beacon getBeacon() throws BeaconException {
+        return delegate.getBeacon();
+    }
+
+    /**
+     * @return number of requests answered by a query that was already running
+     */
+    public long getCoalescedRequests() {
+        return coalescedRequests.sum();
+    }
+
+    /**
+     * @return number of distinct queries running right now
+     */
+    public int getInFlightRequests() {
+        return inFlight.size();
+    }
+
+    private BeaconAlleleResponse await(CompletableFuture<BeaconAlleleResponse> flight) throws BeaconException {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeaconException("Interrupted while waiting for the same request running concurrently.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof BeaconException) {
+                throw (BeaconException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new BeaconException("Couldn't get the response of the same request running concurrently.", cause);
+        }
+    }
+}
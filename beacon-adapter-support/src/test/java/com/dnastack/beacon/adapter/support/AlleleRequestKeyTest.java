@@ -0,0 +1,97 @@
+package com.dnastack.beacon.adapter.support;
+
+import org.ga4gh.beacon.BeaconAlleleRequest;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class AlleleRequestKeyTest {
+
+    @Test
+    public void equalForDifferentSpellingsOfTheSameQuestion() {
+        AlleleRequestKey key = AlleleRequestKey.of(BeaconAlleleRequest.newBuilder()
+                .setReferenceName(" X ")
+                .setStart(100L)
+                .setReferenceBases("A ")
+                .setAlternateBases(" T")
+                .setAssemblyId("hg19")
+                .setDatasetIds(Arrays.asList("b", " a", "b"))
+                .build(), assemblyId -> "hg19".equalsIgnoreCase(assemblyId) ? "GRCh37" : assemblyId);
+
+        AlleleRequestKey otherKey = AlleleRequestKey.of(BeaconAlleleRequest.newBuilder()
+                .setReferenceName("X")
+                .setStart(100L)
+                .setReferenceBases("A")
+                .setAlternateBases("T")
+                .setAssemblyId("GRCh37")
+                .setDatasetIds(Arrays.asList("a", "b"))
+                .setIncludeDatasetResponses(false)
+                .build());
+
+        assertThat(key).isEqualTo(otherKey);
+        assertThat(key.hashCode()).isEqualTo(otherKey.hashCode());
+        assertThat(key.getDatasetIds()).containsExactly("a", "b");
+    }
+
+    @Test
+    public void referenceNameAndBasesAreCaseSensitive() {
+        AlleleRequestKey key = AlleleRequestKey.of(BeaconAlleleRequest.newBuilder()
+                .setReferenceName("chrX")
+                .setStart(100L)
+                .setReferenceBases("a")
+                .setAlternateBases("c")
+                .build());
+
+        assertThat(key).isNotEqualTo(AlleleRequestKey.of(BeaconAlleleRequest.newBuilder()
+                .setReferenceName("chrX")
+                .setStart(100L)
+                .setReferenceBases("A")
+                .setAlternateBases("C")
+                .build()));
+        assertThat(key).isNotEqualTo(AlleleRequestKey.of(BeaconAlleleRequest.newBuilder()
+                .setReferenceName("CHRX")
+                .setStart(100L)
+                .setReferenceBases("a")
+                .setAlternateBases("c")
+                .build()));
+    }
+
+    @Test
+    public void canonicalRequestHasTheKey() {
+        AlleleRequestKey key = AlleleRequestKey.of(BeaconAlleleRequest.newBuilder()
+                .setReferenceName(" 1 ")
+                .setStart(100L)
+                .setReferenceBases("A")
+                .setAlternateBases("T ")
+                .setAssemblyId("hg19")
+                .setDatasetIds(Arrays.asList(" b", "a", "b "))
+                .build(), assemblyId -> "hg19".equals(assemblyId) ? "GRCh37" : assemblyId);
+
+        BeaconAlleleRequest request = key.toRequest();
+
+        assertThat(request.getReferenceName()).isEqualTo("1");
+        assertThat(request.getAlternateBases()).isEqualTo("T");
+        assertThat(request.getAssemblyId()).isEqualTo("GRCh37");
+        assertThat(request.getDatasetIds()).containsExactly("a", "b");
+        assertThat(request.getIncludeDatasetResponses()).isFalse();
+        assertThat(AlleleRequestKey.of(request)).isEqualTo(key);
+        assertThat(AlleleRequestKey.of(BeaconAlleleRequest.newBuilder().build()).toRequest().getDatasetIds()).isNull();
+    }
+
+    @Test
+    public void datasetIdsAreCaseSensitive() {
+        AlleleRequestKey key = AlleleRequestKey.of(BeaconAlleleRequest.newBuilder()
+                .setDatasetIds(Arrays.asList("dataset"))
+                .build());
+        AlleleRequestKey otherKey = AlleleRequestKey.of(BeaconAlleleRequest.newBuilder()
+                .setDatasetIds(Arrays.asList("DATASET"))
+                .build());
+
+        assertThat(key).isNotEqualTo(otherKey);
+    }
+}
@@ -0,0 +1,169 @@
+package com.dnastack.beacon.adapter.support;
+
+import com.dnastack.beacon.adapter.api.BeaconAdapter;
+import com.dnastack.beacon.exceptions.BeaconException;
+import com.dnastack.beacon.utils.AdapterConfig;
+import org.ga4gh.beacon.Beacon;
+import org.ga4gh.beacon.BeaconAlleleRequest;
+import org.ga4gh.beacon.BeaconAlleleResponse;
+import org.ga4gh.beacon.BeaconError;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class CachingBeaconAdapterTest {
+
+    @Test
+    public void answersEqualRequestsFromTheCache() throws Exception {
+        CountingAdapter delegate = new CountingAdapter();
+        CachingBeaconAdapter adapter = CachingBeaconAdapter.builder(delegate)
+                .assemblyNormalizer(assemblyId -> "hg19".equalsIgnoreCase(assemblyId) ? "GRCh37" : assemblyId)
+                .build();
+
+        BeaconAlleleRequest request = request("1", "hg19");
+        BeaconAlleleResponse response = adapter.getBeaconAlleleResponse(request);
+        BeaconAlleleResponse cachedResponse = adapter.getBeaconAlleleResponse(request("1", "GRCh37"));
+
+        assertThat(delegate.calls.get()).isEqualTo(1);
+        assertThat(response.getAlleleRequest()).isSameAs(request);
+        assertThat(cachedResponse.getExists()).isTrue();
+        assertThat(cachedResponse.getAlleleRequest().getAssemblyId()).isEqualTo("GRCh37");
+        assertThat(adapter.getHitCount()).isEqualTo(1);
+        assertThat(adapter.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void negativeResponsesHaveTheirOwnTtl() throws Exception {
+        CountingAdapter delegate = new CountingAdapter();
+        CachingBeaconAdapter adapter = CachingBeaconAdapter.builder(delegate)
+                .negativeTtl(0, TimeUnit.SECONDS)
+                .build();
+
+        adapter.getBeaconAlleleResponse(request(CountingAdapter.MISSING_REFERENCE, "GRCh37"));
+        adapter.getBeaconAlleleResponse(request(CountingAdapter.MISSING_REFERENCE, "GRCh37"));
+
+        assertThat(delegate.calls.get()).isEqualTo(2);
+        assertThat(adapter.getSize()).isZero();
+    }
+
+    @Test
+    public void errorResponsesAreNotCached() throws Exception {
+        CountingAdapter delegate = new CountingAdapter();
+        CachingBeaconAdapter adapter = CachingBeaconAdapter.builder(delegate).build();
+
+        adapter.getBeaconAlleleResponse(request(CountingAdapter.ERROR_REFERENCE, "GRCh37"));
+        adapter.getBeaconAlleleResponse(request(CountingAdapter.ERROR_REFERENCE, "GRCh37"));
+
+        assertThat(delegate.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void catalogVersionChangeInvalidatesTheResponses() throws Exception {
+        CountingAdapter delegate = new CountingAdapter();
+        AtomicLong catalogVersion = new AtomicLong(1);
+        CachingBeaconAdapter adapter = CachingBeaconAdapter.builder(delegate)
+                .catalogVersion(catalogVersion::get)
+                .build();
+
+        adapter.getBeaconAlleleResponse(request("1", "GRCh37"));
+        adapter.getBeaconAlleleResponse(request("1", "GRCh37"));
+        catalogVersion.set(2);
+        adapter.getBeaconAlleleResponse(request("1", "GRCh37"));
+        adapter.getBeaconAlleleResponse(request("1", "GRCh37"));
+
+        assertThat(delegate.calls.get()).isEqualTo(2);
+        assertThat(adapter.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void spellingsTheDelegateAnswersDifferentlyAreCachedApart() throws Exception {
+        CountingAdapter delegate = new CountingAdapter();
+        CachingBeaconAdapter adapter = CachingBeaconAdapter.builder(delegate).build();
+
+        BeaconAlleleRequest upperCase = request("1", "GRCh37");
+        BeaconAlleleRequest lowerCase = BeaconAlleleRequest.newBuilder(upperCase)
+                .setReferenceBases("a")
+                .setAlternateBases("t")
+                .build();
+
+        assertThat(adapter.getBeaconAlleleResponse(upperCase).getExists()).isTrue();
+        assertThat(adapter.getBeaconAlleleResponse(lowerCase).getExists()).isFalse();
+        assertThat(delegate.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void delegateIsAskedTheCanonicalRequest() throws Exception {
+        CountingAdapter delegate = new CountingAdapter();
+        CachingBeaconAdapter adapter = CachingBeaconAdapter.builder(delegate).build();
+
+        BeaconAlleleRequest request = BeaconAlleleRequest.newBuilder(request(" 1 ", "GRCh37"))
+                .setDatasetIds(Arrays.asList(" dataset-2", "dataset-1 ", "dataset-2"))
+                .build();
+        BeaconAlleleResponse response = adapter.getBeaconAlleleResponse(request);
+
+        assertThat(delegate.lastRequest.getReferenceName()).isEqualTo("1");
+        assertThat(delegate.lastRequest.getDatasetIds()).containsExactly("dataset-1", "dataset-2");
+        assertThat(response.getAlleleRequest()).isSameAs(request);
+    }
+
+    private static BeaconAlleleRequest request(String referenceName, String assemblyId) {
+        return BeaconAlleleRequest.newBuilder()
+                .setReferenceName(referenceName)
+                .setStart(100L)
+                .setReferenceBases("A")
+                .setAlternateBases("T")
+                .setAssemblyId(assemblyId)
+                .build();
+    }
+
+    /**
+     * Knows every allele with upper case bases except the ones on {@link #MISSING_REFERENCE}, fails the ones on
+     * {@link #ERROR_REFERENCE}.
+     */
+    private static class CountingAdapter implements BeaconAdapter {
+
+        private static final String MISSING_REFERENCE = "missing";
+        private static final String ERROR_REFERENCE = "error";
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile BeaconAlleleRequest lastRequest;
+
+        @Override
+        public void initAdapter(AdapterConfig adapterConfig) {
+        }
+
+        @Override
+        public BeaconAlleleResponse getBeaconAlleleResponse(BeaconAlleleRequest request) {
+            calls.incrementAndGet();
+            lastRequest = request;
+
+            BeaconAlleleResponse.Builder response = BeaconAlleleResponse.newBuilder().setAlleleRequest(request);
+            if (ERROR_REFERENCE.equals(request.getReferenceName())) {
+                return response.setError(BeaconError.newBuilder().setErrorCode(500).build()).build();
+            }
+            return response.setExists(!MISSING_REFERENCE.equals(request.getReferenceName())
+                    && request.getReferenceBases().equals(request.getReferenceBases().toUpperCase(Locale.ROOT))
+                    && request.getAlternateBases().equals(request.getAlternateBases().toUpperCase(Locale.ROOT))).build();
+        }
+
+        @Override
+        public BeaconAlleleResponse getBeaconAlleleResponse(String referenceName, Long start, String referenceBases, String alternateBases, String assemblyId, List<String> datasetIds, Boolean includeDatasetResponses) throws BeaconException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Beacon getBeacon() {
+            return null;
+        }
+    }
+}
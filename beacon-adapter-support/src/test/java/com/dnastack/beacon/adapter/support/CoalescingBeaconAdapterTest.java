@@ -0,0 +1,159 @@
+package com.dnastack.beacon.adapter.support;
+
+import com.dnastack.beacon.adapter.api.BeaconAdapter;
+import com.dnastack.beacon.exceptions.BeaconException;
+import com.dnastack.beacon.utils.AdapterConfig;
+import org.ga4gh.beacon.Beacon;
+import org.ga4gh.beacon.BeaconAlleleRequest;
+import org.ga4gh.beacon.BeaconAlleleResponse;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+/**
+ * @author Andrey Mochalov (mochalovandrey@gmail.com)
+ */
+public class CoalescingBeaconAdapterTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterClass
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentEqualRequestsShareOneQuery() throws Exception {
+        BlockingAdapter delegate = new BlockingAdapter(null);
+        CoalescingBeaconAdapter adapter = new CoalescingBeaconAdapter(delegate);
+
+        BeaconAlleleRequest first = request("1", "GRCh37");
+        BeaconAlleleRequest second = request(" 1 ", "GRCh37 ");
+
+        Future<BeaconAlleleResponse> firstResponse = executor.submit(() -> adapter.getBeaconAlleleResponse(first));
+        assertThat(delegate.started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<BeaconAlleleResponse> secondResponse = executor.submit(() -> adapter.getBeaconAlleleResponse(second));
+        awaitCoalesced(adapter, 1);
+
+        delegate.release.countDown();
+
+        assertThat(firstResponse.get(5, TimeUnit.SECONDS).getAlleleRequest()).isSameAs(first);
+        assertThat(secondResponse.get(5, TimeUnit.SECONDS).getAlleleRequest()).isSameAs(second);
+        assertThat(secondResponse.get().getExists()).isTrue();
+        assertThat(delegate.calls.get()).isEqualTo(1);
+        assertThat(adapter.getInFlightRequests()).isZero();
+    }
+
+    @Test
+    public void concurrentEqualRequestsShareTheError() throws Exception {
+        BeaconException error = new BeaconException("Server down.");
+        BlockingAdapter delegate = new BlockingAdapter(error);
+        CoalescingBeaconAdapter adapter = new CoalescingBeaconAdapter(delegate);
+
+        Future<BeaconAlleleResponse> firstResponse = executor.submit(() -> adapter.getBeaconAlleleResponse(request("1", "GRCh37")));
+        assertThat(delegate.started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<BeaconAlleleResponse> secondResponse = executor.submit(() -> adapter.getBeaconAlleleResponse(request("1", "GRCh37")));
+        awaitCoalesced(adapter, 1);
+
+        delegate.release.countDown();
+
+        for (Future<BeaconAlleleResponse> response : Arrays.asList(firstResponse, secondResponse)) {
+            try {
+                response.get(5, TimeUnit.SECONDS);
+                failBecauseExceptionWasNotThrown(ExecutionException.class);
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isSameAs(error);
+            }
+        }
+        assertThat(delegate.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void differentRequestsAreNotCoalesced() throws Exception {
+        BlockingAdapter delegate = new BlockingAdapter(null);
+        delegate.release.countDown();
+        CoalescingBeaconAdapter adapter = new CoalescingBeaconAdapter(delegate);
+
+        adapter.getBeaconAlleleResponse(request("1", "GRCh37"));
+        adapter.getBeaconAlleleResponse(request("2", "GRCh37"));
+        adapter.getBeaconAlleleResponse(request("1", "GRCh37"));
+
+        assertThat(delegate.calls.get()).isEqualTo(3);
+        assertThat(adapter.getCoalescedRequests()).isZero();
+    }
+
+    private static void awaitCoalesced(CoalescingBeaconAdapter adapter, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (adapter.getCoalescedRequests() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(adapter.getCoalescedRequests()).isEqualTo(expected);
+    }
+
+    private static BeaconAlleleRequest request(String referenceName, String assemblyId) {
+        return BeaconAlleleRequest.newBuilder()
+                .setReferenceName(referenceName)
+                .setStart(100L)
+                .setReferenceBases("A")
+                .setAlternateBases("T")
+                .setAssemblyId(assemblyId)
+                .build();
+    }
+
+    /**
+     * Answers once released, with a response or the given error.
+     */
+    private static class BlockingAdapter implements BeaconAdapter {
+
+        private final BeaconException error;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private BlockingAdapter(BeaconException error) {
+            this.error = error;
+        }
+
+        @Override
+        public void initAdapter(AdapterConfig adapterConfig) {
+        }
+
+        @Override
+        public BeaconAlleleResponse getBeaconAlleleResponse(BeaconAlleleRequest request) throws BeaconException {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new BeaconException("Interrupted.", e);
+            }
+
+            if (error != null) {
+                throw error;
+            }
+            return BeaconAlleleResponse.newBuilder().setAlleleRequest(request).setExists(true).build();
+        }
+
+        @Override
+        public BeaconAlleleResponse getBeaconAlleleResponse(String referenceName, Long start, String referenceBases, String alternateBases, String assemblyId, List<String> datasetIds, Boolean includeDatasetResponses) throws BeaconException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Beacon getBeacon() {
+            return null;
+        }
+    }
+}